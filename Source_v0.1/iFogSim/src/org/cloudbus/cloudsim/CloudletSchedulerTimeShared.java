@@ -22,6 +22,7 @@ import org.fog.entities.Tuple;
  * @since CloudSim Toolkit 1.0
  */
 public class CloudletSchedulerTimeShared extends CloudletScheduler {
+	private static final long serialVersionUID = 1L;
 
 	/** The cloudlet exec list. */
 	private List<? extends ResCloudlet> cloudletExecList;
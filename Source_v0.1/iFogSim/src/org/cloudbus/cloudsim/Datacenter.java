@@ -31,6 +31,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @since CloudSim Toolkit 1.0
  */
 public class Datacenter extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	/** The characteristics. */
 	private DatacenterCharacteristics characteristics;
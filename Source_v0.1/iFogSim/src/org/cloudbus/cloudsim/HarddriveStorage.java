@@ -29,6 +29,7 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  * @since CloudSim Toolkit 1.0
  */
 public class HarddriveStorage implements Storage {
+	private static final long serialVersionUID = 1L;
 
 	/** a list storing the names of all the files on the harddrive. */
 	private List<String> nameList;
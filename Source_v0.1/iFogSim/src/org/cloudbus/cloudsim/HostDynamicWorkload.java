@@ -24,6 +24,7 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  * @since CloudSim Toolkit 2.0
  */
 public class HostDynamicWorkload extends Host {
+	private static final long serialVersionUID = 1L;
 
 	/** The utilization mips. */
 	private double utilizationMips;
@@ -38,6 +38,7 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
  * @since CloudSim Toolkit 1.0
  */
 public class InfoPacket implements Packet {
+	private static final long serialVersionUID = 1L;
 
 	/** The packet name. */
 	private final String name;
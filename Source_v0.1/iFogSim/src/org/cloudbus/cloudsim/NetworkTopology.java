@@ -15,6 +15,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.SparseDelayMatrix_Float;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
 import org.cloudbus.cloudsim.network.TopologicalNode;
@@ -48,6 +49,12 @@ public class NetworkTopology {
 
 	protected static Map<Integer, Integer> map = null;
 
+	/**
+	 * Topologies with more nodes than this use a SparseDelayMatrix_Float, which calculates delays on
+	 * demand, instead of an all pairs delay matrix. The bandwidth matrix is not created for them.
+	 */
+	public static int maxDenseTopologyNodes = 1000;
+
 	/**
 	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
 	 * written in the BRITE format and contains topologycal information on simulation entities.
@@ -78,11 +85,17 @@ public class NetworkTopology {
 	 * Generates the matrices used internally to set latency and bandwidth between elements
 	 */
 	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (graph.getNumberOfNodes() > maxDenseTopologyNodes) {
+			// creates the sparse delay matrix, a dense bw matrix would not fit in memory either
+			delayMatrix = new SparseDelayMatrix_Float(graph, false);
+			bwMatrix = null;
+		} else {
+			// creates the delay matrix
+			delayMatrix = new DelayMatrix_Float(graph, false);
+
+			// creates the bw matrix
+			bwMatrix = createBwMatrix(graph, false);
+		}
 
 		networkEnabled = true;
 	}
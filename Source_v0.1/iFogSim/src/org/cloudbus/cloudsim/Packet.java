@@ -14,6 +14,8 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
+
 /**
  * This class contains the structure for a network packet.
  * 
@@ -21,7 +23,7 @@ package org.cloudbus.cloudsim;
  * @author Chen-Khong Tham, National University of Singapore
  * @since CloudSim Toolkit 1.0
  */
-public interface Packet {
+public interface Packet extends Serializable {
 
 	/**
 	 * Returns a string describing this packet in detail.
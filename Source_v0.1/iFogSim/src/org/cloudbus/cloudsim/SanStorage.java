@@ -22,6 +22,7 @@ import java.util.List;
  * @since CloudSim Toolkit 1.0
  */
 public class SanStorage extends HarddriveStorage {
+	private static final long serialVersionUID = 1L;
 
 	/** The bandwidth. */
 	double bandwidth;
@@ -0,0 +1,231 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.StreamingWorkloadFileReader;
+
+/**
+ * StreamingDatacenterBroker is a DatacenterBroker that takes its cloudlets from a workload trace
+ * while the simulation runs. Once the VMs are created, each job of the trace is submitted when the
+ * simulation clock reaches its submit time; jobs whose submit time has already passed are submitted
+ * at once. Only the jobs waiting to be submitted are kept in the cloudlet list.
+ * <p>
+ * By default the broker does not keep the cloudlets it submits in the cloudlet submitted and received
+ * lists either, so its memory does not grow with the trace: the cloudlets are counted, and each finished
+ * cloudlet is passed to {@link #cloudletReturned(Cloudlet)}, which subclasses can override to record
+ * what they need. {@link #setRetainCloudlets(boolean)} keeps them in the lists, as DatacenterBroker does;
+ * this applies to the cloudlets submitted with {@link #submitCloudletList(List)} as well.
+ * <p>
+ * The trace is expected to be sorted by submit time, as SWF traces are.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see StreamingWorkloadFileReader
+ */
+public class StreamingDatacenterBroker extends DatacenterBroker {
+	private static final long serialVersionUID = 1L;
+
+	/** The workload trace. */
+	private final StreamingWorkloadFileReader workload;
+
+	/** Tells whether the VMs are created and jobs are being submitted. */
+	private boolean workloadStarted = false;
+
+	/** Tells whether the cloudlets are kept in the cloudlet submitted and received lists. */
+	private boolean retainCloudlets = false;
+
+	/** The number of cloudlets submitted. */
+	private long submittedCount = 0;
+
+	/** The number of cloudlets returned. */
+	private long receivedCount = 0;
+
+	/**
+	 * Creates a new StreamingDatacenterBroker object.
+	 *
+	 * @param name name to be associated with this entity
+	 * @param workload the workload trace
+	 * @throws Exception the exception
+	 * @pre name != null
+	 * @pre workload != null
+	 * @post $none
+	 */
+	public StreamingDatacenterBroker(String name, StreamingWorkloadFileReader workload) throws Exception {
+		super(name);
+		this.workload = workload;
+	}
+
+	/**
+	 * Gets the workload trace.
+	 *
+	 * @return the workload
+	 */
+	public StreamingWorkloadFileReader getWorkload() {
+		return workload;
+	}
+
+	/**
+	 * Tells whether the cloudlets are kept in the cloudlet submitted and received lists.
+	 *
+	 * @return true if the cloudlets are kept
+	 */
+	public boolean isRetainCloudlets() {
+		return retainCloudlets;
+	}
+
+	/**
+	 * Sets whether the cloudlets are kept in the cloudlet submitted and received lists, which makes
+	 * the memory used by the broker grow with the trace.
+	 *
+	 * @param retainCloudlets true to keep the cloudlets
+	 */
+	public void setRetainCloudlets(boolean retainCloudlets) {
+		this.retainCloudlets = retainCloudlets;
+	}
+
+	/**
+	 * Gets the number of cloudlets submitted to the datacenters.
+	 *
+	 * @return the number of cloudlets submitted
+	 */
+	public long getSubmittedCount() {
+		return submittedCount;
+	}
+
+	/**
+	 * Gets the number of cloudlets returned by the datacenters.
+	 *
+	 * @return the number of cloudlets returned
+	 */
+	public long getReceivedCount() {
+		return receivedCount;
+	}
+
+	/**
+	 * Called for each cloudlet returned by a datacenter, whether or not it is retained. Does nothing
+	 * by default.
+	 *
+	 * @param cloudlet the cloudlet
+	 */
+	protected void cloudletReturned(Cloudlet cloudlet) {
+	}
+
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.WORKLOAD_SUBMIT) {
+			submitWorkload();
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
+	/**
+	 * Submits the cloudlets, and starts submitting the jobs of the workload the first time the VMs
+	 * are ready.
+	 */
+	@Override
+	protected void submitCloudlets() {
+		if (!workloadStarted) {
+			workloadStarted = true;
+			addDueJobs();
+			submitWaitingCloudlets();
+			scheduleNextSubmission();
+			return;
+		}
+		submitWaitingCloudlets();
+	}
+
+	/**
+	 * Submits the cloudlets of the cloudlet list, counting them instead of keeping them unless the
+	 * cloudlets are retained.
+	 */
+	private void submitWaitingCloudlets() {
+		List<Cloudlet> submitted = getCloudletSubmittedList();
+		int before = submitted.size();
+		super.submitCloudlets();
+		submittedCount += submitted.size() - before;
+		if (!retainCloudlets) {
+			submitted.subList(before, submitted.size()).clear();
+		}
+	}
+
+	/**
+	 * Process a cloudlet return event. The simulation does not finish while the workload has jobs
+	 * left.
+	 *
+	 * @param ev a SimEvent object
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		receivedCount++;
+		cloudletReturned(cloudlet);
+		if (!workloadStarted || !workload.hasNext()) {
+			List<Cloudlet> received = getCloudletReceivedList();
+			super.processCloudletReturn(ev);
+			if (!retainCloudlets) {
+				// the cloudlet just added by DatacenterBroker
+				received.remove(received.size() - 1);
+			}
+			return;
+		}
+
+		if (retainCloudlets) {
+			getCloudletReceivedList().add(cloudlet);
+		}
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+				+ " received");
+		cloudletsSubmitted--;
+	}
+
+	/**
+	 * Submits the jobs that have reached their submit time.
+	 */
+	protected void submitWorkload() {
+		addDueJobs();
+		submitCloudlets();
+		scheduleNextSubmission();
+
+		if (getCloudletList().isEmpty() && cloudletsSubmitted == 0 && !workload.hasNext()) {
+			// the last jobs could not be submitted
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+			clearDatacenters();
+			finishExecution();
+		}
+	}
+
+	/**
+	 * Moves the jobs whose submit time has been reached from the workload to the cloudlet list.
+	 */
+	private void addDueJobs() {
+		List<Cloudlet> cloudlets = getCloudletList();
+		while (workload.hasNext() && workload.getNextSubmitTime() <= CloudSim.clock()) {
+			Cloudlet cloudlet = workload.next();
+			cloudlet.setUserId(getId());
+			cloudlets.add(cloudlet);
+		}
+	}
+
+	/**
+	 * Schedules the submission of the next job of the workload, if any.
+	 */
+	private void scheduleNextSubmission() {
+		if (workload.hasNext()) {
+			double delay = Math.max(0, workload.getNextSubmitTime() - CloudSim.clock());
+			schedule(getId(), delay, CloudSimTags.WORKLOAD_SUBMIT);
+		}
+	}
+
+}
@@ -16,6 +16,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 
+import org.cloudbus.cloudsim.core.RandomService;
+
 /**
  * The UtilizationModelStochastic class implements a model, according to which a Cloudlet generates
  * random CPU utilization every time frame.
@@ -24,6 +26,7 @@ import java.util.Random;
  * @since CloudSim Toolkit 2.0
  */
 public class UtilizationModelStochastic implements UtilizationModel {
+	private static final long serialVersionUID = 1L;
 
 	/** The random generator. */
 	private Random randomGenerator;
@@ -36,7 +39,7 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 */
 	public UtilizationModelStochastic() {
 		setHistory(new HashMap<Double, Double>());
-		setRandomGenerator(new Random());
+		setRandomGenerator(RandomService.newStream());
 	}
 
 	/**
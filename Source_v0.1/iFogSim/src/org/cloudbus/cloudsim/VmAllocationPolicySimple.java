@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.IntMaxTree;
 
 /**
  * VmAllocationPolicySimple is an VmAllocationPolicy that chooses, as the host for a VM, the host
@@ -24,6 +25,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
  * @since CloudSim Toolkit 1.0
  */
 public class VmAllocationPolicySimple extends VmAllocationPolicy {
+	private static final long serialVersionUID = 1L;
 
 	/** The vm table. */
 	private Map<String, Host> vmTable;
@@ -34,6 +36,12 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	/** The free pes. */
 	private List<Integer> freePes;
 
+	/** The free pes index, used to find the host with the most free pes. */
+	private transient IntMaxTree freePesIndex;
+
+	/** The index of each host in the host list. */
+	private transient Map<Host, Integer> hostIndexes;
+
 	/**
 	 * Creates the new VmAllocationPolicySimple object.
 	 * 
@@ -67,39 +75,35 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		int requiredPes = vm.getNumberOfPes();
 		boolean result = false;
 		int tries = 0;
-		List<Integer> freePesTmp = new ArrayList<Integer>();
-		for (Integer freePes : getFreePes()) {
-			freePesTmp.add(freePes);
-		}
 
 		if (!getVmTable().containsKey(vm.getUid())) { // if this vm was not created
-			do {// we still trying until we find a host or until we try all of them
-				int moreFree = Integer.MIN_VALUE;
-				int idx = -1;
-
-				// we want the host with less pes in use
-				for (int i = 0; i < freePesTmp.size(); i++) {
-					if (freePesTmp.get(i) > moreFree) {
-						moreFree = freePesTmp.get(i);
-						idx = i;
+			IntMaxTree index = getFreePesIndex();
+			List<Integer> failedHosts = new ArrayList<Integer>();
+			try {
+				do {// we still trying until we find a host or until we try all of them
+					// we want the host with less pes in use
+					int idx = index.getMaxIndex();
+
+					Host host = getHostList().get(idx);
+					result = host.vmCreate(vm);
+
+					if (result) { // if vm were succesfully created in the host
+						getVmTable().put(vm.getUid(), host);
+						getUsedPes().put(vm.getUid(), requiredPes);
+						setFreePes(idx, getFreePes().get(idx) - requiredPes);
+						result = true;
+						break;
+					} else {
+						failedHosts.add(idx);
+						index.set(idx, Integer.MIN_VALUE);
 					}
+					tries++;
+				} while (!result && tries < getFreePes().size());
+			} finally {
+				for (int idx : failedHosts) {
+					index.set(idx, getFreePes().get(idx));
 				}
-
-				Host host = getHostList().get(idx);
-				result = host.vmCreate(vm);
-
-				if (result) { // if vm were succesfully created in the host
-					getVmTable().put(vm.getUid(), host);
-					getUsedPes().put(vm.getUid(), requiredPes);
-					getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
-					result = true;
-					break;
-				} else {
-					freePesTmp.set(idx, Integer.MIN_VALUE);
-				}
-				tries++;
-			} while (!result && tries < getFreePes().size());
-
+			}
 		}
 
 		return result;
@@ -115,11 +119,11 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	@Override
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
-		int idx = getHostList().indexOf(host);
+		int idx = getHostIndex(host);
 		int pes = getUsedPes().remove(vm.getUid());
 		if (host != null) {
 			host.vmDestroy(vm);
-			getFreePes().set(idx, getFreePes().get(idx) + pes);
+			setFreePes(idx, getFreePes().get(idx) + pes);
 		}
 	}
 
@@ -202,6 +206,49 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	 */
 	protected void setFreePes(List<Integer> freePes) {
 		this.freePes = freePes;
+		freePesIndex = null;
+	}
+
+	/**
+	 * Sets the free pes of a host, keeping the free pes index up to date.
+	 * 
+	 * @param idx the host index
+	 * @param pes the free pes
+	 */
+	protected void setFreePes(int idx, int pes) {
+		getFreePes().set(idx, pes);
+		getFreePesIndex().set(idx, pes);
+	}
+
+	/**
+	 * Gets the free pes index, building it from the free pes if needed.
+	 * 
+	 * @return the free pes index
+	 */
+	protected IntMaxTree getFreePesIndex() {
+		if (freePesIndex == null || freePesIndex.size() != getFreePes().size()) {
+			freePesIndex = new IntMaxTree(getFreePes());
+		}
+		return freePesIndex;
+	}
+
+	/**
+	 * Gets the index of a host in the host list.
+	 * 
+	 * @param host the host
+	 * @return the index, or -1 if the host is not in the list
+	 */
+	protected int getHostIndex(Host host) {
+		if (hostIndexes == null) {
+			hostIndexes = new HashMap<Host, Integer>();
+			for (int i = 0; i < getHostList().size(); i++) {
+				if (!hostIndexes.containsKey(getHostList().get(i))) {
+					hostIndexes.put(getHostList().get(i), i);
+				}
+			}
+		}
+		Integer idx = hostIndexes.get(host);
+		return idx == null ? getHostList().indexOf(host) : idx;
 	}
 
 	/*
@@ -225,9 +272,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = getHostIndex(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
-			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+			setFreePes(idx, getFreePes().get(idx) - requiredPes);
 
 			Log.formatLine(
 					"%.2f: VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),
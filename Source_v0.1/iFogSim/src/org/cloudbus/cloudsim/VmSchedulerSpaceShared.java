@@ -24,6 +24,7 @@ import java.util.Map;
  * @since CloudSim Toolkit 1.0
  */
 public class VmSchedulerSpaceShared extends VmScheduler {
+	private static final long serialVersionUID = 1L;
 
 	/** Map containing VM ID and a vector of PEs allocated to this VM. */
 	private Map<String, List<Pe>> peAllocationMap;
@@ -27,6 +27,7 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  * @since CloudSim Toolkit 1.0
  */
 public class VmSchedulerTimeShared extends VmScheduler {
+	private static final long serialVersionUID = 1L;
 
 	/** The mips map requested. */
 	private Map<String, List<Double>> mipsMapRequested;
@@ -0,0 +1,28 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Serializable;
+
+/**
+ * Simulation state kept outside of the entities and events, e.g. in static fields, which is saved in
+ * a checkpoint along with them.
+ * 
+ * @see CloudSim#saveCheckpoint(String)
+ * @see CheckpointStateProvider
+ * @since CloudSim Toolkit 3.0
+ */
+public interface CheckpointState extends Serializable {
+
+	/**
+	 * Puts the saved state back in place, when a checkpoint is restored.
+	 */
+	void restore();
+
+}
@@ -0,0 +1,27 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * Captures simulation state kept outside of the entities and events when a checkpoint is saved.
+ * Providers are registered with {@link CloudSim#addCheckpointStateProvider(CheckpointStateProvider)}.
+ * 
+ * @see CheckpointState
+ * @since CloudSim Toolkit 3.0
+ */
+public interface CheckpointStateProvider {
+
+	/**
+	 * Captures the current state.
+	 * 
+	 * @return the state to save in the checkpoint
+	 */
+	CheckpointState capture();
+
+}
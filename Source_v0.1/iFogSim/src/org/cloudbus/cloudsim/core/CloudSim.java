@@ -8,6 +8,17 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
@@ -16,6 +27,8 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -332,12 +345,33 @@ public class CloudSim {
 	/** The paused. */
 	private static boolean paused = false;
 
+	/** The lock a paused simulation waits on until it is resumed. */
+	private static final Object pauseLock = new Object();
+
 	/** The pause at. */
 	private static long pauseAt = -1;
 
 	/** The abrupt terminate. */
 	private static boolean abruptTerminate = false;
 
+	/** The time at which a checkpoint is saved, or -1. */
+	private static double checkpointAt = -1;
+
+	/** The file the checkpoint is saved to. */
+	private static String checkpointFile = null;
+
+	/** The providers of state saved in checkpoints besides the entities and events. */
+	private static List<CheckpointStateProvider> checkpointStateProviders = new ArrayList<CheckpointStateProvider>();
+
+	/** The number of events processed in the current step, see {@link #runEvents(int)}. */
+	private static long stepEvents;
+
+	/** The predicate ending the current step, see {@link #runUntilPredicate(Predicate)}. */
+	private static Predicate stepPredicate = null;
+
+	/** Tells whether an event matching the step predicate was processed. */
+	private static boolean stepMatched;
+
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
@@ -509,9 +543,15 @@ public class CloudSim {
 	 * @return true, if successful otherwise
 	 */
 	public static boolean runClockTick() {
+		runEntities();
+		return processFutureEvents();
+	}
+
+	/**
+	 * Lets the runnable entities process the events sent to them.
+	 */
+	private static void runEntities() {
 		SimEntity ent;
-		boolean queue_empty;
-		
 		int entities_size = entities.size();
 
 		for (int i = 0; i < entities_size; i++) {
@@ -520,40 +560,74 @@ public class CloudSim {
 				ent.run();
 			}
 		}
-				
+	}
+
+	/**
+	 * Processes the first future event and the following events at the same time.
+	 * 
+	 * @return true if there were no future events, false otherwise
+	 */
+	private static boolean processFutureEvents() {
 		// If there are more future events then deal with them
-		if (future.size() > 0) {
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> fit = future.iterator();
-			queue_empty = false;
-			SimEvent first = fit.next();
-			processEvent(first);
-			future.remove(first);
+		if (future.size() == 0) {
+			running = false;
+			printMessage("Simulation: No more future events");
+			return true;
+		}
 
-			fit = future.iterator();
+		Iterator<SimEvent> fit = future.iterator();
+		SimEvent first = fit.next();
+		fit.remove();
+		processFutureEvent(first);
 
-			// Check if next events are at same time...
-			boolean trymore = fit.hasNext();
-			while (trymore) {
-				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
-					processEvent(next);
-					toRemove.add(next);
-					trymore = fit.hasNext();
-				} else {
-					trymore = false;
-				}
+		// Check if next events are at same time...
+		while (true) {
+			fit = future.iterator();
+			if (!fit.hasNext()) {
+				break;
+			}
+			SimEvent next = fit.next();
+			if (next.eventTime() != first.eventTime()) {
+				break;
 			}
+			fit.remove();
+			processFutureEvent(next);
+		}
+		return false;
+	}
 
-			future.removeAll(toRemove);
+	/**
+	 * Processes an event taken from the future queue, counting it for the current step.
+	 * 
+	 * @param e the event
+	 */
+	private static void processFutureEvent(SimEvent e) {
+		processEvent(e);
+		stepEvents++;
+		if (stepPredicate != null && stepPredicate.match(e)) {
+			stepMatched = true;
+		}
+	}
 
-		} else {
-			queue_empty = true;
-			running = false;
-			printMessage("Simulation: No more future events");
+	/**
+	 * Checks the termination time and the scheduled checkpoint at the end of a clock tick.
+	 * 
+	 * @return true if the simulation has reached its termination time, false otherwise
+	 */
+	private static boolean endClockTick() {
+		// this block allows termination of simulation at a specific time
+		if (terminateAt > 0.0 && clock >= terminateAt) {
+			terminateSimulation();
+			clock = terminateAt;
+			return true;
 		}
 
-		return queue_empty;
+		// this block saves a checkpoint once all events up to the checkpoint time are processed
+		if (checkpointAt != -1
+				&& (future.size() == 0 || future.iterator().next().eventTime() > checkpointAt)) {
+			saveScheduledCheckpoint();
+		}
+		return false;
 	}
 
 	/**
@@ -605,6 +679,39 @@ public class CloudSim {
 		future.addEvent(e);
 	}
 
+	/**
+	 * Used to send an event from one entity to another at a given time, with a serial number
+	 * reserved with {@link #reserveEventSerials(long)}. The event is ordered among the events at the
+	 * same time as if it had been sent when the serial numbers were reserved, so entities can send
+	 * long sequences of events one at a time without changing the order of the simulation.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param time the event time
+	 * @param tag the tag
+	 * @param data the data
+	 * @param reservedSerial the reserved serial number
+	 */
+	public static void sendAt(int src, int dest, double time, int tag, Object data, long reservedSerial) {
+		if (time < clock) {
+			throw new IllegalArgumentException("Send time can't be in the past.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, time, src, dest, tag, data);
+		future.addEvent(e, reservedSerial);
+	}
+
+	/**
+	 * Reserves serial numbers for events sent later with
+	 * {@link #sendAt(int, int, double, int, Object, long)}.
+	 * 
+	 * @param count the number of events
+	 * @return the first reserved serial number
+	 */
+	public static long reserveEventSerials(long count) {
+		return future.reserveSerials(count);
+	}
+
 	/**
 	 * Used to send an event from one entity to another, with priority in the queue.
 	 * 
@@ -837,12 +944,16 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation() {
-		paused = true;
-		return paused;
+		synchronized (pauseLock) {
+			paused = true;
+		}
+		return true;
 	}
 
 	/**
-	 * This method is called if one wants to pause the simulation at a given time.
+	 * This method is called if one wants to pause the simulation at a given time. The simulation
+	 * thread then waits until another thread calls {@link #resumeSimulation()}; to run a simulation
+	 * step by step from a single thread, use {@link #runUntil(double)} instead.
 	 * 
 	 * @param time the time at which the simulation has to be paused
 	 * @return true, if successful otherwise.
@@ -862,13 +973,16 @@ public class CloudSim {
 	 * @return if the simulation has been restarted or or otherwise.
 	 */
 	public static boolean resumeSimulation() {
-		paused = false;
+		synchronized (pauseLock) {
+			paused = false;
 
-		if (pauseAt <= clock) {
-			pauseAt = -1;
+			if (pauseAt <= clock) {
+				pauseAt = -1;
+			}
+			pauseLock.notifyAll();
 		}
 
-		return !paused;
+		return true;
 	}
 
 	/**
@@ -886,10 +1000,7 @@ public class CloudSim {
 				break;
 			}
 
-			// this block allows termination of simulation at a specific time
-			if (terminateAt > 0.0 && clock >= terminateAt) {
-				terminateSimulation();
-				clock = terminateAt;
+			if (endClockTick()) {
 				break;
 			}
 
@@ -900,11 +1011,13 @@ public class CloudSim {
 				clock = pauseAt;
 			}
 
-			while (paused) {
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
+			synchronized (pauseLock) {
+				while (paused) {
+					try {
+						pauseLock.wait();
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
 				}
 			}
 		}
@@ -917,6 +1030,102 @@ public class CloudSim {
 		return clock;
 	}
 
+	/**
+	 * Runs the simulation until all the events up to the given time have been processed, and
+	 * returns to the caller, which can inspect and change the simulation before running the next
+	 * step. The clock is then set to the given time, unless the simulation has finished. The first
+	 * step starts the entities, so it must be called after all the entities have been setup and
+	 * added, as {@link #startSimulation()}.
+	 * 
+	 * @param time the time to run the simulation until
+	 * @return true if the simulation can go on, false if it has finished
+	 * @see #runEvents(int)
+	 * @see #runUntilPredicate(Predicate)
+	 */
+	public static boolean runUntil(double time) {
+		return runStep(time, Long.MAX_VALUE, null);
+	}
+
+	/**
+	 * Runs the simulation until at least the given number of future events have been processed, and
+	 * returns to the caller. Events at the same time are processed in the same clock tick, so more
+	 * events than requested may be processed.
+	 * 
+	 * @param events the number of events to process
+	 * @return true if the simulation can go on, false if it has finished
+	 * @see #runUntil(double)
+	 */
+	public static boolean runEvents(int events) {
+		return runStep(Double.MAX_VALUE, events, null);
+	}
+
+	/**
+	 * Runs the simulation until an event matching the given predicate has been processed, and
+	 * returns to the caller once the clock tick of that event has been handled by the entities.
+	 * 
+	 * @param p the predicate
+	 * @return true if the simulation can go on, false if it has finished
+	 * @see #runUntil(double)
+	 */
+	public static boolean runUntilPredicate(Predicate p) {
+		return runStep(Double.MAX_VALUE, Long.MAX_VALUE, p);
+	}
+
+	/**
+	 * Runs a step of the simulation. Clock ticks are run as in {@link #run()}, and the step ends
+	 * once the entities have processed the events of a tick and any of the limits is reached. When
+	 * the simulation finishes, it is shut down as at the end of {@link #run()}.
+	 * 
+	 * @param time the time after which the step ends
+	 * @param events the number of events after which the step ends
+	 * @param p the predicate of the event after which the step ends, or null
+	 * @return true if the simulation can go on, false if it has finished
+	 */
+	private static boolean runStep(double time, long events, Predicate p) {
+		if (entities == null) {
+			throw new IllegalStateException("CloudSim: the simulation is not initialized.");
+		}
+		if (!running) {
+			Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+			runStart();
+		}
+		stepEvents = 0;
+		stepPredicate = p;
+		stepMatched = false;
+		try {
+			while (true) {
+				runEntities();
+				if (abruptTerminate) {
+					break;
+				}
+
+				if (stepEvents >= events || stepMatched) {
+					return true;
+				}
+				if (future.size() > 0 && future.iterator().next().eventTime() > time) {
+					if (time > clock) {
+						clock = time;
+					}
+					return true;
+				}
+
+				if (processFutureEvents() || abruptTerminate) {
+					break;
+				}
+
+				if (endClockTick()) {
+					break;
+				}
+			}
+		} finally {
+			stepPredicate = null;
+		}
+
+		finishSimulation();
+		runStop();
+		return false;
+	}
+
 	/**
 	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
 	 * in user simulations.
@@ -948,6 +1157,8 @@ public class CloudSim {
 		paused = false;
 		pauseAt = -1;
 		abruptTerminate = false;
+		checkpointAt = -1;
+		checkpointFile = null;
 	}
 
 	/**
@@ -975,4 +1186,155 @@ public class CloudSim {
 		return paused;
 	}
 
+	/**
+	 * Saves a checkpoint of the simulation once all the events up to the given time have been
+	 * processed. The simulation goes on after the checkpoint is saved. This method can be called
+	 * before {@link #init(int, Calendar, boolean)}.
+	 * 
+	 * @param time the simulation time of the checkpoint
+	 * @param fileName the checkpoint file
+	 * @return true, if successful otherwise.
+	 * @see #saveCheckpoint(String)
+	 */
+	public static boolean checkpointAt(double time, String fileName) {
+		if (time < clock || fileName == null) {
+			return false;
+		}
+		checkpointAt = time;
+		checkpointFile = fileName;
+		return true;
+	}
+
+	/**
+	 * Registers a provider of state to save in checkpoints, for state kept outside of the entities
+	 * and events, e.g. in static fields. Registering the same provider twice has no effect.
+	 * 
+	 * @param provider the provider
+	 */
+	public static void addCheckpointStateProvider(CheckpointStateProvider provider) {
+		if (!checkpointStateProviders.contains(provider)) {
+			checkpointStateProviders.add(provider);
+		}
+	}
+
+	/**
+	 * Saves the state of the simulation to a file: the clock, the entities, the future and deferred
+	 * event queues, and the state of the registered {@link CheckpointStateProvider}s. Everything
+	 * reachable from them is written with Java serialization, compressed, so all of it must be
+	 * serializable. This method must be called between clock ticks, not while an entity processes
+	 * an event. The checkpoint is written to a temporary file renamed once complete, so a failed
+	 * write never leaves a truncated checkpoint at the given path.
+	 * 
+	 * @param fileName the checkpoint file
+	 * @throws IOException if the checkpoint could not be written
+	 * @see #restoreCheckpoint(String)
+	 */
+	public static void saveCheckpoint(String fileName) throws IOException {
+		if (entities == null) {
+			throw new IllegalStateException("CloudSim.saveCheckpoint(): the simulation is not initialized.");
+		}
+		SimulationCheckpoint checkpoint = new SimulationCheckpoint();
+		checkpoint.clock = clock;
+		checkpoint.entities = entities;
+		checkpoint.entitiesByName = entitiesByName;
+		checkpoint.future = future;
+		checkpoint.deferred = deferred;
+		checkpoint.waitPredicates = waitPredicates;
+		checkpoint.cisId = cisId;
+		checkpoint.shutdownId = shutdownId;
+		checkpoint.cis = cis;
+		checkpoint.calendar = calendar;
+		checkpoint.traceFlag = traceFlag;
+		checkpoint.terminateAt = terminateAt;
+		checkpoint.minTimeBetweenEvents = minTimeBetweenEvents;
+		checkpoint.states = new ArrayList<CheckpointState>();
+		for (CheckpointStateProvider provider : checkpointStateProviders) {
+			checkpoint.states.add(provider.capture());
+		}
+
+		File file = new File(fileName);
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		boolean written = false;
+		try {
+			ObjectOutputStream out = new SimulationCheckpoint.Output(new GZIPOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temporaryFile))));
+			try {
+				out.writeObject(checkpoint);
+			} finally {
+				out.close();
+			}
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			written = true;
+		} finally {
+			if (!written) {
+				temporaryFile.delete();
+			}
+		}
+		printMessage("Simulation: Checkpoint saved at " + clock + " to " + fileName);
+	}
+
+	/**
+	 * Restores the state of the simulation from a checkpoint file, in place of the current one.
+	 * {@link #startSimulation()} then runs the simulation from the checkpoint on, without starting
+	 * the entities again. A checkpoint can be restored any number of times, e.g. to run several
+	 * variants of a simulation from the same warm state.
+	 * 
+	 * @param fileName the checkpoint file
+	 * @throws IOException if the checkpoint could not be read
+	 * @see #saveCheckpoint(String)
+	 */
+	public static void restoreCheckpoint(String fileName) throws IOException {
+		SimulationCheckpoint checkpoint;
+		ObjectInputStream in = new SimulationCheckpoint.Input(new GZIPInputStream(
+				new BufferedInputStream(new FileInputStream(fileName))));
+		try {
+			checkpoint = (SimulationCheckpoint) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("CloudSim.restoreCheckpoint(): unknown class in checkpoint " + fileName, e);
+		} finally {
+			in.close();
+		}
+
+		clock = checkpoint.clock;
+		entities = checkpoint.entities;
+		entitiesByName = checkpoint.entitiesByName;
+		future = checkpoint.future;
+		deferred = checkpoint.deferred;
+		waitPredicates = checkpoint.waitPredicates;
+		cisId = checkpoint.cisId;
+		shutdownId = checkpoint.shutdownId;
+		cis = checkpoint.cis;
+		calendar = checkpoint.calendar;
+		traceFlag = checkpoint.traceFlag;
+		terminateAt = checkpoint.terminateAt;
+		minTimeBetweenEvents = checkpoint.minTimeBetweenEvents;
+		running = true;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+		checkpointAt = -1;
+		checkpointFile = null;
+		for (CheckpointState state : checkpoint.states) {
+			state.restore();
+		}
+		printMessage("Simulation: Checkpoint restored at " + clock + " from " + fileName);
+	}
+
+	/**
+	 * Saves the checkpoint requested with {@link #checkpointAt(double, String)}. A checkpoint that
+	 * cannot be saved stops the simulation, the run being useless to whoever asked for it.
+	 * 
+	 * @throws UncheckedIOException if the checkpoint could not be written
+	 */
+	private static void saveScheduledCheckpoint() {
+		String fileName = checkpointFile;
+		checkpointAt = -1;
+		checkpointFile = null;
+		try {
+			saveCheckpoint(fileName);
+		} catch (IOException e) {
+			throw new UncheckedIOException("CloudSim: Error saving checkpoint to " + fileName, e);
+		}
+	}
+
 }
@@ -21,6 +21,7 @@ import java.util.Calendar;
  * @since CloudSim Toolkit 1.0
  */
 public class CloudSimShutdown extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	/** The num user. */
 	private int numUser;
@@ -265,6 +265,12 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes an internal event of a StreamingDatacenterBroker to submit the jobs of its workload
+	 * that have reached their submit time
+	 */
+	public static final int WORKLOAD_SUBMIT = BASE + 49;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.SortedSet;
@@ -22,7 +23,8 @@ import java.util.TreeSet;
  * @see Simulation
  * @see java.util.TreeSet
  */
-public class FutureQueue {
+public class FutureQueue implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/** The sorted set. */
 	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
@@ -41,6 +43,31 @@ public class FutureQueue {
 		sortedSet.add(newEvent);
 	}
 
+	/**
+	 * Add a new event to the queue with a serial number taken from a block reserved with
+	 * {@link #reserveSerials(long)}, so that it is ordered among the events at the same time as if
+	 * it had been added when the block was reserved.
+	 * 
+	 * @param newEvent The event to be put in the queue.
+	 * @param reservedSerial the reserved serial number
+	 */
+	public void addEvent(SimEvent newEvent, long reservedSerial) {
+		newEvent.setSerial(reservedSerial);
+		sortedSet.add(newEvent);
+	}
+
+	/**
+	 * Reserves a block of serial numbers for events added later.
+	 * 
+	 * @param count the number of serial numbers
+	 * @return the first serial number of the block
+	 */
+	public long reserveSerials(long count) {
+		long first = serial;
+		serial += count;
+		return first;
+	}
+
 	/**
 	 * Add a new event to the head of the queue.
 	 * 
@@ -0,0 +1,123 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.nio.charset.StandardCharsets;
+
+import org.cloudbus.cloudsim.util.SplitMixRandom;
+
+/**
+ * The source of the random number generators of the stochastic components of a simulation
+ * (distributions, selectivity and utilization models, mobility, ...). All the generators are derived
+ * from one master seed: setting it with {@link #setSeed(long)} before the simulation is built makes
+ * the run reproducible. Unless a seed is set, a seed based on the current time is used, as before.
+ * <p>
+ * {@link #newStream()} derives the generators in the order they are requested, while
+ * {@link #stream(String)} derives the generator of a key, e.g. an entity name, independently of the
+ * other generators. The generators are not thread safe; each component or thread uses its own.
+ *
+ * @see SplitMixRandom
+ * @since CloudSim Toolkit 3.0
+ */
+public final class RandomService {
+
+	/** The master seed. */
+	private static long seed;
+
+	/** The generator the streams are split from. */
+	private static SplitMixRandom root;
+
+	static {
+		setSeed(SplitMixRandom.mix(System.currentTimeMillis() ^ System.nanoTime()));
+
+		// save the position of the root generator with simulation checkpoints
+		CloudSim.addCheckpointStateProvider(new CheckpointStateProvider() {
+
+			@Override
+			public CheckpointState capture() {
+				return new RandomServiceState();
+			}
+		});
+	}
+
+	private RandomService() {
+	}
+
+	/**
+	 * Sets the master seed and restarts the derivation of the streams.
+	 *
+	 * @param seed the master seed
+	 */
+	public static synchronized void setSeed(long seed) {
+		RandomService.seed = seed;
+		root = new SplitMixRandom(seed);
+	}
+
+	/**
+	 * Gets the master seed, e.g. to log the seed of a run that was not explicitly seeded.
+	 *
+	 * @return the master seed
+	 */
+	public static synchronized long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Derives the next stream from the master seed.
+	 *
+	 * @return a new generator
+	 */
+	public static synchronized SplitMixRandom newStream() {
+		return root.split();
+	}
+
+	/**
+	 * Derives the stream of a key from the master seed. The same key always gives the same stream for
+	 * the same master seed, whatever the other streams requested.
+	 *
+	 * @param key the key, e.g. the name of an entity
+	 * @return a new generator
+	 */
+	public static synchronized SplitMixRandom stream(String key) {
+		// 64 bit FNV-1a hash of the key
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		return new SplitMixRandom(SplitMixRandom.mix(seed ^ SplitMixRandom.mix(hash)));
+	}
+
+	/**
+	 * The master seed and the root generator, saved in simulation checkpoints.
+	 */
+	private static class RandomServiceState implements CheckpointState {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+
+		private final SplitMixRandom root;
+
+		RandomServiceState() {
+			synchronized (RandomService.class) {
+				seed = RandomService.seed;
+				root = RandomService.root;
+			}
+		}
+
+		@Override
+		public void restore() {
+			synchronized (RandomService.class) {
+				RandomService.seed = seed;
+				RandomService.root = root;
+			}
+		}
+	}
+
+}
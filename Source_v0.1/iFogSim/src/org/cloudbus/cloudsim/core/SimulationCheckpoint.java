@@ -0,0 +1,123 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.util.Pair;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * The state of a running simulation, as written by {@link CloudSim#saveCheckpoint(String)}: the
+ * entities, the future and deferred event queues, the clock and the state registered by
+ * {@link CheckpointStateProvider}s. Objects reachable from the entities and events are saved with
+ * Java serialization.
+ * 
+ * @since CloudSim Toolkit 3.0
+ */
+class SimulationCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	double clock;
+
+	List<SimEntity> entities;
+
+	Map<String, SimEntity> entitiesByName;
+
+	FutureQueue future;
+
+	DeferredQueue deferred;
+
+	Map<Integer, Predicate> waitPredicates;
+
+	int cisId;
+
+	int shutdownId;
+
+	CloudInformationService cis;
+
+	Calendar calendar;
+
+	boolean traceFlag;
+
+	double terminateAt;
+
+	double minTimeBetweenEvents;
+
+	List<CheckpointState> states;
+
+	/**
+	 * Writes checkpoints. Pairs of the commons-math library, used as map keys by many models, are
+	 * not serializable and are written as PairData.
+	 */
+	static class Output extends ObjectOutputStream {
+
+		Output(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof Pair) {
+				return new PairData((Pair<?, ?>) obj);
+			}
+			return obj;
+		}
+
+	}
+
+	/**
+	 * Reads checkpoints written by {@link Output}.
+	 */
+	static class Input extends ObjectInputStream {
+
+		Input(InputStream in) throws IOException {
+			super(in);
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof PairData) {
+				return new Pair<Object, Object>(((PairData) obj).first, ((PairData) obj).second);
+			}
+			return obj;
+		}
+
+	}
+
+	/**
+	 * The serialized form of a Pair.
+	 */
+	private static class PairData implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Object first;
+
+		private final Object second;
+
+		PairData(Pair<?, ?> pair) {
+			first = pair.getFirst();
+			second = pair.getSecond();
+		}
+
+	}
+
+}
@@ -20,6 +20,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @see Predicate
  */
 public class PredicateFrom extends Predicate {
+	private static final long serialVersionUID = 1L;
 
 	/** The ids. */
 	private final int[] ids;
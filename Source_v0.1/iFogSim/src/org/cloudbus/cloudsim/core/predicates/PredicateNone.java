@@ -22,6 +22,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @see Simulation
  */
 public class PredicateNone extends Predicate {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The match function called by {@link Simulation}, not used directly by the user.
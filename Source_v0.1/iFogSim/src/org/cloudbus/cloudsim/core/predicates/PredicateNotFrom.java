@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @see Predicate
  */
 public class PredicateNotFrom extends Predicate {
+	private static final long serialVersionUID = 1L;
 
 	/** The ids. */
 	private final int[] ids;
@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @see Predicate
  */
 public class PredicateType extends Predicate {
+	private static final long serialVersionUID = 1L;
 
 	/** The tags. */
 	private final int[] tags;
@@ -29,10 +29,9 @@ public class DelayMatrix_Float {
 	protected int mTotalNodeNum = 0;
 
 	/**
-	 * private constructor to ensure that only an correct initialized delay-matrix could be created
+	 * constructor for subclasses which initialize the delay-information themselves
 	 */
-	@SuppressWarnings("unused")
-	private DelayMatrix_Float() {
+	protected DelayMatrix_Float() {
 	};
 
 	/**
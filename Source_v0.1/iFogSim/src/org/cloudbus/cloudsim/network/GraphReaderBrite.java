@@ -50,18 +50,9 @@ public class GraphReaderBrite implements GraphReaderIF {
 		FileReader fr = new FileReader(filename);
 		BufferedReader br = new BufferedReader(fr);
 
-		String lineSep = System.getProperty("line.separator");
 		String nextLine = null;
-		StringBuffer sb = new StringBuffer();
 
 		while ((nextLine = br.readLine()) != null) {
-			sb.append(nextLine);
-			//
-			// note:
-			// BufferedReader strips the EOL character.
-			//
-			sb.append(lineSep);
-
 			// functionality to diferentiate between all the parsing-states
 			// state that should just find the start of node-declaration
 			if (state == PARSE_NOTHING) {
@@ -87,7 +78,6 @@ public class GraphReaderBrite implements GraphReaderIF {
 		br.close();
 
 		// Log.printLine("read file successfully...");
-		// Log.printLine(sb.toString());
 
 		return graph;
 	}
@@ -0,0 +1,292 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents a delay-topology that calculates the delay between two nodes on demand
+ * instead of storing every distance. The first query from a source node runs Dijkstra's algorithm
+ * from that node, and the resulting row of delays is kept in a LRU cache. Memory use is
+ * O(nodes + links) plus one row per cached source, so topologies far too large for the all pairs
+ * matrix of DelayMatrix_Float can be used.
+ *
+ * The links are interpreted as in DelayMatrix_Float: when several links connect the same pair of
+ * nodes the last one wins, links with a delay of 0 are ignored, and unreachable nodes have a delay
+ * of Float.MAX_VALUE.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SparseDelayMatrix_Float extends DelayMatrix_Float {
+
+	/**
+	 * default number of source rows kept in the cache
+	 */
+	public static final int DEFAULT_CACHED_ROWS = 64;
+
+	/**
+	 * links leaving node i are stored at indexes mLinkStart[i] to mLinkStart[i+1]-1 of mLinkDest
+	 * and mLinkDelay
+	 */
+	private int[] mLinkStart;
+
+	private int[] mLinkDest;
+
+	private float[] mLinkDelay;
+
+	/**
+	 * cached delay rows, in access order
+	 */
+	private final Map<Integer, float[]> mRows;
+
+	/**
+	 * a row evicted from the cache, reused by the next calculation
+	 */
+	private float[] mFreeRow = null;
+
+	/**
+	 * Dijkstra priority queue: a binary heap of nodes and the position of each node in the heap
+	 */
+	private int[] mHeap;
+
+	private int[] mHeapPos;
+
+	/**
+	 * this constructor creates a sparse delay-matrix caching DEFAULT_CACHED_ROWS rows
+	 *
+	 * @param graph the topological graph as source-information
+	 * @param directed true if an directed matrix should be computed, false otherwise
+	 */
+	public SparseDelayMatrix_Float(TopologicalGraph graph, boolean directed) {
+		this(graph, directed, DEFAULT_CACHED_ROWS);
+	}
+
+	/**
+	 * this constructor creates a sparse delay-matrix
+	 *
+	 * @param graph the topological graph as source-information
+	 * @param directed true if an directed matrix should be computed, false otherwise
+	 * @param cachedRows the maximum number of source rows kept in the cache
+	 */
+	public SparseDelayMatrix_Float(TopologicalGraph graph, boolean directed, final int cachedRows) {
+		if (cachedRows < 1) {
+			throw new IllegalArgumentException("cachedRows must be at least 1");
+		}
+		mRows = new LinkedHashMap<Integer, float[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+				if (size() > cachedRows) {
+					mFreeRow = eldest.getValue();
+					return true;
+				}
+				return false;
+			}
+		};
+
+		createAdjacency(graph, directed);
+		mHeap = new int[mTotalNodeNum];
+		mHeapPos = new int[mTotalNodeNum];
+	}
+
+	/**
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the delay-count between the given two nodes
+	 */
+	@Override
+	public float getDelay(int srcID, int destID) {
+		// check the nodeIDs against internal array-boundarys
+		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		float[] row = mRows.get(srcID);
+		if (row == null) {
+			row = calculateShortestPaths(srcID);
+			mRows.put(srcID, row);
+		}
+		return row[destID];
+	}
+
+	/**
+	 * @return the number of source rows currently cached
+	 */
+	public int getCachedRowNum() {
+		return mRows.size();
+	}
+
+	/**
+	 * creates the adjacency lists from the given graph. Links are visited from the last to the first,
+	 * so that only the last link between two nodes is kept as in the delay-matrix.
+	 *
+	 * @param graph this graph contains all node and link information
+	 * @param directed defines to create directed or undirected adjacency lists
+	 */
+	private void createAdjacency(TopologicalGraph graph, boolean directed) {
+		mTotalNodeNum = graph.getNumberOfNodes();
+
+		List<TopologicalLink> links = new ArrayList<TopologicalLink>(graph.getNumberOfLinks());
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			links.add(itr.next());
+		}
+
+		int[] src = new int[directed ? links.size() : 2 * links.size()];
+		int[] dest = new int[src.length];
+		float[] delay = new float[src.length];
+		int count = 0;
+		Set<Long> seen = new HashSet<Long>();
+		for (int i = links.size() - 1; i >= 0; i--) {
+			TopologicalLink edge = links.get(i);
+			if (addLink(seen, edge.getSrcNodeID(), edge.getDestNodeID())) {
+				src[count] = edge.getSrcNodeID();
+				dest[count] = edge.getDestNodeID();
+				delay[count++] = edge.getLinkDelay();
+			}
+			if (!directed && addLink(seen, edge.getDestNodeID(), edge.getSrcNodeID())) {
+				src[count] = edge.getDestNodeID();
+				dest[count] = edge.getSrcNodeID();
+				delay[count++] = edge.getLinkDelay();
+			}
+		}
+
+		// compressed adjacency lists, without the links ignored by the delay-matrix
+		mLinkStart = new int[mTotalNodeNum + 1];
+		for (int i = 0; i < count; i++) {
+			if (delay[i] != 0) {
+				mLinkStart[src[i] + 1]++;
+			}
+		}
+		for (int node = 0; node < mTotalNodeNum; node++) {
+			mLinkStart[node + 1] += mLinkStart[node];
+		}
+		int[] next = new int[mTotalNodeNum];
+		System.arraycopy(mLinkStart, 0, next, 0, mTotalNodeNum);
+		mLinkDest = new int[mLinkStart[mTotalNodeNum]];
+		mLinkDelay = new float[mLinkDest.length];
+		for (int i = 0; i < count; i++) {
+			if (delay[i] != 0) {
+				int pos = next[src[i]]++;
+				mLinkDest[pos] = dest[i];
+				mLinkDelay[pos] = delay[i];
+			}
+		}
+	}
+
+	/**
+	 * @return true if the link from srcID to destID was not seen before, false otherwise. Self-links
+	 *         are never added.
+	 */
+	private static boolean addLink(Set<Long> seen, int srcID, int destID) {
+		return srcID != destID && seen.add(((long) srcID << 32) | (destID & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * calculates the delays from the given source to all nodes with Dijkstra's algorithm
+	 *
+	 * @param srcID the id of the source-node
+	 * @return the delay row of the source
+	 */
+	private float[] calculateShortestPaths(int srcID) {
+		float[] row = mFreeRow != null ? mFreeRow : new float[mTotalNodeNum];
+		mFreeRow = null;
+		for (int node = 0; node < mTotalNodeNum; node++) {
+			row[node] = Float.MAX_VALUE;
+			mHeapPos[node] = -1;
+		}
+
+		int heapSize = 0;
+		row[srcID] = 0;
+		mHeap[heapSize] = srcID;
+		mHeapPos[srcID] = heapSize++;
+
+		while (heapSize > 0) {
+			int node = mHeap[0];
+			mHeapPos[node] = -2; // settled
+			heapSize--;
+			if (heapSize > 0) {
+				mHeap[0] = mHeap[heapSize];
+				mHeapPos[mHeap[0]] = 0;
+				siftDown(row, 0, heapSize);
+			}
+
+			for (int link = mLinkStart[node]; link < mLinkStart[node + 1]; link++) {
+				int dest = mLinkDest[link];
+				if (mHeapPos[dest] == -2) {
+					continue;
+				}
+				float delay = row[node] + mLinkDelay[link];
+				if (delay < row[dest]) {
+					row[dest] = delay;
+					if (mHeapPos[dest] == -1) {
+						mHeap[heapSize] = dest;
+						mHeapPos[dest] = heapSize++;
+					}
+					siftUp(row, mHeapPos[dest]);
+				}
+			}
+		}
+
+		return row;
+	}
+
+	private void siftUp(float[] row, int pos) {
+		int node = mHeap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >> 1;
+			if (row[mHeap[parent]] <= row[node]) {
+				break;
+			}
+			mHeap[pos] = mHeap[parent];
+			mHeapPos[mHeap[pos]] = pos;
+			pos = parent;
+		}
+		mHeap[pos] = node;
+		mHeapPos[node] = pos;
+	}
+
+	private void siftDown(float[] row, int pos, int heapSize) {
+		int node = mHeap[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && row[mHeap[child + 1]] < row[mHeap[child]]) {
+				child++;
+			}
+			if (row[node] <= row[mHeap[child]]) {
+				break;
+			}
+			mHeap[pos] = mHeap[child];
+			mHeapPos[mHeap[pos]] = pos;
+			pos = child;
+		}
+		mHeap[pos] = node;
+		mHeapPos[node] = pos;
+	}
+
+	/**
+	 * this method just creates an string-output from the internal structures
+	 */
+	@Override
+	public String toString() {
+		return "sparse distance-aware-topology with " + mTotalNodeNum + " nodes, " + mLinkDest.length
+				+ " directed links and " + mRows.size() + " cached rows";
+	}
+}
@@ -31,6 +31,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  * @since CloudSim Toolkit 1.0
  */
 public class AggregateSwitch extends Switch {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Constructor for Aggregate Switch We have to specify switches that are connected to its
@@ -65,24 +66,23 @@ public class AggregateSwitch extends Switch {
 		// check which switch to forward to
 		// add packet in the switch list
 		// add packet in the host list
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), latency, CloudSimTags.Network_Event_send);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
 
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from root so need to be sent to edgelevel swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				downlinkswitchpktlist.put(switchid, pktlist);
+			if (level == NetworkConstants.Agg_LEVEL) {
+				// packet is coming from root so need to be sent to edgelevel swich
+				// find the id for edgelevel switch
+				int switchid = dc.VmToSwitchid.get(recvVMid);
+				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
+				if (pktlist == null) {
+					pktlist = new ArrayList<NetworkPacket>();
+					downlinkswitchpktlist.put(switchid, pktlist);
+				}
+				pktlist.add(hspkt);
 			}
-			pktlist.add(hspkt);
-			return;
 		}
-
 	}
 
 	/**
@@ -98,38 +98,39 @@ public class AggregateSwitch extends Switch {
 		// add packet in the switch list
 		//
 		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
 
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from edge level router so need to be sent to
-			// either root or another edge level swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			boolean flagtoswtich = false;
-			for (Switch sw : downlinkswitches) {
-				if (switchid == sw.getId()) {
-					flagtoswtich = true;
+			if (level == NetworkConstants.Agg_LEVEL) {
+				// packet is coming from edge level router so need to be sent to
+				// either root or another edge level swich
+				// find the id for edgelevel switch
+				int switchid = dc.VmToSwitchid.get(recvVMid);
+				boolean flagtoswtich = false;
+				for (Switch sw : downlinkswitches) {
+					if (switchid == sw.getId()) {
+						flagtoswtich = true;
+					}
 				}
-			}
-			if (flagtoswtich) {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(switchid, pktlist);
-				}
-				pktlist.add(hspkt);
-			} else// send to up
-			{
-				Switch sw = uplinkswitches.get(0);
-				List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					uplinkswitchpktlist.put(sw.getId(), pktlist);
+				if (flagtoswtich) {
+					List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						downlinkswitchpktlist.put(switchid, pktlist);
+					}
+					pktlist.add(hspkt);
+				} else// send to up
+				{
+					Switch sw = uplinkswitches.get(0);
+					List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						uplinkswitchpktlist.put(sw.getId(), pktlist);
+					}
+					pktlist.add(hspkt);
 				}
-				pktlist.add(hspkt);
 			}
 		}
 	}
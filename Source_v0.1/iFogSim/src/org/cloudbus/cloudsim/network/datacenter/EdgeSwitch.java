@@ -33,6 +33,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  * @since CloudSim Toolkit 3.0
  */
 public class EdgeSwitch extends Switch {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Constructor for Edge Switch We have to specify switches that are connected to its downlink
@@ -68,44 +69,43 @@ public class EdgeSwitch extends Switch {
 		// add packet in the switch list
 		//
 		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
+
+			// packet is recieved from host
+			// packet is to be sent to aggregate level or to another host in the same level
+
+			int hostid = dc.VmtoHostlist.get(recvVMid);
+			NetworkHost hs = hostlist.get(hostid);
+			hspkt.recieverhostid = hostid;
+
+			// packet needs to go to a host which is connected directly to switch
+			if (hs != null) {
+				// packet to be sent to host connected to the switch
+				List<NetworkPacket> pktlist = packetTohost.get(hostid);
+				if (pktlist == null) {
+					pktlist = new ArrayList<NetworkPacket>();
+					packetTohost.put(hostid, pktlist);
+				}
+				pktlist.add(hspkt);
+				continue;
 
-		// packet is recieved from host
-		// packet is to be sent to aggregate level or to another host in the same level
-
-		int hostid = dc.VmtoHostlist.get(recvVMid);
-		NetworkHost hs = hostlist.get(hostid);
-		hspkt.recieverhostid = hostid;
+			}
+			// otherwise
+			// packet is to be sent to upper switch
+			// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
+			// if there are more than one Aggregate level switch one need to modify following code
 
-		// packet needs to go to a host which is connected directly to switch
-		if (hs != null) {
-			// packet to be sent to host connected to the switch
-			List<NetworkPacket> pktlist = packetTohost.get(hostid);
+			Switch sw = uplinkswitches.get(0);
+			List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
 			if (pktlist == null) {
 				pktlist = new ArrayList<NetworkPacket>();
-				packetTohost.put(hostid, pktlist);
+				uplinkswitchpktlist.put(sw.getId(), pktlist);
 			}
 			pktlist.add(hspkt);
-			return;
-
-		}
-		// otherwise
-		// packet is to be sent to upper switch
-		// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
-		// if there are more than one Aggregate level switch one need to modify following code
-
-		Switch sw = uplinkswitches.get(0);
-		List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-		if (pktlist == null) {
-			pktlist = new ArrayList<NetworkPacket>();
-			uplinkswitchpktlist.put(sw.getId(), pktlist);
 		}
-		pktlist.add(hspkt);
-		return;
-
 	}
 
 	/**
@@ -129,7 +129,7 @@ public class EdgeSwitch extends Switch {
 						NetworkPacket hspkt = it.next();
 						double delay = 1000 * hspkt.pkt.data / avband;
 
-						this.send(tosend, delay, CloudSimTags.Network_Event_UP, hspkt);
+						sendPacket(tosend, delay, CloudSimTags.Network_Event_UP, hspkt);
 					}
 					hspktlist.clear();
 				}
@@ -145,12 +145,13 @@ public class EdgeSwitch extends Switch {
 						NetworkPacket hspkt = it.next();
 						// hspkt.recieverhostid=tosend;
 						// hs.packetrecieved.add(hspkt);
-						this.send(getId(), hspkt.pkt.data / avband, CloudSimTags.Network_Event_Host, hspkt);
+						sendPacket(getId(), hspkt.pkt.data / avband, CloudSimTags.Network_Event_Host, hspkt);
 					}
 					hspktlist.clear();
 				}
 			}
 		}
+		flushPacketTrain();
 
 		// or to switch at next level.
 		// clear the list
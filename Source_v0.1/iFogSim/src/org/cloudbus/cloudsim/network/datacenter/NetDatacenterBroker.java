@@ -35,6 +35,7 @@ import org.cloudbus.cloudsim.lists.VmList;
  * @since CloudSim Toolkit 3.0
  */
 public class NetDatacenterBroker extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	// TODO: remove unnecessary variables
 
@@ -32,6 +32,7 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
  * @since CloudSim Toolkit 3.0
  */
 public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
+	private static final long serialVersionUID = 1L;
 
 	/** The cloudlet waiting list. */
 	private List<? extends ResCloudlet> cloudletWaitingList;
@@ -55,6 +55,9 @@ public class NetworkConstants {
 
 	public static boolean logflag = false;
 
+	// send packets with the same destination and arrival time as one PacketTrain event
+	public static boolean AGGREGATE_PACKET_TRAINS = false;
+
 	public static int iteration = 10;
 	public static int nexttime = 1000;
 
@@ -44,6 +44,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @since CloudSim Toolkit 3.0
  */
 public class NetworkDatacenter extends Datacenter {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Allocates a new NetworkDatacenter object.
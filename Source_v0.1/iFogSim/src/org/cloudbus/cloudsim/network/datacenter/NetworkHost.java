@@ -39,6 +39,7 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  * @since CloudSim Toolkit 3.0
  */
 public class NetworkHost extends Host {
+	private static final long serialVersionUID = 1L;
 
 	public List<NetworkPacket> packetTosendLocal;
 
@@ -185,13 +186,26 @@ public class NetworkHost extends Host {
 		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		packetTosendLocal.clear();
 		double avband = bandwidth / packetTosendGlobal.size();
+		PacketTrain train = null;
 		for (NetworkPacket hs : packetTosendGlobal) {
 			double delay = (1000 * hs.pkt.data) / avband;
 			NetworkConstants.totaldatatransfer += hs.pkt.data;
 
-			CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, hs);
+			if (!NetworkConstants.AGGREGATE_PACKET_TRAINS) {
+				CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, hs);
+			} else if (train != null && train.accepts(sw.getId(), delay, CloudSimTags.Network_Event_UP)) {
+				train.add(hs);
+			} else {
+				if (train != null) {
+					CloudSim.send(getDatacenter().getId(), sw.getId(), train.getDelay(), train.getTag(), train.getData());
+				}
+				train = new PacketTrain(sw.getId(), delay, CloudSimTags.Network_Event_UP, hs);
+			}
 			// send to switch with delay
 		}
+		if (train != null) {
+			CloudSim.send(getDatacenter().getId(), sw.getId(), train.getDelay(), train.getTag(), train.getData());
+		}
 		packetTosendGlobal.clear();
 	}
 
@@ -27,6 +27,7 @@ import org.cloudbus.cloudsim.Vm;
  * @since CloudSim Toolkit 3.0
  */
 public class NetworkVm extends Vm implements Comparable<Object> {
+	private static final long serialVersionUID = 1L;
 
 	public NetworkVm(
 			int id,
@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * PacketTrain carries several NetworkPackets in a single event. When
+ * NetworkConstants.AGGREGATE_PACKET_TRAINS is set, packets that are sent one after the other to the
+ * same entity, with the same tag and the same delay, are sent as one train instead of one event per
+ * packet. The receiver handles the packets of a train in order, as it would have handled the
+ * consecutive events, so the delivery time of every packet is unchanged.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PacketTrain {
+
+	private final int destination;
+
+	private final double delay;
+
+	private final int tag;
+
+	private final List<NetworkPacket> packets = new ArrayList<NetworkPacket>();
+
+	public PacketTrain(int destination, double delay, int tag, NetworkPacket first) {
+		this.destination = destination;
+		this.delay = delay;
+		this.tag = tag;
+		packets.add(first);
+	}
+
+	/**
+	 * Checks whether a packet sent with the given parameters can join this train.
+	 *
+	 * @param destination the destination entity id
+	 * @param delay the delay
+	 * @param tag the event tag
+	 * @return true, if the packet can join the train
+	 */
+	public boolean accepts(int destination, double delay, int tag) {
+		return this.destination == destination && this.delay == delay && this.tag == tag;
+	}
+
+	public void add(NetworkPacket packet) {
+		packets.add(packet);
+	}
+
+	public int getDestination() {
+		return destination;
+	}
+
+	public double getDelay() {
+		return delay;
+	}
+
+	public int getTag() {
+		return tag;
+	}
+
+	public List<NetworkPacket> getPackets() {
+		return packets;
+	}
+
+	/**
+	 * Gets the event data to send: the packet itself for a single packet train, the train otherwise.
+	 *
+	 * @return the event data
+	 */
+	public Object getData() {
+		if (packets.size() == 1) {
+			return packets.get(0);
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the packets carried by an event, which holds either a NetworkPacket or a PacketTrain.
+	 *
+	 * @param ev the event
+	 * @return the packets
+	 */
+	public static List<NetworkPacket> getPackets(SimEvent ev) {
+		Object data = ev.getData();
+		if (data instanceof PacketTrain) {
+			return ((PacketTrain) data).getPackets();
+		}
+		return Collections.singletonList((NetworkPacket) data);
+	}
+
+}
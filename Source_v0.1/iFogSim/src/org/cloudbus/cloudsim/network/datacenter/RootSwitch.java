@@ -31,6 +31,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  * @since CloudSim Toolkit 3.0
  */
 public class RootSwitch extends Switch {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Constructor for Root Switch We have to specify switches that are connected to its downlink
@@ -63,34 +64,35 @@ public class RootSwitch extends Switch {
 		// check which switch to forward to
 		// add packet in the switch list
 
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
 
-		if (level == NetworkConstants.ROOT_LEVEL) {
-			// get id of edge router
-			int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch has it
-			int aggSwtichid = -1;
-			;
-			for (Switch sw : downlinkswitches) {
-				for (Switch edge : sw.downlinkswitches) {
-					if (edge.getId() == edgeswitchid) {
-						aggSwtichid = sw.getId();
-						break;
+			if (level == NetworkConstants.ROOT_LEVEL) {
+				// get id of edge router
+				int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
+				// search which aggregate switch has it
+				int aggSwtichid = -1;
+				;
+				for (Switch sw : downlinkswitches) {
+					for (Switch edge : sw.downlinkswitches) {
+						if (edge.getId() == edgeswitchid) {
+							aggSwtichid = sw.getId();
+							break;
+						}
 					}
 				}
-			}
-			if (aggSwtichid < 0) {
-				System.out.println(" No destination for this packet");
-			} else {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(aggSwtichid, pktlist);
+				if (aggSwtichid < 0) {
+					System.out.println(" No destination for this packet");
+				} else {
+					List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						downlinkswitchpktlist.put(aggSwtichid, pktlist);
+					}
+					pktlist.add(hspkt);
 				}
-				pktlist.add(hspkt);
 			}
 		}
 	}
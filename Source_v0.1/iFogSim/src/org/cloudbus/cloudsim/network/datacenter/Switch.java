@@ -26,6 +26,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
 import org.cloudbus.cloudsim.lists.VmList;
 
 public class Switch extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	// switch level
 	public int id;
@@ -72,6 +73,9 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	// packets waiting to be sent as one event, see sendPacket()
+	private PacketTrain pendingTrain;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
@@ -117,9 +121,10 @@ public class Switch extends SimEntity {
 
 	protected void processhostpacket(SimEvent ev) {
 		// Send packet to host
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		NetworkHost hs = hostlist.get(hspkt.recieverhostid);
-		hs.packetrecieved.add(hspkt);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			NetworkHost hs = hostlist.get(hspkt.recieverhostid);
+			hs.packetrecieved.add(hspkt);
+		}
 	}
 
 	protected void processpacket_down(SimEvent ev) {
@@ -129,35 +134,34 @@ public class Switch extends SimEntity {
 		// add packet in the switch list
 		// add packet in the host list
 		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), latency, CloudSimTags.Network_Event_send);
-		if (level == NetworkConstants.EDGE_LEVEL) {
-			// packet is to be recieved by host
-			int hostid = dc.VmtoHostlist.get(recvVMid);
-			hspkt.recieverhostid = hostid;
-			List<NetworkPacket> pktlist = packetTohost.get(hostid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				packetTohost.put(hostid, pktlist);
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
+			if (level == NetworkConstants.EDGE_LEVEL) {
+				// packet is to be recieved by host
+				int hostid = dc.VmtoHostlist.get(recvVMid);
+				hspkt.recieverhostid = hostid;
+				List<NetworkPacket> pktlist = packetTohost.get(hostid);
+				if (pktlist == null) {
+					pktlist = new ArrayList<NetworkPacket>();
+					packetTohost.put(hostid, pktlist);
+				}
+				pktlist.add(hspkt);
+				continue;
 			}
-			pktlist.add(hspkt);
-			return;
-		}
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from root so need to be sent to edgelevel swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				downlinkswitchpktlist.put(switchid, pktlist);
+			if (level == NetworkConstants.Agg_LEVEL) {
+				// packet is coming from root so need to be sent to edgelevel swich
+				// find the id for edgelevel switch
+				int switchid = dc.VmToSwitchid.get(recvVMid);
+				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
+				if (pktlist == null) {
+					pktlist = new ArrayList<NetworkPacket>();
+					downlinkswitchpktlist.put(switchid, pktlist);
+				}
+				pktlist.add(hspkt);
 			}
-			pktlist.add(hspkt);
-			return;
 		}
-
 	}
 
 	protected void processpacket_up(SimEvent ev) {
@@ -167,61 +171,32 @@ public class Switch extends SimEntity {
 		// add packet in the switch list
 		//
 		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
 		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
-		if (level == NetworkConstants.EDGE_LEVEL) {
-			// packet is recieved from host
-			// packet is to be sent to aggregate level or to another host in the
-			// same level
-
-			int hostid = dc.VmtoHostlist.get(recvVMid);
-			NetworkHost hs = hostlist.get(hostid);
-			hspkt.recieverhostid = hostid;
-			if (hs != null) {
-				// packet to be sent to host connected to the switch
-				List<NetworkPacket> pktlist = packetTohost.get(hostid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					packetTohost.put(hostid, pktlist);
-				}
-				pktlist.add(hspkt);
-				return;
+		for (NetworkPacket hspkt : PacketTrain.getPackets(ev)) {
+			int recvVMid = hspkt.pkt.reciever;
+			if (level == NetworkConstants.EDGE_LEVEL) {
+				// packet is recieved from host
+				// packet is to be sent to aggregate level or to another host in the
+				// same level
+
+				int hostid = dc.VmtoHostlist.get(recvVMid);
+				NetworkHost hs = hostlist.get(hostid);
+				hspkt.recieverhostid = hostid;
+				if (hs != null) {
+					// packet to be sent to host connected to the switch
+					List<NetworkPacket> pktlist = packetTohost.get(hostid);
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						packetTohost.put(hostid, pktlist);
+					}
+					pktlist.add(hspkt);
+					continue;
 
-			}
-			// packet is to be sent to upper switch
-			// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
-
-			Switch sw = uplinkswitches.get(0);
-			List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				uplinkswitchpktlist.put(sw.getId(), pktlist);
-			}
-			pktlist.add(hspkt);
-			return;
-		}
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from edge level router so need to be sent to
-			// either root or another edge level swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			boolean flagtoswtich = false;
-			for (Switch sw : downlinkswitches) {
-				if (switchid == sw.getId()) {
-					flagtoswtich = true;
-				}
-			}
-			if (flagtoswtich) {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(switchid, pktlist);
 				}
-				pktlist.add(hspkt);
-			} else// send to up
-			{
+				// packet is to be sent to upper switch
+				// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
+
 				Switch sw = uplinkswitches.get(0);
 				List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
 				if (pktlist == null) {
@@ -229,31 +204,61 @@ public class Switch extends SimEntity {
 					uplinkswitchpktlist.put(sw.getId(), pktlist);
 				}
 				pktlist.add(hspkt);
+				continue;
 			}
-		}
-		if (level == NetworkConstants.ROOT_LEVEL) {
-			// get id of edge router
-			int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch has it
-			int aggSwtichid = -1;
-			;
-			for (Switch sw : downlinkswitches) {
-				for (Switch edge : sw.downlinkswitches) {
-					if (edge.getId() == edgeswitchid) {
-						aggSwtichid = sw.getId();
-						break;
+			if (level == NetworkConstants.Agg_LEVEL) {
+				// packet is coming from edge level router so need to be sent to
+				// either root or another edge level swich
+				// find the id for edgelevel switch
+				int switchid = dc.VmToSwitchid.get(recvVMid);
+				boolean flagtoswtich = false;
+				for (Switch sw : downlinkswitches) {
+					if (switchid == sw.getId()) {
+						flagtoswtich = true;
 					}
 				}
+				if (flagtoswtich) {
+					List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						downlinkswitchpktlist.put(switchid, pktlist);
+					}
+					pktlist.add(hspkt);
+				} else// send to up
+				{
+					Switch sw = uplinkswitches.get(0);
+					List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						uplinkswitchpktlist.put(sw.getId(), pktlist);
+					}
+					pktlist.add(hspkt);
+				}
 			}
-			if (aggSwtichid < 0) {
-				System.out.println(" No destination for this packet");
-			} else {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(aggSwtichid, pktlist);
+			if (level == NetworkConstants.ROOT_LEVEL) {
+				// get id of edge router
+				int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
+				// search which aggregate switch has it
+				int aggSwtichid = -1;
+				;
+				for (Switch sw : downlinkswitches) {
+					for (Switch edge : sw.downlinkswitches) {
+						if (edge.getId() == edgeswitchid) {
+							aggSwtichid = sw.getId();
+							break;
+						}
+					}
+				}
+				if (aggSwtichid < 0) {
+					System.out.println(" No destination for this packet");
+				} else {
+					List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
+					if (pktlist == null) {
+						pktlist = new ArrayList<NetworkPacket>();
+						downlinkswitchpktlist.put(aggSwtichid, pktlist);
+					}
+					pktlist.add(hspkt);
 				}
-				pktlist.add(hspkt);
 			}
 		}
 	}
@@ -291,7 +296,7 @@ public class Switch extends SimEntity {
 						NetworkPacket hspkt = it.next();
 						double delay = 1000 * hspkt.pkt.data / avband;
 
-						this.send(tosend, delay, CloudSimTags.Network_Event_DOWN, hspkt);
+						sendPacket(tosend, delay, CloudSimTags.Network_Event_DOWN, hspkt);
 					}
 					hspktlist.clear();
 				}
@@ -308,7 +313,7 @@ public class Switch extends SimEntity {
 						NetworkPacket hspkt = it.next();
 						double delay = 1000 * hspkt.pkt.data / avband;
 
-						this.send(tosend, delay, CloudSimTags.Network_Event_UP, hspkt);
+						sendPacket(tosend, delay, CloudSimTags.Network_Event_UP, hspkt);
 					}
 					hspktlist.clear();
 				}
@@ -324,18 +329,53 @@ public class Switch extends SimEntity {
 						NetworkPacket hspkt = it.next();
 						// hspkt.recieverhostid=tosend;
 						// hs.packetrecieved.add(hspkt);
-						this.send(getId(), hspkt.pkt.data / avband, CloudSimTags.Network_Event_Host, hspkt);
+						sendPacket(getId(), hspkt.pkt.data / avband, CloudSimTags.Network_Event_Host, hspkt);
 					}
 					hspktlist.clear();
 				}
 			}
 		}
+		flushPacketTrain();
 
 		// or to switch at next level.
 		// clear the list
 
 	}
 
+	/**
+	 * Sends a packet. When NetworkConstants.AGGREGATE_PACKET_TRAINS is set, packets sent one after the
+	 * other with the same destination, delay and tag are sent as one PacketTrain event. Packets of a
+	 * train arrive at the same time as separate events would have, and are processed in the same
+	 * order. flushPacketTrain() must be called once all packets are sent.
+	 * 
+	 * @param dest the destination entity id
+	 * @param delay the delay
+	 * @param tag the event tag
+	 * @param hspkt the packet
+	 */
+	protected void sendPacket(int dest, double delay, int tag, NetworkPacket hspkt) {
+		if (!NetworkConstants.AGGREGATE_PACKET_TRAINS) {
+			send(dest, delay, tag, hspkt);
+			return;
+		}
+		if (pendingTrain != null && pendingTrain.accepts(dest, delay, tag)) {
+			pendingTrain.add(hspkt);
+			return;
+		}
+		flushPacketTrain();
+		pendingTrain = new PacketTrain(dest, delay, tag, hspkt);
+	}
+
+	/**
+	 * Sends the pending packet train, if any.
+	 */
+	protected void flushPacketTrain() {
+		if (pendingTrain != null) {
+			send(pendingTrain.getDestination(), pendingTrain.getDelay(), pendingTrain.getTag(), pendingTrain.getData());
+			pendingTrain = null;
+		}
+	}
+
 	//
 	// R: We changed visibility of the below methods from private to protected.
 	//
@@ -37,6 +37,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  * @since CloudSim Toolkit 2.0
  */
 public class PowerDatacenter extends Datacenter {
+	private static final long serialVersionUID = 1L;
 
 	/** The power. */
 	private double power;
@@ -36,6 +36,7 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  * @since CloudSim Toolkit 2.0
  */
 public class PowerDatacenterNonPowerAware extends PowerDatacenter {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Instantiates a new datacenter.
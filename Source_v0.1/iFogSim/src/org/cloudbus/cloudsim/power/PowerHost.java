@@ -32,6 +32,7 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  * @since CloudSim Toolkit 2.0
  */
 public class PowerHost extends HostDynamicWorkload {
+	private static final long serialVersionUID = 1L;
 
 	/** The power model. */
 	private PowerModel powerModel;
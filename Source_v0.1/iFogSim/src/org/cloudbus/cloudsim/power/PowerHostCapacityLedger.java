@@ -0,0 +1,468 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * Shadow capacity model of a set of hosts, used by the migration policies to evaluate migration plans
+ * without mutating the hosts. For every host touched by the plan the ledger keeps a virtual VM list and
+ * the MIPS, RAM, BW and storage left after the tentative placements and removals; untouched hosts are
+ * read directly.
+ *
+ * The ledger reproduces the admission rules of {@link Host#isSuitableForVm(Vm)} and
+ * {@link Host#vmCreate(Vm)} for hosts using {@link VmSchedulerTimeShared} or
+ * {@link VmSchedulerTimeSharedOverSubscription} with the simple RAM and BW provisioners (see
+ * {@link #isSupported(Host)}). The ledger in use by the current thread is exposed through the static
+ * accessors, so that over-utilization detection and VM selection policies see the planned state.
+ *
+ * A ledger is not thread safe for modifications; {@link #withVm(Host, Vm)} creates a child view that
+ * can be evaluated concurrently with other views of the same parent as long as the parent is not
+ * modified.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostCapacityLedger {
+
+	/** The ledger in use by the current thread. */
+	private static final ThreadLocal<PowerHostCapacityLedger> current = new ThreadLocal<PowerHostCapacityLedger>();
+
+	/** The parent ledger, null for a root ledger. */
+	private final PowerHostCapacityLedger parent;
+
+	/** The entries of the hosts modified in this ledger. */
+	private final Map<Host, Entry> entries = new HashMap<Host, Entry>();
+
+	/** The vms whose creation reached the vm scheduler of the host, kept by the root ledger. */
+	private final Map<Host, Set<Vm>> allocationAttempts = new HashMap<Host, Set<Vm>>();
+
+	/**
+	 * Instantiates a new empty ledger, reflecting the current state of the hosts.
+	 */
+	public PowerHostCapacityLedger() {
+		this(null);
+	}
+
+	/**
+	 * Instantiates a new ledger on top of a parent ledger.
+	 *
+	 * @param parent the parent ledger
+	 */
+	protected PowerHostCapacityLedger(PowerHostCapacityLedger parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Checks whether the capacity of the host can be modelled by the ledger.
+	 *
+	 * @param host the host
+	 * @return true, if the host scheduler and provisioners are supported
+	 */
+	public static boolean isSupported(Host host) {
+		Class<?> scheduler = host.getVmScheduler().getClass();
+		return (scheduler == VmSchedulerTimeShared.class || scheduler == VmSchedulerTimeSharedOverSubscription.class)
+				&& host.getRamProvisioner().getClass() == RamProvisionerSimple.class
+				&& host.getBwProvisioner().getClass() == BwProvisionerSimple.class;
+	}
+
+	/**
+	 * Gets the ledger in use by the current thread.
+	 *
+	 * @return the ledger, or null if the hosts are evaluated directly
+	 */
+	public static PowerHostCapacityLedger getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * Sets the ledger in use by the current thread.
+	 *
+	 * @param ledger the ledger, or null to evaluate the hosts directly
+	 * @return the ledger previously in use
+	 */
+	public static PowerHostCapacityLedger setCurrent(PowerHostCapacityLedger ledger) {
+		PowerHostCapacityLedger previous = current.get();
+		if (ledger == null) {
+			current.remove();
+		} else {
+			current.set(ledger);
+		}
+		return previous;
+	}
+
+	/**
+	 * Gets the VM list of the host in the ledger in use, or the actual VM list if there is none.
+	 *
+	 * @param <T> the generic type
+	 * @param host the host
+	 * @return the vm list
+	 */
+	public static <T extends Vm> List<T> getVmList(Host host) {
+		PowerHostCapacityLedger ledger = current.get();
+		if (ledger == null) {
+			return host.getVmList();
+		}
+		return ledger.getPlannedVmList(host);
+	}
+
+	/**
+	 * Gets the MIPS allocated to the VM on the host in the ledger in use, or the actual allocation if
+	 * there is none.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the total allocated mips
+	 */
+	public static double getTotalAllocatedMipsForVm(Host host, Vm vm) {
+		PowerHostCapacityLedger ledger = current.get();
+		if (ledger == null) {
+			return host.getTotalAllocatedMipsForVm(vm);
+		}
+		return ledger.getPlannedAllocatedMipsForVm(host, vm);
+	}
+
+	/**
+	 * Checks whether the host is suitable for the VM in the ledger in use, or actually if there is none.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host is suitable for the vm
+	 */
+	public static boolean isSuitableForVm(Host host, Vm vm) {
+		PowerHostCapacityLedger ledger = current.get();
+		if (ledger == null) {
+			return host.isSuitableForVm(vm);
+		}
+		return ledger.isPlannedSuitableForVm(host, vm);
+	}
+
+	/**
+	 * Gets the planned VM list of the host.
+	 *
+	 * @param <T> the generic type
+	 * @param host the host
+	 * @return the vm list
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Vm> List<T> getPlannedVmList(Host host) {
+		Entry entry = getEntry(host);
+		if (entry == null) {
+			return host.getVmList();
+		}
+		return (List<T>) entry.vmList;
+	}
+
+	/**
+	 * Gets the planned MIPS allocation of the VM on the host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the total allocated mips
+	 */
+	public double getPlannedAllocatedMipsForVm(Host host, Vm vm) {
+		Entry entry = getEntry(host);
+		if (entry != null && entry.allocatedMips.containsKey(vm)) {
+			return entry.allocatedMips.get(vm);
+		}
+		return host.getTotalAllocatedMipsForVm(vm);
+	}
+
+	/**
+	 * Checks whether the host is suitable for the VM, as {@link Host#isSuitableForVm(Vm)}.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host is suitable for the vm
+	 */
+	public boolean isPlannedSuitableForVm(Host host, Vm vm) {
+		Entry entry = getEntry(host);
+		if (entry == null) {
+			// same as the host but without the tentative allocations done by the provisioners
+			return host.getVmScheduler().getPeCapacity() >= vm.getCurrentRequestedMaxMips()
+					&& host.getVmScheduler().getAvailableMips() >= vm.getCurrentRequestedTotalMips()
+					&& host.getRamProvisioner().getAvailableRam() >= getRequestedRam(vm)
+					&& host.getBwProvisioner().getAvailableBw() >= vm.getCurrentRequestedBw();
+		}
+		return host.getVmScheduler().getPeCapacity() >= vm.getCurrentRequestedMaxMips()
+				&& entry.availableMips >= vm.getCurrentRequestedTotalMips()
+				&& entry.availableRam >= getRequestedRam(vm)
+				&& entry.availableBw >= vm.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Checks whether the VM can be created on the host, as {@link Host#vmCreate(Vm)}. If the storage, RAM
+	 * and BW are sufficient, the attempt is recorded as it would have reached the VM scheduler of the host
+	 * (see {@link #getAllocationAttempts()}).
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the vm can be created
+	 */
+	public boolean canCreate(Host host, Vm vm) {
+		Entry entry = getEntry(host);
+		long storage = entry == null ? host.getStorage() : entry.storage;
+		int availableRam = entry == null ? host.getRamProvisioner().getAvailableRam() : entry.availableRam;
+		long availableBw = entry == null ? host.getBwProvisioner().getAvailableBw() : entry.availableBw;
+		double availableMips = entry == null ? host.getVmScheduler().getAvailableMips() : entry.availableMips;
+		if (storage < vm.getSize() || availableRam < getRequestedRam(vm) || availableBw < vm.getCurrentRequestedBw()) {
+			return false;
+		}
+		recordAllocationAttempt(host, vm);
+		double totalRequestedMips = 0;
+		double peMips = host.getVmScheduler().getPeCapacity();
+		for (Double mips : vm.getCurrentRequestedMips()) {
+			if (mips > peMips && host.getVmScheduler().getClass() == VmSchedulerTimeShared.class) {
+				return false;
+			}
+			totalRequestedMips += Math.min(mips, peMips);
+		}
+		// over-subscription schedulers admit the vm anyway, at a reduced share
+		return availableMips >= totalRequestedMips
+				|| host.getVmScheduler().getClass() != VmSchedulerTimeShared.class;
+	}
+
+	/**
+	 * Plans the creation of the VM on the host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the vm has been created in the ledger
+	 */
+	public boolean vmCreate(Host host, Vm vm) {
+		if (!canCreate(host, vm)) {
+			return false;
+		}
+		getOrCreateEntry(host).add(host, vm);
+		return true;
+	}
+
+	/**
+	 * Plans the removal of the VM from the host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 */
+	public void vmDestroy(Host host, Vm vm) {
+		if (vm != null) {
+			getOrCreateEntry(host).remove(host, vm);
+		}
+	}
+
+	/**
+	 * Creates a child view of this ledger in which the VM is additionally placed on the host. The VM must
+	 * be admissible according to {@link #canCreate(Host, Vm)}.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the child ledger
+	 */
+	public PowerHostCapacityLedger withVm(Host host, Vm vm) {
+		PowerHostCapacityLedger child = new PowerHostCapacityLedger(this);
+		Entry entry = getEntry(host);
+		entry = entry == null ? new Entry(host) : new Entry(entry);
+		entry.add(host, vm);
+		child.entries.put(host, entry);
+		return child;
+	}
+
+	/**
+	 * Records that the creation of the VM on the host reached the VM scheduler.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 */
+	protected void recordAllocationAttempt(Host host, Vm vm) {
+		if (parent != null) {
+			parent.recordAllocationAttempt(host, vm);
+			return;
+		}
+		synchronized (allocationAttempts) {
+			Set<Vm> vms = allocationAttempts.get(host);
+			if (vms == null) {
+				vms = new LinkedHashSet<Vm>();
+				allocationAttempts.put(host, vms);
+			}
+			vms.add(vm);
+		}
+	}
+
+	/**
+	 * Gets the VMs whose creation on a host reached the VM scheduler of the host, in this ledger and its
+	 * children.
+	 *
+	 * @return the vms per host
+	 */
+	public Map<Host, Set<Vm>> getAllocationAttempts() {
+		if (parent != null) {
+			return parent.getAllocationAttempts();
+		}
+		return allocationAttempts;
+	}
+
+	/**
+	 * Gets the entry of the host in this ledger or its parents.
+	 *
+	 * @param host the host
+	 * @return the entry, or null if the host is not modified
+	 */
+	protected Entry getEntry(Host host) {
+		Entry entry = entries.get(host);
+		if (entry == null && parent != null) {
+			return parent.getEntry(host);
+		}
+		return entry;
+	}
+
+	/**
+	 * Gets the entry of the host in this ledger, copying it from the parents or the host if needed.
+	 *
+	 * @param host the host
+	 * @return the entry
+	 */
+	protected Entry getOrCreateEntry(Host host) {
+		Entry entry = entries.get(host);
+		if (entry == null) {
+			Entry inherited = parent == null ? null : parent.getEntry(host);
+			entry = inherited == null ? new Entry(host) : new Entry(inherited);
+			entries.put(host, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Gets the RAM granted to the VM by a simple RAM provisioner.
+	 *
+	 * @param vm the vm
+	 * @return the requested ram
+	 */
+	protected static int getRequestedRam(Vm vm) {
+		return Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+	}
+
+	/**
+	 * Virtual capacity of a host.
+	 */
+	protected static class Entry {
+
+		/** The vm list. */
+		private final List<Vm> vmList;
+
+		/** The mips allocated to the vms placed by the ledger. */
+		private final Map<Vm, Double> allocatedMips;
+
+		/**
+		 * The mips taken from the available mips by the vms placed by the ledger, less than their
+		 * allocation when the host is over-subscribed.
+		 */
+		private final Map<Vm, Double> reservedMips;
+
+		/** The available mips. */
+		private double availableMips;
+
+		/** The available ram. */
+		private int availableRam;
+
+		/** The available bw. */
+		private long availableBw;
+
+		/** The storage. */
+		private long storage;
+
+		/**
+		 * Instantiates a new entry reflecting the current state of the host.
+		 *
+		 * @param host the host
+		 */
+		protected Entry(Host host) {
+			vmList = new ArrayList<Vm>(host.getVmList());
+			allocatedMips = new HashMap<Vm, Double>();
+			reservedMips = new HashMap<Vm, Double>();
+			availableMips = host.getVmScheduler().getAvailableMips();
+			availableRam = host.getRamProvisioner().getAvailableRam();
+			availableBw = host.getBwProvisioner().getAvailableBw();
+			storage = host.getStorage();
+		}
+
+		/**
+		 * Instantiates a new entry as a copy of another one.
+		 *
+		 * @param entry the entry
+		 */
+		protected Entry(Entry entry) {
+			vmList = new ArrayList<Vm>(entry.vmList);
+			allocatedMips = new HashMap<Vm, Double>(entry.allocatedMips);
+			reservedMips = new HashMap<Vm, Double>(entry.reservedMips);
+			availableMips = entry.availableMips;
+			availableRam = entry.availableRam;
+			availableBw = entry.availableBw;
+			storage = entry.storage;
+		}
+
+		/**
+		 * Places the vm.
+		 *
+		 * @param host the host
+		 * @param vm the vm
+		 */
+		protected void add(Host host, Vm vm) {
+			double peMips = host.getVmScheduler().getPeCapacity();
+			double totalRequestedMips = 0;
+			for (Double mips : vm.getCurrentRequestedMips()) {
+				totalRequestedMips += Math.min(mips, peMips);
+			}
+			// over-subscribed, the shares of all vms are scaled down by the scheduler and no mips are left
+			double reserved = Math.min(availableMips, totalRequestedMips);
+			availableMips -= reserved;
+			availableRam -= getRequestedRam(vm);
+			availableBw -= vm.getCurrentRequestedBw();
+			storage -= vm.getSize();
+			allocatedMips.put(vm, totalRequestedMips);
+			reservedMips.put(vm, reserved);
+			vmList.add(vm);
+		}
+
+		/**
+		 * Removes the vm.
+		 *
+		 * @param host the host
+		 * @param vm the vm
+		 */
+		protected void remove(Host host, Vm vm) {
+			if (!vmList.remove(vm)) {
+				return;
+			}
+			Double mips = reservedMips.remove(vm);
+			allocatedMips.remove(vm);
+			if (mips != null) {
+				availableMips += mips;
+				availableRam += getRequestedRam(vm);
+				availableBw += vm.getCurrentRequestedBw();
+			} else {
+				availableMips += host.getTotalAllocatedMipsForVm(vm);
+				availableRam += host.getRamProvisioner().getAllocatedRamForVm(vm);
+				availableBw += host.getBwProvisioner().getAllocatedBwForVm(vm);
+			}
+			storage += vm.getSize();
+		}
+
+	}
+
+}
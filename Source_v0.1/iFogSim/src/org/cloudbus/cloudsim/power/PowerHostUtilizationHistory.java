@@ -15,6 +15,7 @@ import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -33,6 +34,22 @@ import org.cloudbus.cloudsim.util.MathUtil;
  * @since CloudSim Toolkit 2.0
  */
 public class PowerHostUtilizationHistory extends PowerHost {
+	private static final long serialVersionUID = 1L;
+
+	/** The utilization history computed for the cached vms, not trimmed. */
+	private double[] cachedUtilizationHistory;
+
+	/** The vms the cached utilization history has been computed for, in order. */
+	private PowerVm[] cachedVms = new PowerVm[0];
+
+	/** The versions of the utilization histories of the cached vms. */
+	private long[] cachedVmVersions = new long[0];
+
+	/** The mips of the cached vms. */
+	private double[] cachedVmMips = new double[0];
+
+	/** The total mips of the host when the utilization history was cached. */
+	private double cachedHostMips;
 
 	/**
 	 * Instantiates a new power host utilization history.
@@ -57,19 +74,89 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	}
 
 	/**
-	 * Gets the host utilization history.
+	 * Gets the host utilization history. The history computed for the current VM list is cached, so that
+	 * when VMs are appended to the list (e.g. a VM tentatively allocated to the host) only their
+	 * contributions are added. Values are accumulated in the VM list order in any case, so the result
+	 * does not depend on the cache.
 	 * 
 	 * @return the host utilization history
 	 */
-	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+	protected synchronized double[] getUtilizationHistory() {
+		List<PowerVm> vmList = PowerHostCapacityLedger.<PowerVm> getVmList(this);
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		int cached = getCachedVmCount(vmList, hostMips);
+		double[] utilizationHistory;
+		if (cached == cachedVms.length) {
+			utilizationHistory = cachedUtilizationHistory;
+			if (cached < vmList.size()) {
+				utilizationHistory = utilizationHistory.clone();
+				addUtilizationHistory(utilizationHistory, vmList, cached, hostMips);
 			}
+		} else {
+			utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+			addUtilizationHistory(utilizationHistory, vmList, 0, hostMips);
+			cacheUtilizationHistory(utilizationHistory, vmList, hostMips);
 		}
 		return MathUtil.trimZeroTail(utilizationHistory);
 	}
 
+	/**
+	 * Adds the utilization histories of the vms to the host utilization history.
+	 * 
+	 * @param utilizationHistory the host utilization history
+	 * @param vmList the vm list
+	 * @param from the index of the first vm to add
+	 * @param hostMips the total mips of the host
+	 */
+	private static void addUtilizationHistory(double[] utilizationHistory, List<PowerVm> vmList, int from,
+			double hostMips) {
+		for (int j = from; j < vmList.size(); j++) {
+			PowerVm vm = vmList.get(j);
+			DoubleRingBuffer vmUtilizationHistory = vm.getUtilizationHistoryBuffer();
+			for (int i = 0; i < vmUtilizationHistory.size(); i++) {
+				utilizationHistory[i] += vmUtilizationHistory.get(i) * vm.getMips() / hostMips;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of leading vms of the list for which the cached utilization history can be reused.
+	 * 
+	 * @param vmList the vm list
+	 * @param hostMips the total mips of the host
+	 * @return the number of vms, equal to the number of cached vms if the cache can be reused
+	 */
+	private int getCachedVmCount(List<PowerVm> vmList, double hostMips) {
+		if (cachedUtilizationHistory == null || hostMips != cachedHostMips || vmList.size() < cachedVms.length) {
+			return -1;
+		}
+		for (int j = 0; j < cachedVms.length; j++) {
+			PowerVm vm = vmList.get(j);
+			if (vm != cachedVms[j] || vm.getUtilizationHistoryBuffer().getVersion() != cachedVmVersions[j]
+					|| vm.getMips() != cachedVmMips[j]) {
+				return j;
+			}
+		}
+		return cachedVms.length;
+	}
+
+	/**
+	 * Caches the utilization history computed for the vms.
+	 * 
+	 * @param utilizationHistory the host utilization history
+	 * @param vmList the vm list
+	 * @param hostMips the total mips of the host
+	 */
+	private void cacheUtilizationHistory(double[] utilizationHistory, List<PowerVm> vmList, double hostMips) {
+		cachedUtilizationHistory = utilizationHistory;
+		cachedVms = vmList.toArray(new PowerVm[vmList.size()]);
+		cachedVmVersions = new long[cachedVms.length];
+		cachedVmMips = new double[cachedVms.length];
+		for (int j = 0; j < cachedVms.length; j++) {
+			cachedVmVersions[j] = cachedVms[j].getUtilizationHistoryBuffer().getVersion();
+			cachedVmMips[j] = cachedVms[j].getMips();
+		}
+		cachedHostMips = hostMips;
+	}
+
 }
@@ -9,12 +9,15 @@
 package org.cloudbus.cloudsim.power;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
@@ -40,6 +43,7 @@ import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
  * @since CloudSim Toolkit 3.0
  */
 public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAllocationPolicyAbstract {
+	private static final long serialVersionUID = 1L;
 
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
@@ -68,6 +72,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The execution time history total. */
 	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
 
+	/** Whether all the hosts can be modelled by a capacity ledger, computed on first use. */
+	private Boolean capacityLedgerSupported;
+
+	/** The minimum number of candidate hosts for which the host selection is evaluated in parallel. */
+	private int parallelHostSelectionThreshold = 64;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
 	 * 
@@ -82,7 +92,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Optimize allocation of the VMs according to current utilization.
+	 * Optimize allocation of the VMs according to current utilization. The migration plan is evaluated
+	 * on a {@link PowerHostCapacityLedger} when all the hosts are supported by it, otherwise the VMs are
+	 * tentatively moved between the hosts and the allocation is restored afterwards.
 	 * 
 	 * @param vmList the vm list
 	 * 
@@ -90,6 +102,26 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	@Override
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+		PowerHostCapacityLedger ledger = isCapacityLedgerSupported() ? new PowerHostCapacityLedger() : null;
+		PowerHostCapacityLedger previousLedger = PowerHostCapacityLedger.setCurrent(ledger);
+		try {
+			List<Map<String, Object>> migrationMap = optimizeAllocation(ledger == null);
+			if (ledger != null) {
+				restoreAllocation(ledger);
+			}
+			return migrationMap;
+		} finally {
+			PowerHostCapacityLedger.setCurrent(previousLedger);
+		}
+	}
+
+	/**
+	 * Optimize allocation of the VMs according to current utilization.
+	 * 
+	 * @param restore whether the hosts are modified and must be restored
+	 * @return the migration map
+	 */
+	private List<Map<String, Object>> optimizeAllocation(boolean restore) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");
 
 		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
@@ -99,7 +131,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		printOverUtilizedHosts(overUtilizedHosts);
 
-		saveAllocation();
+		if (restore) {
+			saveAllocation();
+		}
 
 		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
@@ -115,7 +149,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
-		restoreAllocation();
+		if (restore) {
+			restoreAllocation();
+		}
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -203,39 +239,132 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Find host for vm.
+	 * Find host for vm. When the hosts are evaluated on a capacity ledger and there are enough candidate
+	 * hosts, the candidates are evaluated in parallel; the selected host is the same as in a sequential
+	 * evaluation (the first host with the minimum power increase).
 	 * 
 	 * @param vm the vm
 	 * @param excludedHosts the excluded hosts
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
-		double minPower = Double.MAX_VALUE;
-		PowerHost allocatedHost = null;
+		final PowerHostCapacityLedger ledger = PowerHostCapacityLedger.getCurrent();
+		if (ledger == null && isCapacityLedgerSupported()) {
+			PowerHostCapacityLedger previousLedger = PowerHostCapacityLedger.setCurrent(new PowerHostCapacityLedger());
+			try {
+				return findHostForVm(vm, excludedHosts);
+			} finally {
+				PowerHostCapacityLedger.setCurrent(previousLedger);
+			}
+		}
 
+		final List<PowerHost> candidateHosts = new ArrayList<PowerHost>();
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
-				continue;
+			if (!excludedHosts.contains(host)) {
+				candidateHosts.add(host);
 			}
-			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
+		}
+
+		if (ledger == null) {
+			double minPower = Double.MAX_VALUE;
+			PowerHost allocatedHost = null;
+			for (PowerHost host : candidateHosts) {
+				double powerDiff = getPowerDiffAfterAllocation(host, vm);
+				if (powerDiff < minPower) {
+					minPower = powerDiff;
+					allocatedHost = host;
 				}
+			}
+			return allocatedHost;
+		}
 
+		final double[] powerDiffs = new double[candidateHosts.size()];
+		if (candidateHosts.size() >= getParallelHostSelectionThreshold()) {
+			IntStream.range(0, powerDiffs.length).parallel().forEach(i -> {
+				PowerHostCapacityLedger previousLedger = PowerHostCapacityLedger.setCurrent(ledger);
 				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
-					}
-				} catch (Exception e) {
+					powerDiffs[i] = getPowerDiffIfSuitable(candidateHosts.get(i), vm);
+				} finally {
+					PowerHostCapacityLedger.setCurrent(previousLedger);
+				}
+			});
+		} else {
+			for (int i = 0; i < powerDiffs.length; i++) {
+				powerDiffs[i] = getPowerDiffIfSuitable(candidateHosts.get(i), vm);
+			}
+		}
+
+		// the host with the lowest power increase wins, ties going to the first host in the list, so
+		// the costly over utilization check is only done in that order until a host passes it
+		List<Integer> ordered = new ArrayList<Integer>();
+		for (int i = 0; i < powerDiffs.length; i++) {
+			PowerHost host = candidateHosts.get(i);
+			if (!PowerHostCapacityLedger.isSuitableForVm(host, vm) || getUtilizationOfCpuMips(host) == 0) {
+				if (powerDiffs[i] < Double.MAX_VALUE) {
+					ordered.add(i);
 				}
+			} else if (ledger.canCreate(host, vm) && powerDiffs[i] < Double.MAX_VALUE) {
+				// canCreate records the allocation attempt the over utilization check would have made
+				ordered.add(i);
 			}
 		}
-		return allocatedHost;
+		Collections.sort(ordered, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				if (powerDiffs[a] < powerDiffs[b]) {
+					return -1;
+				}
+				if (powerDiffs[a] > powerDiffs[b]) {
+					return 1;
+				}
+				return a.compareTo(b);
+			}
+		});
+		for (int i : ordered) {
+			PowerHost host = candidateHosts.get(i);
+			if (getUtilizationOfCpuMips(host) == 0 || !isHostOverUtilizedAfterAllocation(host, vm)) {
+				return host;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the increase of the power consumption of the host if the vm is allocated to it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the power increase, or Double.MAX_VALUE if the vm can not be allocated to the host
+	 */
+	protected double getPowerDiffAfterAllocation(PowerHost host, Vm vm) {
+		double powerDiff = getPowerDiffIfSuitable(host, vm);
+		if (powerDiff != Double.MAX_VALUE && getUtilizationOfCpuMips(host) != 0
+				&& isHostOverUtilizedAfterAllocation(host, vm)) {
+			return Double.MAX_VALUE;
+		}
+		return powerDiff;
+	}
+
+	/**
+	 * Gets the increase of the power consumption of the host if the vm is allocated to it, without
+	 * checking whether the host would become over utilized.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the power increase, or Double.MAX_VALUE if the vm does not fit the host
+	 */
+	protected double getPowerDiffIfSuitable(PowerHost host, Vm vm) {
+		if (PowerHostCapacityLedger.isSuitableForVm(host, vm)) {
+			try {
+				double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+				if (powerAfterAllocation != -1) {
+					return powerAfterAllocation - host.getPower();
+				}
+			} catch (Exception e) {
+			}
+		}
+		return Double.MAX_VALUE;
 	}
 
 	/**
@@ -246,12 +375,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return true, if is host over utilized after allocation
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
-		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
-			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+		PowerHostCapacityLedger ledger = PowerHostCapacityLedger.getCurrent();
+		if (ledger == null) {
+			boolean isHostOverUtilizedAfterAllocation = true;
+			if (host.vmCreate(vm)) {
+				isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
+				host.vmDestroy(vm);
+			}
+			return isHostOverUtilizedAfterAllocation;
+		}
+
+		if (!ledger.canCreate(host, vm)) {
+			return true;
+		}
+		PowerHostCapacityLedger previousLedger = PowerHostCapacityLedger.setCurrent(ledger.withVm(host, vm));
+		try {
+			return isHostOverUtilized(host);
+		} finally {
+			PowerHostCapacityLedger.setCurrent(previousLedger);
 		}
-		return isHostOverUtilizedAfterAllocation;
 	}
 
 	/**
@@ -298,7 +440,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -325,7 +467,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -335,7 +477,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			} else {
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
+					vmDestroy((Host) map.get("host"), (Vm) map.get("vm"));
 				}
 				migrationMap.clear();
 				break;
@@ -361,7 +503,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				vmDestroy(host, vm);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -378,7 +520,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected List<? extends Vm> getVmsToMigrateFromUnderUtilizedHost(PowerHost host) {
 		List<Vm> vmsToMigrate = new LinkedList<Vm>();
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : PowerHostCapacityLedger.getVmList(host)) {
 			if (!vm.isInMigration()) {
 				vmsToMigrate.add(vm);
 			}
@@ -446,7 +588,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return true, if successful
 	 */
 	protected boolean areAllVmsMigratingOutOrAnyVmMigratingIn(PowerHost host) {
-		for (PowerVm vm : host.<PowerVm> getVmList()) {
+		for (PowerVm vm : PowerHostCapacityLedger.<PowerVm> getVmList(host)) {
 			if (!vm.isInMigration()) {
 				return false;
 			}
@@ -471,7 +613,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param host the host
 	 * @param metric the metric
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		if (!getTimeHistory().containsKey(hostId)) {
 			getTimeHistory().put(hostId, new LinkedList<Double>());
@@ -482,7 +624,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		if (!getMetricHistory().containsKey(hostId)) {
 			getMetricHistory().put(hostId, new LinkedList<Double>());
 		}
-		if (!getTimeHistory().get(hostId).contains(CloudSim.clock())) {
+		// entries are added in time order, so only the last one can be at the current time
+		List<Double> timeHistory = getTimeHistory().get(hostId);
+		if (timeHistory.isEmpty() || timeHistory.get(timeHistory.size() - 1) != CloudSim.clock()) {
 			getTimeHistory().get(hostId).add(CloudSim.clock());
 			getUtilizationHistory().get(hostId).add(host.getUtilizationOfCpu());
 			getMetricHistory().get(hostId).add(metric);
@@ -519,13 +663,43 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			Vm vm = (Vm) map.get("vm");
 			PowerHost host = (PowerHost) map.get("host");
 			if (!host.vmCreate(vm)) {
-				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
-				System.exit(0);
+				throw new IllegalStateException("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
 			}
 			getVmTable().put(vm.getUid(), host);
 		}
 	}
 
+	/**
+	 * Restore allocation after an evaluation on a capacity ledger. The hosts have not been modified, only
+	 * the bookkeeping done by the tentative VM creations and by {@link #restoreAllocation()} is reproduced:
+	 * the VMs tentatively created on a host are not migrating out of it anymore, and the VMs migrating in
+	 * are moved to the head of the VM list of the host.
+	 * 
+	 * @param ledger the ledger
+	 */
+	protected void restoreAllocation(PowerHostCapacityLedger ledger) {
+		for (Map.Entry<Host, Set<Vm>> entry : ledger.getAllocationAttempts().entrySet()) {
+			for (Vm vm : entry.getValue()) {
+				if (!vm.isInMigration()) {
+					entry.getKey().getVmScheduler().getVmsMigratingOut().remove(vm.getUid());
+				}
+			}
+		}
+		for (Host host : getHostList()) {
+			if (host.getVmsMigratingIn().isEmpty()) {
+				continue;
+			}
+			List<Vm> vmList = new ArrayList<Vm>(host.getVmsMigratingIn());
+			for (Vm vm : host.getVmList()) {
+				if (!host.getVmsMigratingIn().contains(vm)) {
+					vmList.add(vm);
+				}
+			}
+			host.getVmList().clear();
+			host.getVmList().addAll(vmList);
+		}
+	}
+
 	/**
 	 * Gets the power after allocation.
 	 * 
@@ -571,16 +745,81 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
 		double hostUtilizationMips = 0;
-		for (Vm vm2 : host.getVmList()) {
+		for (Vm vm2 : PowerHostCapacityLedger.getVmList(host)) {
 			if (host.getVmsMigratingIn().contains(vm2)) {
 				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
+				hostUtilizationMips += PowerHostCapacityLedger.getTotalAllocatedMipsForVm(host, vm2) * 0.9 / 0.1;
 			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2);
+			hostUtilizationMips += PowerHostCapacityLedger.getTotalAllocatedMipsForVm(host, vm2);
 		}
 		return hostUtilizationMips;
 	}
 
+	/**
+	 * Creates the vm on the host, in the capacity ledger in use if any.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if successful
+	 */
+	protected boolean vmCreate(Host host, Vm vm) {
+		PowerHostCapacityLedger ledger = PowerHostCapacityLedger.getCurrent();
+		if (ledger == null) {
+			return host.vmCreate(vm);
+		}
+		return ledger.vmCreate(host, vm);
+	}
+
+	/**
+	 * Destroys the vm on the host, in the capacity ledger in use if any.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 */
+	protected void vmDestroy(Host host, Vm vm) {
+		PowerHostCapacityLedger ledger = PowerHostCapacityLedger.getCurrent();
+		if (ledger == null) {
+			host.vmDestroy(vm);
+		} else {
+			ledger.vmDestroy(host, vm);
+		}
+	}
+
+	/**
+	 * Checks whether all the hosts can be modelled by a capacity ledger.
+	 * 
+	 * @return true, if the capacity ledger is supported
+	 */
+	protected boolean isCapacityLedgerSupported() {
+		if (capacityLedgerSupported == null) {
+			boolean supported = true;
+			for (Host host : getHostList()) {
+				supported &= PowerHostCapacityLedger.isSupported(host);
+			}
+			capacityLedgerSupported = supported;
+		}
+		return capacityLedgerSupported;
+	}
+
+	/**
+	 * Gets the minimum number of candidate hosts for which the host selection is evaluated in parallel.
+	 * 
+	 * @return the parallel host selection threshold
+	 */
+	public int getParallelHostSelectionThreshold() {
+		return parallelHostSelectionThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of candidate hosts for which the host selection is evaluated in parallel.
+	 * Integer.MAX_VALUE disables the parallel evaluation.
+	 * 
+	 * @param parallelHostSelectionThreshold the new parallel host selection threshold
+	 */
+	public void setParallelHostSelectionThreshold(int parallelHostSelectionThreshold) {
+		this.parallelHostSelectionThreshold = parallelHostSelectionThreshold;
+	}
+
 	/**
 	 * Gets the saved allocation.
 	 * 
@@ -31,6 +31,7 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		PowerVmAllocationPolicyMigrationAbstract {
+	private static final long serialVersionUID = 1L;
 
 	/** The safety parameter. */
 	private double safetyParameter = 0;
@@ -91,7 +92,7 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		}
 		addHistoryEntry(host, upperThreshold);
 		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : PowerHostCapacityLedger.getVmList(host)) {
 			totalRequestedMips += vm.getCurrentRequestedTotalMips();
 		}
 		double utilization = totalRequestedMips / host.getTotalMips();
@@ -29,6 +29,7 @@ import org.cloudbus.cloudsim.util.MathUtil;
  * @since CloudSim Toolkit 3.0
  */
 public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllocationPolicyMigrationAbstract {
+	private static final long serialVersionUID = 1L;
 
 	/** The scheduling interval. */
 	private double schedulingInterval;
@@ -132,7 +133,7 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
 		int maxRam = Integer.MIN_VALUE;
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : PowerHostCapacityLedger.getVmList(host)) {
 			int ram = vm.getRam();
 			if (ram > maxRam) {
 				maxRam = ram;
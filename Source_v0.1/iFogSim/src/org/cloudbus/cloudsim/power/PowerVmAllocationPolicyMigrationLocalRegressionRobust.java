@@ -29,6 +29,7 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 		PowerVmAllocationPolicyMigrationLocalRegression {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Instantiates a new power vm allocation policy migration local regression.
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,7 +28,8 @@ import org.cloudbus.cloudsim.Vm;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
-public abstract class PowerVmSelectionPolicy {
+public abstract class PowerVmSelectionPolicy implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Gets the vms to migrate.
@@ -45,7 +47,7 @@ public abstract class PowerVmSelectionPolicy {
 	 */
 	protected List<PowerVm> getMigratableVms(PowerHost host) {
 		List<PowerVm> migratableVms = new ArrayList<PowerVm>();
-		for (PowerVm vm : host.<PowerVm> getVmList()) {
+		for (PowerVm vm : PowerHostCapacityLedger.<PowerVm> getVmList(host)) {
 			if (!vm.isInMigration()) {
 				migratableVms.add(vm);
 			}
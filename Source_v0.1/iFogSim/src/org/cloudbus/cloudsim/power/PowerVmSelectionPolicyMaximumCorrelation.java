@@ -30,6 +30,7 @@ import org.cloudbus.cloudsim.util.MathUtil;
  * @since CloudSim Toolkit 3.0
  */
 public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPolicy {
+	private static final long serialVersionUID = 1L;
 
 	/** The fallback policy. */
 	private PowerVmSelectionPolicy fallbackPolicy;
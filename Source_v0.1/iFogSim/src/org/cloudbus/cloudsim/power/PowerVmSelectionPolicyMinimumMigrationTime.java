@@ -27,6 +27,7 @@ import org.cloudbus.cloudsim.Vm;
  * @since CloudSim Toolkit 3.0
  */
 public class PowerVmSelectionPolicyMinimumMigrationTime extends PowerVmSelectionPolicy {
+	private static final long serialVersionUID = 1L;
 
 	/*
 	 * (non-Javadoc)
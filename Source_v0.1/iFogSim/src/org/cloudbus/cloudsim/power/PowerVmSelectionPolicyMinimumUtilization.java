@@ -28,6 +28,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
  * @since CloudSim Toolkit 3.0
  */
 public class PowerVmSelectionPolicyMinimumUtilization extends PowerVmSelectionPolicy {
+	private static final long serialVersionUID = 1L;
 
 	/*
 	 * (non-Javadoc)
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Random;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.RandomService;
 
 /**
  * The Random Selection (RS) VM selection policy.
@@ -28,6 +29,10 @@ import org.cloudbus.cloudsim.Vm;
  * @since CloudSim Toolkit 3.0
  */
 public class PowerVmSelectionPolicyRandomSelection extends PowerVmSelectionPolicy {
+	private static final long serialVersionUID = 1L;
+
+	/** The random generator. */
+	private final Random random = RandomService.newStream();
 
 	/*
 	 * (non-Javadoc)
@@ -41,7 +46,7 @@ public class PowerVmSelectionPolicyRandomSelection extends PowerVmSelectionPolic
 		if (migratableVms.isEmpty()) {
 			return null;
 		}
-		int index = (new Random()).nextInt(migratableVms.size());
+		int index = random.nextInt(migratableVms.size());
 		return migratableVms.get(index);
 	}
 
@@ -22,6 +22,7 @@ import org.cloudbus.cloudsim.Vm;
  * @since CloudSim Toolkit 1.0
  */
 public class BwProvisionerSimple extends BwProvisioner {
+	private static final long serialVersionUID = 1L;
 
 	/** The bw table. */
 	private Map<String, Long> bwTable;
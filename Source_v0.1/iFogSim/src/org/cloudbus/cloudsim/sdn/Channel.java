@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.sdn;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -208,25 +209,27 @@ public class Channel {
 		long processedThisRound =  Math.round(timeSpent*getAllocatedBandwidthPerTransmission());
 		
 		//update transmission table; remove finished transmission
-		LinkedList<Transmission> completedTransmissions = new LinkedList<Transmission>();
-		for(Transmission transmission: inTransmission){
+		boolean isCompleted = false;
+		Iterator<Transmission> iter = inTransmission.iterator();
+		while(iter.hasNext()){
+			Transmission transmission = iter.next();
 			transmission.addCompletedLength(processedThisRound);
 			
 			if (transmission.isCompleted()){
-				completedTransmissions.add(transmission);
+				iter.remove();
 				this.completed.add(transmission);
+				isCompleted = true;
 			}	
 		}
 		
-		this.inTransmission.removeAll(completedTransmissions);
 		previousTime=currentTime;
 
-		Log.printLine(CloudSim.clock() + ": Channel.updatePackageProcessing() ("+this.toString()+"):Time spent:"+timeSpent+
-				", BW/host:"+getAllocatedBandwidthPerTransmission()+", Processed:"+processedThisRound);
+		if(!Log.isDisabled()) {
+			Log.printLine(CloudSim.clock() + ": Channel.updatePackageProcessing() ("+this.toString()+"):Time spent:"+timeSpent+
+					", BW/host:"+getAllocatedBandwidthPerTransmission()+", Processed:"+processedThisRound);
+		}
 		
-		if(completedTransmissions.isEmpty())
-			return false;	// Nothing changed
-		return true;
+		return isCompleted;
 	}
 	
 	// Estimated finish time of one transmission
@@ -294,6 +297,14 @@ public class Channel {
 		inTransmission.remove(transmission);
 	}
 
+	/**
+	 * Adds a transmission completed outside this Channel, e.g. by FlowNetworkEngine
+	 * @param transmission completed transmission
+	 */
+	public void addCompletedTransmission(Transmission transmission){
+		completed.add(transmission);
+	}
+
 	/**
 	 * @return list of Packages whose transmission finished, or empty
 	 *         list if no package arrived.
@@ -303,8 +314,8 @@ public class Channel {
 
 		if (!completed.isEmpty()){
 			returnList.addAll(completed);
+			completed.clear();
 		}
-		completed.removeAll(returnList);
 
 		return returnList;
 	}
@@ -322,6 +333,14 @@ public class Channel {
 				+"): BW:"+allocatedBandwidth+", Transmissions:"+inTransmission.size();
 	}
 
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	public List<Link> getLinks() {
+		return links;
+	}
+
 	public Node getLastNode() {
 		Node node = this.nodes.get(this.nodes.size()-1);
 		return node;
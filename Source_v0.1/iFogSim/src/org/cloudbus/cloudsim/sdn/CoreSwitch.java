@@ -16,6 +16,7 @@ package org.cloudbus.cloudsim.sdn;
  * @since CloudSimSDN 1.0
  */
 public class CoreSwitch extends Switch {
+	private static final long serialVersionUID = 1L;
 
 	public CoreSwitch(String name,int bw, long iops, int upports, int downports, NetworkOperatingSystem nos) {
 		super(name, bw, iops, upports, downports, nos);
@@ -0,0 +1,376 @@
+/*
+ * Title:        CloudSimSDN
+ * Description:  SDN extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2015, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.sdn;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Flow level network engine. Every transmission is a flow along the links of its channel, and the
+ * bandwidth of the links is shared among flows with max-min fairness. Dedicated channels (chId != -1
+ * with a requested bandwidth) are served first, each limited to its requested bandwidth; default
+ * channels share what is left.
+ *
+ * Rates are only recomputed, by progressive filling, for the flows connected through shared links to
+ * a flow that started or finished. The finish time of each flow is kept in a priority queue, so NOS
+ * only has to schedule the earliest completion instead of sweeping all channels on every event.
+ *
+ * @since CloudSimSDN 1.0
+ */
+public class FlowNetworkEngine {
+
+	// Relative tolerance used to decide that a link is saturated.
+	private static final double SATURATION_TOLERANCE = 1e-9;
+
+	// Time tolerance used to decide that a flow finished.
+	private static final double TIME_TOLERANCE = 1e-9;
+
+	private final Map<Link, Resource> upResources = new HashMap<Link, Resource>();
+	private final Map<Link, Resource> downResources = new HashMap<Link, Resource>();
+	private final Map<Channel, ChannelFlows> channels = new LinkedHashMap<Channel, ChannelFlows>();
+	private final PriorityQueue<Completion> completions = new PriorityQueue<Completion>();
+	private long completionSequence = 0;
+
+	/**
+	 * Starts a transmission along the given channel.
+	 * @param channel channel whose links the transmission goes through
+	 * @param transmission transmission to start
+	 * @return estimated finish time of the transmission
+	 */
+	public double addTransmission(Channel channel, Transmission transmission) {
+		ChannelFlows channelFlows = channels.get(channel);
+		if(channelFlows == null) {
+			channelFlows = new ChannelFlows(channel);
+			channels.put(channel, channelFlows);
+		}
+
+		Flow flow = new Flow(transmission, channelFlows);
+		flow.lastUpdate = CloudSim.clock();
+		channelFlows.flows.add(flow);
+		for(Resource resource:flow.resources) {
+			resource.flows.add(flow);
+		}
+
+		updateRates(flow.resources);
+		return flow.finishTime;
+	}
+
+	/**
+	 * Completes the transmissions finishing at the current simulation time. Completed transmissions are
+	 * added to the arrived packages of their channel.
+	 * @return channels with newly arrived packages
+	 */
+	public List<Channel> processCompletions() {
+		double now = CloudSim.clock();
+		Set<Channel> completedChannels = new LinkedHashSet<Channel>();
+		Set<Resource> affected = new LinkedHashSet<Resource>();
+
+		while(!completions.isEmpty()) {
+			Completion next = completions.peek();
+			if(next.version != next.flow.version || next.flow.removed) {
+				completions.poll();	// outdated
+				continue;
+			}
+			if(next.time > now + TIME_TOLERANCE) {
+				break;
+			}
+			completions.poll();
+
+			Flow flow = next.flow;
+			flow.transmission.addCompletedLength(flow.transmission.getSize());
+			flow.channelFlows.channel.addCompletedTransmission(flow.transmission);
+			removeFlow(flow);
+			affected.addAll(flow.resources);
+			completedChannels.add(flow.channelFlows.channel);
+		}
+
+		if(!affected.isEmpty()) {
+			updateRates(affected);
+		}
+		return new ArrayList<Channel>(completedChannels);
+	}
+
+	/**
+	 * Drops all transmissions of a channel, e.g. when the channel is removed.
+	 * @param channel the channel
+	 */
+	public void removeChannel(Channel channel) {
+		ChannelFlows channelFlows = channels.remove(channel);
+		if(channelFlows == null || channelFlows.flows.isEmpty())
+			return;
+
+		Set<Resource> affected = new LinkedHashSet<Resource>();
+		for(Flow flow:new ArrayList<Flow>(channelFlows.flows)) {
+			removeFlow(flow);
+			affected.addAll(flow.resources);
+		}
+		updateRates(affected);
+	}
+
+	/**
+	 * @return absolute time of the next transmission completion, or Double.POSITIVE_INFINITY if there is
+	 *         no transmission in progress
+	 */
+	public double getNextFinishTime() {
+		while(!completions.isEmpty()) {
+			Completion next = completions.peek();
+			if(next.version == next.flow.version && !next.flow.removed) {
+				return next.time;
+			}
+			completions.poll();
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	public int getActiveTransmissionNum(Channel channel) {
+		ChannelFlows channelFlows = channels.get(channel);
+		if(channelFlows == null)
+			return 0;
+		return channelFlows.flows.size();
+	}
+
+	private void removeFlow(Flow flow) {
+		flow.removed = true;
+		flow.channelFlows.flows.remove(flow);
+		if(flow.channelFlows.flows.isEmpty()) {
+			channels.remove(flow.channelFlows.channel);
+		}
+		for(Resource resource:flow.resources) {
+			resource.flows.remove(flow);
+		}
+	}
+
+	private Resource getResource(Link link, Node from) {
+		Map<Link, Resource> resources = from.equals(link.getLowOrder()) ? upResources : downResources;
+		Resource resource = resources.get(link);
+		if(resource == null) {
+			resource = new Resource(link.getBw(from));
+			resources.put(link, resource);
+		}
+		return resource;
+	}
+
+	/**
+	 * Recomputes the max-min fair rates of all flows connected to the given resources.
+	 */
+	private void updateRates(Iterable<Resource> seeds) {
+		// Find the connected component
+		Set<Resource> resources = new LinkedHashSet<Resource>();
+		Set<Flow> flows = new LinkedHashSet<Flow>();
+		List<Resource> queue = new ArrayList<Resource>();
+		for(Resource seed:seeds) {
+			if(resources.add(seed))
+				queue.add(seed);
+		}
+		for(int i=0; i<queue.size(); i++) {
+			for(Flow flow:queue.get(i).flows) {
+				if(!flows.add(flow))
+					continue;
+				for(Resource resource:flow.resources) {
+					if(resources.add(resource))
+						queue.add(resource);
+				}
+			}
+		}
+
+		// Progressive filling, dedicated channels first, then default channels on what is left
+		for(Resource resource:resources) {
+			resource.residual = resource.capacity;
+		}
+		List<Flow> dedicated = new ArrayList<Flow>();
+		List<Flow> shared = new ArrayList<Flow>();
+		for(Flow flow:flows) {
+			flow.newRate = 0;
+			flow.frozen = true;
+			if(flow.channelFlows.isDedicated())
+				dedicated.add(flow);
+			else
+				shared.add(flow);
+		}
+		fill(dedicated, resources);
+		fill(shared, resources);
+
+		// Apply the new rates
+		double now = CloudSim.clock();
+		Set<ChannelFlows> changedChannels = new LinkedHashSet<ChannelFlows>();
+		for(Flow flow:flows) {
+			if(flow.newRate == flow.rate && flow.version != 0)
+				continue;
+
+			flow.remaining = Math.max(0, flow.remaining - flow.rate * (now - flow.lastUpdate));
+			flow.lastUpdate = now;
+			flow.rate = flow.newRate;
+			flow.version++;
+			if(flow.remaining == 0) {
+				flow.finishTime = now;
+			} else if(flow.rate > 0) {
+				flow.finishTime = now + flow.remaining / flow.rate;
+			} else {
+				flow.finishTime = Double.POSITIVE_INFINITY;
+			}
+			if(flow.finishTime != Double.POSITIVE_INFINITY) {
+				completions.add(new Completion(flow.finishTime, flow, completionSequence++));
+			}
+			changedChannels.add(flow.channelFlows);
+		}
+
+		// Expose the bandwidth used by each channel
+		for(ChannelFlows channelFlows:changedChannels) {
+			double bw = 0;
+			for(Flow flow:channelFlows.flows) {
+				bw += flow.rate;
+			}
+			channelFlows.channel.changeBandwidth(bw);
+		}
+	}
+
+	private static void fill(List<Flow> flows, Set<Resource> resources) {
+		for(Resource resource:resources) {
+			resource.unfrozen = 0;
+		}
+		List<Flow> unfrozen = new ArrayList<Flow>();
+		for(Flow flow:flows) {
+			unfrozen.add(flow);
+			flow.frozen = false;
+			for(Resource resource:flow.resources) {
+				resource.unfrozen++;
+			}
+		}
+
+		while(!unfrozen.isEmpty()) {
+			double increment = Double.POSITIVE_INFINITY;
+			for(Resource resource:resources) {
+				if(resource.unfrozen > 0 && resource.residual / resource.unfrozen < increment) {
+					increment = resource.residual / resource.unfrozen;
+				}
+			}
+			if(increment == Double.POSITIVE_INFINITY) {
+				break;
+			}
+
+			for(Flow flow:unfrozen) {
+				flow.newRate += increment;
+			}
+			List<Resource> saturated = new ArrayList<Resource>();
+			for(Resource resource:resources) {
+				if(resource.unfrozen == 0)
+					continue;
+				resource.residual -= increment * resource.unfrozen;
+				if(resource.residual <= resource.capacity * SATURATION_TOLERANCE) {
+					resource.residual = 0;
+					saturated.add(resource);
+				}
+			}
+
+			for(Resource resource:saturated) {
+				for(Flow flow:resource.flows) {
+					if(flow.frozen)
+						continue;
+					flow.frozen = true;
+					for(Resource r:flow.resources) {
+						r.unfrozen--;
+					}
+				}
+			}
+			List<Flow> stillUnfrozen = new ArrayList<Flow>();
+			for(Flow flow:unfrozen) {
+				if(!flow.frozen)
+					stillUnfrozen.add(flow);
+			}
+			unfrozen = stillUnfrozen;
+		}
+	}
+
+	/**
+	 * Directional link capacity, or the requested bandwidth of a dedicated channel.
+	 */
+	private static class Resource {
+		final double capacity;
+		final Set<Flow> flows = new LinkedHashSet<Flow>();
+		double residual;
+		int unfrozen;
+
+		Resource(double capacity) {
+			this.capacity = capacity;
+		}
+	}
+
+	private class ChannelFlows {
+		final Channel channel;
+		final List<Resource> resources = new ArrayList<Resource>();
+		final Set<Flow> flows = new LinkedHashSet<Flow>();
+
+		ChannelFlows(Channel channel) {
+			this.channel = channel;
+			List<Node> nodes = channel.getNodes();
+			List<Link> links = channel.getLinks();
+			for(int i=0; i<links.size(); i++) {
+				resources.add(getResource(links.get(i), nodes.get(i)));
+			}
+			if(isDedicated()) {
+				resources.add(new Resource(channel.getRequestedBandwidth()));
+			}
+		}
+
+		boolean isDedicated() {
+			return channel.getChId() != -1 && channel.getRequestedBandwidth() > 0;
+		}
+	}
+
+	private static class Flow {
+		final Transmission transmission;
+		final ChannelFlows channelFlows;
+		final List<Resource> resources;
+		double remaining;
+		double rate;
+		double newRate;
+		double lastUpdate;
+		double finishTime = Double.POSITIVE_INFINITY;
+		long version;
+		boolean frozen;
+		boolean removed;
+
+		Flow(Transmission transmission, ChannelFlows channelFlows) {
+			this.transmission = transmission;
+			this.channelFlows = channelFlows;
+			this.resources = channelFlows.resources;
+			this.remaining = transmission.getSize();
+		}
+	}
+
+	private static class Completion implements Comparable<Completion> {
+		final double time;
+		final Flow flow;
+		final long version;
+		final long sequence;
+
+		Completion(double time, Flow flow, long sequence) {
+			this.time = time;
+			this.flow = flow;
+			this.version = flow.version;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Completion o) {
+			int result = Double.compare(time, o.time);
+			if(result == 0)
+				result = Long.compare(sequence, o.sequence);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Title:        CloudSimSDN
+ * Description:  SDN extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2015, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.sdn;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash table keyed by (source VM, destination VM, flow) packed in a long (see {@link #getKey(int, int, int)}).
+ * It is used for the forwarding rules of switches and hosts and for the channel table of NOS, so that
+ * forwarding a package does not build or hash String keys.
+ *
+ * Entries are stored densely (removal moves the last entry into the hole) and indexed by an open
+ * addressing table, so lookups do not allocate and iteration is over arrays.
+ *
+ * @since CloudSimSDN 1.0
+ */
+public class FlowTable<V> {
+
+	private static final int VM_BITS = 21;
+	private static final int FLOW_BITS = 64 - 2 * VM_BITS;
+	private static final long VM_MASK = (1L << VM_BITS) - 1;
+	private static final long FLOW_MASK = (1L << FLOW_BITS) - 1;
+
+	private long[] keys;
+	private Object[] values;
+	private int size;
+
+	// index+1 of the entry in keys/values, 0 for an empty slot
+	private int[] slots;
+
+	private final List<V> valuesView = new AbstractList<V>() {
+		@Override
+		public V get(int index) {
+			return getValue(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	};
+
+	public FlowTable() {
+		this(16);
+	}
+
+	public FlowTable(int expectedSize) {
+		int capacity = Math.max(4, expectedSize);
+		keys = new long[capacity];
+		values = new Object[capacity];
+		slots = new int[tableSize(capacity)];
+	}
+
+	/**
+	 * Packs (src, dst, flowId) in a long. VM ids must be in [0, 2^21) and flow ids in [-1, 2^22 - 1).
+	 */
+	public static long getKey(int src, int dst, int flowId) {
+		if(src < 0 || src > VM_MASK || dst < 0 || dst > VM_MASK || flowId < -1 || flowId >= FLOW_MASK) {
+			throw new IllegalArgumentException("FlowTable.getKey(): id out of range: " + src + "->" + dst + ", flow =" + flowId);
+		}
+		return ((long) src << (VM_BITS + FLOW_BITS)) | ((long) dst << FLOW_BITS) | (flowId + 1L);
+	}
+
+	public static int getSrc(long key) {
+		return (int) (key >>> (VM_BITS + FLOW_BITS));
+	}
+
+	public static int getDst(long key) {
+		return (int) ((key >>> FLOW_BITS) & VM_MASK);
+	}
+
+	public static int getFlowId(long key) {
+		return (int) ((key & FLOW_MASK) - 1);
+	}
+
+	public V get(int src, int dst, int flowId) {
+		return get(getKey(src, dst, flowId));
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int index = indexOf(key);
+		return index < 0 ? null : (V) values[index];
+	}
+
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		int slot = findSlot(key);
+		if(slots[slot] != 0) {
+			int index = slots[slot] - 1;
+			V previous = (V) values[index];
+			values[index] = value;
+			return previous;
+		}
+
+		if(size == keys.length) {
+			grow();
+			slot = findSlot(key);
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		slots[slot] = size;
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int slot = findSlot(key);
+		if(slots[slot] == 0)
+			return null;
+
+		int index = slots[slot] - 1;
+		V removed = (V) values[index];
+		deleteSlot(slot);
+
+		// move the last entry into the hole
+		int last = size - 1;
+		if(index != last) {
+			keys[index] = keys[last];
+			values[index] = values[last];
+			slots[findSlot(keys[index])] = index + 1;
+		}
+		values[last] = null;
+		size--;
+		return removed;
+	}
+
+	public void clear() {
+		Arrays.fill(values, 0, size, null);
+		Arrays.fill(slots, 0);
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param index entry index, from 0 to size()-1
+	 */
+	public long getKeyAt(int index) {
+		if(index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return keys[index];
+	}
+
+	/**
+	 * @param index entry index, from 0 to size()-1
+	 */
+	@SuppressWarnings("unchecked")
+	public V getValue(int index) {
+		if(index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return (V) values[index];
+	}
+
+	/**
+	 * @return live read only view of the values. The table must not be modified while iterating.
+	 */
+	public List<V> values() {
+		return valuesView;
+	}
+
+	private int indexOf(long key) {
+		int slot = findSlot(key);
+		return slots[slot] - 1;
+	}
+
+	// Slot holding the key, or the empty slot where it would be inserted
+	private int findSlot(long key) {
+		int mask = slots.length - 1;
+		int slot = hash(key) & mask;
+		while(slots[slot] != 0 && keys[slots[slot] - 1] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	// Backward shift deletion, keeps probe sequences without tombstones
+	private void deleteSlot(int slot) {
+		int mask = slots.length - 1;
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while(slots[next] != 0) {
+			int home = hash(keys[slots[next] - 1]) & mask;
+			if(((next - home) & mask) >= ((next - hole) & mask)) {
+				slots[hole] = slots[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		slots[hole] = 0;
+	}
+
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		values = Arrays.copyOf(values, capacity);
+		slots = new int[tableSize(capacity)];
+		int mask = slots.length - 1;
+		for(int i=0; i<size; i++) {
+			int slot = hash(keys[i]) & mask;
+			while(slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = i + 1;
+		}
+	}
+
+	private static int tableSize(int capacity) {
+		// at most half full
+		int n = 1;
+		while(n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -51,13 +51,14 @@ import org.json.simple.JSONValue;
  * @since CloudSimSDN 1.0
  */
 public abstract class NetworkOperatingSystem extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	String physicalTopologyFileName; 
 	protected PhysicalTopology topology;
 	//Hashtable<Integer,SDNHost> vmHostTable;
 	Hashtable<Package,Node> pkgTable;
 	
-	Hashtable<String, Channel> channelTable;
+	FlowTable<Channel> channelTable;
 
 	List<Host> hosts;
 	protected List<SDNHost> sdnhosts;
@@ -80,6 +81,11 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 	public static int resolutionPlaces = 5;
 	public static int timeUnit = 1;	// 1: sec, 1000: msec
 	
+	// Share link bandwidth among flows with max-min fairness (FlowNetworkEngine) instead of adjusting all channels
+	public static boolean useFlowNetworkEngine = false;
+	protected FlowNetworkEngine flowEngine;
+	private double scheduledFinishTime = Double.NaN;
+	
 
 
 
@@ -97,7 +103,9 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		this.physicalTopologyFileName = fileName;
 		
 		this.pkgTable = new Hashtable<Package, Node>();
-		this.channelTable = new Hashtable<String, Channel>();
+		this.channelTable = new FlowTable<Channel>();
+		if(useFlowNetworkEngine)
+			this.flowEngine = new FlowNetworkEngine();
 		
 		initPhysicalTopology();
 	}
@@ -177,7 +185,8 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 			return;
 		}
 		
-		updatePackageProcessing();
+		if(flowEngine == null)
+			updatePackageProcessing();
 		
 		pkgTable.put(pkg,sender);
 		
@@ -193,23 +202,56 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 			addChannel(src, dst, flowId, channel);
 		}
 		
-		double eft = channel.addTransmission(new Transmission(pkg));
-		Log.printLine(CloudSim.clock() + ": " + getName() + ".addPackageToChannel ("+channel
-				+"): Transmission added:" + 
-				NetworkOperatingSystem.debugVmIdName.get(src) + "->"+
-				NetworkOperatingSystem.debugVmIdName.get(dst) + ", flow ="+flowId + " / eft="+eft);
+		double eft;
+		if(flowEngine != null)
+			eft = flowEngine.addTransmission(channel, new Transmission(pkg)) - CloudSim.clock();
+		else
+			eft = channel.addTransmission(new Transmission(pkg));
+		if(!Log.isDisabled())
+			Log.printLine(CloudSim.clock() + ": " + getName() + ".addPackageToChannel ("+channel
+					+"): Transmission added:" + 
+					NetworkOperatingSystem.debugVmIdName.get(src) + "->"+
+					NetworkOperatingSystem.debugVmIdName.get(dst) + ", flow ="+flowId + " / eft="+eft);
 
 		sendInternalEvent();
 	}
 	
 
 	private void internalPackageProcess() {
+		if(flowEngine != null) {
+			scheduledFinishTime = Double.NaN;
+			List<Channel> channels = flowEngine.processCompletions();
+			processCompletePackages(channels);
+			for(Channel ch:channels) {
+				if(flowEngine.getActiveTransmissionNum(ch) == 0) {
+					// No more job in channel. Delete
+					removeChannel(getKey(ch.getSrcId(), ch.getDstId(), ch.getChId()));
+				}
+			}
+			sendInternalEvent();
+			return;
+		}
 		if(updatePackageProcessing()) {
 			sendInternalEvent();
 		}
 	}
 	
 	private void sendInternalEvent() {
+		if(flowEngine != null) {
+			// Only the earliest completion is scheduled
+			double finishTime = flowEngine.getNextFinishTime();
+			if(finishTime == scheduledFinishTime)
+				return;
+			CloudSim.cancelAll(getId(), new PredicateType(Constants.SDN_INTERNAL_PACKAGE_PROCESS));
+			scheduledFinishTime = finishTime;
+			if(finishTime != Double.POSITIVE_INFINITY) {
+				double delay = round(finishTime - CloudSim.clock());
+				if(delay < getMinTimeBetweenNetworkEvents())
+					delay = getMinTimeBetweenNetworkEvents();
+				send(this.getId(), delay, Constants.SDN_INTERNAL_PACKAGE_PROCESS);
+			}
+			return;
+		}
 		CloudSim.cancelAll(getId(), new PredicateType(Constants.SDN_INTERNAL_PACKAGE_PROCESS));
 		
 		if(channelTable.size() != 0) {
@@ -283,27 +325,26 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 	
 	private Channel findChannel(int from, int to, int channelId) {
 		// check if there is a pre-configured channel for this application
-		Channel channel=channelTable.get(getKey(from,to, channelId));
-
-		if (channel == null) {
-			//there is no channel for specific flow, find the default channel for this link
-			channel=channelTable.get(getKey(from,to));
-		}
-		return channel;
+		// channels are always registered with their flow id (see addChannel)
+		return channelTable.get(getKey(from,to, channelId));
 	}
 	
 	private void addChannel(int src, int dst, int chId, Channel ch) {
 		//System.err.println("NOS.addChannel:"+getKey(src, dst, chId));
 		this.channelTable.put(getKey(src, dst, chId), ch);
 		ch.initialize();
-		adjustAllChannels();
+		if(flowEngine == null)
+			adjustAllChannels();
 	}
 	
-	private Channel removeChannel(String key) {
+	private Channel removeChannel(long key) {
 		//System.err.println("NOS.removeChannel:"+key);
 		Channel ch = this.channelTable.remove(key);
 		ch.terminate();
-		adjustAllChannels();
+		if(flowEngine != null)
+			flowEngine.removeChannel(ch);
+		else
+			adjustAllChannels();
 		return ch;
 	}
 	
@@ -360,7 +401,7 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		if(flowId != -1 && lowestBw < reqBw) {
 			// free bandwidth is less than required one.
 			// Cannot make channel.
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Free bandwidth is less than required.("+getKey(src,dst,flowId)+"): ReqBW="+ reqBw + "/ Free="+lowestBw);
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Free bandwidth is less than required.("+src+"-"+dst+"-"+flowId+"): ReqBW="+ reqBw + "/ Free="+lowestBw);
 			//return null;
 		}
 		
@@ -370,26 +411,22 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 	}
 	
 	private void updateChannel() {
-		List<String> removeCh = new ArrayList<String>();  
-		for(String key:this.channelTable.keySet()) {
-			Channel ch = this.channelTable.get(key);
+		List<Long> removeCh = new ArrayList<Long>();  
+		for(int i=0; i<this.channelTable.size(); i++) {
+			Channel ch = this.channelTable.getValue(i);
 			if(ch.getActiveTransmissionNum() == 0) {
 				// No more job in channel. Delete
-				removeCh.add(key);
+				removeCh.add(this.channelTable.getKeyAt(i));
 			}
 		}
 		
-		for(String key:removeCh) {
+		for(long key:removeCh) {
 			removeChannel(key);
 		}
 	}
 	
-	private String getKey(int origin, int destination) {
-		return origin+"-"+destination;
-	}
-	
-	private String getKey(int origin, int destination, int appId) {
-		return getKey(origin,destination)+"-"+appId;
+	private long getKey(int origin, int destination, int appId) {
+		return FlowTable.getKey(origin, destination, appId);
 	}
 
 
@@ -405,6 +442,10 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		return this.switches;
 	}
 
+	public PhysicalTopology getPhysicalTopology() {
+		return this.topology;
+	}
+
 	public boolean isApplicationDeployed() {
 		return isApplicationDeployed;
 	}
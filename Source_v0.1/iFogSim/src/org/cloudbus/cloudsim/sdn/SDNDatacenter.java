@@ -31,6 +31,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * @since CloudSimSDN 1.0
  */
 public class SDNDatacenter extends Datacenter {
+	private static final long serialVersionUID = 1L;
 
 	NetworkOperatingSystem nos;
 	
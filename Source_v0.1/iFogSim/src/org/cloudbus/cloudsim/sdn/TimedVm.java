@@ -20,6 +20,7 @@ import org.cloudbus.cloudsim.Vm;
  * @since CloudSimSDN 1.0
  */
 public class TimedVm extends Vm {
+	private static final long serialVersionUID = 1L;
 
 	private double startTime;
 	private double finishTime;
@@ -0,0 +1,170 @@
+/*
+ * Title:        CloudSimSDN
+ * Description:  SDN extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2015, The University of Melbourne, Australia
+ */
+package org.cloudbus.cloudsim.sdn.example;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.sdn.Link;
+import org.cloudbus.cloudsim.sdn.NetworkOperatingSystem;
+import org.cloudbus.cloudsim.sdn.Node;
+import org.cloudbus.cloudsim.sdn.SDNHost;
+import org.cloudbus.cloudsim.sdn.example.topogenerators.PhysicalTopologyGenerator;
+import org.cloudbus.cloudsim.util.BenchmarkUtil;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Package forwarding throughput benchmark of the SDN forwarding tables.
+ * For each fan out, a physical topology is generated with PhysicalTopologyGenerator and loaded by NOS. Two VMs are
+ * placed on every host and VM routes are installed hop by hop for random (src, dst, flow) triples, as done when
+ * flows are deployed. The benchmark then forwards packages along their routes with getVMRoute, as NOS does when
+ * it creates channels, and reports forwarded hops per second and bytes allocated per package.
+ *
+ * Usage : ForwardingBenchmark [output file] [packages] [flows]
+ *
+ * @since CloudSimSDN 1.0
+ */
+public class ForwardingBenchmark {
+
+	static int[] fanOuts = new int[]{2, 4, 8, 16};
+	static String outputFile = "forwarding-benchmark.json";
+	static int packages = 2000000;
+	static int flows = 2000;
+	static int vmsPerHost = 2;
+
+	private static final PrintStream console = System.out;
+
+	@SuppressWarnings("unchecked")
+	public static void main(String[] args) throws IOException {
+		if(args.length > 0)
+			outputFile = args[0];
+		if(args.length > 1)
+			packages = Integer.parseInt(args[1]);
+		if(args.length > 2)
+			flows = Integer.parseInt(args[2]);
+
+		Log.disable();
+		JSONArray results = new JSONArray();
+		console.println(String.format("%6s %6s %8s %12s %14s %14s", "fanout", "hosts", "hops/pkg", "Mhops/s", "packages/s", "alloc(B/pkg)"));
+		for(int fanOut:fanOuts) {
+			JSONObject result = runScenario(fanOut);
+			results.add(result);
+			console.println(String.format("%6d %6d %8.2f %12.2f %14.0f %14.2f", fanOut, result.get("hosts"), result.get("hopsPerPackage"),
+					result.get("megaHopsPerSecond"), result.get("packagesPerSecond"), result.get("allocatedBytesPerPackage")));
+		}
+
+		JSONObject report = new JSONObject();
+		report.put("benchmark", "sdn-forwarding");
+		report.put("packages", packages);
+		report.put("flows", flows);
+		report.put("javaVersion", System.getProperty("java.version"));
+		report.put("results", results);
+		FileWriter writer = new FileWriter(outputFile);
+		try {
+			writer.write(report.toJSONString());
+		} finally {
+			writer.close();
+		}
+		console.println("Results written to " + outputFile);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static JSONObject runScenario(int fanOut) throws IOException {
+		File topologyFile = File.createTempFile("forwarding-benchmark", ".json");
+		topologyFile.deleteOnExit();
+
+		BenchmarkUtil.muteConsole();
+		NetworkOperatingSystem nos;
+		try {
+			PhysicalTopologyGenerator generator = new PhysicalTopologyGenerator();
+			generator.createTopology(generator.createHostSpec(8, 4000, 10240, 10000000, 1000000000), 1000000000L, 1000000000L, fanOut, 0.1);
+			generator.wrtieJSON(topologyFile.getPath());
+
+			CloudSim.init(1, Calendar.getInstance(), false);
+			nos = new SimpleNetworkOperatingSystem(topologyFile.getPath());
+		} finally {
+			BenchmarkUtil.unmuteConsole();
+		}
+
+		List<SDNHost> hosts = new ArrayList<SDNHost>();
+		for(Node node:nos.getPhysicalTopology().getAllNodes()) {
+			if(node instanceof SDNHost)
+				hosts.add((SDNHost) node);
+		}
+
+		// Install VM routes for random flows
+		Random random = new Random(fanOut);
+		int vms = hosts.size() * vmsPerHost;
+		int[][] flowTable = new int[flows][];
+		for(int i=0; i<flows; i++) {
+			int src = random.nextInt(vms);
+			int dst = random.nextInt(vms);
+			int flowId = random.nextInt(4) - 1;
+			flowTable[i] = new int[]{src, dst, flowId};
+			installRoute(hosts.get(src % hosts.size()), hosts.get(dst % hosts.size()), src, dst, flowId);
+		}
+
+		// Warm up, then measure
+		forward(hosts, flowTable, packages / 10);
+		long allocatedStart = BenchmarkUtil.getAllocatedBytes();
+		long start = System.nanoTime();
+		long hops = forward(hosts, flowTable, packages);
+		long nanos = System.nanoTime() - start;
+		long allocated = BenchmarkUtil.getAllocatedBytesSince(allocatedStart);
+
+		JSONObject result = new JSONObject();
+		result.put("fanOut", fanOut);
+		result.put("hosts", hosts.size());
+		result.put("flows", flows);
+		result.put("hopsPerPackage", (double) hops / packages);
+		result.put("megaHopsPerSecond", hops / (nanos / 1e9) / 1e6);
+		result.put("packagesPerSecond", packages / (nanos / 1e9));
+		result.put("allocatedBytesPerPackage", allocated < 0 ? -1.0 : (double) allocated / packages);
+		return result;
+	}
+
+	private static void installRoute(SDNHost srcHost, SDNHost dstHost, int src, int dst, int flowId) {
+		if(srcHost.equals(dstHost)) {
+			srcHost.addVMRoute(src, dst, flowId, dstHost);
+			return;
+		}
+
+		Node node = srcHost;
+		while(!node.equals(dstHost)) {
+			Link link = node.getRoute(dstHost).get(0);
+			Node nextHop = link.getOtherNode(node);
+			node.addVMRoute(src, dst, flowId, nextHop);
+			node = nextHop;
+		}
+	}
+
+	private static long forward(List<SDNHost> hosts, int[][] flowTable, int count) {
+		long hops = 0;
+		for(int i=0; i<count; i++) {
+			int[] flow = flowTable[i % flowTable.length];
+			Node node = hosts.get(flow[0] % hosts.size());
+			Node dstHost = hosts.get(flow[1] % hosts.size());
+
+			// Same walk as NOS.createChannel, loopback packages take one lookup
+			do {
+				node = node.getVMRoute(flow[0], flow[1], flow[2]);
+				hops++;
+			} while(!node.equals(dstHost));
+		}
+		return hops;
+	}
+}
@@ -29,6 +29,7 @@ import org.cloudbus.cloudsim.sdn.SDNDatacenter;
  * @since CloudSimSDN 1.0
  */
 public class SDNBroker extends SimEntity {
+	private static final long serialVersionUID = 1L;
 
 	private SDNDatacenter datacenter = null;
 	private String applicationFileName = null;
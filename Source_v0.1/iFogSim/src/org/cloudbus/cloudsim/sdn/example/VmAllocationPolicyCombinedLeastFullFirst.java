@@ -1,11 +1,14 @@
 package org.cloudbus.cloudsim.sdn.example;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.DoubleMaxTree;
 
 public class VmAllocationPolicyCombinedLeastFullFirst extends VmAllocationPolicyCombinedMostFullFirst{
+	private static final long serialVersionUID = 1L;
 
 	public VmAllocationPolicyCombinedLeastFullFirst(List<? extends Host> list) {
 		super(list);
@@ -34,61 +37,64 @@ public class VmAllocationPolicyCombinedLeastFullFirst extends VmAllocationPolicy
 
 		boolean result = false;
 		
-		double[] freeResources = new double[numHosts];
-		for (int i = 0; i < numHosts; i++) {
-			double mipsFreePercent = (double)getFreeMips().get(i) / hostTotalMips; 
-			double bwFreePercent = (double)getFreeBw().get(i) / hostTotalBw;
+		DoubleMaxTree index = getFreeResourcesIndex();
+		List<Integer> triedHosts = new ArrayList<Integer>();
+		try {
+			for(int tries = 0; tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
+				// we want the least full host first
+				int idx = index.getMaxIndex();
 			
-			freeResources[i] = convertWeightedMetric(mipsFreePercent, bwFreePercent);
-		}
-
-		for(int tries = 0; tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
-			double moreFree = Double.NEGATIVE_INFINITY;
-			int idx = -1;
-
-			// we want the host with less pes in use
-			for (int i = 0; i < numHosts; i++) {
-				if (freeResources[i] > moreFree) {
-					moreFree = freeResources[i];
-					idx = i;
+				if(idx==-1) {
+					System.err.println("Cannot assign the VM to any host:"+tries+"/"+numHosts);
+					return false;
 				}
-			}
 			
-			if(idx==-1) {
-				System.err.println("Cannot assign the VM to any host:"+tries+"/"+numHosts);
-				return false;
-			}
+				triedHosts.add(idx);
+				index.set(idx, Double.NEGATIVE_INFINITY);
 			
-			freeResources[idx] = Double.NEGATIVE_INFINITY;
+				Host host = getHostList().get(idx);
 			
-			Host host = getHostList().get(idx);
-			
-			// Check whether the host can hold this VM or not.
-			if(getFreeMips().get(idx) < requiredMips ||
-					getFreeBw().get(idx) < requiredBw ||
-					getFreePes().get(idx) < requiredPes) {
-				//Cannot host the VM
-				continue;
-			}
+				// Check whether the host can hold this VM or not.
+				if(getFreeMips().get(idx) < requiredMips ||
+						getFreeBw().get(idx) < requiredBw ||
+						getFreePes().get(idx) < requiredPes) {
+					//Cannot host the VM
+					continue;
+				}
 			
-			result = host.vmCreate(vm);
+				result = host.vmCreate(vm);
 
-			if (result) { // if vm were succesfully created in the host
-				getVmTable().put(vm.getUid(), host);
-				getUsedPes().put(vm.getUid(), requiredPes);
-				getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+				if (result) { // if vm were succesfully created in the host
+					getVmTable().put(vm.getUid(), host);
+					getUsedPes().put(vm.getUid(), requiredPes);
+					setFreePes(idx, getFreePes().get(idx) - requiredPes);
 				
-				getUsedMips().put(vm.getUid(), (long) requiredMips);
-				getFreeMips().set(idx,  (long) (getFreeMips().get(idx) - requiredMips));
+					getUsedMips().put(vm.getUid(), (long) requiredMips);
+					setFreeMips(idx, (long) (getFreeMips().get(idx) - requiredMips));
 
-				getUsedBw().put(vm.getUid(), (long) requiredBw);
-				getFreeBw().set(idx,  (long) (getFreeBw().get(idx) - requiredBw));
-				break;
-			} 
+					getUsedBw().put(vm.getUid(), (long) requiredBw);
+					setFreeBw(idx, (long) (getFreeBw().get(idx) - requiredBw));
+					break;
+				} 
+			}
+		} finally {
+			for (int idx : triedHosts) {
+				index.set(idx, getHostPriority(idx));
+			}
 		}
 		logMaxNumHostsUsed();
 		return result;
 	}
 
-}
+	/**
+	 * Gets the priority of a host, the least full host comes first.
+	 * 
+	 * @param idx the host index
+	 * @return the priority
+	 */
+	@Override
+	protected double getHostPriority(int idx) {
+		return getFreeResources(idx);
+	}
 
+}
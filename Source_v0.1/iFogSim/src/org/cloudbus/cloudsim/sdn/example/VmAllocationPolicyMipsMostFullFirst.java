@@ -1,11 +1,14 @@
 package org.cloudbus.cloudsim.sdn.example;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.DoubleMaxTree;
 
 public class VmAllocationPolicyMipsMostFullFirst extends VmAllocationPolicyCombinedMostFullFirst{
+	private static final long serialVersionUID = 1L;
 
 	public VmAllocationPolicyMipsMostFullFirst(List<? extends Host> list) {
 		super(list);
@@ -34,49 +37,43 @@ public class VmAllocationPolicyMipsMostFullFirst extends VmAllocationPolicyCombi
 
 		boolean result = false;
 		
-		double[] freeResources = new double[numHosts];
-		for (int i = 0; i < numHosts; i++) {
-			double mipsFreePercent = (double)getFreeMips().get(i) / this.hostTotalMips; 
+		DoubleMaxTree index = getFreeResourcesIndex();
+		List<Integer> triedHosts = new ArrayList<Integer>();
+		try {
+			for(int tries = 0; result == false && tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
+				// we want the most full host first
+				int idx = index.getMaxIndex();
+				triedHosts.add(idx);
+				index.set(idx, Double.NEGATIVE_INFINITY);
+				Host host = getHostList().get(idx);
 			
-			freeResources[i] = mipsFreePercent;
-		}
-
-		for(int tries = 0; result == false && tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
-			double lessFree = Double.POSITIVE_INFINITY;
-			int idx = -1;
-
-			// we want the host with less pes in use
-			for (int i = 0; i < numHosts; i++) {
-				if (freeResources[i] < lessFree) {
-					lessFree = freeResources[i];
-					idx = i;
+				// Check whether the host can hold this VM or not.
+				if(getFreeMips().get(idx) < requiredMips ||
+						getFreeBw().get(idx) < requiredBw ||
+						getFreePes().get(idx) < requiredPes) {
+					//Cannot host the VM
+					continue;
 				}
-			}
-			freeResources[idx] = Double.POSITIVE_INFINITY;
-			Host host = getHostList().get(idx);
 			
-			// Check whether the host can hold this VM or not.
-			if(getFreeMips().get(idx) < requiredMips ||
-					getFreeBw().get(idx) < requiredBw ||
-					getFreePes().get(idx) < requiredPes) {
-				//Cannot host the VM
-				continue;
-			}
-			
-			result = host.vmCreate(vm);
+				result = host.vmCreate(vm);
 
-			if (result) { // if vm were succesfully created in the host
-				getVmTable().put(vm.getUid(), host);
-				getUsedPes().put(vm.getUid(), requiredPes);
-				getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+				if (result) { // if vm were succesfully created in the host
+					getVmTable().put(vm.getUid(), host);
+					getUsedPes().put(vm.getUid(), requiredPes);
+					setFreePes(idx, getFreePes().get(idx) - requiredPes);
 				
-				getUsedMips().put(vm.getUid(), (long) requiredMips);
-				getFreeMips().set(idx,  (long) (getFreeMips().get(idx) - requiredMips));
+					getUsedMips().put(vm.getUid(), (long) requiredMips);
+					setFreeMips(idx, (long) (getFreeMips().get(idx) - requiredMips));
 
-				getUsedBw().put(vm.getUid(), (long) requiredBw);
-				getFreeBw().set(idx,  (long) (getFreeBw().get(idx) - requiredBw));
+					getUsedBw().put(vm.getUid(), (long) requiredBw);
+					setFreeBw(idx, (long) (getFreeBw().get(idx) - requiredBw));
 
-				break;
+					break;
+				}
+			}
+		} finally {
+			for (int idx : triedHosts) {
+				index.set(idx, getHostPriority(idx));
 			}
 		}
 		
@@ -84,5 +81,15 @@ public class VmAllocationPolicyMipsMostFullFirst extends VmAllocationPolicyCombi
 		return result;
 	}
 
-}
+	/**
+	 * Gets the free mips of a host, bandwidth is not considered.
+	 * 
+	 * @param idx the host index
+	 * @return the free resources metric
+	 */
+	@Override
+	protected double getFreeResources(int idx) {
+		return (double)getFreeMips().get(idx) / this.hostTotalMips;
+	}
 
+}
@@ -18,6 +18,7 @@ import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.sdn.power.PowerUtilizationMaxHostInterface;
+import org.cloudbus.cloudsim.util.DoubleMaxTree;
 
 /**
  * VM Allocation Policy - BW and Compute combined, MFF.
@@ -28,6 +29,7 @@ import org.cloudbus.cloudsim.sdn.power.PowerUtilizationMaxHostInterface;
  * @since CloudSimSDN 1.0
  */
 public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy implements PowerUtilizationMaxHostInterface {
+	private static final long serialVersionUID = 1L;
 
 	protected final double hostTotalMips;
 	protected final double hostTotalBw;
@@ -47,6 +49,15 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	private Map<String, Long> usedBw;
 	private List<Long> freeBw;
 
+	/** The free resources index, used to find the next host to try without scanning every host. */
+	private transient DoubleMaxTree freeResourcesIndex;
+
+	/** The index of each host in the host list. */
+	private transient Map<Host, Integer> hostIndexes;
+
+	/** The number of hosts with pes in use, -1 when not counted yet. */
+	private int usedHosts = -1;
+
 	/**
 	 * Creates the new VmAllocationPolicySimple object.
 	 * 
@@ -103,55 +114,48 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 
 		boolean result = false;
 		
-		double[] freeResources = new double[numHosts];
-		for (int i = 0; i < numHosts; i++) {
-			double mipsFreePercent = (double)getFreeMips().get(i) / this.hostTotalMips; 
-			double bwFreePercent = (double)getFreeBw().get(i) / this.hostTotalBw;
+		DoubleMaxTree index = getFreeResourcesIndex();
+		List<Integer> triedHosts = new ArrayList<Integer>();
+		try {
+			for(int tries = 0; result == false && tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
+				// we want the most full host first
+				int idx = index.getMaxIndex();
+				triedHosts.add(idx);
+				index.set(idx, Double.NEGATIVE_INFINITY);
+				Host host = getHostList().get(idx);
 			
-			freeResources[i] = this.convertWeightedMetric(mipsFreePercent, bwFreePercent);
-		}
-
-		for(int tries = 0; result == false && tries < numHosts; tries++) {// we still trying until we find a host or until we try all of them
-			double lessFree = Double.POSITIVE_INFINITY;
-			int idx = -1;
 
-			// we want the host with less pes in use
-			for (int i = 0; i < numHosts; i++) {
-				if (freeResources[i] < lessFree) {
-					lessFree = freeResources[i];
-					idx = i;
+				// Check whether the host can hold this VM or not.
+				if( getFreeMips().get(idx) < requiredMips) {
+					//System.err.println("not enough MIPS");
+					//Cannot host the VM
+					continue;
+				}
+				if( getFreeBw().get(idx) < requiredBw) {
+					//System.err.println("not enough BW");
+					//Cannot host the VM
+					continue;
 				}
-			}
-			freeResources[idx] = Double.POSITIVE_INFINITY;
-			Host host = getHostList().get(idx);
-			
-
-			// Check whether the host can hold this VM or not.
-			if( getFreeMips().get(idx) < requiredMips) {
-				//System.err.println("not enough MIPS");
-				//Cannot host the VM
-				continue;
-			}
-			if( getFreeBw().get(idx) < requiredBw) {
-				//System.err.println("not enough BW");
-				//Cannot host the VM
-				continue;
-			}
 			
-			result = host.vmCreate(vm);
+				result = host.vmCreate(vm);
 
-			if (result) { // if vm were succesfully created in the host
-				getVmTable().put(vm.getUid(), host);
-				getUsedPes().put(vm.getUid(), requiredPes);
-				getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+				if (result) { // if vm were succesfully created in the host
+					getVmTable().put(vm.getUid(), host);
+					getUsedPes().put(vm.getUid(), requiredPes);
+					setFreePes(idx, getFreePes().get(idx) - requiredPes);
 				
-				getUsedMips().put(vm.getUid(), (long) requiredMips);
-				getFreeMips().set(idx,  (long) (getFreeMips().get(idx) - requiredMips));
+					getUsedMips().put(vm.getUid(), (long) requiredMips);
+					setFreeMips(idx, (long) (getFreeMips().get(idx) - requiredMips));
 
-				getUsedBw().put(vm.getUid(), (long) requiredBw);
-				getFreeBw().set(idx,  (long) (getFreeBw().get(idx) - requiredBw));
+					getUsedBw().put(vm.getUid(), (long) requiredBw);
+					setFreeBw(idx, (long) (getFreeBw().get(idx) - requiredBw));
 
-				break;
+					break;
+				}
+			}
+		} finally {
+			for (int idx : triedHosts) {
+				index.set(idx, getHostPriority(idx));
 			}
 		}
 		
@@ -164,13 +168,7 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	
 	protected int maxNumHostsUsed=0;
 	public void logMaxNumHostsUsed() {
-		// Get how many are used
-		int numHostsUsed=0;
-		for(int freePes:getFreePes()) {
-			if(freePes < hostTotalPes) {
-				numHostsUsed++;
-			}
-		}
+		int numHostsUsed = getNumHostsUsed();
 		if(maxNumHostsUsed < numHostsUsed)
 			maxNumHostsUsed = numHostsUsed;
 		Log.printLine("Number of online hosts:"+numHostsUsed + ", max was ="+maxNumHostsUsed);
@@ -188,17 +186,17 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
 		if (host != null) {
-			int idx = getHostList().indexOf(host);
+			int idx = getHostIndex(host);
 			host.vmDestroy(vm);
 			
 			Integer pes = getUsedPes().remove(vm.getUid());
-			getFreePes().set(idx, getFreePes().get(idx) + pes);
+			setFreePes(idx, getFreePes().get(idx) + pes);
 			
 			Long mips = getUsedMips().remove(vm.getUid());
-			getFreeMips().set(idx, getFreeMips().get(idx) + mips);
+			setFreeMips(idx, getFreeMips().get(idx) + mips);
 			
 			Long bw = getUsedBw().remove(vm.getUid());
-			getFreeBw().set(idx, getFreeBw().get(idx) + bw);
+			setFreeBw(idx, getFreeBw().get(idx) + bw);
 		}
 	}
 
@@ -281,6 +279,7 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	 */
 	protected void setFreePes(List<Integer> freePes) {
 		this.freePes = freePes;
+		usedHosts = -1;
 	}
 
 	protected Map<String, Long> getUsedMips() {
@@ -300,6 +299,7 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	}
 	protected void setFreeMips(List<Long> freeMips) {
 		this.freeMips = freeMips;
+		freeResourcesIndex = null;
 	}
 	
 	protected List<Long> getFreeBw() {
@@ -307,6 +307,118 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 	}
 	protected void setFreeBw(List<Long> freeBw) {
 		this.freeBw = freeBw;
+		freeResourcesIndex = null;
+	}
+
+	/**
+	 * Sets the free pes of a host, keeping the number of hosts in use up to date.
+	 * 
+	 * @param idx the host index
+	 * @param pes the free pes
+	 */
+	protected void setFreePes(int idx, int pes) {
+		int oldPes = getFreePes().set(idx, pes);
+		if (usedHosts >= 0 && (oldPes < hostTotalPes) != (pes < hostTotalPes)) {
+			usedHosts += pes < hostTotalPes ? 1 : -1;
+		}
+	}
+
+	/**
+	 * Sets the free mips of a host, keeping the free resources index up to date.
+	 * 
+	 * @param idx the host index
+	 * @param mips the free mips
+	 */
+	protected void setFreeMips(int idx, long mips) {
+		getFreeMips().set(idx, mips);
+		getFreeResourcesIndex().set(idx, getHostPriority(idx));
+	}
+
+	/**
+	 * Sets the free bw of a host, keeping the free resources index up to date.
+	 * 
+	 * @param idx the host index
+	 * @param bw the free bw
+	 */
+	protected void setFreeBw(int idx, long bw) {
+		getFreeBw().set(idx, bw);
+		getFreeResourcesIndex().set(idx, getHostPriority(idx));
+	}
+
+	/**
+	 * Gets the weighted free resources of a host.
+	 * 
+	 * @param idx the host index
+	 * @return the free resources metric
+	 */
+	protected double getFreeResources(int idx) {
+		double mipsFreePercent = (double)getFreeMips().get(idx) / this.hostTotalMips; 
+		double bwFreePercent = (double)getFreeBw().get(idx) / this.hostTotalBw;
+		
+		return this.convertWeightedMetric(mipsFreePercent, bwFreePercent);
+	}
+
+	/**
+	 * Gets the priority of a host, hosts are tried in decreasing priority order and ties go to the
+	 * first host. The most full host comes first.
+	 * 
+	 * @param idx the host index
+	 * @return the priority
+	 */
+	protected double getHostPriority(int idx) {
+		return -getFreeResources(idx);
+	}
+
+	/**
+	 * Gets the free resources index, building it from the host priorities if needed.
+	 * 
+	 * @return the free resources index
+	 */
+	protected DoubleMaxTree getFreeResourcesIndex() {
+		if (freeResourcesIndex == null || freeResourcesIndex.size() != getFreeMips().size()) {
+			double[] priorities = new double[getFreeMips().size()];
+			for (int i = 0; i < priorities.length; i++) {
+				priorities[i] = getHostPriority(i);
+			}
+			freeResourcesIndex = new DoubleMaxTree(priorities);
+		}
+		return freeResourcesIndex;
+	}
+
+	/**
+	 * Gets the number of hosts with pes in use, counting them if needed.
+	 * 
+	 * @return the number of hosts in use
+	 */
+	protected int getNumHostsUsed() {
+		if (usedHosts < 0) {
+			usedHosts = 0;
+			for(int freePes:getFreePes()) {
+				if(freePes < hostTotalPes) {
+					usedHosts++;
+				}
+			}
+		}
+		return usedHosts;
+	}
+
+	/**
+	 * Gets the index of a host in the host list.
+	 * 
+	 * @param host the host
+	 * @return the index, or -1 if the host is not in the list
+	 */
+	protected int getHostIndex(Host host) {
+		if (hostIndexes == null) {
+			hostIndexes = new HashMap<Host, Integer>();
+			for (int i = 0; i < getHostList().size(); i++) {
+				if (!hostIndexes.containsKey(getHostList().get(i))) {
+					hostIndexes.put(getHostList().get(i), i);
+				}
+			}
+		}
+		Integer idx = hostIndexes.get(host);
+		return idx == null ? getHostList().indexOf(host) : idx;
 	}
 
 	/*
@@ -330,9 +442,9 @@ public class VmAllocationPolicyCombinedMostFullFirst extends VmAllocationPolicy
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = getHostIndex(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
-			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+			setFreePes(idx, getFreePes().get(idx) - requiredPes);
 
 			Log.formatLine(
 					"%.2f: VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),
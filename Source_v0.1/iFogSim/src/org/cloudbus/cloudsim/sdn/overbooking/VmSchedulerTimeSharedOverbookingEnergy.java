@@ -27,6 +27,7 @@ import org.cloudbus.cloudsim.sdn.power.PowerUtilizationInterface;
  * @since CloudSim Toolkit 1.0
  */
 public class VmSchedulerTimeSharedOverbookingEnergy extends VmSchedulerTimeSharedOverSubscription implements PowerUtilizationInterface{
+	private static final long serialVersionUID = 1L;
 
 	
 	public VmSchedulerTimeSharedOverbookingEnergy(List<? extends Pe> pelist) {
@@ -0,0 +1,89 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Helpers shared by the benchmarks: muting the console output of the code being measured, and
+ * measuring the memory allocated by the benchmark thread.
+ */
+public class BenchmarkUtil {
+
+	/** The stream discarding everything written to it. */
+	private static final PrintStream discard = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	});
+
+	/** The standard output and error streams replaced by {@link #muteConsole()}, null when not muted. */
+	private static PrintStream mutedOut;
+	private static PrintStream mutedErr;
+
+	/**
+	 * Discards what is written to the standard output and error streams, until {@link #unmuteConsole()}.
+	 * Does nothing if the console is already muted.
+	 */
+	public static void muteConsole() {
+		if(mutedOut != null)
+			return;
+		mutedOut = System.out;
+		mutedErr = System.err;
+		System.setOut(discard);
+		System.setErr(discard);
+	}
+
+	/**
+	 * Restores the standard output and error streams replaced by {@link #muteConsole()}.
+	 */
+	public static void unmuteConsole() {
+		if(mutedOut == null)
+			return;
+		System.setOut(mutedOut);
+		System.setErr(mutedErr);
+		mutedOut = null;
+		mutedErr = null;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread so far.
+	 *
+	 * @return the bytes allocated, or -1 if not supported by the JVM
+	 */
+	public static long getAllocatedBytes() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if(threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+			if(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+				return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread since a call to {@link #getAllocatedBytes()}.
+	 *
+	 * @param start the bytes allocated at the start, as returned by {@link #getAllocatedBytes()}
+	 * @return the bytes allocated since the start, or -1 if not supported by the JVM
+	 */
+	public static long getAllocatedBytesSince(long start) {
+		if(start < 0)
+			return -1;
+		return getAllocatedBytes() - start;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * A tournament tree over a fixed number of double values, the double counterpart of
+ * {@link IntMaxTree}. Updating a value and finding the lowest index holding the largest value are
+ * both O(log n), which allows allocation policies ordering hosts by a weighted free resource
+ * metric to pick the next candidate host without scanning every host.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DoubleMaxTree {
+
+	/** The number of values. */
+	private final int size;
+
+	/** The number of leaves, a power of two. */
+	private final int leaves;
+
+	/** The values, with unused leaves set to Double.NEGATIVE_INFINITY. */
+	private final double[] values;
+
+	/** The index of the winning leaf of each node, leaves start at index leaves. */
+	private final int[] winners;
+
+	/**
+	 * Instantiates a new tree holding the given values.
+	 *
+	 * @param initialValues the initial values
+	 */
+	public DoubleMaxTree(double[] initialValues) {
+		size = initialValues.length;
+		int n = 1;
+		while (n < size) {
+			n <<= 1;
+		}
+		leaves = n;
+		values = new double[leaves];
+		winners = new int[2 * leaves];
+		for (int i = 0; i < leaves; i++) {
+			values[i] = i < size ? initialValues[i] : Double.NEGATIVE_INFINITY;
+			winners[leaves + i] = i;
+		}
+		for (int node = leaves - 1; node > 0; node--) {
+			winners[node] = play(winners[2 * node], winners[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param index the index
+	 * @return the value
+	 */
+	public double get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Sets a value.
+	 *
+	 * @param index the index
+	 * @param value the value
+	 */
+	public void set(int index, double value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		values[index] = value;
+		for (int node = (leaves + index) >> 1; node > 0; node >>= 1) {
+			winners[node] = play(winners[2 * node], winners[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Gets the lowest index holding the largest value.
+	 *
+	 * @return the index, or -1 if the tree is empty or all values are Double.NEGATIVE_INFINITY
+	 */
+	public int getMaxIndex() {
+		int index = winners[1];
+		return values[index] == Double.NEGATIVE_INFINITY ? -1 : index;
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the winner of two leaves, the left one winning ties.
+	 *
+	 * @param left the left leaf index
+	 * @param right the right leaf index
+	 * @return the winning leaf index
+	 */
+	private int play(int left, int right) {
+		return values[right] > values[left] ? right : left;
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A fixed capacity history of primitive double values. Values are added at the head (index 0 is the
+ * latest value) and the oldest value is dropped once the capacity is reached, in O(1) and without
+ * boxing.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DoubleRingBuffer implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** The values. */
+	private final double[] values;
+
+	/** The position of the latest value. */
+	private int head;
+
+	/** The number of values. */
+	private int size;
+
+	/** The number of values added so far, used to detect changes. */
+	private long version;
+
+	/** The read only list view. */
+	private final List<Double> listView = new ListView();
+
+	/**
+	 * The read only list view of the values.
+	 */
+	private class ListView extends AbstractList<Double> implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Double get(int index) {
+			return DoubleRingBuffer.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Instantiates a new ring buffer.
+	 *
+	 * @param capacity the maximum number of values
+	 */
+	public DoubleRingBuffer(int capacity) {
+		values = new double[capacity];
+	}
+
+	/**
+	 * Adds a value at the head, dropping the oldest value if the buffer is full.
+	 *
+	 * @param value the value
+	 */
+	public void addFirst(double value) {
+		head = head == 0 ? values.length - 1 : head - 1;
+		values[head] = value;
+		if (size < values.length) {
+			size++;
+		}
+		version++;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param index the index, 0 being the latest value
+	 * @return the value
+	 */
+	public double get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int i = head + index;
+		return values[i < values.length ? i : i - values.length];
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the buffer is empty.
+	 *
+	 * @return true, if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the capacity.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the number of values added so far.
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Copies the values, latest first.
+	 *
+	 * @return the values
+	 */
+	public double[] toArray() {
+		double[] result = new double[size];
+		int first = Math.min(size, values.length - head);
+		System.arraycopy(values, head, result, 0, first);
+		System.arraycopy(values, 0, result, first, size - first);
+		return result;
+	}
+
+	/**
+	 * Gets a read only list view of the values, latest first.
+	 *
+	 * @return the list view
+	 */
+	public List<Double> asList() {
+		return listView;
+	}
+
+}
@@ -58,7 +58,7 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final List<Double> list) {
-		return getStatistics(list).getPercentile(50);
+		return median(listToArray(list));
 	}
 
 	/**
@@ -69,7 +69,42 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final double[] list) {
-		return getStatistics(list).getPercentile(50);
+		double[] sorted = list.clone();
+		for (double value : sorted) {
+			if (Double.isNaN(value)) {
+				return getStatistics(list).getPercentile(50);
+			}
+		}
+		Arrays.sort(sorted);
+		return medianOfSorted(sorted);
+	}
+
+	/**
+	 * Gets the median of sorted data, computed as the 50th percentile of {@link DescriptiveStatistics}
+	 * (legacy estimation: interpolation between the values at positions floor(p) and ceil(p), with
+	 * p = (n + 1) / 2).
+	 * 
+	 * @param sorted the sorted data, without NaN values
+	 * @return the median
+	 */
+	public static double medianOfSorted(final double[] sorted) {
+		int n = sorted.length;
+		if (n == 0) {
+			return Double.NaN;
+		}
+		if (n == 1) {
+			return sorted[0];
+		}
+		double pos = 0.5 * (n + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+		if (pos >= n) {
+			return sorted[n - 1];
+		}
+		double lower = sorted[intPos - 1];
+		double upper = sorted[intPos];
+		return lower + dif * (upper - lower);
 	}
 
 	/**
@@ -236,12 +271,56 @@ public class MathUtil {
 	 */
 	public static double[] getLoessParameterEstimates(final double[] y) {
 		int n = y.length;
-		double[] x = new double[n];
+		if (n < 3) {
+			double[] x = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = i + 1;
+			}
+			return createWeigthedLinearRegression(x, y, getTricubeWeigts(n))
+					.regress().getParameterEstimates();
+		}
+		// the tricube weights are all at least 1, so createWeigthedLinearRegression never applies them
+		return getLinearRegressionParameterEstimates(y);
+	}
+
+	/**
+	 * Gets the parameter estimates (intercept, slope) of the least squares regression of y on x = 1..n.
+	 * The sums are updated sample by sample exactly as {@link SimpleRegression#addData(double, double)}
+	 * does, so the estimates are identical to those of {@link #createLinearRegression(double[], double[])}
+	 * but computed without allocating the regression.
+	 * 
+	 * @param y the y, at least 3 values
+	 * @return the parameter estimates
+	 */
+	public static double[] getLinearRegressionParameterEstimates(final double[] y) {
+		int n = y.length;
+		double sumX = 0;
+		double sumY = 0;
+		double sumXX = 0;
+		double sumXY = 0;
+		double xbar = 0;
+		double ybar = 0;
 		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
+			double x = i + 1;
+			if (i == 0) {
+				xbar = x;
+				ybar = y[i];
+			} else {
+				double fact1 = 1.0 + i;
+				double fact2 = i / (1.0 + i);
+				double dx = x - xbar;
+				double dy = y[i] - ybar;
+				sumXX += dx * dx * fact2;
+				sumXY += dx * dy * fact2;
+				xbar += dx / fact1;
+				ybar += dy / fact1;
+			}
+			sumX += x;
+			sumY += y[i];
 		}
-		return createWeigthedLinearRegression(x, y, getTricubeWeigts(n))
-				.regress().getParameterEstimates();
+		double slope = sumXY / sumXX;
+		double intercept = (sumY - slope * sumX) / n;
+		return new double[] { intercept, slope };
 	}
 
 	public static SimpleRegression createLinearRegression(final double[] x,
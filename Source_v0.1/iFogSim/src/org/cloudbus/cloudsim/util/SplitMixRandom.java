@@ -0,0 +1,184 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Random;
+
+/**
+ * A fast, splittable pseudo random number generator (the SplitMix64 algorithm of
+ * {@link java.util.SplittableRandom}), usable wherever a {@link Random} is expected. Unlike
+ * {@link Random}, its state is not updated atomically, so an instance must not be shared by threads;
+ * independent generators for other threads or components are obtained with {@link #split()}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SplitMixRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The default gamma, the odd fractional part of the golden ratio. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** The unit of the generated doubles. */
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	/** The state. */
+	private long state;
+
+	/** The increment of the state, odd. */
+	private long gamma;
+
+	/** The second gaussian value generated, if not used yet. */
+	private double nextGaussian;
+
+	/** Whether the second gaussian value is available. */
+	private boolean haveNextGaussian;
+
+	/**
+	 * Creates a generator.
+	 *
+	 * @param seed the seed
+	 */
+	public SplitMixRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Creates a generator.
+	 *
+	 * @param seed the seed
+	 * @param gamma the increment of the state
+	 */
+	private SplitMixRandom(long seed, long gamma) {
+		super(0);
+		state = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Creates a new generator, independent from this one, and advances this one.
+	 *
+	 * @return the new generator
+	 */
+	public SplitMixRandom split() {
+		return new SplitMixRandom(mix64(nextSeed()), mixGamma(nextSeed()));
+	}
+
+	/**
+	 * Resets the generator. Called once by the constructor of {@link Random}, before the fields of
+	 * this class are set, which has no effect.
+	 *
+	 * @param seed the seed
+	 */
+	@Override
+	public void setSeed(long seed) {
+		state = seed;
+		gamma = GOLDEN_GAMMA;
+		haveNextGaussian = false;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (mix64(nextSeed()) >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		int r = mix32(nextSeed());
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return r & m;
+		}
+		for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1) {
+			// reject values of the last partial range, to avoid bias
+		}
+		return r;
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return mix32(nextSeed()) < 0;
+	}
+
+	@Override
+	public float nextFloat() {
+		return (mix32(nextSeed()) >>> 8) * 0x1.0p-24f;
+	}
+
+	@Override
+	public double nextDouble() {
+		return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+	}
+
+	@Override
+	public double nextGaussian() {
+		if (haveNextGaussian) {
+			haveNextGaussian = false;
+			return nextGaussian;
+		}
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+		double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		nextGaussian = v2 * multiplier;
+		haveNextGaussian = true;
+		return v1 * multiplier;
+	}
+
+	private long nextSeed() {
+		return state += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		// gammas with too few bit transitions make poor increments
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	/**
+	 * Mixes a value into a well distributed 64 bit value, e.g. to derive a seed.
+	 *
+	 * @param value the value
+	 * @return the mixed value
+	 */
+	public static long mix(long value) {
+		return mix64(value + GOLDEN_GAMMA);
+	}
+
+}
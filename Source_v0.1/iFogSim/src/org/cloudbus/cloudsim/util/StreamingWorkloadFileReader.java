@@ -0,0 +1,429 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+/**
+ * This class reads the jobs of a workload trace one at a time, instead of creating the list of all
+ * jobs before the simulation starts as {@link WorkloadFileReader#generateWorkload()} does. Only the
+ * next job is kept in memory, so traces of any size can be simulated, e.g. with a
+ * {@link org.cloudbus.cloudsim.StreamingDatacenterBroker} which submits the jobs as the simulation
+ * clock reaches their submit time.
+ * <p>
+ * Besides ASCII text, zip and gz files, this class reads binary cache files (files ending with
+ * {@link #CACHE_EXTENSION}) created by {@link #createCache(String, int)}. A cache holds the parsed
+ * jobs, so repeated runs with the same trace skip decompression and parsing.
+ * <p>
+ * The trace format is set as in {@link WorkloadFileReader}, before the first job is read.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader
+ */
+public class StreamingWorkloadFileReader extends WorkloadFileReader {
+
+	/** The extension of binary cache files. */
+	public static final String CACHE_EXTENSION = ".wlc";
+
+	private static final int CACHE_MAGIC = 0x574C4331; // "WLC1"
+
+	/** The number of lines parsed by a task when creating a cache. */
+	private static final int CHUNK_LINES = 16384;
+
+	private BufferedReader reader = null; // reader of a text trace
+
+	private ZipFile zipFile = null; // the zip trace and its remaining entries
+
+	private Enumeration<? extends ZipEntry> zipEntries = null;
+
+	private DataInputStream cacheInput = null; // reader of a binary cache
+
+	private TraceLineParser parser = null;
+
+	private boolean opened = false;
+
+	private boolean finished = false;
+
+	private int jobCount = 0; // number of jobs read
+
+	private Cloudlet nextJob = null; // the next job and its submit time
+
+	private long nextSubmitTime;
+
+	/**
+	 * Create a new {@link StreamingWorkloadFileReader} object.
+	 *
+	 * @param fileName the workload trace filename in one of the following format: <i>ASCII text,
+	 *        zip, gz</i> or a binary cache
+	 * @param rating the resource's PE rating
+	 * @throws FileNotFoundException
+	 * @throws IllegalArgumentException This happens for the following conditions:
+	 *         <ul>
+	 *         <li>the workload trace file name is null or empty
+	 *         <li>the resource PE rating <= 0
+	 *         </ul>
+	 * @pre fileName != null
+	 * @pre rating > 0
+	 * @post $none
+	 */
+	public StreamingWorkloadFileReader(final String fileName, final int rating) throws FileNotFoundException {
+		super(fileName, rating);
+	}
+
+	/**
+	 * Tells whether there are more jobs in the trace.
+	 *
+	 * @return <code>true</code> if there are more jobs, <code>false</code> otherwise
+	 */
+	public boolean hasNext() {
+		return readNext();
+	}
+
+	/**
+	 * Gets the submit time of the next job.
+	 *
+	 * @return the submit time, or <code>-1</code> if there are no more jobs
+	 */
+	public long getNextSubmitTime() {
+		return readNext() ? nextSubmitTime : -1;
+	}
+
+	/**
+	 * Gets the next job of the trace.
+	 *
+	 * @return the next job, or <code>null</code> if there are no more jobs
+	 */
+	public Cloudlet next() {
+		if (!readNext()) {
+			return null;
+		}
+		Cloudlet job = nextJob;
+		nextJob = null;
+		return job;
+	}
+
+	/**
+	 * Gets the number of jobs read so far.
+	 *
+	 * @return the number of jobs
+	 */
+	public int getJobCount() {
+		return jobCount;
+	}
+
+	/**
+	 * Closes the trace. No more jobs are returned afterwards.
+	 */
+	public void close() {
+		finished = true;
+		nextJob = null;
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+			if (zipFile != null) {
+				zipFile.close();
+			}
+			if (cacheInput != null) {
+				cacheInput.close();
+			}
+		} catch (final IOException e) {
+			Log.printLine("Error closing workload trace " + getFile() + ": " + e.getMessage());
+		}
+		reader = null;
+		zipFile = null;
+		cacheInput = null;
+	}
+
+	/**
+	 * Parses the whole trace and writes the jobs to a binary cache file, which can be read by a new
+	 * {@link StreamingWorkloadFileReader} in later runs. Lines are read and decompressed in the
+	 * calling thread and parsed by the given number of threads, in chunks. The cache holds the run
+	 * time of jobs, so it can be read with any PE rating. This method does not change the jobs
+	 * returned by {@link #next()}.
+	 *
+	 * @param cacheFileName the cache file name, which should end with {@link #CACHE_EXTENSION}
+	 * @param threads the number of parsing threads
+	 * @return the number of jobs written
+	 * @throws IOException if the trace could not be read or the cache could not be written
+	 * @pre cacheFileName != null
+	 * @pre threads > 0
+	 */
+	public int createCache(final String cacheFileName, final int threads) throws IOException {
+		if (isCache(getFile())) {
+			throw new IllegalArgumentException("Workload trace " + getFile() + " is already a cache.");
+		}
+
+		final StreamingWorkloadFileReader lines = new StreamingWorkloadFileReader(getFile().getPath(), getRating());
+		final TraceLineParser layout = createParser();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				cacheFileName)));
+		int jobs = 0;
+		try {
+			out.writeInt(CACHE_MAGIC);
+
+			// parse chunks in parallel, but write them in order
+			final LinkedList<Future<CacheChunk>> pending = new LinkedList<Future<CacheChunk>>();
+			List<String> chunk = new ArrayList<String>(CHUNK_LINES);
+			String line = null;
+			while ((line = lines.readLine()) != null) {
+				chunk.add(line);
+				if (chunk.size() == CHUNK_LINES) {
+					pending.add(executor.submit(new CacheChunk(layout.copy(), chunk)));
+					chunk = new ArrayList<String>(CHUNK_LINES);
+					if (pending.size() > 2 * threads) {
+						jobs = pending.removeFirst().get().write(out, jobs);
+					}
+				}
+			}
+			if (!chunk.isEmpty()) {
+				pending.add(executor.submit(new CacheChunk(layout.copy(), chunk)));
+			}
+			while (!pending.isEmpty()) {
+				jobs = pending.removeFirst().get().write(out, jobs);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while creating cache " + cacheFileName);
+		} catch (final ExecutionException e) {
+			throw new IOException("Error parsing workload trace " + getFile() + ": " + e.getCause());
+		} finally {
+			executor.shutdownNow();
+			lines.close();
+			out.close();
+		}
+		return jobs;
+	}
+
+	// ------------------- PRIVATE METHODS -------------------
+
+	/**
+	 * Reads the next job, unless it has already been read.
+	 *
+	 * @return <code>true</code> if there is a next job, <code>false</code> otherwise
+	 */
+	private boolean readNext() {
+		if (nextJob != null) {
+			return true;
+		}
+		if (finished) {
+			return false;
+		}
+
+		try {
+			if (!opened) {
+				open();
+			}
+			if (cacheInput != null) {
+				readCachedJob();
+			} else {
+				String line = null;
+				while (nextJob == null && (line = readLine()) != null) {
+					if (parser.parse(line)) {
+						final int id = parser.hasSequentialJobIds() ? jobCount + 1 : parser.getJobId();
+						setNextJob(id, parser.getSubmitTime(), parser.getRunTime(), parser.getNumProc());
+					}
+				}
+			}
+		} catch (final IOException e) {
+			Log.printLine("Error reading workload trace " + getFile() + ": " + e.getMessage());
+		}
+
+		if (nextJob == null) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	private void setNextJob(final int id, final long submitTime, final int runTime, final int numProc) {
+		final int len = runTime * getRating();
+		final UtilizationModel utilizationModel = new UtilizationModelFull();
+		nextJob = new Cloudlet(id, len, numProc, 0, 0, utilizationModel, utilizationModel, utilizationModel);
+		nextSubmitTime = submitTime;
+		jobCount++;
+	}
+
+	private void readCachedJob() throws IOException {
+		final int id;
+		try {
+			id = cacheInput.readInt();
+		} catch (final EOFException e) {
+			return;
+		}
+		final long submitTime = cacheInput.readLong();
+		final int runTime = cacheInput.readInt();
+		final int numProc = cacheInput.readInt();
+		cacheInput.readInt(); // user estimated run time
+		cacheInput.readInt(); // user id
+		cacheInput.readInt(); // group id
+		setNextJob(id, submitTime, runTime, numProc);
+	}
+
+	private static boolean isCache(final File fl) {
+		return fl.getName().endsWith(CACHE_EXTENSION);
+	}
+
+	private void open() throws IOException {
+		opened = true;
+		final File fl = getFile();
+		if (isCache(fl)) {
+			cacheInput = new DataInputStream(new BufferedInputStream(new FileInputStream(fl)));
+			if (cacheInput.readInt() != CACHE_MAGIC) {
+				throw new IOException("not a workload cache file");
+			}
+		} else if (fl.getName().endsWith(".gz")) {
+			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))));
+		} else if (fl.getName().endsWith(".zip")) {
+			zipFile = new ZipFile(fl);
+			zipEntries = zipFile.entries();
+		} else {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)));
+		}
+		parser = createParser();
+	}
+
+	/**
+	 * Reads the next line of a text trace, going through the entries of a zip file in order.
+	 *
+	 * @return the line, or <code>null</code> at the end of the trace
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private String readLine() throws IOException {
+		if (!opened) {
+			open();
+		}
+		while (true) {
+			if (reader != null) {
+				final String line = reader.readLine();
+				if (line != null) {
+					return line;
+				}
+				reader.close();
+				reader = null;
+			}
+			if (zipEntries == null || !zipEntries.hasMoreElements()) {
+				return null;
+			}
+			reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntries.nextElement())));
+		}
+	}
+
+	/**
+	 * Parses a chunk of lines for {@link StreamingWorkloadFileReader#createCache(String, int)}.
+	 */
+	private static class CacheChunk implements Callable<CacheChunk> {
+
+		private final TraceLineParser parser;
+
+		private final List<String> lines;
+
+		private boolean sequentialIds;
+
+		private int count = 0;
+
+		private int[] ids;
+
+		private long[] submitTimes;
+
+		private int[] runTimes;
+
+		private int[] numProcs;
+
+		private int[] reqRunTimes;
+
+		private int[] userIds;
+
+		private int[] groupIds;
+
+		CacheChunk(final TraceLineParser parser, final List<String> lines) {
+			this.parser = parser;
+			this.lines = lines;
+		}
+
+		@Override
+		public CacheChunk call() {
+			final int size = lines.size();
+			ids = new int[size];
+			submitTimes = new long[size];
+			runTimes = new int[size];
+			numProcs = new int[size];
+			reqRunTimes = new int[size];
+			userIds = new int[size];
+			groupIds = new int[size];
+			sequentialIds = parser.hasSequentialJobIds();
+			for (final String line : lines) {
+				if (parser.parse(line)) {
+					ids[count] = parser.getJobId();
+					submitTimes[count] = parser.getSubmitTime();
+					runTimes[count] = parser.getRunTime();
+					numProcs[count] = parser.getNumProc();
+					reqRunTimes[count] = parser.getReqRunTime();
+					userIds[count] = parser.getUserId();
+					groupIds[count] = parser.getGroupId();
+					count++;
+				}
+			}
+			lines.clear();
+			return this;
+		}
+
+		/**
+		 * Writes the jobs of the chunk.
+		 *
+		 * @param out the cache output
+		 * @param jobs the number of jobs written before this chunk
+		 * @return the number of jobs written including this chunk
+		 * @throws IOException if the cache could not be written
+		 */
+		int write(final DataOutputStream out, int jobs) throws IOException {
+			for (int i = 0; i < count; i++) {
+				jobs++;
+				out.writeInt(sequentialIds ? jobs : ids[i]);
+				out.writeLong(submitTimes[i]);
+				out.writeInt(runTimes[i]);
+				out.writeInt(numProcs[i]);
+				out.writeInt(reqRunTimes[i]);
+				out.writeInt(userIds[i]);
+				out.writeInt(groupIds[i]);
+			}
+			return jobs;
+		}
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * Parses the lines of a workload trace file with the field layout of a {@link WorkloadFileReader}.
+ * Fields are located by scanning the line for whitespace and numbers are parsed in place, so
+ * parsing a line does not allocate. A parser keeps the values of the last parsed line, thus it must
+ * not be shared between threads; use {@link #copy()} to get a parser for another thread.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader
+ */
+class TraceLineParser {
+
+	/** Field index telling that a field is not present in the trace. */
+	static final int IRRELEVANT = -1;
+
+	private final String comment;
+
+	private final int maxField;
+
+	private final int jobNumField;
+
+	private final int submitTimeField;
+
+	private final int runTimeField;
+
+	private final int numProcField;
+
+	private final int reqNumProcField;
+
+	private final int reqRunTimeField;
+
+	private final int userIdField;
+
+	private final int groupIdField;
+
+	/** Start and end offsets of the fields of the line being parsed. */
+	private final int[] fieldStart;
+
+	private final int[] fieldEnd;
+
+	/** The value of the last parsed number. */
+	private long number;
+
+	private int jobId;
+
+	private long submitTime;
+
+	private int runTime;
+
+	private int numProc;
+
+	private int reqRunTime;
+
+	private int userId;
+
+	private int groupId;
+
+	TraceLineParser(
+			final String comment,
+			final int maxField,
+			final int jobNumField,
+			final int submitTimeField,
+			final int runTimeField,
+			final int numProcField,
+			final int reqNumProcField,
+			final int reqRunTimeField,
+			final int userIdField,
+			final int groupIdField) {
+		this.comment = comment;
+		this.maxField = maxField;
+		this.jobNumField = jobNumField;
+		this.submitTimeField = submitTimeField;
+		this.runTimeField = runTimeField;
+		this.numProcField = numProcField;
+		this.reqNumProcField = reqNumProcField;
+		this.reqRunTimeField = reqRunTimeField;
+		this.userIdField = userIdField;
+		this.groupIdField = groupIdField;
+		fieldStart = new int[maxField];
+		fieldEnd = new int[maxField];
+	}
+
+	/**
+	 * Gets a new parser with the same field layout.
+	 *
+	 * @return the parser
+	 */
+	TraceLineParser copy() {
+		return new TraceLineParser(
+				comment,
+				maxField,
+				jobNumField,
+				submitTimeField,
+				runTimeField,
+				numProcField,
+				reqNumProcField,
+				reqRunTimeField,
+				userIdField,
+				groupIdField);
+	}
+
+	/**
+	 * Parses a line. A line describes a job if it is not a comment, has exactly the maximum number
+	 * of fields and all the required fields are integer numbers.
+	 *
+	 * @param line the line
+	 * @return <code>true</code> if the line describes a job, <code>false</code> otherwise
+	 */
+	boolean parse(final String line) {
+		// skip a comment line
+		if (line.startsWith(comment)) {
+			return false;
+		}
+
+		// locate the fields
+		int fields = 0;
+		int length = line.length();
+		int pos = 0;
+		while (pos < length) {
+			while (pos < length && isSpace(line.charAt(pos))) {
+				pos++;
+			}
+			if (pos == length) {
+				break;
+			}
+			if (fields == maxField) {
+				return false;
+			}
+			fieldStart[fields] = pos;
+			while (pos < length && !isSpace(line.charAt(pos))) {
+				pos++;
+			}
+			fieldEnd[fields++] = pos;
+		}
+		if (fields != maxField) {
+			return false;
+		}
+
+		if (jobNumField != IRRELEVANT) {
+			if (!parseInt(line, jobNumField)) {
+				return false;
+			}
+			jobId = (int) number;
+		}
+
+		// the submit time is read as a long, but only its int value is kept
+		if (!parseLong(line, submitTimeField)) {
+			return false;
+		}
+		submitTime = (int) number;
+
+		if (!parseInt(line, reqRunTimeField)) {
+			return false;
+		}
+		reqRunTime = (int) number;
+
+		if (!parseInt(line, runTimeField)) {
+			return false;
+		}
+		runTime = (int) number;
+
+		if (!parseInt(line, userIdField)) {
+			return false;
+		}
+		userId = (int) number;
+
+		if (!parseInt(line, groupIdField)) {
+			return false;
+		}
+		groupId = (int) number;
+
+		// according to the SWF manual, runtime of 0 is possible due
+		// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+		if (runTime <= 0) {
+			runTime = 1; // change to 1 second
+		}
+
+		// get the number of allocated processors
+		if (!parseInt(line, reqNumProcField)) {
+			return false;
+		}
+		numProc = (int) number;
+
+		// if the required num of allocated processors field is ignored
+		// or zero, then use the actual field
+		if (numProc == IRRELEVANT || numProc == 0) {
+			if (!parseInt(line, numProcField)) {
+				return false;
+			}
+			numProc = (int) number;
+		}
+
+		// finally, check if the num of PEs required is valid or not
+		if (numProc <= 0) {
+			numProc = 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Tells whether the job IDs are not in the trace, meaning that jobs are numbered from 1 in the
+	 * order they are read.
+	 *
+	 * @return <code>true</code> if jobs are numbered in order, <code>false</code> otherwise
+	 */
+	boolean hasSequentialJobIds() {
+		return jobNumField == IRRELEVANT;
+	}
+
+	int getJobId() {
+		return jobId;
+	}
+
+	long getSubmitTime() {
+		return submitTime;
+	}
+
+	int getRunTime() {
+		return runTime;
+	}
+
+	int getNumProc() {
+		return numProc;
+	}
+
+	int getReqRunTime() {
+		return reqRunTime;
+	}
+
+	int getUserId() {
+		return userId;
+	}
+
+	int getGroupId() {
+		return groupId;
+	}
+
+	private static boolean isSpace(final char c) {
+		// the characters matched by \s
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private boolean parseInt(final String line, final int field) {
+		return parseLong(line, field) && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Parses a field as {@link Long#parseLong(String)} would, leaving the value in number.
+	 *
+	 * @param line the line
+	 * @param field the field index
+	 * @return <code>true</code> if the field is a long number, <code>false</code> otherwise
+	 */
+	private boolean parseLong(final String line, final int field) {
+		if (field < 0 || field >= maxField) {
+			return false;
+		}
+		int pos = fieldStart[field];
+		final int end = fieldEnd[field];
+
+		// accumulate negatively as Long.parseLong, to handle Long.MIN_VALUE
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+		final char first = line.charAt(pos);
+		if (first < '0') {
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+			} else if (first != '+') {
+				return false;
+			}
+			if (++pos == end) {
+				return false;
+			}
+		}
+		final long multmin = limit / 10;
+		long result = 0;
+		while (pos < end) {
+			final int digit = Character.digit(line.charAt(pos++), 10);
+			if (digit < 0 || result < multmin) {
+				return false;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return false;
+			}
+			result -= digit;
+		}
+		number = negative ? result : -result;
+		return true;
+	}
+
+}
@@ -94,9 +94,7 @@ public class WorkloadFileReader implements WorkloadModel {
 	private String COMMENT = ";"; // a string that denotes the start of a
 
 	// comment
-	private static final int IRRELEVANT = -1; // irrelevant number
-
-	private String[] fieldArray = null; // a temp array storing all the fields
+	private TraceLineParser parser = null; // parser of the trace lines
 
 	/**
 	 * Create a new {@link WorkloadFileReader} object.
@@ -139,8 +137,8 @@ public class WorkloadFileReader implements WorkloadModel {
 		if (jobs == null) {
 			jobs = new ArrayList<Cloudlet>();
 
-			// create a temp array
-			fieldArray = new String[MAX_FIELD];
+			// create a parser for the current trace format
+			parser = createParser();
 
 			try {
 				if (file.getName().endsWith(".gz")) {
@@ -288,71 +286,7 @@ public class WorkloadFileReader implements WorkloadModel {
 	}
 
 	/**
-	 * Extracts relevant information from a given array
-	 * 
-	 * @param array an array of String
-	 * @param line a line number
-	 * @pre array != null
-	 * @pre line > 0
-	 */
-	private void extractField(final String[] array, final int line) {
-		try {
-			Integer obj = null;
-
-			// get the job number
-			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
-			} else {
-				obj = new Integer(array[JOB_NUM].trim());
-				id = obj.intValue();
-			}
-
-			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
-			final long submitTime = l.intValue();
-
-			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
-			final int reqRunTime = obj.intValue();
-
-			// if the required run time field is ignored, then use
-			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
-			int runTime = obj.intValue();
-
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
-
-			// according to the SWF manual, runtime of 0 is possible due
-			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-			if (runTime <= 0) {
-				runTime = 1; // change to 1 second
-			}
-
-			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
-			int numProc = obj.intValue();
-
-			// if the required num of allocated processors field is ignored
-			// or zero, then use the actual field
-			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
-				numProc = obj.intValue();
-			}
-
-			// finally, check if the num of PEs required is valid or not
-			if (numProc <= 0) {
-				numProc = 1;
-			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-		} catch (final Exception e) {
-
-		}
-	}
-
-	/**
-	 * Breaks a line of string into many fields.
+	 * Parses a line and creates a job if the line describes one.
 	 * 
 	 * @param line a line of string
 	 * @param lineNum a line number
@@ -361,31 +295,55 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * @post $none
 	 */
 	private void parseValue(final String line, final int lineNum) {
-		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
+		if (parser.parse(line)) {
+			final int id = parser.hasSequentialJobIds() ? jobs.size() + 1 : parser.getJobId();
+			createJob(
+					id,
+					parser.getSubmitTime(),
+					parser.getRunTime(),
+					parser.getNumProc(),
+					parser.getReqRunTime(),
+					parser.getUserId(),
+					parser.getGroupId());
 		}
+	}
 
-		final String[] sp = line.split("\\s+"); // split the fields based on a
-		// space
-		int len = 0; // length of a string
-		int index = 0; // the index of an array
-
-		// check for each field in the array
-		for (final String elem : sp) {
-			len = elem.length(); // get the length of a string
+	/**
+	 * Creates a parser for the trace format set with {@link #setComment(String)} and
+	 * {@link #setField(int, int, int, int, int)}.
+	 * 
+	 * @return the parser
+	 */
+	TraceLineParser createParser() {
+		return new TraceLineParser(
+				COMMENT,
+				MAX_FIELD,
+				JOB_NUM,
+				SUBMIT_TIME,
+				RUN_TIME,
+				NUM_PROC,
+				REQ_NUM_PROC,
+				REQ_RUN_TIME,
+				USER_ID,
+				GROUP_ID);
+	}
 
-			// if it is empty then ignore
-			if (len == 0) {
-				continue;
-			}
-			fieldArray[index] = elem;
-			index++;
-		}
+	/**
+	 * Gets the workload trace file.
+	 * 
+	 * @return the file
+	 */
+	protected File getFile() {
+		return file;
+	}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
-		}
+	/**
+	 * Gets the resource's PE rating.
+	 * 
+	 * @return the rating
+	 */
+	protected int getRating() {
+		return rating;
 	}
 
 	/**
@@ -404,8 +362,9 @@ public class WorkloadFileReader implements WorkloadModel {
 
 			// read one line at the time
 			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
+			String nextLine = null;
+			while ((nextLine = reader.readLine()) != null) {
+				parseValue(nextLine, line);
 				line++;
 			}
 
@@ -436,8 +395,9 @@ public class WorkloadFileReader implements WorkloadModel {
 
 			// read one line at the time
 			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
+			String nextLine = null;
+			while ((nextLine = reader.readLine()) != null) {
+				parseValue(nextLine, line);
 				line++;
 			}
 
@@ -476,8 +436,9 @@ public class WorkloadFileReader implements WorkloadModel {
 
 				// read one line at the time
 				int line = 1;
-				while (reader.ready()) {
-					parseValue(reader.readLine(), line);
+				String nextLine = null;
+				while ((nextLine = reader.readLine()) != null) {
+					parseValue(nextLine, line);
 					line++;
 				}
 
@@ -1,11 +1,14 @@
 package org.fog.application;
 
+import java.io.Serializable;
+
 /**
  * Class represents application edges which connect modules together and represent data dependency between them.
  * @author Harshit Gupta
  *
  */
-public class AppEdge {
+public class AppEdge implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	public static final int SENSOR = 1; // App Edge originates from a sensor
 	public static final int ACTUATOR = 2; // App Edge leads to an actuator
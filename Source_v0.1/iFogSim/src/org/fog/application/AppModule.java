@@ -18,6 +18,7 @@ import org.fog.utils.FogUtils;
  *
  */
 public class AppModule extends PowerVm{
+	private static final long serialVersionUID = 1L;
 
 	private String name;
 	private String appId;
@@ -1,17 +1,27 @@
 package org.fog.application.selectivity;
 
+import java.util.Random;
+
+import org.cloudbus.cloudsim.core.RandomService;
+
 /**
  * Generates an output tuple for an incoming input tuple with a fixed probability
  * @author Harshit Gupta
  *
  */
 public class FractionalSelectivity implements SelectivityModel{
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The fixed probability of output tuple creation per incoming input tuple
 	 */
 	double selectivity;
 	
+	/**
+	 * The generator deciding whether an output tuple is created
+	 */
+	Random random = RandomService.newStream();
+	
 	public FractionalSelectivity(double selectivity){
 		setSelectivity(selectivity);
 	}
@@ -24,7 +34,7 @@ public class FractionalSelectivity implements SelectivityModel{
 	
 	@Override
 	public boolean canSelect() {
-		if(Math.random() < getSelectivity()) // if the probability condition is satisfied
+		if(random.nextDouble() < getSelectivity()) // if the probability condition is satisfied
 			return true;
 		return false;
 	}
@@ -3,20 +3,25 @@ package org.fog.entities;
 import org.fog.application.Application;
 import org.fog.placement.MicroservicePlacementLogic;
 import org.fog.placement.PlacementLogicOutput;
+import org.fog.utils.Logger;
+import org.fog.utils.MicroservicePlacementConfig;
+import org.fog.utils.ScalingDecision;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.Serializable;
+import java.util.*;
 
 /**
  * Created by Samodha Pallewatta on 8/29/2019.
  */
-public class ControllerComponent {
+public class ControllerComponent implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     protected LoadBalancer loadBalancer;
     protected MicroservicePlacementLogic microservicePlacementLogic = null;
     protected ServiceDiscovery serviceDiscoveryInfo;
+    protected MicroserviceAutoscaler autoscaler = null;
+    // microservice -> client devices receiving service discovery updates for it
+    protected Map<String, Set<Integer>> serviceSubscribers = new HashMap<>();
 
     protected int deviceId;
 
@@ -61,6 +66,8 @@ public class ControllerComponent {
         this.resourceAvailability = resourceAvailability;
         setDeviceId(deviceId);
         serviceDiscoveryInfo = new ServiceDiscovery(deviceId);
+        if (MicroservicePlacementConfig.ENABLE_AUTOSCALING)
+            autoscaler = new MicroserviceAutoscaler();
     }
 
     /**
@@ -88,9 +95,58 @@ public class ControllerComponent {
         return null;
     }
 
+    /**
+     * Computes instances to launch/release based on forecast request rates of the placed microservices.
+     * Returns an empty list if autoscaling is not enabled for this controller.
+     */
+    public List<ScalingDecision> executeAutoscaling(double interval) {
+        if (autoscaler != null && fogDeviceList != null)
+            return autoscaler.evaluate(interval, this, fogDeviceList);
+        return new ArrayList<>();
+    }
+
+    public LoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    public void setLoadBalancer(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    public MicroserviceAutoscaler getAutoscaler() {
+        return autoscaler;
+    }
+
+    public void setAutoscaler(MicroserviceAutoscaler autoscaler) {
+        this.autoscaler = autoscaler;
+    }
+
     public void addServiceDiscoveryInfo(String microserviceName, Integer deviceID) {
         this.serviceDiscoveryInfo.addServiceDIscoveryInfo(microserviceName, deviceID);
-        System.out.println("Service Discovery Info ADDED (device:" + this.deviceId + ") for microservice :" + microserviceName + " , destDevice : " + deviceID);
+        Logger.debug("Service Discovery", "Info ADDED (device:" + this.deviceId + ") for microservice :" + microserviceName + " , destDevice : " + deviceID);
+    }
+
+    public void applyServiceDiscoveryDelta(ServiceDiscoveryDelta delta) {
+        this.serviceDiscoveryInfo.applyDelta(delta);
+    }
+
+    public ServiceDiscovery getServiceDiscovery() {
+        return serviceDiscoveryInfo;
+    }
+
+    /**
+     * Client devices subscribed to service discovery updates of a microservice (maintained by FONs)
+     */
+    public void subscribe(String microservice, int clientDeviceId) {
+        if (!serviceSubscribers.containsKey(microservice))
+            serviceSubscribers.put(microservice, new HashSet<Integer>());
+        serviceSubscribers.get(microservice).add(clientDeviceId);
+    }
+
+    public Set<Integer> getSubscribers(String microservice) {
+        if (serviceSubscribers.containsKey(microservice))
+            return serviceSubscribers.get(microservice);
+        return Collections.emptySet();
     }
 
     public int getDestinationDeviceId(String destModuleName) {
@@ -136,46 +192,3 @@ public class ControllerComponent {
 
 
 }
-
-class ServiceDiscovery {
-    protected Map<String, List<Integer>> serviceDiscoveryInfo = new HashMap<>();
-    int deviceId ;
-
-    public ServiceDiscovery(Integer deviceId) {
-        this.deviceId =deviceId;
-    }
-
-    public void addServiceDIscoveryInfo(String microservice, Integer device) {
-        if (serviceDiscoveryInfo.containsKey(microservice)) {
-            List<Integer> deviceList = serviceDiscoveryInfo.get(microservice);
-            deviceList.add(device);
-            serviceDiscoveryInfo.put(microservice, deviceList);
-        } else {
-            List<Integer> deviceList = new ArrayList<>();
-            deviceList.add(device);
-            serviceDiscoveryInfo.put(microservice, deviceList);
-        }
-    }
-
-    public Map<String, List<Integer>> getServiceDiscoveryInfo() {
-        return serviceDiscoveryInfo;
-    }
-
-    public void removeServiceDIscoveryInfo(String microserviceName, Integer deviceID) {
-        if (serviceDiscoveryInfo.containsKey(microserviceName) && serviceDiscoveryInfo.get(microserviceName).contains(new Integer(deviceID))) {
-            System.out.println("Service Discovery Info REMOVED (device:" + this.deviceId + ") for microservice :" + microserviceName + " , destDevice : " + deviceID);
-            serviceDiscoveryInfo.get(microserviceName).remove(new Integer(deviceID));
-            if (serviceDiscoveryInfo.get(microserviceName).size() == 0)
-                serviceDiscoveryInfo.remove(microserviceName);
-        }
-    }
-}
-
-
-
-
-
-
-
-
-
@@ -19,11 +19,12 @@ import org.fog.mobilitydata.Clustering;
 import org.fog.policy.AppModuleAllocationPolicy;
 import org.fog.scheduler.StreamOperatorScheduler;
 import org.fog.utils.*;
-import org.json.simple.JSONObject;
 
 import java.util.*;
 
 public class FogDevice extends PowerDatacenter {
+    private static final long serialVersionUID = 1L;
+
     protected Queue<Tuple> northTupleQueue;
     protected Queue<Pair<Tuple, Integer>> southTupleQueue;
 
@@ -247,6 +248,8 @@ public class FogDevice extends PowerDatacenter {
 
     @Override
     protected void processOtherEvent(SimEvent ev) {
+        if (Config.VALIDATE_EVENT_PAYLOADS)
+            EventPayloadRegistry.validate(ev);
         switch (ev.getTag()) {
             case FogEvents.TUPLE_ARRIVAL:
                 processTupleArrival(ev);
@@ -307,11 +310,11 @@ public class FogDevice extends PowerDatacenter {
 
     protected void moduleSend(SimEvent ev) {
         // TODO Auto-generated method stub
-        JSONObject object = (JSONObject) ev.getData();
-        AppModule appModule = (AppModule) object.get("module");
+        ModuleMigrationInfo migrationInfo = (ModuleMigrationInfo) ev.getData();
+        AppModule appModule = migrationInfo.getModule();
         System.out.println(getName() + " is sending " + appModule.getName());
-        NetworkUsageMonitor.sendingModule((double) object.get("delay"), appModule.getSize());
-        MigrationDelayMonitor.setMigrationDelay((double) object.get("delay"));
+        NetworkUsageMonitor.sendingModule(migrationInfo.getDelay(), appModule.getSize());
+        MigrationDelayMonitor.setMigrationDelay(migrationInfo.getDelay());
 
 
         sendNow(getId(), FogEvents.RELEASE_MODULE, appModule);
@@ -321,12 +324,12 @@ public class FogDevice extends PowerDatacenter {
 
     protected void moduleReceive(SimEvent ev) {
         // TODO Auto-generated method stub
-        JSONObject object = (JSONObject) ev.getData();
-        AppModule appModule = (AppModule) object.get("module");
-        Application app = (Application) object.get("application");
+        ModuleMigrationInfo migrationInfo = (ModuleMigrationInfo) ev.getData();
+        AppModule appModule = migrationInfo.getModule();
+        Application app = migrationInfo.getApplication();
         System.out.println(getName() + " is receiving " + appModule.getName());
-        NetworkUsageMonitor.sendingModule((double) object.get("delay"), appModule.getSize());
-        MigrationDelayMonitor.setMigrationDelay((double) object.get("delay"));
+        NetworkUsageMonitor.sendingModule(migrationInfo.getDelay(), appModule.getSize());
+        MigrationDelayMonitor.setMigrationDelay(migrationInfo.getDelay());
 
         sendNow(getId(), FogEvents.APP_SUBMIT, app);
         sendNow(getId(), FogEvents.LAUNCH_MODULE, appModule);
@@ -512,6 +515,7 @@ public class FogDevice extends PowerDatacenter {
                         cloudletCompleted = true;
                         Tuple tuple = (Tuple) cl;
                         TimeKeeper.getInstance().tupleEndedExecution(tuple);
+                        DeviceLoadMonitor.tupleCompleted(getId(), tuple);
                         Application application = getApplicationMap().get(tuple.getAppId());
                         Logger.debug(getName(), "Completed execution of tuple " + tuple.getCloudletId() + "on " + tuple.getDestModuleName());
                         List<Tuple> resultantTuples = application.getResultantTuples(tuple.getDestModuleName(), tuple, getId(), vm.getId());
@@ -767,17 +771,9 @@ public class FogDevice extends PowerDatacenter {
                 Double startTime = TimeKeeper.getInstance().getEmitTimes().get(tuple.getActualTupleId());
                 if (startTime == null)
                     break;
-                if (!TimeKeeper.getInstance().getLoopIdToCurrentAverage().containsKey(loop.getLoopId())) {
-                    TimeKeeper.getInstance().getLoopIdToCurrentAverage().put(loop.getLoopId(), 0.0);
-                    TimeKeeper.getInstance().getLoopIdToCurrentNum().put(loop.getLoopId(), 0);
-                }
-                double currentAverage = TimeKeeper.getInstance().getLoopIdToCurrentAverage().get(loop.getLoopId());
-                int currentCount = TimeKeeper.getInstance().getLoopIdToCurrentNum().get(loop.getLoopId());
-                double delay = CloudSim.clock() - TimeKeeper.getInstance().getEmitTimes().get(tuple.getActualTupleId());
+                double delay = CloudSim.clock() - startTime;
                 TimeKeeper.getInstance().getEmitTimes().remove(tuple.getActualTupleId());
-                double newAverage = (currentAverage * currentCount + delay) / (currentCount + 1);
-                TimeKeeper.getInstance().getLoopIdToCurrentAverage().put(loop.getLoopId(), newAverage);
-                TimeKeeper.getInstance().getLoopIdToCurrentNum().put(loop.getLoopId(), currentCount + 1);
+                TimeKeeper.getInstance().loopCompleted(loop.getLoopId(), delay);
                 break;
             }
         }
@@ -808,6 +804,7 @@ public class FogDevice extends PowerDatacenter {
         }
 
         TimeKeeper.getInstance().tupleStartedExecution(tuple);
+        DeviceLoadMonitor.tupleQueued(getId());
         updateAllocatedMips(moduleName);
         processCloudletSubmit(ev, false);
         updateAllocatedMips(moduleName);
@@ -1032,6 +1029,14 @@ public class FogDevice extends PowerDatacenter {
         this.associatedActuatorIds = associatedActuatorIds;
     }
 
+    public double getLastUtilization() {
+        return lastUtilization;
+    }
+
+    public double getLastUtilizationUpdateTime() {
+        return lastUtilizationUpdateTime;
+    }
+
     public double getEnergyConsumption() {
         return energyConsumption;
     }
@@ -1134,9 +1139,9 @@ public class FogDevice extends PowerDatacenter {
     }
 
     protected void processClustering(int parentId, int nodeId, SimEvent ev) {
-        JSONObject objectLocator = (JSONObject) ev.getData();
+        ClusteringRequest clusteringRequest = (ClusteringRequest) ev.getData();
         Clustering cms = new Clustering();
-        cms.createClusterMembers(this.getParentId(), this.getId(), objectLocator);
+        cms.createClusterMembers(this.getParentId(), this.getId(), clusteringRequest.getLocator());
     }
 
     public double getClusterLinkBandwidth() {
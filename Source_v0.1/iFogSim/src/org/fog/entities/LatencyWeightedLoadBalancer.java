@@ -0,0 +1,99 @@
+package org.fog.entities;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.utils.DeviceLoadMonitor;
+import org.fog.utils.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Distributes tuples among instances in proportion to 1/(latency * (1 + outstanding tuples)), where latency is the sum of
+ * link latencies on the path given by the routing table of the source device ({@link MicroserviceFogDevice#getRoutingTable()}).
+ * Scaling by the outstanding tuples keeps nearby instances preferred without saturating them.
+ * Smooth weighted round robin is used so that the selection is deterministic and interleaved.
+ */
+public class LatencyWeightedLoadBalancer implements LoadBalancer {
+    private static final long serialVersionUID = 1L;
+
+    // weight of an instance co-located with the source device
+    protected static final double MIN_LATENCY = 1.0;
+
+    // (source device, destination device) -> path latency, not checkpointed and rebuilt on demand
+    protected transient Map<Long, Double> pathLatency = new HashMap<>();
+    // microservice -> < destination device, current weight >
+    protected Map<String, Map<Integer, double[]>> currentWeights = new HashMap<>();
+
+    public int getDeviceId(String microservice, ServiceDiscovery serviceDiscoveryInfo) {
+        int[] devices = serviceDiscoveryInfo.getInstances(microservice);
+        if (devices.length == 0) {
+            Logger.error("Load balancer error", "Service Discovery Information Missing for " + microservice);
+            return -1;
+        }
+        if (devices.length == 1)
+            return devices[0];
+
+        Map<Integer, double[]> weights = currentWeights.get(microservice);
+        if (weights == null) {
+            weights = new HashMap<>();
+            currentWeights.put(microservice, weights);
+        }
+        double total = 0;
+        int selected = -1;
+        double[] selectedWeight = null;
+        for (int deviceId : devices) {
+            double weight = 1.0 / (Math.max(MIN_LATENCY, getPathLatency(serviceDiscoveryInfo.getDeviceId(), deviceId)) * (1 + DeviceLoadMonitor.getOutstanding(deviceId)));
+            double[] current = weights.get(deviceId);
+            if (current == null) {
+                current = new double[1];
+                weights.put(deviceId, current);
+            }
+            current[0] += weight;
+            total += weight;
+            if (selectedWeight == null || current[0] > selectedWeight[0]) {
+                selected = deviceId;
+                selectedWeight = current;
+            }
+        }
+        selectedWeight[0] -= total;
+        return selected;
+    }
+
+    /**
+     * Follows the routing table hop by hop from source to destination and sums the link latencies.
+     * Results are cached as routing tables are static once generated (cache is cleared through {@link #clearCache()}).
+     */
+    protected double getPathLatency(int sourceId, int destinationId) {
+        if (pathLatency == null)
+            pathLatency = new HashMap<>();
+        long key = ((long) sourceId << 32) | destinationId;
+        Double cached = pathLatency.get(key);
+        if (cached != null)
+            return cached;
+        double latency = 0;
+        int current = sourceId;
+        int hops = 0;
+        while (current != destinationId) {
+            MicroserviceFogDevice device = (MicroserviceFogDevice) CloudSim.getEntity(current);
+            Integer next = device.getRoutingTable().get(destinationId);
+            if (next == null || hops++ > device.getRoutingTable().size()) {
+                latency = Double.MAX_VALUE;
+                break;
+            }
+            if (next == device.getParentId())
+                latency += device.getUplinkLatency();
+            else if (device.getChildToLatencyMap().containsKey(next))
+                latency += device.getChildToLatencyMap().get(next);
+            else if (device.getClusterMembersToLatencyMap() != null && device.getClusterMembersToLatencyMap().containsKey(next))
+                latency += device.getClusterMembersToLatencyMap().get(next);
+            current = next;
+        }
+        pathLatency.put(key, latency);
+        return latency;
+    }
+
+    public void clearCache() {
+        if (pathLatency != null)
+            pathLatency.clear();
+    }
+}
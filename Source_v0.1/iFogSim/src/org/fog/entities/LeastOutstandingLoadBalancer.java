@@ -0,0 +1,36 @@
+package org.fog.entities;
+
+import org.fog.utils.DeviceLoadMonitor;
+import org.fog.utils.Logger;
+
+
+/**
+ * Selects the instance with the least number of outstanding tuples (routed to it and not yet completed).
+ * Ties are broken in round robin order so that idle instances share load evenly.
+ */
+public class LeastOutstandingLoadBalancer implements LoadBalancer {
+    private static final long serialVersionUID = 1L;
+
+    protected int tieBreaker = 0;
+
+    public int getDeviceId(String microservice, ServiceDiscovery serviceDiscoveryInfo) {
+        int[] devices = serviceDiscoveryInfo.getInstances(microservice);
+        if (devices.length == 0) {
+            Logger.error("Load balancer error", "Service Discovery Information Missing for " + microservice);
+            return -1;
+        }
+        int size = devices.length;
+        int start = Math.floorMod(tieBreaker++, size);
+        int selected = devices[start];
+        int selectedLoad = DeviceLoadMonitor.getOutstanding(selected);
+        for (int i = 1; i < size && selectedLoad > 0; i++) {
+            int deviceId = devices[(start + i) % size];
+            int load = DeviceLoadMonitor.getOutstanding(deviceId);
+            if (load < selectedLoad) {
+                selected = deviceId;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+}
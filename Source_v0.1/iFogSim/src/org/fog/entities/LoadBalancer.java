@@ -1,8 +1,10 @@
 package org.fog.entities;
 
+import java.io.Serializable;
+
 /**
  * Created by Samodha Pallewatta
  */
-public interface LoadBalancer {
+public interface LoadBalancer extends Serializable {
     int getDeviceId(String microservice, ServiceDiscovery serviceDiscoveryInfo);
 }
@@ -0,0 +1,34 @@
+package org.fog.entities;
+
+import org.cloudbus.cloudsim.core.RandomService;
+import org.fog.utils.Logger;
+
+import java.io.Serializable;
+
+/**
+ * Creates the load balancer used by the controller component of a device.
+ */
+public class LoadBalancerFactory implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int ROUND_ROBIN = 1;
+    public static final int LEAST_OUTSTANDING = 2;
+    public static final int POWER_OF_TWO_CHOICES = 3;
+    public static final int LATENCY_WEIGHTED = 4;
+
+    public LoadBalancer getLoadBalancer(int type, int deviceId) {
+        switch (type) {
+            case ROUND_ROBIN:
+                return new RRLoadBalancer();
+            case LEAST_OUTSTANDING:
+                return new LeastOutstandingLoadBalancer();
+            case POWER_OF_TWO_CHOICES:
+                return new PowerOfTwoChoicesLoadBalancer(RandomService.stream("load-balancer-" + deviceId));
+            case LATENCY_WEIGHTED:
+                return new LatencyWeightedLoadBalancer();
+        }
+
+        Logger.error("Load Balancer Error", "Error initializing load balancer");
+        return null;
+    }
+}
@@ -3,7 +3,9 @@ package org.fog.entities;
 import org.apache.commons.math3.util.Pair;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.fog.application.Application;
+import org.fog.utils.ArrivalReport;
 import org.fog.utils.ModuleLaunchConfig;
+import org.fog.utils.ResourceInfo;
 
 import java.util.List;
 import java.util.Map;
@@ -12,6 +14,7 @@ import java.util.Map;
  * Created by Samodha Pallewatta on 9/2/2019.
  */
 public class ManagementTuple extends Tuple {
+    private static final long serialVersionUID = 1L;
 
     // management tuples are routed by device id, so direction doesn't matter/
     public static final int NONE = -1;
@@ -20,12 +23,16 @@ public class ManagementTuple extends Tuple {
     public static final int SERVICE_DISCOVERY_INFO = 2;
     public static final int RESOURCE_UPDATE = 3;
     public static final int DEPLOYMENTREQUEST = 4;
+    public static final int SERVICE_DISCOVERY_UPDATE = 5;
+    public static final int ARRIVAL_REPORT = 6;
 
     public int managementTupleType;
     protected PlacementRequest placementRequest;
     protected Pair<String, Integer> serviceDiscoveryInfor;
+    protected ServiceDiscoveryDelta serviceDiscoveryDelta;
     protected Map<Application, List<ModuleLaunchConfig>> deployementSet;
-    protected Pair<Integer, Map<String, Double>> resourceData;
+    protected ResourceInfo resourceData;
+    protected ArrivalReport arrivalReport;
 
     //todo check use of this
     public Double processingDelay = 0.0;
@@ -57,6 +64,14 @@ public class ManagementTuple extends Tuple {
         return serviceDiscoveryInfor;
     }
 
+    public void setServiceDiscoveryDelta(ServiceDiscoveryDelta serviceDiscoveryDelta) {
+        this.serviceDiscoveryDelta = serviceDiscoveryDelta;
+    }
+
+    public ServiceDiscoveryDelta getServiceDiscoveryDelta() {
+        return serviceDiscoveryDelta;
+    }
+
     public void setDeployementSet(Map<Application, List<ModuleLaunchConfig>> deployementSet) {
         this.deployementSet = deployementSet;
     }
@@ -65,11 +80,19 @@ public class ManagementTuple extends Tuple {
         return deployementSet;
     }
 
-    public Pair<Integer, Map<String, Double>> getResourceData() {
+    public ResourceInfo getResourceData() {
         return resourceData;
     }
 
-    public void setResourceData(Pair<Integer, Map<String, Double>> resourceData) {
+    public void setResourceData(ResourceInfo resourceData) {
         this.resourceData = resourceData;
     }
+
+    public ArrivalReport getArrivalReport() {
+        return arrivalReport;
+    }
+
+    public void setArrivalReport(ArrivalReport arrivalReport) {
+        this.arrivalReport = arrivalReport;
+    }
 }
@@ -0,0 +1,221 @@
+package org.fog.entities;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.application.AppModule;
+import org.fog.application.Application;
+import org.fog.utils.HoltRateForecaster;
+import org.fog.utils.Logger;
+import org.fog.utils.MicroservicePlacementConfig;
+import org.fog.utils.ScalingDecision;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Predictive horizontal autoscaler run by the FON.
+ * Request rates of each microservice are observed from the arrival reports the devices monitored by the FON send once per
+ * interval, and forecast using {@link HoltRateForecaster}. Each instance is modelled as an M/M/1 server with service rate
+ * mips/tupleCpuLength, for which P(T > t) = exp(-(mu - lambda) t). Keeping p95 latency below the target therefore limits the
+ * rate per instance to mu - ln(20)/target.
+ * The autoscaler keeps the minimum number of instances (i.e. minimum active MIPS) satisfying that limit for the forecast rate,
+ * launching at most {@link MicroservicePlacementConfig#AUTOSCALING_MAX_INSTANCES} instances per microservice. When the target
+ * is below the latency of an idle instance, it is logged and the instances are only kept from saturating.
+ */
+public class MicroserviceAutoscaler implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected static final double P95_FACTOR = Math.log(20);
+
+    // microservice -> rate forecaster
+    protected Map<String, HoltRateForecaster> forecasters = new HashMap<>();
+    // microservice -> arrivals during the current interval
+    protected Map<String, Integer> arrivals = new HashMap<>();
+    // microservice -> < deviceId, arrivals during the current interval >
+    protected Map<String, Map<Integer, Integer>> deviceArrivals = new HashMap<>();
+    // microservice -> average tuple cpu length observed
+    protected Map<String, Double> averageCpuLength = new HashMap<>();
+
+    // microservice -> devices hosting instances created by the placement logic (never released by the autoscaler)
+    protected Map<String, List<Integer>> placedInstances = new HashMap<>();
+    // microservice -> devices hosting instances launched by the autoscaler
+    protected Map<String, List<Integer>> scaledInstances = new HashMap<>();
+    protected Map<String, Application> applications = new HashMap<>();
+    // microservice -> time of the last scaling action (scale in is suppressed during the cool down period)
+    protected Map<String, Double> lastScalingTime = new HashMap<>();
+    // microservices whose latency target can not be met by an instance, already logged
+    protected Set<String> unreachableTargets = new HashSet<>();
+
+    protected double latencyTarget;
+
+    public MicroserviceAutoscaler(double latencyTarget) {
+        this.latencyTarget = latencyTarget;
+    }
+
+    public MicroserviceAutoscaler() {
+        this(MicroservicePlacementConfig.AUTOSCALING_P95_LATENCY_TARGET);
+    }
+
+    /**
+     * Records the tuples arrived at a microservice on a device, as reported by the device once per interval.
+     *
+     * @param count     number of tuples arrived
+     * @param cpuLength average cpu length of the tuples
+     */
+    public void recordArrivals(String microservice, int deviceId, int count, double cpuLength) {
+        if (!applications.containsKey(microservice) || count <= 0)
+            return;
+        arrivals.put(microservice, arrivals.getOrDefault(microservice, 0) + count);
+        Map<Integer, Integer> perDevice = deviceArrivals.get(microservice);
+        if (perDevice == null) {
+            perDevice = new HashMap<>();
+            deviceArrivals.put(microservice, perDevice);
+        }
+        perDevice.put(deviceId, perDevice.getOrDefault(deviceId, 0) + count);
+
+        Double average = averageCpuLength.get(microservice);
+        if (average == null)
+            averageCpuLength.put(microservice, cpuLength);
+        else
+            averageCpuLength.put(microservice, MicroservicePlacementConfig.AUTOSCALING_ALPHA * cpuLength + (1 - MicroservicePlacementConfig.AUTOSCALING_ALPHA) * average);
+    }
+
+    public void registerInstance(Application application, String microservice, int deviceId) {
+        applications.put(microservice, application);
+        if (!placedInstances.containsKey(microservice))
+            placedInstances.put(microservice, new ArrayList<>());
+        if (!scaledInstances.containsKey(microservice))
+            scaledInstances.put(microservice, new ArrayList<>());
+        if (!placedInstances.get(microservice).contains(deviceId) && !scaledInstances.get(microservice).contains(deviceId))
+            placedInstances.get(microservice).add(deviceId);
+        if (!forecasters.containsKey(microservice))
+            forecasters.put(microservice, new HoltRateForecaster(MicroservicePlacementConfig.AUTOSCALING_ALPHA,
+                    MicroservicePlacementConfig.AUTOSCALING_BETA, MicroservicePlacementConfig.AUTOSCALING_WINDOW));
+    }
+
+    public int getInstanceCount(String microservice) {
+        int count = 0;
+        if (placedInstances.containsKey(microservice))
+            count += placedInstances.get(microservice).size();
+        if (scaledInstances.containsKey(microservice))
+            count += scaledInstances.get(microservice).size();
+        return count;
+    }
+
+    /**
+     * Closes the current observation interval and computes the instances to launch or release.
+     * Resource availability in the controller component is updated for the selected devices.
+     *
+     * @param interval   length of the observation interval
+     * @param controller controller component of the FON
+     * @param fogDevices devices monitored by the FON
+     */
+    public List<ScalingDecision> evaluate(double interval, ControllerComponent controller, List<FogDevice> fogDevices) {
+        List<ScalingDecision> decisions = new ArrayList<>();
+        for (String microservice : placedInstances.keySet()) {
+            HoltRateForecaster forecaster = forecasters.get(microservice);
+            forecaster.addObservation(arrivals.getOrDefault(microservice, 0) / interval);
+
+            Double cpuLength = averageCpuLength.get(microservice);
+            if (cpuLength == null || cpuLength <= 0)
+                continue;
+            Application application = applications.get(microservice);
+            AppModule module = application.getModuleByName(microservice);
+            double serviceRate = module.getMips() / cpuLength;
+            double ratePerInstance = serviceRate - P95_FACTOR / latencyTarget;
+            if (ratePerInstance <= 0) {
+                // more instances do not lower the latency of an instance : only keep the instances from saturating
+                if (unreachableTargets.add(microservice))
+                    Logger.error("Autoscaler", "The p95 latency target " + latencyTarget + " can not be met by an instance of " + microservice);
+                ratePerInstance = serviceRate;
+            }
+            double forecast = forecaster.forecast(MicroservicePlacementConfig.AUTOSCALING_FORECAST_HORIZON);
+
+            int current = getInstanceCount(microservice);
+            int placed = placedInstances.get(microservice).size();
+            int required = Math.max(placed, (int) Math.ceil(forecast / ratePerInstance));
+            required = Math.min(required, placed + MicroservicePlacementConfig.AUTOSCALING_MAX_INSTANCES);
+
+            if (required > current) {
+                for (int i = current; i < required; i++) {
+                    FogDevice device = selectDeviceForScaleOut(microservice, module, controller, fogDevices);
+                    if (device == null)
+                        break;
+                    reserveResources(controller, device.getId(), module, 1);
+                    scaledInstances.get(microservice).add(device.getId());
+                    decisions.add(new ScalingDecision(application, microservice, device.getId(), ScalingDecision.SCALE_OUT));
+                    lastScalingTime.put(microservice, CloudSim.clock());
+                }
+            } else if (required < current && !scaledInstances.get(microservice).isEmpty()
+                    && CloudSim.clock() - lastScalingTime.getOrDefault(microservice, 0.0) >= MicroservicePlacementConfig.AUTOSCALING_COOLDOWN) {
+                // hysteresis : release only if the remaining instances are not driven close to the limit
+                double remainingCapacity = ratePerInstance * (current - 1) * MicroservicePlacementConfig.AUTOSCALING_SCALE_IN_THRESHOLD;
+                if (forecast <= remainingCapacity) {
+                    int deviceId = selectDeviceForScaleIn(microservice);
+                    scaledInstances.get(microservice).remove((Integer) deviceId);
+                    reserveResources(controller, deviceId, module, -1);
+                    decisions.add(new ScalingDecision(application, microservice, deviceId, ScalingDecision.SCALE_IN));
+                    lastScalingTime.put(microservice, CloudSim.clock());
+                }
+            }
+        }
+        arrivals.clear();
+        deviceArrivals.clear();
+        return decisions;
+    }
+
+    /**
+     * Device with the highest available cpu among FCNs that have enough resources and do not already host the microservice.
+     */
+    protected FogDevice selectDeviceForScaleOut(String microservice, AppModule module, ControllerComponent controller, List<FogDevice> fogDevices) {
+        FogDevice selected = null;
+        double selectedCpu = -1;
+        for (FogDevice fogDevice : fogDevices) {
+            if (!((MicroserviceFogDevice) fogDevice).getDeviceType().equals(MicroserviceFogDevice.FCN))
+                continue;
+            int deviceId = fogDevice.getId();
+            if (placedInstances.get(microservice).contains(deviceId) || scaledInstances.get(microservice).contains(deviceId))
+                continue;
+            Double cpu = controller.getAvailableResource(deviceId, ControllerComponent.CPU);
+            Double ram = controller.getAvailableResource(deviceId, ControllerComponent.RAM);
+            Double storage = controller.getAvailableResource(deviceId, ControllerComponent.STORAGE);
+            if (cpu == null || ram == null || storage == null)
+                continue;
+            if (cpu >= module.getMips() && ram >= module.getRam() && storage >= module.getSize() && cpu > selectedCpu) {
+                selected = fogDevice;
+                selectedCpu = cpu;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Autoscaled instance that received the fewest tuples during the last interval.
+     */
+    protected int selectDeviceForScaleIn(String microservice) {
+        Map<Integer, Integer> perDevice = deviceArrivals.getOrDefault(microservice, Collections.<Integer, Integer>emptyMap());
+        int selected = -1;
+        int selectedArrivals = Integer.MAX_VALUE;
+        for (int deviceId : scaledInstances.get(microservice)) {
+            int count = perDevice.getOrDefault(deviceId, 0);
+            if (count < selectedArrivals) {
+                selected = deviceId;
+                selectedArrivals = count;
+            }
+        }
+        return selected;
+    }
+
+    protected void reserveResources(ControllerComponent controller, int deviceId, AppModule module, int instances) {
+        controller.updateResources(deviceId, ControllerComponent.CPU, controller.getAvailableResource(deviceId, ControllerComponent.CPU) - module.getMips() * instances);
+        controller.updateResources(deviceId, ControllerComponent.RAM, controller.getAvailableResource(deviceId, ControllerComponent.RAM) - module.getRam() * instances);
+        controller.updateResources(deviceId, ControllerComponent.STORAGE, controller.getAvailableResource(deviceId, ControllerComponent.STORAGE) - module.getSize() * instances);
+    }
+
+    public double getLatencyTarget() {
+        return latencyTarget;
+    }
+
+    public void setLatencyTarget(double latencyTarget) {
+        this.latencyTarget = latencyTarget;
+    }
+}
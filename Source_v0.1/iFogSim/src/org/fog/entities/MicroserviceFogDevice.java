@@ -12,7 +12,6 @@ import org.fog.application.Application;
 import org.fog.placement.MicroservicePlacementLogic;
 import org.fog.placement.PlacementLogicOutput;
 import org.fog.utils.*;
-import org.json.simple.JSONObject;
 
 import java.util.*;
 
@@ -20,6 +19,7 @@ import java.util.*;
  * Created by Samodha Pallewatta
  */
 public class MicroserviceFogDevice extends FogDevice {
+    private static final long serialVersionUID = 1L;
 
     /**
      * Device type (1.client device 2.FCN 3.FON 4.Cloud)
@@ -51,6 +51,12 @@ public class MicroserviceFogDevice extends FogDevice {
 
     protected List<PlacementRequest> placementRequests = new ArrayList<>();
 
+    /**
+     * microservice -> tuples arrived since the last arrival report to the FON, and their total cpu length
+     */
+    protected Map<String, Integer> unreportedArrivals = new HashMap<>();
+    protected Map<String, Long> unreportedCpuLength = new HashMap<>();
+
     public MicroserviceFogDevice(String name, FogDeviceCharacteristics characteristics, VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList, double schedulingInterval, double uplinkBandwidth, double downlinkBandwidth, double clusterLinkBandwidth, double uplinkLatency, double ratePerMips, String deviceType) throws Exception {
         super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, uplinkBandwidth, downlinkBandwidth, uplinkLatency, ratePerMips);
         setClusterLinkBandwidth(clusterLinkBandwidth);
@@ -64,10 +70,14 @@ public class MicroserviceFogDevice extends FogDevice {
         // for energy consumption update
         sendNow(getId(), FogEvents.RESOURCE_MGMT);
 
+        if (controllerComponent != null && controllerComponent.getAutoscaler() != null)
+            send(getId(), MicroservicePlacementConfig.AUTOSCALING_INTERVAL, FogEvents.AUTOSCALE);
     }
 
     @Override
     protected void processOtherEvent(SimEvent ev) {
+        if (Config.VALIDATE_EVENT_PAYLOADS)
+            EventPayloadRegistry.validate(ev);
         switch (ev.getTag()) {
             case FogEvents.PROCESS_PRS:
                 processPlacementRequests();
@@ -92,6 +102,15 @@ public class MicroserviceFogDevice extends FogDevice {
                 processClustering(this.getParentId(), this.getId(), ev);
                 updateCLusterConsInRoutingTable();
                 break;
+            case FogEvents.AUTOSCALE:
+                processAutoscaling();
+                break;
+            case FogEvents.REPORT_ARRIVALS:
+                reportArrivals();
+                break;
+            case FogEvents.ARRIVAL_REPORT:
+                recordArrivals((ArrivalReport) ev.getData());
+                break;
             default:
                 super.processOtherEvent(ev);
                 break;
@@ -99,9 +118,8 @@ public class MicroserviceFogDevice extends FogDevice {
     }
 
     private void updateResourceInfo(SimEvent ev) {
-        Pair<Integer, Map<String, Double>> pair = (Pair<Integer, Map<String, Double>>) ev.getData();
-        int deviceId = pair.getFirst();
-        getControllerComponent().updateResourceInfo(deviceId, pair.getSecond());
+        ResourceInfo resourceInfo = (ResourceInfo) ev.getData();
+        getControllerComponent().updateResourceInfo(resourceInfo.getDeviceId(), resourceInfo.getResources());
     }
 
     public Map<String, Double> getResourceAvailabilityOfDevice() {
@@ -202,6 +220,7 @@ public class MicroserviceFogDevice extends FogDevice {
                 }
                 tuple.setDestinationDeviceId(destination);
                 tuple.setSourceDeviceId(getId());
+                DeviceLoadMonitor.tupleRouted(tuple, destination);
             } else if (tuple.getDirection() == Tuple.DOWN) {
                 int destination = tuple.getDeviceForMicroservice(tuple.getDestModuleName());
                 tuple.setDestinationDeviceId(destination);
@@ -218,10 +237,12 @@ public class MicroserviceFogDevice extends FogDevice {
             if (vmId < 0
                     || (tuple.getModuleCopyMap().containsKey(tuple.getDestModuleName()) &&
                     tuple.getModuleCopyMap().get(tuple.getDestModuleName()) != vmId)) {
+                DeviceLoadMonitor.tupleDropped(tuple);
                 return;
             }
             tuple.setVmId(vmId);
             tuple.addToTraversedMicroservices(getId(), tuple.getDestModuleName());
+            countArrival(tuple);
 
             updateTimingsOnReceipt(tuple);
 
@@ -237,6 +258,7 @@ public class MicroserviceFogDevice extends FogDevice {
                     sendToCluster(tuple, nextDeviceToSend);
                 else {
                     Logger.error("Routing error", "Routing table of " + getName() + "does not contain next device for destination Id" + tuple.getDestinationDeviceId());
+                    DeviceLoadMonitor.tupleDropped(tuple);
 
                 }
             } else {
@@ -298,6 +320,13 @@ public class MicroserviceFogDevice extends FogDevice {
         }
     }
 
+    /**
+     * Replaces the load balancer of this device's controller component (e.g. to use a load aware policy on selected devices)
+     */
+    public void setLoadBalancer(LoadBalancer loadBalancer) {
+        controllerComponent.setLoadBalancer(loadBalancer);
+    }
+
     public ControllerComponent getControllerComponent() {
         return controllerComponent;
     }
@@ -356,6 +385,10 @@ public class MicroserviceFogDevice extends FogDevice {
                         sendNow(deviceID, FogEvents.LAUNCH_MODULE_INSTANCE, moduleLaunchConfig);
                     }
                 }
+                if (getControllerComponent().getAutoscaler() != null) {
+                    for (ModuleLaunchConfig moduleLaunchConfig : perDevice.get(deviceID).get(app))
+                        getControllerComponent().getAutoscaler().registerInstance(app, moduleLaunchConfig.getModule().getName(), deviceID);
+                }
             }
             if (MicroservicePlacementConfig.SIMULATION_MODE == "DYNAMIC") {
                 //todo
@@ -364,17 +397,14 @@ public class MicroserviceFogDevice extends FogDevice {
             placementString.append("\n");
         }
         System.out.println(placementString.toString());
+        // one delta per client device, applied atomically by the client
         for (int clientDevice : serviceDicovery.keySet()) {
-            for (Pair serviceData : serviceDicovery.get(clientDevice)) {
-                if (MicroservicePlacementConfig.SIMULATION_MODE == "DYNAMIC") {
-                    transmitServiceDiscoveryData(clientDevice, serviceData);
-                } else if (MicroservicePlacementConfig.SIMULATION_MODE == "STATIC") {
-                    JSONObject serviceDiscoveryAdd = new JSONObject();
-                    serviceDiscoveryAdd.put("service data", serviceData);
-                    serviceDiscoveryAdd.put("action", "ADD");
-                    sendNow(clientDevice, FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryAdd);
-                }
+            ServiceDiscoveryDelta delta = new ServiceDiscoveryDelta();
+            for (Pair<String, Integer> serviceData : serviceDicovery.get(clientDevice)) {
+                getControllerComponent().subscribe(serviceData.getFirst(), clientDevice);
+                delta.add(serviceData.getFirst(), serviceData.getSecond());
             }
+            sendServiceDiscoveryDelta(clientDevice, delta);
         }
 
         for (PlacementRequest pr : placementRequestStatus.keySet()) {
@@ -394,6 +424,94 @@ public class MicroserviceFogDevice extends FogDevice {
             sendNow(getId(), FogEvents.PROCESS_PRS);
     }
 
+    /**
+     * Executed by the FON periodically when autoscaling is enabled.
+     * Scale out : launch the microservice on the selected device and add it to service discovery of the clients.
+     * Scale in : remove the instance from service discovery of the clients and release it after the drain time, so that
+     * tuples already routed to it are completed.
+     */
+    protected void processAutoscaling() {
+        List<ScalingDecision> decisions = getControllerComponent().executeAutoscaling(MicroservicePlacementConfig.AUTOSCALING_INTERVAL);
+        // client device -> service discovery changes of this round
+        Map<Integer, ServiceDiscoveryDelta> deltas = new HashMap<>();
+        for (ScalingDecision decision : decisions) {
+            Application app = decision.getApplication();
+            String microservice = decision.getMicroservice();
+            if (decision.getAction() == ScalingDecision.SCALE_OUT) {
+                Logger.debug(getName(), "Autoscaling : launching " + microservice + " on " + CloudSim.getEntityName(decision.getDeviceId()));
+                ModuleLaunchConfig moduleLaunchConfig = new ModuleLaunchConfig(app.getModuleByName(microservice), 1);
+                if (MicroservicePlacementConfig.SIMULATION_MODE == "STATIC") {
+                    sendNow(decision.getDeviceId(), FogEvents.ACTIVE_APP_UPDATE, app);
+                    sendNow(decision.getDeviceId(), FogEvents.APP_SUBMIT, app);
+                    sendNow(decision.getDeviceId(), FogEvents.LAUNCH_MODULE, new AppModule(app.getModuleByName(microservice)));
+                    sendNow(decision.getDeviceId(), FogEvents.LAUNCH_MODULE_INSTANCE, moduleLaunchConfig);
+                } else if (MicroservicePlacementConfig.SIMULATION_MODE == "DYNAMIC") {
+                    Map<Application, List<ModuleLaunchConfig>> deploymentSet = new HashMap<>();
+                    deploymentSet.put(app, new ArrayList<>(Arrays.asList(moduleLaunchConfig)));
+                    transmitModulesToDeply(decision.getDeviceId(), deploymentSet);
+                }
+                for (int clientDevice : getControllerComponent().getSubscribers(microservice))
+                    getDelta(deltas, clientDevice).add(microservice, decision.getDeviceId());
+            } else if (decision.getAction() == ScalingDecision.SCALE_IN) {
+                Logger.debug(getName(), "Autoscaling : releasing " + microservice + " from " + CloudSim.getEntityName(decision.getDeviceId()));
+                for (int clientDevice : getControllerComponent().getSubscribers(microservice))
+                    getDelta(deltas, clientDevice).remove(microservice, decision.getDeviceId());
+                send(decision.getDeviceId(), MicroservicePlacementConfig.AUTOSCALING_DRAIN_TIME, FogEvents.RELEASE_MODULE, app.getModuleByName(microservice));
+            }
+        }
+        for (int clientDevice : deltas.keySet())
+            sendServiceDiscoveryDelta(clientDevice, deltas.get(clientDevice));
+        send(getId(), MicroservicePlacementConfig.AUTOSCALING_INTERVAL, FogEvents.AUTOSCALE);
+    }
+
+    private ServiceDiscoveryDelta getDelta(Map<Integer, ServiceDiscoveryDelta> deltas, int clientDevice) {
+        ServiceDiscoveryDelta delta = deltas.get(clientDevice);
+        if (delta == null) {
+            delta = new ServiceDiscoveryDelta();
+            deltas.put(clientDevice, delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Request rate observations for the autoscaler of the FON managing this device. Arrivals are counted locally and
+     * reported to the FON at the end of each autoscaling interval, so the FON sees them with the delay of the network.
+     */
+    protected void countArrival(Tuple tuple) {
+        if (!MicroservicePlacementConfig.ENABLE_AUTOSCALING || fonID == -1)
+            return;
+        if (unreportedArrivals.isEmpty()) {
+            double interval = MicroservicePlacementConfig.AUTOSCALING_INTERVAL;
+            send(getId(), interval - CloudSim.clock() % interval, FogEvents.REPORT_ARRIVALS);
+        }
+        String microservice = tuple.getDestModuleName();
+        unreportedArrivals.put(microservice, unreportedArrivals.getOrDefault(microservice, 0) + 1);
+        unreportedCpuLength.put(microservice, unreportedCpuLength.getOrDefault(microservice, 0L) + tuple.getCloudletLength());
+    }
+
+    protected void reportArrivals() {
+        if (unreportedArrivals.isEmpty())
+            return;
+        ArrivalReport report = new ArrivalReport(getId(), unreportedArrivals, unreportedCpuLength);
+        unreportedArrivals = new HashMap<>();
+        unreportedCpuLength = new HashMap<>();
+        ManagementTuple reportTuple = new ManagementTuple(FogUtils.generateTupleId(), ManagementTuple.NONE, ManagementTuple.ARRIVAL_REPORT);
+        reportTuple.setArrivalReport(report);
+        reportTuple.setDestinationDeviceId(fonID);
+        sendNow(getId(), FogEvents.MANAGEMENT_TUPLE_ARRIVAL, reportTuple);
+    }
+
+    /**
+     * Executed by the FON on the arrival report of a device it manages.
+     */
+    protected void recordArrivals(ArrivalReport report) {
+        if (getControllerComponent() == null || getControllerComponent().getAutoscaler() == null)
+            return;
+        for (Map.Entry<String, Integer> arrivals : report.getArrivals().entrySet())
+            getControllerComponent().getAutoscaler().recordArrivals(arrivals.getKey(), report.getDeviceId(), arrivals.getValue(),
+                    report.getMeanCpuLength(arrivals.getKey()));
+    }
+
     public List<Integer> getClientServiceNodeIds(Application application, String
             microservice, Map<String, Integer> placed, Map<String, Integer> placementPerPr) {
         List<String> clientServices = getClientServices(application, microservice);
@@ -422,13 +540,7 @@ public class MicroserviceFogDevice extends FogDevice {
     }
 
     protected void updateServiceDiscovery(SimEvent ev) {
-        JSONObject object = (JSONObject) ev.getData();
-        Pair<String, Integer> placement = (Pair<String, Integer>) object.get("service data");
-        String action = (String) object.get("action");
-        if (action.equals("ADD"))
-            this.controllerComponent.addServiceDiscoveryInfo(placement.getFirst(), placement.getSecond());
-        else if (action.equals("REMOVE"))
-            this.controllerComponent.removeServiceDiscoveryInfo(placement.getFirst(), placement.getSecond());
+        this.controllerComponent.applyServiceDiscoveryDelta((ServiceDiscoveryDelta) ev.getData());
     }
 
     protected void processModuleArrival(SimEvent ev) {
@@ -463,11 +575,40 @@ public class MicroserviceFogDevice extends FogDevice {
         }
     }
 
+    /**
+     * Release the instance hosted on this device. The module sent with the event may be the application level module
+     * (e.g. autoscaler or migration), hence the hosted instance is resolved by name.
+     */
+    @Override
+    protected void processModuleTermination(SimEvent ev) {
+        AppModule module = (AppModule) ev.getData();
+        AppModule hostedModule = null;
+        for (Vm vm : getHost().getVmList()) {
+            if (((AppModule) vm).getName().equals(module.getName()) && ((AppModule) vm).getAppId().equals(module.getAppId()))
+                hostedModule = (AppModule) vm;
+        }
+        if (hostedModule == null)
+            return;
+        if (appToModulesMap.containsKey(module.getAppId()))
+            appToModulesMap.get(module.getAppId()).remove(module.getName());
+        if (moduleInstanceCount.containsKey(module.getAppId()) && moduleInstanceCount.get(module.getAppId()).containsKey(module.getName())) {
+            int instances = moduleInstanceCount.get(module.getAppId()).remove(module.getName());
+            // in FONs resource availability is updated by placement algorithm
+            if (getDeviceType() != FON && getControllerComponent() != null) {
+                getControllerComponent().updateResources(getId(), ControllerComponent.CPU, getControllerComponent().getAvailableResource(getId(), ControllerComponent.CPU) + hostedModule.getMips() * instances);
+                getControllerComponent().updateResources(getId(), ControllerComponent.RAM, getControllerComponent().getAvailableResource(getId(), ControllerComponent.RAM) + hostedModule.getRam() * instances);
+                getControllerComponent().updateResources(getId(), ControllerComponent.STORAGE, getControllerComponent().getAvailableResource(getId(), ControllerComponent.STORAGE) + hostedModule.getSize() * instances);
+            }
+        }
+        getVmAllocationPolicy().deallocateHostForVm(hostedModule);
+        getVmList().remove(hostedModule);
+    }
+
     @Override
     protected void moduleReceive(SimEvent ev) {
-        JSONObject object = (JSONObject) ev.getData();
-        AppModule appModule = (AppModule) object.get("module");
-        Application app = (Application) object.get("application");
+        ModuleMigrationInfo migrationInfo = (ModuleMigrationInfo) ev.getData();
+        AppModule appModule = migrationInfo.getModule();
+        Application app = migrationInfo.getApplication();
         System.out.println(CloudSim.clock() + getName() + " is receiving " + appModule.getName());
 
         sendNow(getId(), FogEvents.APP_SUBMIT, app);
@@ -475,18 +616,18 @@ public class MicroserviceFogDevice extends FogDevice {
         ModuleLaunchConfig moduleLaunchConfig = new ModuleLaunchConfig(appModule, 1);
         sendNow(getId(), FogEvents.LAUNCH_MODULE_INSTANCE, moduleLaunchConfig);
 
-        NetworkUsageMonitor.sendingModule((double) object.get("delay"), appModule.getSize());
-        MigrationDelayMonitor.setMigrationDelay((double) object.get("delay"));
+        NetworkUsageMonitor.sendingModule(migrationInfo.getDelay(), appModule.getSize());
+        MigrationDelayMonitor.setMigrationDelay(migrationInfo.getDelay());
     }
 
 
     @Override
     protected void moduleSend(SimEvent ev) {
-        JSONObject object = (JSONObject) ev.getData();
-        AppModule appModule = (AppModule) object.get("module");
+        ModuleMigrationInfo migrationInfo = (ModuleMigrationInfo) ev.getData();
+        AppModule appModule = migrationInfo.getModule();
         System.out.println(getName() + " is sending " + appModule.getName());
-        NetworkUsageMonitor.sendingModule((double) object.get("delay"), appModule.getSize());
-        MigrationDelayMonitor.setMigrationDelay((double) object.get("delay"));
+        NetworkUsageMonitor.sendingModule(migrationInfo.getDelay(), appModule.getSize());
+        MigrationDelayMonitor.setMigrationDelay(migrationInfo.getDelay());
 
         if (moduleInstanceCount.containsKey(appModule.getAppId()) && moduleInstanceCount.get(appModule.getAppId()).containsKey(appModule.getName())) {
             int moduleCount = moduleInstanceCount.get(appModule.getAppId()).get(appModule.getName());
@@ -525,11 +666,16 @@ public class MicroserviceFogDevice extends FogDevice {
         sendNow(getId(), FogEvents.MANAGEMENT_TUPLE_ARRIVAL, prTuple);
     }
 
-    private void transmitServiceDiscoveryData(int clientDevice, Pair serviceData) {
-        ManagementTuple sdTuple = new ManagementTuple(FogUtils.generateTupleId(), ManagementTuple.NONE, ManagementTuple.SERVICE_DISCOVERY_INFO);
-        sdTuple.setServiceDiscoveryInfor(serviceData);
-        sdTuple.setDestinationDeviceId(clientDevice);
-        sendNow(getId(), FogEvents.MANAGEMENT_TUPLE_ARRIVAL, sdTuple);
+    private void sendServiceDiscoveryDelta(int clientDevice, ServiceDiscoveryDelta delta) {
+        if (delta.isEmpty())
+            return;
+        if (MicroservicePlacementConfig.SIMULATION_MODE == "DYNAMIC") {
+            ManagementTuple sdTuple = new ManagementTuple(FogUtils.generateTupleId(), ManagementTuple.NONE, ManagementTuple.SERVICE_DISCOVERY_UPDATE);
+            sdTuple.setServiceDiscoveryDelta(delta);
+            sdTuple.setDestinationDeviceId(clientDevice);
+            sendNow(getId(), FogEvents.MANAGEMENT_TUPLE_ARRIVAL, sdTuple);
+        } else if (MicroservicePlacementConfig.SIMULATION_MODE == "STATIC")
+            sendNow(clientDevice, FogEvents.UPDATE_SERVICE_DISCOVERY, delta);
     }
 
     private void transmitModulesToDeply(int deviceID, Map<Application, List<ModuleLaunchConfig>> applicationListMap) {
@@ -545,14 +691,16 @@ public class MicroserviceFogDevice extends FogDevice {
             if (tuple.managementTupleType == ManagementTuple.PLACEMENT_REQUEST) {
                 sendNow(getId(), FogEvents.RECEIVE_PR, tuple.getPlacementRequest());
             } else if (tuple.managementTupleType == ManagementTuple.SERVICE_DISCOVERY_INFO) {
-                JSONObject serviceDiscoveryAdd = new JSONObject();
-                serviceDiscoveryAdd.put("service data", tuple.getServiceDiscoveryInfor());
-                serviceDiscoveryAdd.put("action", "ADD");
-                sendNow(getId(), FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryAdd);
+                Pair<String, Integer> serviceData = tuple.getServiceDiscoveryInfor();
+                sendNow(getId(), FogEvents.UPDATE_SERVICE_DISCOVERY, new ServiceDiscoveryDelta().add(serviceData.getFirst(), serviceData.getSecond()));
+            } else if (tuple.managementTupleType == ManagementTuple.SERVICE_DISCOVERY_UPDATE) {
+                sendNow(getId(), FogEvents.UPDATE_SERVICE_DISCOVERY, tuple.getServiceDiscoveryDelta());
             } else if (tuple.managementTupleType == ManagementTuple.DEPLOYMENTREQUEST) {
                 deployModules(tuple.getDeployementSet());
             } else if (tuple.managementTupleType == ManagementTuple.RESOURCE_UPDATE) {
                 sendNow(getId(), FogEvents.UPDATE_RESOURCE_INFO, tuple.getResourceData());
+            } else if (tuple.managementTupleType == ManagementTuple.ARRIVAL_REPORT) {
+                sendNow(getId(), FogEvents.ARRIVAL_REPORT, tuple.getArrivalReport());
             }
         } else if (tuple.getDestinationDeviceId() != -1) {
             int nextDeviceToSend = routingTable.get(tuple.getDestinationDeviceId());
@@ -617,9 +765,9 @@ public class MicroserviceFogDevice extends FogDevice {
             getControllerComponent().updateResources(getId(), ControllerComponent.STORAGE, storage);
         }
         if (isInCluster && MicroservicePlacementConfig.ENABLE_RESOURCE_DATA_SHARING) {
+            ResourceInfo data = new ResourceInfo(getId(), getControllerComponent().resourceAvailability.get(getId()));
             for (Integer deviceId : getClusterMembers()) {
                 ManagementTuple managementTuple = new ManagementTuple(FogUtils.generateTupleId(), ManagementTuple.NONE, ManagementTuple.RESOURCE_UPDATE);
-                Pair<Integer, Map<String, Double>> data = new Pair<>(getId(), getControllerComponent().resourceAvailability.get(getId()));
                 managementTuple.setResourceData(data);
                 managementTuple.setDestinationDeviceId(deviceId);
                 sendNow(getId(), FogEvents.MANAGEMENT_TUPLE_ARRIVAL, managementTuple);
@@ -1,9 +1,12 @@
 package org.fog.entities;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
-public class PlacementRequest {
+public class PlacementRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String applicationId;
     private Map<String,Integer> placedMicroservices; // microservice name to placed device id
     private int placementRequestId; //sensor Id
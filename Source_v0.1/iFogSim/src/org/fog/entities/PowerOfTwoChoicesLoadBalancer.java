@@ -0,0 +1,47 @@
+package org.fog.entities;
+
+import org.fog.utils.DeviceLoadMonitor;
+import org.fog.utils.Logger;
+
+import java.util.Random;
+
+/**
+ * Power of two choices : samples two distinct instances at random and selects the one with the shorter queue.
+ * Queue length of a device is the larger of the tuples executing/waiting on it and the tuples routed towards it,
+ * since routed tuples are counted until completion.
+ */
+public class PowerOfTwoChoicesLoadBalancer implements LoadBalancer {
+    private static final long serialVersionUID = 1L;
+
+    protected Random random;
+
+    public PowerOfTwoChoicesLoadBalancer(long seed) {
+        random = new Random(seed);
+    }
+
+    public PowerOfTwoChoicesLoadBalancer(Random random) {
+        this.random = random;
+    }
+
+    public int getDeviceId(String microservice, ServiceDiscovery serviceDiscoveryInfo) {
+        int[] devices = serviceDiscoveryInfo.getInstances(microservice);
+        if (devices.length == 0) {
+            Logger.error("Load balancer error", "Service Discovery Information Missing for " + microservice);
+            return -1;
+        }
+        int size = devices.length;
+        if (size == 1)
+            return devices[0];
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first)
+            second++;
+        int firstDevice = devices[first];
+        int secondDevice = devices[second];
+        return getLoad(secondDevice) < getLoad(firstDevice) ? secondDevice : firstDevice;
+    }
+
+    protected int getLoad(int deviceId) {
+        return Math.max(DeviceLoadMonitor.getQueueLength(deviceId), DeviceLoadMonitor.getOutstanding(deviceId));
+    }
+}
@@ -1,5 +1,7 @@
 package org.fog.entities;
 
+import org.fog.utils.Logger;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -8,27 +10,24 @@ import java.util.Map;
  * Round Robin LoadBalancer
  */
 public class RRLoadBalancer implements LoadBalancer {
-    protected Map<String, Integer> loadBalancerPosition = new HashMap();
+    private static final long serialVersionUID = 1L;
+
+    // microservice -> last selected position (single element array to avoid re-boxing on each update)
+    protected Map<String, int[]> loadBalancerPosition = new HashMap<>();
 
     public int getDeviceId(String microservice, ServiceDiscovery serviceDiscoveryInfo) {
-        if (loadBalancerPosition.containsKey(microservice) && serviceDiscoveryInfo.getServiceDiscoveryInfo().containsKey(microservice)) {
-            int pos = loadBalancerPosition.get(microservice);
-            if (pos + 1 > serviceDiscoveryInfo.getServiceDiscoveryInfo().get(microservice).size() - 1)
-                pos = 0;
-            else
-                pos = pos + 1;
+        int[] devices = serviceDiscoveryInfo.getInstances(microservice);
+        if (devices.length == 0) {
+            Logger.error("Load balancer error", "Service Discovery Information Missing for " + microservice);
+            return -1;
+        }
+        int[] pos = loadBalancerPosition.get(microservice);
+        if (pos == null) {
+            pos = new int[]{0};
             loadBalancerPosition.put(microservice, pos);
-            return serviceDiscoveryInfo.getServiceDiscoveryInfo().get(microservice).get(pos);
         } else {
-            if(serviceDiscoveryInfo.getServiceDiscoveryInfo().containsKey(microservice)) {
-                loadBalancerPosition.put(microservice, 0);
-                if (serviceDiscoveryInfo.getServiceDiscoveryInfo().get(microservice) == null)
-                    System.out.println("null");
-                int deviceId = serviceDiscoveryInfo.getServiceDiscoveryInfo().get(microservice).get(0);
-                return deviceId;
-            }
-            System.out.println("Service Discovery Information Missing");
-            return -1;
+            pos[0] = pos[0] + 1 > devices.length - 1 ? 0 : pos[0] + 1;
         }
+        return devices[pos[0]];
     }
 }
@@ -13,6 +13,7 @@ import org.fog.utils.*;
 import org.fog.utils.distribution.Distribution;
 
 public class Sensor extends SimEntity{
+	private static final long serialVersionUID = 1L;
 	
 	private int gatewayDeviceId;
 	private GeoLocation geoLocation;
@@ -26,9 +27,20 @@ public class Sensor extends SimEntity{
 	private int controllerId;
 	private Application app;
 	private double latency;
+	
+	/**
+	 * The edge of the application carrying the tuples of the sensor, looked up once
+	 */
+	private AppEdge edge;
 
 	private int transmissionStartDelay = Config.TRANSMISSION_START_DELAY;
 	
+	/**
+	 * Inter-arrival times generated in advance in bulk emission mode, null otherwise
+	 */
+	private double[] emissionDelays;
+	private int nextEmissionDelay;
+	
 	public Sensor(String name, int userId, String appId, int gatewayDeviceId, double latency, GeoLocation geoLocation, 
 			Distribution transmitDistribution, int cpuLength, int nwLength, String tupleType, String destModuleName) {
 		super(name);
@@ -77,11 +89,7 @@ public class Sensor extends SimEntity{
 	}
 	
 	public void transmit(){
-		AppEdge _edge = null;
-		for(AppEdge edge : getApp().getEdges()){
-			if(edge.getSource().equals(getTupleType()))
-				_edge = edge;
-		}
+		AppEdge _edge = getEdge();
 		long cpuLength = (long) _edge.getTupleCpuLength();
 		long nwLength = (long) _edge.getTupleNwLength();
 		
@@ -102,6 +110,19 @@ public class Sensor extends SimEntity{
 		send(gatewayDeviceId, getLatency(), FogEvents.TUPLE_ARRIVAL,tuple);
 	}
 	
+	/**
+	 * Gets the edge of the application whose source is the tuple type of the sensor.
+	 */
+	protected AppEdge getEdge(){
+		if(edge == null){
+			for(AppEdge appEdge : getApp().getEdges()){
+				if(appEdge.getSource().equals(getTupleType()))
+					edge = appEdge;
+			}
+		}
+		return edge;
+	}
+	
 	protected int updateTimings(String src, String dest){
 		Application application = getApp();
 		for(AppLoop loop : application.getLoops()){
@@ -121,7 +142,33 @@ public class Sensor extends SimEntity{
 	@Override
 	public void startEntity() {
 		send(gatewayDeviceId, CloudSim.getMinTimeBetweenEvents(), FogEvents.SENSOR_JOINED, geoLocation);
-		send(getId(), getTransmitDistribution().getNextValue() + transmissionStartDelay, FogEvents.EMIT_TUPLE);
+		scheduleEmission(transmissionStartDelay);
+	}
+	
+	/**
+	 * Schedules the next tuple emission, unless the transmit distribution has no more values (infinite delay).
+	 * @param startDelay the delay after which the inter-arrival time starts
+	 */
+	protected void scheduleEmission(double startDelay) {
+		double delay = nextEmissionDelay(CloudSim.clock() + startDelay);
+		if (!Double.isInfinite(delay))
+			send(getId(), delay + startDelay, FogEvents.EMIT_TUPLE);
+	}
+	
+	/**
+	 * Gets the next inter-arrival time from the transmit distribution, or from the values generated
+	 * in advance in bulk emission mode.
+	 * @param startTime the start of the interval
+	 * @return the inter-arrival time
+	 */
+	protected double nextEmissionDelay(double startTime) {
+		if (emissionDelays == null)
+			return getTransmitDistribution().getNextValue(startTime);
+		if (nextEmissionDelay == emissionDelays.length) {
+			getTransmitDistribution().getNextValues(emissionDelays, startTime);
+			nextEmissionDelay = 0;
+		}
+		return emissionDelays[nextEmissionDelay++];
 	}
 
 	@Override
@@ -132,7 +179,7 @@ public class Sensor extends SimEntity{
 			break;
 		case FogEvents.EMIT_TUPLE:
 			transmit();
-			send(getId(), getTransmitDistribution().getNextValue(), FogEvents.EMIT_TUPLE);
+			scheduleEmission(0);
 			break;
 		}
 			
@@ -173,6 +220,7 @@ public class Sensor extends SimEntity{
 
 	public void setTupleType(String tupleType) {
 		this.tupleType = tupleType;
+		this.edge = null;
 	}
 
 	public String getSensorName() {
@@ -205,6 +253,26 @@ public class Sensor extends SimEntity{
 
 	public void setTransmitDistribution(Distribution transmitDistribution) {
 		this.transmitDistribution = transmitDistribution;
+		if (emissionDelays != null)
+			nextEmissionDelay = emissionDelays.length;
+	}
+	
+	/**
+	 * Sets the bulk emission mode, for high rate sensors: the inter-arrival times are generated in
+	 * batches instead of one per emitted tuple.
+	 * @param batchSize the number of inter-arrival times generated at once, 1 or less to disable bulk emission
+	 */
+	public void setBulkEmission(int batchSize) {
+		if (batchSize > 1) {
+			emissionDelays = new double[batchSize];
+			nextEmissionDelay = batchSize;
+		} else {
+			emissionDelays = null;
+		}
+	}
+	
+	public int getBulkEmission() {
+		return emissionDelays == null ? 1 : emissionDelays.length;
 	}
 
 	public int getControllerId() {
@@ -221,6 +289,15 @@ public class Sensor extends SimEntity{
 
 	public void setApp(Application app) {
 		this.app = app;
+		this.edge = null;
+	}
+	
+	/**
+	 * Gets the number of sensors represented by this entity.
+	 * @return 1, unless the entity is a group of sensors
+	 */
+	public int getSensorCount() {
+		return 1;
 	}
 
 	public Double getLatency() {
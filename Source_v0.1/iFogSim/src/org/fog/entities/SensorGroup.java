@@ -0,0 +1,149 @@
+package org.fog.entities;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.fog.utils.FogEvents;
+import org.fog.utils.distribution.Distribution;
+
+/**
+ * A population of homogeneous sensors attached to the same gateway, simulated by a single entity.
+ * The next emission time of each sensor is kept in a primitive heap, and the sensors due at the same
+ * time emit their tuples on a single EMIT_TUPLE event, instead of each sensor being an entity with its
+ * own event loop. Every emission is still a separate tuple with its own timing, as for a Sensor.
+ * <p>
+ * The sensors draw their inter-arrival times from the shared transmit distribution, so a stateful
+ * distribution (MMPP, trace) is shared by the whole population, and bulk emission mode should only be
+ * used with distributions which do not depend on the time.
+ */
+public class SensorGroup extends Sensor{
+	private static final long serialVersionUID = 1L;
+
+	private int sensorCount;
+
+	/**
+	 * Next emission time of each sensor
+	 */
+	private double[] emissionTimes;
+
+	/**
+	 * Sensors with an emission left, ordered by emission time and index
+	 */
+	private int[] heap;
+	private int heapSize;
+
+	/**
+	 * Sensors emitting on the current event
+	 */
+	private int[] dueSensors;
+
+	public SensorGroup(String name, String tupleType, int userId, String appId, Distribution transmitDistribution, int sensorCount) {
+		super(name, tupleType, userId, appId, transmitDistribution);
+		if (sensorCount < 1) {
+			throw new IllegalArgumentException("A sensor group needs at least one sensor");
+		}
+		this.sensorCount = sensorCount;
+	}
+
+	@Override
+	public int getSensorCount() {
+		return sensorCount;
+	}
+
+	@Override
+	public void startEntity() {
+		send(getGatewayDeviceId(), CloudSim.getMinTimeBetweenEvents(), FogEvents.SENSOR_JOINED, getGeoLocation());
+		emissionTimes = new double[sensorCount];
+		heap = new int[sensorCount];
+		heapSize = 0;
+		dueSensors = new int[sensorCount];
+		double startTime = CloudSim.clock() + getTransmissionStartDelay();
+		for (int sensor = 0; sensor < sensorCount; sensor++) {
+			double delay = nextEmissionDelay(startTime);
+			if (Double.isInfinite(delay))
+				continue;
+			emissionTimes[sensor] = startTime + delay;
+			heap[heapSize] = sensor;
+			siftUp(heapSize++);
+		}
+		scheduleEmissions();
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		switch(ev.getTag()){
+		case FogEvents.EMIT_TUPLE:
+			emitTuples();
+			break;
+		}
+	}
+
+	/**
+	 * Emits the tuples of the sensors due at the time of the earliest emission, and reschedules them.
+	 */
+	private void emitTuples() {
+		if (heapSize == 0)
+			return;
+		double due = emissionTimes[heap[0]];
+		int dueCount = 0;
+		while (heapSize > 0 && emissionTimes[heap[0]] <= due) {
+			dueSensors[dueCount++] = heap[0];
+			heap[0] = heap[--heapSize];
+			if (heapSize > 0)
+				siftDown(0);
+		}
+		for (int i = 0; i < dueCount; i++) {
+			int sensor = dueSensors[i];
+			transmit();
+			double delay = nextEmissionDelay(CloudSim.clock());
+			if (!Double.isInfinite(delay)) {
+				emissionTimes[sensor] = CloudSim.clock() + delay;
+				heap[heapSize] = sensor;
+				siftUp(heapSize++);
+			}
+		}
+		scheduleEmissions();
+	}
+
+	/**
+	 * Schedules the EMIT_TUPLE event of the earliest emission, if any.
+	 */
+	private void scheduleEmissions() {
+		if (heapSize > 0)
+			send(getId(), Math.max(0, emissionTimes[heap[0]] - CloudSim.clock()), FogEvents.EMIT_TUPLE);
+	}
+
+	private boolean before(int sensor1, int sensor2) {
+		double time1 = emissionTimes[sensor1];
+		double time2 = emissionTimes[sensor2];
+		return time1 < time2 || (time1 == time2 && sensor1 < sensor2);
+	}
+
+	private void siftUp(int pos) {
+		int sensor = heap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >> 1;
+			if (!before(sensor, heap[parent]))
+				break;
+			heap[pos] = heap[parent];
+			pos = parent;
+		}
+		heap[pos] = sensor;
+	}
+
+	private void siftDown(int pos) {
+		int sensor = heap[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], sensor))
+				break;
+			heap[pos] = heap[child];
+			pos = child;
+		}
+		heap[pos] = sensor;
+	}
+
+}
@@ -0,0 +1,135 @@
+package org.fog.entities;
+
+import org.fog.utils.Logger;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Service discovery information of a device : microservice -> devices hosting an instance.
+ * Readers (load balancers) always see an immutable, versioned snapshot with array backed instance lists, so lookups are a
+ * single hash lookup without copying. Updates are copy-on-write : a new snapshot is built and published, either per change or
+ * for a whole {@link ServiceDiscoveryDelta} at once.
+ */
+public class ServiceDiscovery implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int[] NO_INSTANCES = new int[0];
+
+    protected int deviceId;
+    protected volatile Snapshot snapshot = new Snapshot(0, Collections.<String, int[]>emptyMap());
+
+    public ServiceDiscovery(Integer deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return instances of the microservice in the current snapshot. The returned array must not be modified.
+     */
+    public int[] getInstances(String microservice) {
+        int[] instances = snapshot.instances.get(microservice);
+        return instances == null ? NO_INSTANCES : instances;
+    }
+
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void addServiceDIscoveryInfo(String microservice, Integer device) {
+        applyDelta(new ServiceDiscoveryDelta().add(microservice, device));
+    }
+
+    public void removeServiceDIscoveryInfo(String microserviceName, Integer deviceID) {
+        applyDelta(new ServiceDiscoveryDelta().remove(microserviceName, deviceID));
+    }
+
+    /**
+     * Applies all changes of the delta and publishes them as a single new version.
+     */
+    public synchronized void applyDelta(ServiceDiscoveryDelta delta) {
+        if (delta.isEmpty())
+            return;
+        Map<String, int[]> instances = new HashMap<>(snapshot.instances);
+        for (int i = 0; i < delta.size(); i++) {
+            String microservice = delta.getMicroservice(i);
+            int device = delta.getDeviceId(i);
+            int[] current = instances.get(microservice);
+            if (delta.getAction(i) == ServiceDiscoveryDelta.ADD) {
+                if (current == null) {
+                    instances.put(microservice, new int[]{device});
+                } else {
+                    int[] updated = Arrays.copyOf(current, current.length + 1);
+                    updated[current.length] = device;
+                    instances.put(microservice, updated);
+                }
+            } else if (delta.getAction(i) == ServiceDiscoveryDelta.REMOVE && current != null) {
+                int pos = indexOf(current, device);
+                if (pos < 0)
+                    continue;
+                Logger.debug("Service Discovery", "Info REMOVED (device:" + this.deviceId + ") for microservice :" + microservice + " , destDevice : " + device);
+                if (current.length == 1) {
+                    instances.remove(microservice);
+                } else {
+                    int[] updated = new int[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, pos);
+                    System.arraycopy(current, pos + 1, updated, pos, current.length - pos - 1);
+                    instances.put(microservice, updated);
+                }
+            }
+        }
+        snapshot = new Snapshot(snapshot.version + 1, instances);
+    }
+
+    /**
+     * View of the current snapshot in the previous list based format.
+     */
+    public Map<String, List<Integer>> getServiceDiscoveryInfo() {
+        Map<String, List<Integer>> info = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : snapshot.instances.entrySet()) {
+            List<Integer> devices = new ArrayList<>(entry.getValue().length);
+            for (int device : entry.getValue())
+                devices.add(device);
+            info.put(entry.getKey(), devices);
+        }
+        return info;
+    }
+
+    private static int indexOf(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Immutable service discovery state.
+     */
+    public static class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long version;
+        private final Map<String, int[]> instances;
+
+        Snapshot(long version, Map<String, int[]> instances) {
+            this.version = version;
+            this.instances = Collections.unmodifiableMap(instances);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Set<String> getMicroservices() {
+            return instances.keySet();
+        }
+    }
+}
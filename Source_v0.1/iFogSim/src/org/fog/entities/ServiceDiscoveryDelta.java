@@ -0,0 +1,62 @@
+package org.fog.entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch of service discovery changes for a single device, applied atomically by {@link ServiceDiscovery#applyDelta(ServiceDiscoveryDelta)}.
+ * The FON accumulates all changes of a placement / autoscaling round per client device and sends one delta to each.
+ */
+public class ServiceDiscoveryDelta implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int ADD = 1;
+    public static final int REMOVE = 2;
+
+    private List<String> microservices = new ArrayList<>();
+    private int[] deviceIds = new int[4];
+    private byte[] actions = new byte[4];
+    private int size = 0;
+
+    public ServiceDiscoveryDelta add(String microservice, int deviceId) {
+        append(microservice, deviceId, ADD);
+        return this;
+    }
+
+    public ServiceDiscoveryDelta remove(String microservice, int deviceId) {
+        append(microservice, deviceId, REMOVE);
+        return this;
+    }
+
+    private void append(String microservice, int deviceId, int action) {
+        if (size == deviceIds.length) {
+            deviceIds = java.util.Arrays.copyOf(deviceIds, size * 2);
+            actions = java.util.Arrays.copyOf(actions, size * 2);
+        }
+        microservices.add(microservice);
+        deviceIds[size] = deviceId;
+        actions[size] = (byte) action;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getMicroservice(int index) {
+        return microservices.get(index);
+    }
+
+    public int getDeviceId(int index) {
+        return deviceIds[index];
+    }
+
+    public int getAction(int index) {
+        return actions[index];
+    }
+}
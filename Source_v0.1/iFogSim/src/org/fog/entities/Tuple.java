@@ -7,6 +7,7 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 
 public class Tuple extends Cloudlet{
+	private static final long serialVersionUID = 1L;
 
 	public static final int UP = 1;
 	public static final int DOWN = 2;
@@ -33,6 +34,11 @@ public class Tuple extends Cloudlet{
 	 * For device id based routing used
 	 */
 	protected int destinationDeviceId;
+	/**
+	 * Device a load balancer routed the tuple to, counted as outstanding on that device until the
+	 * tuple is completed or dropped; -1 if the tuple is not counted
+	 */
+	private int loadBalancedDeviceId;
 	/* keep track of traversed microservices by tuples of type UP in microservices architecture UP -> tuple travelling towards service
 	 DOWN -> tuple travelling from service to client microservice.*/
 	protected Map<String, Integer> traversedMicroservices = new HashMap<>();
@@ -50,6 +56,7 @@ public class Tuple extends Cloudlet{
 		setSourceDeviceId(-1);
 		setModuleCopyMap(new HashMap<String, Integer>());
 		setDestinationDeviceId(-1);
+		setLoadBalancedDeviceId(-1);
 	}
 
 	public int getActualTupleId() {
@@ -140,6 +147,14 @@ public class Tuple extends Cloudlet{
 		return destinationDeviceId;
 	}
 
+	public int getLoadBalancedDeviceId() {
+		return loadBalancedDeviceId;
+	}
+
+	public void setLoadBalancedDeviceId(int loadBalancedDeviceId) {
+		this.loadBalancedDeviceId = loadBalancedDeviceId;
+	}
+
 	public void addToTraversedMicroservices(Integer deviceID, String microserviceName) {
 		traversedMicroservices.put(microserviceName, deviceID);
 	}
@@ -1,180 +1,208 @@
 package org.fog.gui.core;
 
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.fog.utils.TopologyFormatException;
+import org.fog.utils.TopologyReader;
+import org.fog.utils.TopologyRecord;
+import org.fog.utils.TopologySchema;
+import org.fog.utils.TopologySchema.FieldType;
 import org.fog.utils.distribution.DeterministicDistribution;
 import org.fog.utils.distribution.Distribution;
+import org.fog.utils.distribution.ExponentialDistribution;
 import org.fog.utils.distribution.NormalDistribution;
 import org.fog.utils.distribution.UniformDistribution;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
 
 public class Bridge {
 	
-	private static Node getNode(Graph graph, String name){
-		for(Node node : graph.getAdjacencyList().keySet()){
-			if(node!=null){
-				if(node.getName().equals(name)){
-					return node;
-				}
-			}
-		}
-		return null;
+	/**
+	 * The physical topologies of the GUI: those of JsonToTopology, with the hosts and switches of SDN
+	 * topologies
+	 */
+	private static TopologySchema physicalSchema(){
+		return TopologySchema.physicalTopology()
+				.requireNodeField("host", "pes", FieldType.LONG)
+				.requireNodeField("host", "mips", FieldType.LONG)
+				.requireNodeField("host", "ram", FieldType.INT)
+				.requireNodeField("host", "storage", FieldType.LONG)
+				.requireNodeField("host", "bw", FieldType.INT)
+				.optionalNodeField("host", "nums", FieldType.INT)
+				.requireNodeField(TopologySchema.OTHER_TYPES, "bw", FieldType.INT)
+				.requireNodeField(TopologySchema.OTHER_TYPES, "iops", FieldType.LONG)
+				.requireNodeField(TopologySchema.OTHER_TYPES, "upports", FieldType.INT)
+				.requireNodeField(TopologySchema.OTHER_TYPES, "downports", FieldType.INT);
+	}
+	
+	private static TopologySchema virtualSchema(){
+		return new TopologySchema()
+				.requireNodeField(null, "name", FieldType.STRING)
+				.requireNodeField(null, "type", FieldType.STRING)
+				.requireNodeField(null, "pes", FieldType.INT)
+				.requireNodeField(null, "mips", FieldType.LONG)
+				.requireNodeField(null, "ram", FieldType.INT)
+				.requireNodeField(null, "size", FieldType.LONG)
+				.requireLinkField("source", FieldType.STRING)
+				.requireLinkField("destination", FieldType.STRING)
+				.optionalLinkField("name", FieldType.STRING)
+				.optionalLinkField("bandwidth", FieldType.LONG);
 	}
 
-	// convert from JSON object to Graph object
-	public static Graph jsonToGraph(String fileName, int type){
+	/**
+	 * Builds a graph from a topology file as it is read. Nodes are indexed by name, the first node of a
+	 * name being the end point of its links, and the links read before one of their nodes are added once
+	 * the whole file is read.
+	 */
+	private static class GraphBuilder implements TopologyReader.Handler {
 		
-		Graph graph = new Graph();
+		private final Graph graph = new Graph();
+		private final int type;
+		private final Map<String, Node> nodesByName = new HashMap<String, Node>();
+		private final List<TopologyRecord> pendingLinks = new ArrayList<TopologyRecord>();
 		
-		// type 0->physical topology 1->virtual topology
-		if(0 == type){
-			try {
-				JSONObject doc = (JSONObject) JSONValue.parse(new FileReader(fileName));
-	    		JSONArray nodes = (JSONArray) doc.get("nodes");
-	    		@SuppressWarnings("unchecked")
-				Iterator<JSONObject> iter =nodes.iterator(); 
-				while(iter.hasNext()){
-					JSONObject node = iter.next();
-					String nodeType = (String) node.get("type");
-					String nodeName = (String) node.get("name");
-					
-					if(nodeType.equalsIgnoreCase("host")){  //host
-						long pes = (Long) node.get("pes");
-						long mips = (Long) node.get("mips");
-						int ram = new BigDecimal((Long)node.get("ram")).intValueExact();
-						long storage = (Long) node.get("storage");
-						long bw = new BigDecimal((Long)node.get("bw")).intValueExact();
-						
-						int num = 1;
-						if (node.get("nums")!= null)
-							num = new BigDecimal((Long)node.get("nums")).intValueExact();
+		GraphBuilder(int type){
+			this.type = type;
+		}
+		
+		@Override
+		public void node(TopologyRecord node) throws IOException {
+			String nodeType = node.getString("type");
+			String nodeName = node.getString("name");
+			
+			if(1 == type){
+				int pes = node.getInt("pes");
+				long mips = node.getLong("mips");
+				int ram = node.getInt("ram");
+				long size = node.getLong("size");
+				
+				addNode(new VmNode(nodeName, nodeType, size, pes, mips, ram));
+				
+			} else if(nodeType.equalsIgnoreCase("host")){  //host
+				long pes = node.getLong("pes");
+				long mips = node.getLong("mips");
+				int ram = node.getInt("ram");
+				long storage = node.getLong("storage");
+				long bw = node.getInt("bw");
+				
+				int num = 1;
+				if (node.has("nums"))
+					num = node.getInt("nums");
 
-						for(int n = 0; n< num; n++) {
-							Node hNode = new HostNode(nodeName, nodeType, pes, mips, ram, storage, bw);
-							graph.addNode(hNode);
-						}
-						
-					} else if(nodeType.equals("FOG_DEVICE")){
-						long mips = (Long) node.get("mips");
-						int ram = new BigDecimal((Long)node.get("ram")).intValueExact();
-						long upBw = new BigDecimal((Long)node.get("upBw")).intValueExact();
-						long downBw = new BigDecimal((Long)node.get("downBw")).intValueExact();
-						int level = new BigDecimal((Long)node.get("level")).intValue();
-						double rate = new BigDecimal((Double)node.get("ratePerMips")).doubleValue();
-						
-						Node fogDevice = new FogDeviceGui(nodeName, mips, ram, upBw, downBw, level, rate);
-						graph.addNode(fogDevice);
- 
-					} else if(nodeType.equals("SENSOR")){
-						String sensorType = node.get("sensorType").toString();
-						int distType = new BigDecimal((Long)node.get("distribution")).intValue();
-						Distribution distribution = null;
-						if(distType == Distribution.DETERMINISTIC)
-							distribution = new DeterministicDistribution(new BigDecimal((Double)node.get("value")).doubleValue());
-						else if(distType == Distribution.NORMAL){
-							distribution = new NormalDistribution(new BigDecimal((Double)node.get("mean")).doubleValue(), 
-									new BigDecimal((Double)node.get("stdDev")).doubleValue());
-						} else if(distType == Distribution.UNIFORM){
-							distribution = new UniformDistribution(new BigDecimal((Double)node.get("min")).doubleValue(), 
-									new BigDecimal((Double)node.get("max")).doubleValue());
-						}
-						System.out.println("Sensor type : "+sensorType);
-						Node sensor = new SensorGui(nodeName, sensorType, distribution);
-						graph.addNode(sensor);
-					} else if(nodeType.equals("ACTUATOR")){
-						String actuatorType = node.get("actuatorType").toString(); 
-						Node actuator = new ActuatorGui(nodeName, actuatorType);
-						graph.addNode(actuator);
-					} else {   //switch
-						int bw = new BigDecimal((Long)node.get("bw")).intValueExact();
-						long iops = (Long) node.get("iops");
-						int upports =  new BigDecimal((Long)node.get("upports")).intValueExact();
-						int downports = new BigDecimal((Long)node.get("downports")).intValueExact();
-						
-						Node sNode = new SwitchNode(nodeName, nodeType, iops, upports, downports, bw);
-						graph.addNode(sNode);
-					}
+				for(int n = 0; n< num; n++) {
+					addNode(new HostNode(nodeName, nodeType, pes, mips, ram, storage, bw));
 				}
-					
-				JSONArray links = (JSONArray) doc.get("links");
-				@SuppressWarnings("unchecked")
-				Iterator<JSONObject> linksIter =links.iterator(); 
-				while(linksIter.hasNext()){
-					JSONObject link = linksIter.next();
-					String src = (String) link.get("source");  
-					String dst = (String) link.get("destination");
-					double lat = (Double) link.get("latency");
-					
-					Node source = (Node) getNode(graph, src);
-					Node target = (Node) getNode(graph, dst);
-					
-					if(source!=null && target!=null){
-						System.out.println("Adding edge between "+source.getName()+" & "+target.getName());
-						Edge edge = new Edge(target, lat);
-						graph.addEdge(source, edge);
-					}
+				
+			} else if(nodeType.equalsIgnoreCase("FOG_DEVICE")){
+				long mips = node.getLong("mips");
+				int ram = node.getInt("ram");
+				long upBw = node.getInt("upBw");
+				long downBw = node.getInt("downBw");
+				int level = node.getInt("level");
+				double rate = node.getDouble("ratePerMips");
+				
+				addNode(new FogDeviceGui(nodeName, mips, ram, upBw, downBw, level, rate));
+
+			} else if(nodeType.equalsIgnoreCase("SENSOR")){
+				String sensorType = node.getString("sensorType");
+				int distType = node.getInt("distribution");
+				Distribution distribution = null;
+				if(distType == Distribution.DETERMINISTIC)
+					distribution = new DeterministicDistribution(node.getDouble("value"));
+				else if(distType == Distribution.NORMAL){
+					distribution = new NormalDistribution(node.getDouble("mean"), node.getDouble("stdDev"));
+				} else if(distType == Distribution.UNIFORM){
+					distribution = new UniformDistribution(node.getDouble("min"), node.getDouble("max"));
+				} else if(distType == Distribution.EXPONENTIAL){
+					distribution = new ExponentialDistribution(node.getDouble("mean"));
+				} else {
+					throw node.error("distribution", "Unsupported sensor distribution "+distType);
 				}
-			} catch (FileNotFoundException e) {
-				e.printStackTrace();
+				System.out.println("Sensor type : "+sensorType);
+				addNode(new SensorGui(nodeName, sensorType, distribution));
+			} else if(nodeType.equalsIgnoreCase("ACTUATOR")){
+				String actuatorType = node.getString("actuatorType");
+				addNode(new ActuatorGui(nodeName, actuatorType));
+			} else {   //switch
+				int bw = node.getInt("bw");
+				long iops = node.getLong("iops");
+				int upports = node.getInt("upports");
+				int downports = node.getInt("downports");
+				
+				addNode(new SwitchNode(nodeName, nodeType, iops, upports, downports, bw));
 			}
+		}
+		
+		private void addNode(Node node){
+			graph.addNode(node);
+			if(!nodesByName.containsKey(node.getName()))
+				nodesByName.put(node.getName(), node);
+		}
+		
+		@Override
+		public void link(TopologyRecord link) {
+			if(pendingLinks.isEmpty() && nodesByName.containsKey(link.getString("source"))
+					&& nodesByName.containsKey(link.getString("destination")))
+				addLink(link);
+			else
+				pendingLinks.add(link);
+		}
+		
+		private void addLink(TopologyRecord link){
+			Node source = nodesByName.get(link.getString("source"));
+			Node target = nodesByName.get(link.getString("destination"));
 			
-		}else if(1 == type){
-			try {
-				JSONObject doc = (JSONObject) JSONValue.parse(new FileReader(fileName));
-	    		JSONArray nodes = (JSONArray) doc.get("nodes");
-	    		@SuppressWarnings("unchecked")
-				Iterator<JSONObject> iter = nodes.iterator(); 
-				while(iter.hasNext()){
-					JSONObject node = iter.next();
-					
-					String nodeType = (String) node.get("type");
-					String nodeName = (String) node.get("name");
-					int pes = new BigDecimal((Long)node.get("pes")).intValueExact();
-					long mips = (Long) node.get("mips");
-					int ram = new BigDecimal((Long)node.get("ram")).intValueExact();
-					long size = (Long) node.get("size");
-					
-					Node vmNode = new VmNode(nodeName, nodeType, size, pes, mips, ram);
-					graph.addNode(vmNode);
-				}
+			if(1 == type){
+				long bw = 0;
+				if(link.has("bandwidth"))
+					bw = link.getLong("bandwidth");
 				
-				JSONArray links = (JSONArray) doc.get("links");
+				Edge edge = new Edge(target, link.getString("name"), bw);
+				graph.addEdge(source, edge);
 				
-				@SuppressWarnings("unchecked")
-				Iterator<JSONObject> linksIter = links.iterator(); 
-				while(linksIter.hasNext()){
-					JSONObject link = linksIter.next();
-					String name = (String) link.get("name");
-					String src = (String) link.get("source");  
-					String dst = (String) link.get("destination");
-
-					Object reqBw = link.get("bandwidth");
-				
-					long bw = 0;
-					if(reqBw != null)
-						bw = (Long) reqBw;
-					
-					Node source = getNode(graph, src);
-					Node target = getNode(graph, dst);
+			} else if(source!=null && target!=null){
+				System.out.println("Adding edge between "+source.getName()+" & "+target.getName());
+				Edge edge = new Edge(target, link.getDouble("latency"));
+				graph.addEdge(source, edge);
+			}
+		}
+		
+		Graph getGraph(){
+			for(TopologyRecord link : pendingLinks)
+				addLink(link);
+			pendingLinks.clear();
+			return graph;
+		}
+	}
 
-					Edge edge = new Edge(target, name, bw);
-					graph.addEdge(source, edge);
-					
-				}
+	/**
+	 * Converts a topology file to a graph. A file that cannot be read gives an empty graph.
+	 * @param type 0 for a physical topology, 1 for a virtual topology
+	 * @throws TopologyFormatException if the file is not a valid topology, no partial graph being returned
+	 */
+	public static Graph jsonToGraph(String fileName, int type) throws TopologyFormatException{
+		
+		Graph graph = new Graph();
+		
+		// type 0->physical topology 1->virtual topology
+		if(0 == type || 1 == type){
+			GraphBuilder builder = new GraphBuilder(type);
+			try {
+				new TopologyReader(0 == type ? physicalSchema() : virtualSchema()).read(fileName, builder);
+				graph = builder.getGraph();
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
+			} catch (TopologyFormatException e) {
+				throw e;
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 		}
 		System.out.println("############################");
@@ -225,6 +253,8 @@ public class Bridge {
 					} else if(sensor.getDistributionType()==Distribution.UNIFORM){
 						jobj.put("min", ((UniformDistribution)sensor.getDistribution()).getMin());
 						jobj.put("max", ((UniformDistribution)sensor.getDistribution()).getMax());
+					} else if(sensor.getDistributionType()==Distribution.EXPONENTIAL){
+						jobj.put("mean", ((ExponentialDistribution)sensor.getDistribution()).getMean());
 					}
 					break;
 				case "FOG_DEVICE":
@@ -17,6 +17,10 @@ public class Graph implements Serializable {
 	
 	private Map<Node, List<Edge>> adjacencyList;
 
+	/**
+	 * number of changes made through the graph, for the views to know when to lay it out again
+	 */
+	private long modificationCount;
 
 	public Graph() {
 		// when creating a new graph ensure that a new adjacencyList is created
@@ -29,14 +33,24 @@ public class Graph implements Serializable {
 
 	public void setAdjacencyList(Map<Node, List<Edge>> adjacencyList) {
 		this.adjacencyList = adjacencyList;
+		modificationCount++;
 	}
 
 	public Map<Node, List<Edge>> getAdjacencyList() {
 		return adjacencyList;
 	}
 
+	/**
+	 * Gets the number of changes made through the methods of the graph. The changes made directly to
+	 * the adjacency list are not counted.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
 	/** Adds a given edge to the adjacency list. If the base node is not yet part of the adjacency list a new entry is added */
 	public void addEdge(Node key, Edge value) {
+		modificationCount++;
 
 		if (adjacencyList.containsKey(key)) {
 			if (adjacencyList.get(key) == null) {
@@ -100,6 +114,7 @@ public class Graph implements Serializable {
 		}
 
 		edges.remove(value);
+		modificationCount++;
 		// remove bidirectional
 		List<Edge> reverseEdges = adjacencyList.get(value.getNode());
 		List<Edge> toRemove = new ArrayList<Edge>();
@@ -120,6 +135,7 @@ public class Graph implements Serializable {
 		}
 
 		adjacencyList.remove(key);
+		modificationCount++;
 
 		// clean up all edges
 		for (Entry<Node, List<Edge>> entry : adjacencyList.entrySet()) {
@@ -137,6 +153,7 @@ public class Graph implements Serializable {
 	
 	public void clearGraph(){
 		adjacencyList.clear();
+		modificationCount++;
 	}
 	
 	public String toJsonString(){
@@ -0,0 +1,243 @@
+package org.fog.gui.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * The positions of the nodes of a graph, as drawn by GraphView: one row per fog device level from the
+ * top, then a row of sensors and actuators, each row spread evenly over the width. The children of a
+ * device follow the order of their parents in the row above.
+ * <p>
+ * A layout is computed from a copy of the adjacency list, so it can be computed outside of the event
+ * dispatch thread, and is not modified afterwards. The nodes are numbered row by row from left to
+ * right, which makes each row a sorted index of the x coordinates for culling and hit testing.
+ */
+class GraphLayout {
+
+	/**
+	 * world distance between the nodes of the widest row
+	 */
+	static final double NODE_SPACING = 60;
+
+	final Node[] nodes;
+	final int[] row;
+	final double[] x;
+	/**
+	 * index of the parent of each node, -1 for the roots
+	 */
+	final int[] parent;
+	/**
+	 * number of descendants of each node
+	 */
+	final int[] descendants;
+	/**
+	 * index of the first node of each row, and the number of nodes at the end
+	 */
+	final int[] rowStart;
+	final int[] edgeSource;
+	final int[] edgeTarget;
+	final double width;
+	final long modificationCount;
+
+	private GraphLayout(List<Node> ordered, List<Integer> rowSizes, Map<Node, Node> parents,
+			Map<Node, List<Edge>> adjacencyList, long modificationCount) {
+		this.modificationCount = modificationCount;
+		int count = ordered.size();
+		nodes = ordered.toArray(new Node[count]);
+		row = new int[count];
+		x = new double[count];
+		parent = new int[count];
+		descendants = new int[count];
+		rowStart = new int[rowSizes.size() + 1];
+
+		int widest = 0;
+		for (int size : rowSizes)
+			widest = Math.max(widest, size);
+		width = (widest + 1) * NODE_SPACING;
+
+		Map<Node, Integer> index = new HashMap<Node, Integer>(count * 2);
+		int node = 0;
+		for (int r = 0; r < rowSizes.size(); r++) {
+			rowStart[r] = node;
+			int size = rowSizes.get(r);
+			double xDist = width / (size + 1);
+			for (int j = 0; j < size; j++, node++) {
+				row[node] = r;
+				x[node] = xDist * (j + 1);
+				index.put(nodes[node], node);
+			}
+		}
+		rowStart[rowSizes.size()] = count;
+
+		for (int i = 0; i < count; i++) {
+			Node parentNode = parents.get(nodes[i]);
+			Integer parentIndex = parentNode == null ? null : index.get(parentNode);
+			parent[i] = parentIndex != null && row[parentIndex] < row[i] ? parentIndex : -1;
+		}
+		// rows from the bottom, so the descendants of a node are counted before the node
+		for (int i = count - 1; i >= 0; i--) {
+			if (parent[i] >= 0)
+				descendants[parent[i]] += descendants[i] + 1;
+		}
+
+		List<int[]> edges = new ArrayList<int[]>();
+		for (Entry<Node, List<Edge>> entry : adjacencyList.entrySet()) {
+			Integer source = index.get(entry.getKey());
+			if (source == null || entry.getValue() == null)
+				continue;
+			for (Edge edge : entry.getValue()) {
+				Integer target = index.get(edge.getNode());
+				if (target != null)
+					edges.add(new int[]{source, target});
+			}
+		}
+		edgeSource = new int[edges.size()];
+		edgeTarget = new int[edges.size()];
+		for (int i = 0; i < edges.size(); i++) {
+			edgeSource[i] = edges.get(i)[0];
+			edgeTarget[i] = edges.get(i)[1];
+		}
+	}
+
+	/**
+	 * Computes the layout of a copy of an adjacency list.
+	 * @param adjacencyList the copy, not shared with the event dispatch thread
+	 * @param modificationCount the modification count of the graph the copy was made from
+	 */
+	static GraphLayout compute(Map<Node, List<Edge>> adjacencyList, long modificationCount) {
+		TreeMap<Integer, List<Node>> levelMap = new TreeMap<Integer, List<Node>>();
+		List<Node> endpoints = new ArrayList<Node>();
+		for (Node node : adjacencyList.keySet()) {
+			if (isFogDevice(node)) {
+				int level = ((FogDeviceGui) node).getLevel();
+				if (!levelMap.containsKey(level))
+					levelMap.put(level, new ArrayList<Node>());
+				levelMap.get(level).add(node);
+			} else if (isEndpoint(node)) {
+				endpoints.add(node);
+			}
+		}
+
+		Map<Node, List<Node>> childrenMap = new HashMap<Node, List<Node>>();
+		Map<Node, Node> parents = new HashMap<Node, Node>();
+		for (Entry<Node, List<Edge>> entry : adjacencyList.entrySet()) {
+			Node node = entry.getKey();
+			if (entry.getValue() == null)
+				continue;
+			for (Edge edge : entry.getValue()) {
+				Node neighbour = edge.getNode();
+				if (neighbour == null)
+					continue;
+				if (isEndpoint(node))
+					addChild(childrenMap, parents, neighbour, node);
+				else if (isEndpoint(neighbour))
+					addChild(childrenMap, parents, node, neighbour);
+				else if (isFogDevice(node) && isFogDevice(neighbour)) {
+					int level = ((FogDeviceGui) node).getLevel();
+					int neighbourLevel = ((FogDeviceGui) neighbour).getLevel();
+					if (level > neighbourLevel)
+						addChild(childrenMap, parents, neighbour, node);
+					else if (level < neighbourLevel)
+						addChild(childrenMap, parents, node, neighbour);
+				}
+			}
+		}
+
+		List<Node> ordered = new ArrayList<Node>(adjacencyList.size());
+		List<Integer> rowSizes = new ArrayList<Integer>();
+		if (levelMap.isEmpty())
+			return new GraphLayout(ordered, rowSizes, parents, adjacencyList, modificationCount);
+
+		Map<Node, Boolean> placed = new HashMap<Node, Boolean>();
+		int previousStart = 0;
+		int minLevel = levelMap.firstKey();
+		int maxLevel = levelMap.lastKey();
+		for (int level = minLevel; level <= maxLevel; level++) {
+			List<Node> levelNodes = levelMap.containsKey(level) ? levelMap.get(level) : new ArrayList<Node>();
+			previousStart = addRow(ordered, rowSizes, placed, childrenMap, previousStart, levelNodes, level, level == minLevel);
+		}
+		addRow(ordered, rowSizes, placed, childrenMap, previousStart, endpoints, -1, false);
+		return new GraphLayout(ordered, rowSizes, parents, adjacencyList, modificationCount);
+	}
+
+	/**
+	 * Adds a row: the children of the nodes of the row above, in their order, then the other nodes.
+	 * @param level the level of the fog devices of the row, -1 for the sensors and actuators
+	 * @return the index of the first node of the row
+	 */
+	private static int addRow(List<Node> ordered, List<Integer> rowSizes, Map<Node, Boolean> placed,
+			Map<Node, List<Node>> childrenMap, int previousStart, List<Node> rowNodes, int level, boolean first) {
+		int start = ordered.size();
+		if (!first) {
+			for (int i = previousStart; i < start; i++) {
+				List<Node> children = childrenMap.get(ordered.get(i));
+				if (children == null)
+					continue;
+				for (Node child : children) {
+					boolean inRow = level < 0 ? isEndpoint(child) : isFogDevice(child) && ((FogDeviceGui) child).getLevel() == level;
+					if (inRow && !placed.containsKey(child)) {
+						placed.put(child, true);
+						ordered.add(child);
+					}
+				}
+			}
+		}
+		for (Node node : rowNodes) {
+			if (!placed.containsKey(node)) {
+				placed.put(node, true);
+				ordered.add(node);
+			}
+		}
+		rowSizes.add(ordered.size() - start);
+		return start;
+	}
+
+	private static void addChild(Map<Node, List<Node>> childrenMap, Map<Node, Node> parents, Node parent, Node child) {
+		if (!childrenMap.containsKey(parent))
+			childrenMap.put(parent, new ArrayList<Node>());
+		childrenMap.get(parent).add(child);
+		if (!parents.containsKey(child))
+			parents.put(child, parent);
+	}
+
+	static boolean isFogDevice(Node node) {
+		return "FOG_DEVICE".equals(node.getType()) && node instanceof FogDeviceGui;
+	}
+
+	static boolean isEndpoint(Node node) {
+		return "SENSOR".equals(node.getType()) || "ACTUATOR".equals(node.getType());
+	}
+
+	int getRowCount() {
+		return rowStart.length - 1;
+	}
+
+	int getNodeCount() {
+		return nodes.length;
+	}
+
+	int getRowSize(int r) {
+		return rowStart[r + 1] - rowStart[r];
+	}
+
+	/**
+	 * Gets the index of the first node of a row at or after a world x coordinate.
+	 */
+	int firstAtOrAfter(int r, double worldX) {
+		int low = rowStart[r];
+		int high = rowStart[r + 1];
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (x[middle] < worldX)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+}
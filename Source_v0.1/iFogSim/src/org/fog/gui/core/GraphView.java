@@ -1,377 +1,474 @@
 package org.fog.gui.core;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.Toolkit;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BoxLayout;
+import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingWorker;
 
-import org.fog.utils.FogUtils;
 
-
-/** Panel that displays a graph */
+/**
+ * Panel that displays a graph: the fog devices by level, then the sensors and actuators.
+ * <p>
+ * The layout is computed once per change of the graph, outside of the event dispatch thread for large
+ * graphs, and the view is rendered into a buffer which is reused until the view changes. Only the nodes
+ * and edges in the viewport are drawn. The mouse wheel zooms horizontally and dragging pans; when the
+ * nodes of a row get too close to be drawn, that row and the rows below it are collapsed into one glyph
+ * per subtree, giving the number of nodes it holds.
+ */
 public class GraphView extends JPanel {
 
 	private static final long serialVersionUID = 1L;
 
-	private JPanel canvas;
+	/**
+	 * screen distance between the nodes of a row under which the row is collapsed
+	 */
+	private static final int MIN_NODE_SPACING = 12;
+	private static final int MAX_NODE_SIZE = 40;
+	private static final double MAX_ZOOM = 2;
+	private static final int GLYPH_SIZE = 22;
+
+	/**
+	 * graphs up to this size are laid out in the event dispatch thread, without a blank first paint
+	 */
+	private static final int SYNCHRONOUS_LAYOUT_LIMIT = 1000;
+
+	private Canvas canvas;
+	private JScrollPane scrollPane;
 	private Graph graph;
 
 	private Image imgHost;
 	private Image imgSensor;
-	private Image imgSwitch;
-	private Image imgAppModule;
 	private Image imgActuator;
-	private Image imgSensorModule;
-	private Image imgActuatorModule;
-	
+
+	private GraphLayout layout;
+	private Graph layoutGraph;
+	private Graph pendingGraph;
+	private long pendingModificationCount;
+
+	private double zoom = 1;
+	private boolean fitWidth = true;
+
+	private BufferedImage buffer;
+	private Rectangle bufferView;
+	private GraphLayout bufferLayout;
+	private double bufferZoom;
+	private int bufferHeight;
+
 	public GraphView(final Graph graph) {
 
 		this.graph = graph;
-		imgHost = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/host.png"));
-		imgSwitch = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/disk.png"));
-		imgAppModule = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/module.png"));
-		imgSensor = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/sensor.png"));
-		imgActuator = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/actuator.png"));
-		imgSensorModule = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/sensorModule.png"));
-		imgActuatorModule = Toolkit.getDefaultToolkit().getImage(this.getClass().getResource("/images/actuatorModule.png"));
-		
+		imgHost = loadImage("/images/host.png");
+		imgSensor = loadImage("/images/sensor.png");
+		imgActuator = loadImage("/images/actuator.png");
+
 		initComponents();
 	}
 
-	private Map<Node, List<Node>> createChildrenMap(){
-		Map<Node, List<Node>> childrenMap = new HashMap<Node, List<Node>>();
-		for(Node node : graph.getAdjacencyList().keySet()){
-			if(node.getType().equals("FOG_DEVICE") && !childrenMap.containsKey(node))
-				childrenMap.put(node, new ArrayList<Node>());
-			List<Edge> edgeList = graph.getAdjacencyList().get(node);
-			
-			for(Edge edge : edgeList){
-				Node neighbour = edge.getNode();
-				if(node.getType().equals("SENSOR") || node.getType().equals("ACTUATOR")){
-					if(!childrenMap.containsKey(neighbour)){
-						childrenMap.put(neighbour, new ArrayList<Node>());
-					}
-					childrenMap.get(neighbour).add(node);
-				} else if(neighbour.getType().equals("SENSOR") || neighbour.getType().equals("ACTUATOR")){
-					if(!childrenMap.containsKey(node)){
-						childrenMap.put(node, new ArrayList<Node>());
-					}
-					childrenMap.get(node).add(neighbour);
-				}else {
-					Node child = (((FogDeviceGui)node).getLevel() > ((FogDeviceGui)neighbour).getLevel())?node:neighbour;
-					Node parent = (((FogDeviceGui)node).getLevel() < ((FogDeviceGui)neighbour).getLevel())?node:neighbour;
-					if(!childrenMap.containsKey(parent)){
-						childrenMap.put(parent, new ArrayList<Node>());
-					}
-					childrenMap.get(parent).add(child);
-				}
-			}
-		}
-		return childrenMap;
+	/**
+	 * Loads an image completely, as it is drawn into a buffer which is not repainted when it loads.
+	 */
+	private Image loadImage(String path) {
+		URL url = this.getClass().getResource(path);
+		return url == null ? null : new ImageIcon(url).getImage();
 	}
-	
-	@SuppressWarnings("serial")
+
 	private void initComponents() {
+		canvas = new Canvas();
+		canvas.setToolTipText("");
+		MouseAdapter mouseAdapter = new MouseAdapter() {
+			private Point dragStart;
 
-		canvas = new JPanel() {
 			@Override
-			public void paint(Graphics g) {
+			public void mousePressed(MouseEvent e) {
+				dragStart = e.getLocationOnScreen();
+			}
 
-				if (graph.getAdjacencyList() == null) {
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				if (dragStart == null)
 					return;
-				}
-
-				Map<Node, Coordinates> coordForNodes = new HashMap<Node, Coordinates>();
-
-				/*int offsetX = canvas.getWidth() / 2;
-				int offsetY = canvas.getHeight() / 2;*/
-				System.out.println("sys:"+canvas.getWidth() + ":" + canvas.getHeight());
-
-				int height = 40;
-				/*double angle = 2 * Math.PI / graph.getAdjacencyList().keySet().size();
-				int radius = offsetY / 2 - 20;*/
-				FontMetrics f = g.getFontMetrics();
-				int nodeHeight = Math.max(height, f.getHeight());
-				int nodeWidth = nodeHeight;
-
-				int maxLevel=-1, minLevel=FogUtils.MAX;
-				Map<Integer, List<Node>> levelMap = new HashMap<Integer, List<Node>>();
-				List<Node> endpoints = new ArrayList<Node>(); 
-				for (Node node : graph.getAdjacencyList().keySet()) {
-					if(node.getType().equals("FOG_DEVICE")){
-						int level = ((FogDeviceGui)node).getLevel();
-						if(!levelMap.containsKey(level))
-							levelMap.put(level, new ArrayList<Node>());
-						levelMap.get(level).add(node);
-						
-						if(level > maxLevel)
-							maxLevel = level;
-						if(level < minLevel)
-							minLevel = level;
-					} else if(node.getType().equals("SENSOR") || node.getType().equals("ACTUATOR")){
-						endpoints.add(node);
-					}
-				}
-				
-				double yDist = canvas.getHeight()/(maxLevel-minLevel+3);
-				System.out.println("===================\n================\n=============");
-				
-				Map<Integer, List<PlaceHolder>> levelToPlaceHolderMap = new HashMap<Integer, List<PlaceHolder>>();
-				
-				int k=1;
-				for(int i=minLevel;i<=maxLevel;i++, k++){
-					double xDist = canvas.getWidth()/(levelMap.get(i).size()+1);
-					
-					for(int j=1;j<=levelMap.get(i).size();j++){
-						int x = (int)xDist*j;
-						int y = (int)yDist*k;
-						if(!levelToPlaceHolderMap.containsKey(i))
-							levelToPlaceHolderMap.put(i, new ArrayList<PlaceHolder>());
-						levelToPlaceHolderMap.get(i).add(new PlaceHolder(x, y));
-						
-						//coordForNodes.put(node, new Coordinates(x, y));
-						//node.setCoordinate(new Coordinates(x, y));
-					}
-				}
-				
-				List<PlaceHolder> endpointPlaceHolders = new ArrayList<PlaceHolder>();
-				
-				double xDist = canvas.getWidth()/(endpoints.size()+1);
-				for(int i=0;i<endpoints.size();i++){
-					Node node = endpoints.get(i);
-					int x = (int)xDist*(i+1);
-					int y = (int)yDist*k;
-					endpointPlaceHolders.add(new PlaceHolder(x, y));
-					
-					coordForNodes.put(node, new Coordinates(x, y));
-					node.setCoordinate(new Coordinates(x, y));
-				}
-				
-				for (Node node : graph.getAdjacencyList().keySet()) {
-					if(node.getType().equals("FOG_DEVICE")||node.getType().equals("SENSOR")||node.getType().equals("ACTUATOR"))
-						continue;
-					// calculate coordinates
-					/*int x = Double.valueOf(offsetX + Math.cos(i * angle) * radius).intValue();
-					int y = Double.valueOf(offsetY + Math.sin(i * angle) * radius).intValue();*/
-
-					//coordForNodes.put(node, new Coordinates(x, y));
-					//node.setCoordinate(new Coordinates(x, y));
-				}
-
-				
-				coordForNodes = getCoordForNodes(levelToPlaceHolderMap, endpointPlaceHolders, levelMap, endpoints, minLevel, maxLevel);
-				System.out.println("COORD MAP"+coordForNodes);
-				
-				Map<Node, List<Node>> drawnList = new HashMap<Node, List<Node>>();
-				
-				
-				
-				for (Entry<Node, Coordinates> entry : coordForNodes.entrySet()) {
-					// first paint a single node for testing.
-					g.setColor(Color.black);
-					// int nodeWidth = Math.max(width, f.stringWidth(entry.getKey().getNodeText()) + width / 2);
-
-					Coordinates wrapper = entry.getValue();
-					String nodeName = entry.getKey().getName();
-					switch(entry.getKey().getType()){
-						case "host":
-							g.drawImage(imgHost, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							break;
-						case "APP_MODULE":
-							g.drawImage(imgAppModule, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-						case "core":
-						case "edge":
-							g.drawImage(imgSwitch, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							break;
-						case "FOG_DEVICE":
-							g.drawImage(imgHost, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-						case "SENSOR":
-							g.drawImage(imgSensor, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-						case "ACTUATOR":
-							g.drawImage(imgActuator, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-						case "SENSOR_MODULE":
-							g.drawImage(imgSensorModule, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-						case "ACTUATOR_MODULE":
-							g.drawImage(imgActuatorModule, wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight, this);
-							g.drawString(nodeName, wrapper.getX() - f.stringWidth(nodeName) / 2, wrapper.getY() + nodeHeight);
-							break;
-					}
-					//g.setColor(Color.white);
-					//g.fillOval(wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight);
-					//g.setColor(Color.black);
-					//g.drawOval(wrapper.getX() - nodeWidth / 2, wrapper.getY() - nodeHeight / 2, nodeWidth, nodeHeight);
-					//System.out.println((wrapper.getX())+" "+(wrapper.getY()));
-
-					//g.drawString(entry.getKey().getName(), wrapper.getX() - f.stringWidth(entry.getKey().getName()) / 2, wrapper.getY() + f.getHeight() / 2);
+				Point point = e.getLocationOnScreen();
+				JViewport viewport = scrollPane.getViewport();
+				Point position = viewport.getViewPosition();
+				int maxX = Math.max(0, canvas.getWidth() - viewport.getWidth());
+				position.x = Math.max(0, Math.min(maxX, position.x - (point.x - dragStart.x)));
+				viewport.setViewPosition(position);
+				dragStart = point;
+			}
 
-				}
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2)
+					zoomAt(e.getX(), 0);
+			}
 
-				
-				
-				// draw edges first
-				// TODO: we draw one edge two times at the moment because we have an undirected graph. But this
-				// shouldn`t matter because we have the same edge costs and no one will see in. Perhaps refactor later.
-				for (Entry<Node, List<Edge>> entry : graph.getAdjacencyList().entrySet()) {
-
-					Coordinates startNode = coordForNodes.get(entry.getKey());
-					System.out.println("Start Node : "+entry.getKey().getName());
-
-					for (Edge edge : entry.getValue()) {
-/*
-						// if other direction was drawn already continue
-						if (drawnList.containsKey(edge.getNode()) && drawnList.get(edge.getNode()).contains(entry.getKey())) {
-							continue;
-						}
-*/
-						Coordinates targetNode = coordForNodes.get(edge.getNode());
-						System.out.println("Target Node : "+edge.getNode().getName());
-						g.setColor(Color.RED);
-						g.drawLine(startNode.getX(), startNode.getY(), targetNode.getX(), targetNode.getY());
-						//drawArrow(g, startNode.getX(), startNode.getY(), targetNode.getX(), targetNode.getY());
-						// add drawn edges to the drawnList
-						if (drawnList.containsKey(entry.getKey())) {
-							drawnList.get(entry.getKey()).add(edge.getNode());
-						} else {
-							List<Node> nodes = new ArrayList<Node>();
-							nodes.add(edge.getNode());
-							drawnList.put(entry.getKey(), nodes);
-						}
-
-						/*int labelX = (startNode.getX() - targetNode.getX()) / 2;
-						int labelY = (startNode.getY() - targetNode.getY()) / 2;
-
-						labelX *= -1;
-						labelY *= -1;
-
-						labelX += startNode.getX();
-						labelY += startNode.getY();
-*/
-						//g.setColor(Color.BLACK);
-						//g.drawString(String.valueOf(edge.getInfo()), labelX - f.stringWidth(String.valueOf(edge.getInfo())) / 2, labelY + f.getHeight() / 2);
-					}
-				}
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				zoomAt(e.getX(), zoom * Math.pow(1.25, -e.getPreciseWheelRotation()));
 			}
 		};
-		JScrollPane scrollPane = new JScrollPane(canvas);
+		canvas.addMouseListener(mouseAdapter);
+		canvas.addMouseMotionListener(mouseAdapter);
+		canvas.addMouseWheelListener(mouseAdapter);
+
+		scrollPane = new JScrollPane(canvas);
 		setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
 		add(scrollPane);
 	}
 
-	protected Map<Node, Coordinates> getCoordForNodes(
-			Map<Integer, List<PlaceHolder>> levelToPlaceHolderMap,
-			List<PlaceHolder> endpointPlaceHolders,
-			Map<Integer, List<Node>> levelMap, List<Node> endpoints, int minLevel, int maxLevel) {
-		// TODO Auto-generated method stub
-		Map<Node, Coordinates> coordForNodesMap = new HashMap<Node, Coordinates>();
-		Map<Node, List<Node>> childrenMap = createChildrenMap();
-		
-		for(Node node : graph.getAdjacencyList().keySet())node.setPlaced(false);
-		for(Node node : endpoints)node.setPlaced(false);
-		
-		if(maxLevel < 0)
-			return new HashMap<Node, Coordinates>();
-		
-		int j=0;
-		for(PlaceHolder placeHolder : levelToPlaceHolderMap.get(minLevel)){
-			Node node = levelMap.get(minLevel).get(j);
-			placeHolder.setNode(node);
-			node.setCoordinate(placeHolder.getCoordinates());
-			coordForNodesMap.put(node, node.getCoordinate());
-			node.setPlaced(true);
-			j++;
+	/**
+	 * Zooms keeping the point under the mouse in place; a zoom at or below the one fitting the width of
+	 * the view fits the width.
+	 */
+	private void zoomAt(int mouseX, double newZoom) {
+		if (layout == null)
+			return;
+		JViewport viewport = scrollPane.getViewport();
+		double fitZoom = viewport.getWidth() / layout.width;
+		newZoom = Math.min(Math.max(MAX_ZOOM, fitZoom), newZoom);
+		double worldX = mouseX / zoom;
+		int offset = mouseX - viewport.getViewPosition().x;
+		if (newZoom <= fitZoom) {
+			fitWidth = true;
+			zoom = fitZoom;
+		} else {
+			fitWidth = false;
+			zoom = newZoom;
+		}
+		canvas.setSize(canvas.getPreferredSize());
+		canvas.revalidate();
+		int maxX = Math.max(0, canvas.getWidth() - viewport.getWidth());
+		viewport.setViewPosition(new Point((int) Math.max(0, Math.min(maxX, worldX * zoom - offset)), 0));
+		canvas.repaint();
+	}
+
+	/**
+	 * Starts the computation of the layout if the graph changed since the current one.
+	 */
+	private void updateLayout() {
+		if (graph == null || graph.getAdjacencyList() == null) {
+			layout = null;
+			return;
+		}
+		final long modificationCount = graph.getModificationCount();
+		if (layout != null && layoutGraph == graph && layout.modificationCount == modificationCount)
+			return;
+		if (pendingGraph == graph && pendingModificationCount == modificationCount)
+			return;
+
+		// the layout works on a copy, the dialogs change the graph in the event dispatch thread
+		final Map<Node, List<Edge>> copy = new LinkedHashMap<Node, List<Edge>>();
+		for (Entry<Node, List<Edge>> entry : graph.getAdjacencyList().entrySet())
+			copy.put(entry.getKey(), entry.getValue() == null ? null : new ArrayList<Edge>(entry.getValue()));
+		final Graph target = graph;
+		if (copy.size() <= SYNCHRONOUS_LAYOUT_LIMIT) {
+			pendingGraph = null;
+			installLayout(target, GraphLayout.compute(copy, modificationCount));
+			return;
 		}
-		
-		for(int level = minLevel+1;level <= maxLevel; level++){
-			List<PlaceHolder> upperLevelNodes = levelToPlaceHolderMap.get(level-1);
-			List<Node> nodes = levelMap.get(level);
-			int i=0;
-			for(PlaceHolder parentPH : upperLevelNodes){
-				List<Node> children = childrenMap.get(parentPH.getNode());
-				for(Node child : children){
-					PlaceHolder childPlaceHolder = levelToPlaceHolderMap.get(level).get(i);
-					childPlaceHolder.setOccupied(true);
-					childPlaceHolder.setNode(child);
-					child.setCoordinate(childPlaceHolder.getCoordinates());
-					coordForNodesMap.put(child, child.getCoordinate());
-					child.setPlaced(true);
-					i++;
+		pendingGraph = target;
+		pendingModificationCount = modificationCount;
+		new SwingWorker<GraphLayout, Void>() {
+			@Override
+			protected GraphLayout doInBackground() throws Exception {
+				return GraphLayout.compute(copy, modificationCount);
+			}
+
+			@Override
+			protected void done() {
+				if (pendingGraph != target || pendingModificationCount != modificationCount)
+					return;
+				pendingGraph = null;
+				try {
+					installLayout(target, get());
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				} catch (ExecutionException e) {
+					e.printStackTrace();
 				}
+				canvas.revalidate();
+				canvas.repaint();
+			}
+		}.execute();
+	}
+
+	private void installLayout(Graph target, GraphLayout newLayout) {
+		if (layoutGraph != target)
+			fitWidth = true;
+		layoutGraph = target;
+		layout = newLayout;
+	}
+
+	private double rowDistance(GraphLayout l) {
+		return (double) canvas.getHeight() / (l.getRowCount() + 1);
+	}
+
+	private int rowY(GraphLayout l, int row) {
+		return (int) (rowDistance(l) * (row + 1));
+	}
+
+	private int screenX(GraphLayout l, int node) {
+		return (int) (l.x[node] * zoom);
+	}
+
+	private double rowSpacing(GraphLayout l, int row) {
+		return l.width * zoom / (l.getRowSize(row) + 1);
+	}
+
+	private int nodeSize(GraphLayout l, int row) {
+		double size = Math.min(rowSpacing(l, row) * 0.8, rowDistance(l) * 0.6);
+		return (int) Math.max(6, Math.min(MAX_NODE_SIZE, size));
+	}
+
+	/**
+	 * Gets the last row drawn node by node, the rows below being collapsed.
+	 */
+	private int detailRow(GraphLayout l) {
+		int detail = -1;
+		for (int row = 0; row < l.getRowCount(); row++) {
+			if (l.getRowSize(row) == 0)
+				continue;
+			if (rowSpacing(l, row) < MIN_NODE_SPACING)
+				return Math.max(0, detail);
+			detail = row;
+		}
+		return l.getRowCount() - 1;
+	}
+
+	/**
+	 * Gets the node drawn at a point of the canvas, using the rows of the layout as a spatial index.
+	 * @return the node, or null if there is no node drawn at the point
+	 */
+	public Node getNodeAt(int x, int y) {
+		GraphLayout l = layout;
+		if (l == null || l.getNodeCount() == 0)
+			return null;
+		int row = (int) Math.round(y / rowDistance(l)) - 1;
+		if (row < 0 || row > detailRow(l))
+			return null;
+		int half = nodeSize(l, row) / 2;
+		if (Math.abs(y - rowY(l, row)) > half)
+			return null;
+		int node = l.firstAtOrAfter(row, (x - half) / zoom);
+		if (node < l.rowStart[row + 1] && Math.abs(screenX(l, node) - x) <= half)
+			return l.nodes[node];
+		return null;
+	}
+
+	private void render(Graphics2D g, GraphLayout l, Rectangle view) {
+		g.setColor(canvas.getBackground());
+		g.fillRect(view.x, view.y, view.width, view.height);
+		if (l.getNodeCount() == 0)
+			return;
+		FontMetrics f = g.getFontMetrics();
+		int detail = detailRow(l);
+		int viewLeft = view.x - MAX_NODE_SIZE;
+		int viewRight = view.x + view.width + MAX_NODE_SIZE;
+
+		g.setColor(Color.RED);
+		for (int e = 0; e < l.edgeSource.length; e++) {
+			int source = l.edgeSource[e];
+			int target = l.edgeTarget[e];
+			if (l.row[source] > detail || l.row[target] > detail)
+				continue;
+			int x1 = screenX(l, source), y1 = rowY(l, l.row[source]);
+			int x2 = screenX(l, target), y2 = rowY(l, l.row[target]);
+			if (Math.max(x1, x2) < view.x || Math.min(x1, x2) > view.x + view.width
+					|| Math.max(y1, y2) < view.y || Math.min(y1, y2) > view.y + view.height)
+				continue;
+			g.drawLine(x1, y1, x2, y2);
+		}
+
+		for (int row = 0; row <= detail; row++) {
+			int size = nodeSize(l, row);
+			int y = rowY(l, row);
+			boolean labels = rowSpacing(l, row) >= 2 * MAX_NODE_SIZE;
+			int end = l.rowStart[row + 1];
+			for (int node = l.firstAtOrAfter(row, (viewLeft - 100) / zoom); node < end; node++) {
+				int x = screenX(l, node);
+				if (x > viewRight + 100)
+					break;
+				if (row == detail && l.descendants[node] > 0 && detail < l.getRowCount() - 1)
+					drawGlyph(g, f, x, y, rowY(l, row + 1), l.descendants[node]);
+				drawNode(g, f, l.nodes[node], x, y, size, labels);
 			}
-			for(Node node : nodes){
-				if(!node.isPlaced()){
-					PlaceHolder placeHolder = levelToPlaceHolderMap.get(level).get(i);
-					placeHolder.setOccupied(true);
-					placeHolder.setNode(node);
-					node.setCoordinate(placeHolder.getCoordinates());
-					coordForNodesMap.put(node, node.getCoordinate());
-					node.setPlaced(true);
-					i++;
+		}
+
+		// roots below the detailed rows, aggregated when they are too close to be told apart
+		for (int row = detail + 1; row < l.getRowCount(); row++) {
+			int end = l.rowStart[row + 1];
+			int glyphX = Integer.MIN_VALUE;
+			int count = 0;
+			for (int node = l.firstAtOrAfter(row, viewLeft / zoom); node < end; node++) {
+				int x = screenX(l, node);
+				if (x > viewRight)
+					break;
+				if (l.parent[node] >= 0)
+					continue;
+				if (count > 0 && x - glyphX >= GLYPH_SIZE) {
+					drawGlyph(g, f, glyphX, -1, rowY(l, row), count);
+					count = 0;
 				}
+				if (count == 0)
+					glyphX = x;
+				count += l.descendants[node] + 1;
 			}
+			if (count > 0)
+				drawGlyph(g, f, glyphX, -1, rowY(l, row), count);
+		}
+	}
+
+	private void drawNode(Graphics2D g, FontMetrics f, Node node, int x, int y, int size, boolean label) {
+		Image image;
+		switch (node.getType()) {
+		case "SENSOR":
+			image = imgSensor;
+			break;
+		case "ACTUATOR":
+			image = imgActuator;
+			break;
+		default:
+			image = imgHost;
+			break;
+		}
+		if (image != null) {
+			g.drawImage(image, x - size / 2, y - size / 2, size, size, null);
+		} else {
+			g.setColor(Color.WHITE);
+			g.fillRect(x - size / 2, y - size / 2, size, size);
+			g.setColor(Color.BLACK);
+			g.drawRect(x - size / 2, y - size / 2, size, size);
+		}
+		if (label) {
+			g.setColor(Color.BLACK);
+			String nodeName = node.getName();
+			g.drawString(nodeName, x - f.stringWidth(nodeName) / 2, y + size);
+		}
+	}
+
+	/**
+	 * Draws the glyph of collapsed nodes, linked to their parent if parentY is not negative.
+	 */
+	private void drawGlyph(Graphics2D g, FontMetrics f, int x, int parentY, int y, int count) {
+		if (parentY >= 0) {
+			g.setColor(Color.RED);
+			g.drawLine(x, parentY, x, y);
+		}
+		g.setColor(Color.LIGHT_GRAY);
+		g.fillOval(x - GLYPH_SIZE / 2, y - GLYPH_SIZE / 2, GLYPH_SIZE, GLYPH_SIZE);
+		g.setColor(Color.DARK_GRAY);
+		g.drawOval(x - GLYPH_SIZE / 2, y - GLYPH_SIZE / 2, GLYPH_SIZE, GLYPH_SIZE);
+		String text = String.valueOf(count);
+		g.setColor(Color.BLACK);
+		g.drawString(text, x - f.stringWidth(text) / 2, y + GLYPH_SIZE / 2 + f.getAscent());
+	}
+
+	private class Canvas extends JPanel implements Scrollable {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Dimension getPreferredSize() {
+			if (layout == null || fitWidth || !(getParent() instanceof JViewport))
+				return super.getPreferredSize();
+			return new Dimension((int) Math.min(Integer.MAX_VALUE, Math.ceil(layout.width * zoom)), getParent().getHeight());
 		}
-		int i=0;
-		for(PlaceHolder parentPH : levelToPlaceHolderMap.get(maxLevel)){
-			List<Node>children = childrenMap.get(parentPH.getNode());
-			for(Node child : children){
-				PlaceHolder placeHolder = endpointPlaceHolders.get(i);
-				placeHolder.setOccupied(true);
-				placeHolder.setNode(child);
-				child.setCoordinate(placeHolder.getCoordinates());
-				coordForNodesMap.put(child, child.getCoordinate());
-				child.setPlaced(true);
-				i++;
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			super.paintComponent(g);
+			updateLayout();
+			GraphLayout l = layout;
+			if (l == null) {
+				paintStatus(g);
+				return;
+			}
+			if (fitWidth)
+				zoom = getWidth() / l.width;
+
+			Rectangle view = getVisibleRect();
+			if (view.isEmpty())
+				return;
+			if (buffer == null || !view.equals(bufferView) || bufferLayout != l || bufferZoom != zoom || bufferHeight != getHeight()) {
+				if (buffer == null || buffer.getWidth() != view.width || buffer.getHeight() != view.height)
+					buffer = new BufferedImage(view.width, view.height, BufferedImage.TYPE_INT_RGB);
+				Graphics2D bufferGraphics = buffer.createGraphics();
+				bufferGraphics.setFont(g.getFont());
+				bufferGraphics.translate(-view.x, -view.y);
+				render(bufferGraphics, l, view);
+				bufferGraphics.dispose();
+				bufferView = view;
+				bufferLayout = l;
+				bufferZoom = zoom;
+				bufferHeight = getHeight();
 			}
+			g.drawImage(buffer, view.x, view.y, null);
+			paintStatus(g);
 		}
-		for(Node node : endpoints){
-			if(!node.isPlaced()){
-				PlaceHolder placeHolder = endpointPlaceHolders.get(i);
-				placeHolder.setOccupied(true);
-				placeHolder.setNode(node);
-				node.setCoordinate(placeHolder.getCoordinates());
-				coordForNodesMap.put(node, node.getCoordinate());
-				node.setPlaced(true);
-				i++;
+
+		private void paintStatus(Graphics g) {
+			if (pendingGraph != null) {
+				Rectangle view = getVisibleRect();
+				g.setColor(Color.BLACK);
+				g.drawString("Laying out " + pendingGraph.getAdjacencyList().size() + " nodes...", view.x + 10, view.y + 20);
 			}
 		}
-		return coordForNodesMap;
+
+		@Override
+		public String getToolTipText(MouseEvent event) {
+			Node node = getNodeAt(event.getX(), event.getY());
+			return node == null ? null : node.getName() + " (" + node.getType() + ")";
+		}
+
+		@Override
+		public Dimension getPreferredScrollableViewportSize() {
+			return getPreferredSize();
+		}
+
+		@Override
+		public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+			return MAX_NODE_SIZE;
+		}
+
+		@Override
+		public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+			return Math.max(MAX_NODE_SIZE, visibleRect.width - MAX_NODE_SIZE);
+		}
+
+		@Override
+		public boolean getScrollableTracksViewportWidth() {
+			return fitWidth;
+		}
+
+		@Override
+		public boolean getScrollableTracksViewportHeight() {
+			return true;
+		}
 	}
 
-	/*private void drawArrow(Graphics g1, int x1, int y1, int x2, int y2) {
-		Graphics2D g = (Graphics2D) g1.create();
-		System.out.println("Drawing arrow");
-		double dx = x2 - x1, dy = y2 - y1;
-		double angle = Math.atan2(dy, dx);
-		int len = (int) Math.sqrt(dx * dx + dy * dy);
-		AffineTransform at = AffineTransform.getTranslateInstance(x1, y1);
-		at.concatenate(AffineTransform.getRotateInstance(angle));
-		g.transform(at);
-
-		// Draw horizontal arrow starting in (0, 0)
-		QuadCurve2D.Double curve = new QuadCurve2D.Double(0,0,50+0.5*len,50,len,0);
-		g.draw(curve);
-		g.fillPolygon(new int[] { len, len - ARR_SIZE, len - ARR_SIZE, len }, new int[] { 0, -ARR_SIZE, ARR_SIZE, 0 }, 4);
-	}*/
-	
 	public void setGraph(Graph newGraph){
 		this.graph = newGraph;
 	}
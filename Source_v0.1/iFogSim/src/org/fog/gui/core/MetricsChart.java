@@ -0,0 +1,125 @@
+package org.fog.gui.core;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+
+import javax.swing.JPanel;
+
+/**
+ * A line chart of a metric over the simulation time, to which points are added as the simulation runs.
+ * The chart keeps a bounded number of points: once full, every other point is dropped, so the chart
+ * always covers the whole run, with more detail for the recent points.
+ */
+public class MetricsChart extends JPanel {
+	private static final long serialVersionUID = 2975301574187251563L;
+
+	private static final int MAX_POINTS = 2048;
+	private static final int MARGIN = 8;
+
+	private final String title;
+	private final Color color;
+	private final double[] x = new double[MAX_POINTS];
+	private final double[] y = new double[MAX_POINTS];
+	private int count;
+	private double maxY;
+
+	public MetricsChart(String title, Color color) {
+		this.title = title;
+		this.color = color;
+		setBackground(Color.WHITE);
+		setPreferredSize(new Dimension(600, 160));
+	}
+
+	/**
+	 * Adds a point, after the points already added. Must be called on the event dispatch thread.
+	 * @param time the simulation time
+	 * @param value the value of the metric
+	 */
+	public void addPoint(double time, double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			return;
+		if (count == MAX_POINTS) {
+			for (int i = 1; i < MAX_POINTS / 2; i++) {
+				x[i] = x[2 * i];
+				y[i] = y[2 * i];
+			}
+			count = MAX_POINTS / 2;
+		}
+		x[count] = time;
+		y[count] = value;
+		count++;
+		maxY = Math.max(maxY, value);
+	}
+
+	public void clear() {
+		count = 0;
+		maxY = 0;
+		repaint();
+	}
+
+	public int getPointCount() {
+		return count;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		Graphics2D g2 = (Graphics2D) g;
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		FontMetrics metrics = g2.getFontMetrics();
+		int lineHeight = metrics.getHeight();
+
+		String last = count > 0 ? format(y[count - 1]) : "-";
+		g2.setColor(Color.BLACK);
+		g2.drawString(title + " : " + last, MARGIN, MARGIN + metrics.getAscent());
+
+		double top = maxY > 0 ? maxY * 1.1 : 1;
+		String topLabel = format(top);
+		int left = MARGIN + Math.max(metrics.stringWidth(topLabel), metrics.stringWidth("0")) + 4;
+		int plotTop = MARGIN + lineHeight + 4;
+		int plotBottom = getHeight() - MARGIN - lineHeight;
+		int plotRight = getWidth() - MARGIN;
+		if (plotBottom <= plotTop || plotRight <= left)
+			return;
+
+		g2.setColor(Color.LIGHT_GRAY);
+		g2.drawRect(left, plotTop, plotRight - left, plotBottom - plotTop);
+		g2.setColor(Color.DARK_GRAY);
+		g2.drawString(topLabel, MARGIN, plotTop + metrics.getAscent());
+		g2.drawString("0", MARGIN, plotBottom);
+		if (count == 0)
+			return;
+
+		double start = x[0];
+		double end = x[count - 1] > start ? x[count - 1] : start + 1;
+		g2.drawString(format(start), left, plotBottom + metrics.getAscent() + 2);
+		String endLabel = format(end);
+		g2.drawString(endLabel, plotRight - metrics.stringWidth(endLabel), plotBottom + metrics.getAscent() + 2);
+
+		double xScale = (plotRight - left) / (end - start);
+		double yScale = (plotBottom - plotTop) / top;
+		Path2D.Double path = new Path2D.Double();
+		for (int i = 0; i < count; i++) {
+			double px = left + (x[i] - start) * xScale;
+			double py = plotBottom - y[i] * yScale;
+			if (i == 0)
+				path.moveTo(px, py);
+			else
+				path.lineTo(px, py);
+		}
+		g2.setColor(color);
+		g2.draw(path);
+	}
+
+	private static String format(double value) {
+		if (value != 0 && (Math.abs(value) >= 1e6 || Math.abs(value) < 1e-2))
+			return String.format("%.3g", value);
+		return String.format("%.2f", value);
+	}
+
+}
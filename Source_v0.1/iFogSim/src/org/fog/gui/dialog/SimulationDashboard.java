@@ -0,0 +1,178 @@
+package org.fog.gui.dialog;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+
+import org.fog.gui.core.MetricsChart;
+import org.fog.utils.metrics.MetricsPublisher;
+import org.fog.utils.metrics.MetricsRingBuffer;
+import org.fog.utils.metrics.MetricsSnapshot;
+
+/**
+ * A window charting the metrics of a running simulation: the throughput and the 95th percentile of the
+ * delays of the application loops, and the energy consumed by the devices. The snapshots of a
+ * {@link MetricsPublisher} are read from its buffer by a background worker, so the simulation never
+ * waits for the window; the times are taken in milliseconds, as in the iFogSim examples.
+ * <p>
+ * Without a buffer, the window follows the publisher created last, and starts over when a new one is created.
+ */
+public class SimulationDashboard extends JDialog {
+	private static final long serialVersionUID = -3016458806281392774L;
+
+	/**
+	 * wall clock time between two reads of the buffer, in milliseconds
+	 */
+	private static final long POLL_INTERVAL = 250;
+
+	private final MetricsRingBuffer buffer;
+	private final MetricsChart throughputChart = new MetricsChart("Throughput (loops/s)", new Color(0, 102, 204));
+	private final MetricsChart latencyChart = new MetricsChart("p95 loop delay (ms)", new Color(204, 51, 0));
+	private final MetricsChart energyChart = new MetricsChart("Energy (J)", new Color(0, 153, 51));
+	private final JLabel statusLabel = new JLabel("Waiting for a simulation");
+	private final JLabel deviceLabel = new JLabel(" ");
+
+	private SwingWorker<Void, MetricsSnapshot> worker;
+	private MetricsSnapshot lastSnapshot;
+	/**
+	 * simulation time per wall clock time between the last two snapshots
+	 */
+	private double speed;
+
+	/**
+	 * @param buffer the buffer to read, null to follow the publisher created last
+	 * @param frame the owner of the window, may be null
+	 */
+	public SimulationDashboard(MetricsRingBuffer buffer, JFrame frame) {
+		super(frame, "Simulation Dashboard", false);
+		this.buffer = buffer;
+		setLayout(new BorderLayout());
+
+		JPanel header = new JPanel(new GridLayout(2, 1));
+		header.setBorder(BorderFactory.createEmptyBorder(8, 8, 4, 8));
+		header.add(statusLabel);
+		header.add(deviceLabel);
+		add(header, BorderLayout.NORTH);
+
+		JPanel charts = new JPanel(new GridLayout(3, 1, 0, 4));
+		charts.setBorder(BorderFactory.createEmptyBorder(4, 8, 8, 8));
+		charts.add(throughputChart);
+		charts.add(latencyChart);
+		charts.add(energyChart);
+		add(charts, BorderLayout.CENTER);
+
+		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			public void windowClosed(WindowEvent e) {
+				worker.cancel(true);
+			}
+		});
+		setPreferredSize(new Dimension(800, 620));
+		pack();
+		setLocationRelativeTo(frame);
+		consume();
+		setVisible(true);
+	}
+
+	private void consume() {
+		worker = new SwingWorker<Void, MetricsSnapshot>() {
+			protected Void doInBackground() throws Exception {
+				MetricsRingBuffer current = null;
+				long next = 0;
+				List<MetricsSnapshot> snapshots = new ArrayList<MetricsSnapshot>();
+				while (!isCancelled()) {
+					MetricsRingBuffer source = buffer != null ? buffer : MetricsPublisher.getLatestBuffer();
+					if (source != current) {
+						current = source;
+						next = 0;
+					}
+					if (current != null) {
+						boolean closed = current.isClosed();
+						next = current.read(next, snapshots);
+						if (!snapshots.isEmpty()) {
+							publish(snapshots.toArray(new MetricsSnapshot[snapshots.size()]));
+							snapshots.clear();
+						}
+						if (closed && buffer != null)
+							break;
+					}
+					Thread.sleep(POLL_INTERVAL);
+				}
+				return null;
+			}
+
+			protected void process(List<MetricsSnapshot> chunks) {
+				for (MetricsSnapshot snapshot : chunks)
+					show(snapshot);
+				updateStatus();
+			}
+
+			protected void done() {
+				if (!isCancelled() && lastSnapshot != null)
+					statusLabel.setText("Simulation over. " + statusLabel.getText());
+			}
+		};
+		worker.execute();
+	}
+
+	private void show(MetricsSnapshot snapshot) {
+		// a snapshot of another publisher
+		if (lastSnapshot != null && (snapshot.getDeviceNames() != lastSnapshot.getDeviceNames()
+				|| snapshot.getSequence() <= lastSnapshot.getSequence())) {
+			throughputChart.clear();
+			latencyChart.clear();
+			energyChart.clear();
+			lastSnapshot = null;
+		}
+		speed = 0;
+		if (lastSnapshot != null && snapshot.getWallClockTime() > lastSnapshot.getWallClockTime())
+			speed = (snapshot.getTime() - lastSnapshot.getTime()) / (snapshot.getWallClockTime() - lastSnapshot.getWallClockTime());
+		throughputChart.addPoint(snapshot.getTime(), snapshot.getThroughput() * 1000);
+		if (snapshot.getCompletedLoops() > 0)
+			latencyChart.addPoint(snapshot.getTime(), snapshot.getP95LoopDelay());
+		energyChart.addPoint(snapshot.getTime(), snapshot.getTotalEnergy());
+		lastSnapshot = snapshot;
+	}
+
+	private void updateStatus() {
+		MetricsSnapshot snapshot = lastSnapshot;
+		if (snapshot == null)
+			return;
+		statusLabel.setText(String.format("Time %.1f ms (%.1fx)    snapshot %d    loops in the last interval %d (mean delay %.2f ms, max %.2f ms)",
+				snapshot.getTime(), speed, snapshot.getSequence(), snapshot.getCompletedLoops(),
+				snapshot.getMeanLoopDelay(), snapshot.getMaxLoopDelay()));
+
+		int busiest = -1;
+		int longestQueue = -1;
+		int queued = 0;
+		for (int i = 0; i < snapshot.getDeviceCount(); i++) {
+			int queue = snapshot.getNorthQueueLength()[i] + snapshot.getSouthQueueLength()[i];
+			queued += queue;
+			if (busiest < 0 || snapshot.getUtilization()[i] > snapshot.getUtilization()[busiest])
+				busiest = i;
+			if (longestQueue < 0 || queue > snapshot.getNorthQueueLength()[longestQueue] + snapshot.getSouthQueueLength()[longestQueue])
+				longestQueue = i;
+		}
+		if (busiest < 0) {
+			deviceLabel.setText(" ");
+			return;
+		}
+		String[] names = snapshot.getDeviceNames();
+		deviceLabel.setText(String.format("%d devices    busiest %s (%.0f%%)    %d tuples queued on links, most on %s (%d)",
+				snapshot.getDeviceCount(), names[busiest], snapshot.getUtilization()[busiest] * 100, queued,
+				names[longestQueue], snapshot.getNorthQueueLength()[longestQueue] + snapshot.getSouthQueueLength()[longestQueue]));
+	}
+
+}
@@ -10,6 +10,7 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
@@ -26,6 +27,7 @@ import javax.swing.JRadioButtonMenuItem;
 import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -40,6 +42,8 @@ import org.fog.gui.dialog.AddPhysicalEdge;
 import org.fog.gui.dialog.AddPhysicalNode;
 import org.fog.gui.dialog.AddSensor;
 import org.fog.gui.dialog.SDNRun;
+import org.fog.gui.dialog.SimulationDashboard;
+import org.fog.utils.TopologyFormatException;
 
 
 public class FogGui extends JFrame {
@@ -175,11 +179,32 @@ public class FogGui extends JFrame {
 		};
 		ActionListener importPhyTopoListener = new ActionListener() {
 		    public void actionPerformed(ActionEvent e) {
-		    	String fileName = importFile("josn");
-		    	Graph phyGraph= Bridge.jsonToGraph(fileName, 0);
-		    	physicalGraph = phyGraph;
-		    	physicalCanvas.setGraph(physicalGraph);
-		    	physicalCanvas.repaint();
+		    	final String fileName = importFile("josn");
+		    	// large topologies are read outside of the event dispatch thread
+		    	new SwingWorker<Graph, Void>() {
+		    		@Override
+		    		protected Graph doInBackground() throws Exception {
+		    			return Bridge.jsonToGraph(fileName, 0);
+		    		}
+
+		    		@Override
+		    		protected void done() {
+		    			try {
+		    				physicalGraph = get();
+		    			} catch (InterruptedException e) {
+		    				e.printStackTrace();
+		    				return;
+		    			} catch (ExecutionException e) {
+		    				if (e.getCause() instanceof TopologyFormatException)
+		    					JOptionPane.showMessageDialog(panel, e.getCause().getMessage(), "Invalid topology", JOptionPane.ERROR_MESSAGE);
+		    				else
+		    					e.printStackTrace();
+		    				return;
+		    			}
+		    			physicalCanvas.setGraph(physicalGraph);
+		    			physicalCanvas.repaint();
+		    		}
+		    	}.execute();
 		    }
 		};
 		
@@ -429,9 +454,19 @@ public class FogGui extends JFrame {
 
         });
 
+        JMenuItem dashboard = new JMenuItem("Simulation Dashboard");
+        dashboard.setToolTipText("Chart the metrics of the running simulation");
+        dashboard.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                new SimulationDashboard(null, FogGui.this);
+            }
+        });
+
         view.add(manualMode);
         view.add(importMode);
         view.addSeparator();
+        view.add(dashboard);
+        view.addSeparator();
         view.add(fileExit);        
 
         
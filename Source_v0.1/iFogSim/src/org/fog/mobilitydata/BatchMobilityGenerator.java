@@ -0,0 +1,134 @@
+package org.fog.mobilitydata;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.cloudbus.cloudsim.core.RandomService;
+import org.cloudbus.cloudsim.util.SplitMixRandom;
+
+/**
+ * Generates the random walk or random waypoint traces of many mobile users at once.
+ * The positions follow the same rules as {@link RandomMobilityGenerator}, but they are written to the
+ * primitive arrays of a {@link MobilityTraces}, the users are generated in parallel, and the random
+ * numbers of each user come from a generator seeded with the seed of the batch and the user id, so the
+ * trace of a user does not depend on the other users or on the number of threads.
+ */
+public class BatchMobilityGenerator {
+
+    /**
+     * the area the users are kept in, see RandomMobilityGenerator
+     */
+    private static final Polygon2D ENVIRONMENT = new Polygon2D();
+
+    static {
+        ENVIRONMENT.addPoint(-37.813046f, 144.951380f);
+        ENVIRONMENT.addPoint(-37.821229f, 144.955039f);
+        ENVIRONMENT.addPoint(-37.807397f, 144.971062f);
+        ENVIRONMENT.addPoint(-37.815136f, 144.975044f);
+    }
+
+    private final int mobilityModel;
+    private final int numberOfPositions;
+    private final long seed;
+
+    /**
+     * @param mobilityModel References.random_walk_mobility_model or References.random_waypoint_mobility_model
+     * @param numberOfPositions the number of positions of each user
+     * @param seed the seed of the batch
+     */
+    public BatchMobilityGenerator(int mobilityModel, int numberOfPositions, long seed) {
+        if (mobilityModel != References.random_walk_mobility_model
+                && mobilityModel != References.random_waypoint_mobility_model) {
+            throw new IllegalArgumentException("Unknown mobility model: " + mobilityModel);
+        }
+        if (numberOfPositions < 1) {
+            throw new IllegalArgumentException("A trace needs at least one position");
+        }
+        this.mobilityModel = mobilityModel;
+        this.numberOfPositions = numberOfPositions;
+        this.seed = seed;
+    }
+
+    /**
+     * Creates a generator whose seed is derived from the master seed of the simulation.
+     *
+     * @param mobilityModel References.random_walk_mobility_model or References.random_waypoint_mobility_model
+     * @param numberOfPositions the number of positions of each user
+     */
+    public BatchMobilityGenerator(int mobilityModel, int numberOfPositions) {
+        this(mobilityModel, numberOfPositions, RandomService.newStream().nextLong());
+    }
+
+    /**
+     * Generates the traces of the users firstUser to firstUser + numberOfUsers - 1.
+     *
+     * @param firstUser the id of the first user
+     * @param numberOfUsers the number of users
+     * @return the traces
+     */
+    public MobilityTraces generate(int firstUser, int numberOfUsers) {
+        final int minSpeed = (int) References.MinMobilitySpeed * 100;
+        final int maxSpeed = (int) References.MaxMobilitySpeed * 100;
+        if (minSpeed >= maxSpeed) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+        final MobilityTraces traces = new MobilityTraces(firstUser, numberOfUsers, numberOfPositions);
+        IntStream.range(firstUser, firstUser + numberOfUsers).parallel()
+                .forEach(userID -> generateUser(traces, userID, minSpeed, maxSpeed));
+        return traces;
+    }
+
+    /**
+     * Gets the seed of the random numbers of a user.
+     *
+     * @param userID the user
+     * @return the seed
+     */
+    public long getUserSeed(int userID) {
+        return SplitMixRandom.mix(seed ^ SplitMixRandom.mix(userID));
+    }
+
+    private void generateUser(MobilityTraces traces, int userID, int minSpeed, int maxSpeed) {
+        Random r = new SplitMixRandom(getUserSeed(userID));
+        double positionX = References.lat_reference;
+        double positionY = References.long_reference;
+        traces.setPosition(userID, 0, positionX, positionY);
+
+        double angle = r.nextInt(260);
+        boolean directionFlag = true;
+        int index = 1;
+        while (index < numberOfPositions) {
+            if (!directionFlag || mobilityModel == References.random_walk_mobility_model) {
+                angle = r.nextInt(260); // Random direction.
+                directionFlag = true;
+            }
+            double mobilitySpeed = (double) (r.nextInt(maxSpeed - minSpeed + 1) + minSpeed) / 100; // meter/seconds
+
+            double tempPositionX = positionX;
+            double tempPositionY = positionY;
+            positionX = positionX + Math.cos(Math.toRadians(angle)) * mobilitySpeed / 1000; // divided by 1000 to change the values to KM
+            positionY = positionY + Math.sin(Math.toRadians(angle)) * mobilitySpeed / 1000;
+
+            // a user reaching the limit of the environment stays there and changes its direction
+            if (Math.abs(positionX) > References.environmentLimit) {
+                positionX = Math.copySign(References.environmentLimit, positionX);
+                directionFlag = false;
+                continue;
+            }
+            if (Math.abs(positionY) > References.environmentLimit) {
+                positionY = Math.copySign(References.environmentLimit, positionY);
+                directionFlag = false;
+                continue;
+            }
+
+            if (!ENVIRONMENT.contains((float) positionX, (float) positionY)) {
+                positionX = tempPositionX;
+                positionY = tempPositionY;
+            }
+
+            traces.setPosition(userID, index, positionX, positionY);
+            index++;
+        }
+    }
+
+}
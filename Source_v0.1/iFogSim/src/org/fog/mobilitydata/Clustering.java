@@ -4,7 +4,6 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.fog.entities.FogDevice;
 import org.fog.placement.LocationHandler;
 import org.fog.utils.Config;
-import org.json.simple.JSONObject;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,13 +15,12 @@ import java.util.Map;
  * @author Mohammad Goudarzi
  */
 public class Clustering {
-    public void createClusterMembers(int parentId, int nodeId, JSONObject locatorObject) {
+    public void createClusterMembers(int parentId, int nodeId, LocationHandler locator) {
         List<Integer> SiblingListIDs = new ArrayList<>();
         List<FogDevice> SiblingsList = new ArrayList<FogDevice>();
         List<Integer> clusterMemberList = new ArrayList<>();
         int fogId = nodeId;
-        LocationHandler locatorTemp = new LocationHandler();
-        locatorTemp = (LocationHandler) locatorObject.get("locationsInfo");
+        LocationHandler locatorTemp = locator;
         FogDevice parentDevice = (FogDevice) CloudSim.getEntity(parentId);
         SiblingListIDs = parentDevice.getChildrenIds();
 
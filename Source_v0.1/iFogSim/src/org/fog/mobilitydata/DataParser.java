@@ -5,19 +5,25 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 
+import org.cloudbus.cloudsim.core.RandomService;
+
+
+public class DataParser implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class DataParser {
     public Map<String, Location> resourceLocationData = new HashMap<String, Location>();
     public Map<String, Integer> levelID = new HashMap<String, Integer>();
     public Map<Integer, ArrayList<String>> levelwiseResources = new HashMap<Integer, ArrayList<String>>();
     public Map<String, Integer> resourceAndUserToLevel = new HashMap<String, Integer>();
     public Map<String, Map<Double, Location>> usersLocation = new HashMap<String, Map<Double, Location>>();
+    private final Random random = RandomService.newStream();
 
 
     public DataParser() {
@@ -41,7 +47,7 @@ public class DataParser {
 
     private double nextMobilisationEvent(double eventTime, int mobilityPattern) {
         // TODO Auto-generated method stub
-        Random ran = new Random();
+        Random ran = random;
         int seed;
         double newEventTime = -1;
         switch (mobilityPattern) {
@@ -72,12 +78,7 @@ public class DataParser {
                 String[] data = row.split(",");
                 try {
                     Location rl = new Location(Double.parseDouble(data[0]), Double.parseDouble(data[1]), References.NOT_SET);
-                    if (!tempUserLocationInfo.containsKey(eventTime))
-                        tempUserLocationInfo.put(eventTime, rl);
-                    else {
-                        eventTime = nextMobilisationEvent(eventTime, userMobilityPattern.get(userID));
-                        tempUserLocationInfo.put(eventTime, rl);
-                    }
+                    eventTime = addUserLocation(tempUserLocationInfo, eventTime, rl, userMobilityPattern.get(userID));
 
                 } catch (NumberFormatException ex) {
                     //System.out.println("Given String is not parsable to double");
@@ -92,6 +93,37 @@ public class DataParser {
 
     }
 
+    /**
+     * Same as {@link #parseUserData(Map, String)}, but the positions of the users are taken from
+     * generated traces instead of the CSV datasets.
+     *
+     * @param userMobilityPattern the mobility pattern of each user
+     * @param traces the traces of the users, e.g. from BatchMobilityGenerator
+     */
+    public void parseUserData(Map<Integer, Integer> userMobilityPattern, MobilityTraces traces) {
+        for (int userID : userMobilityPattern.keySet()) {
+
+            Map<Double, Location> tempUserLocationInfo = new HashMap<Double, Location>();
+            double eventTime = References.INIT_TIME;
+            for (int i = 0; i < traces.getPositionCount(); i++) {
+                Location rl = new Location(traces.getLatitude(userID, i), traces.getLongitude(userID, i), References.NOT_SET);
+                eventTime = addUserLocation(tempUserLocationInfo, eventTime, rl, userMobilityPattern.get(userID));
+            }
+
+            usersLocation.put("usr_" + userID, tempUserLocationInfo);
+            resourceAndUserToLevel.put("usr_" + userID, levelID.get("User"));
+
+        }
+
+    }
+
+    private double addUserLocation(Map<Double, Location> userLocationInfo, double eventTime, Location rl, int mobilityPattern) {
+        if (userLocationInfo.containsKey(eventTime))
+            eventTime = nextMobilisationEvent(eventTime, mobilityPattern);
+        userLocationInfo.put(eventTime, rl);
+        return eventTime;
+    }
+
     @SuppressWarnings("unchecked")
     public void parseResourceData() throws NumberFormatException, IOException {
 
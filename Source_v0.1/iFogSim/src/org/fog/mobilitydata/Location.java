@@ -1,7 +1,9 @@
 package org.fog.mobilitydata;
 
+import java.io.Serializable;
 
-public class Location {
+public class Location implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	public double latitude;
 	public double longitude;
@@ -0,0 +1,163 @@
+package org.fog.mobilitydata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The positions of the mobile users with consecutive ids, stored in primitive arrays.
+ * Traces can be written as the CSV datasets read by {@link DataParser}, written to and read from a
+ * compact binary file, or given to {@link DataParser#parseUserData(java.util.Map, MobilityTraces)}
+ * directly without touching the disk.
+ */
+public class MobilityTraces {
+
+    /**
+     * magic number of the binary format ("MOBT")
+     */
+    private static final int BINARY_MAGIC = 0x4D4F4254;
+
+    private final int firstUser;
+    private final int userCount;
+    private final int positionCount;
+
+    /**
+     * latitudes of the positions, user after user
+     */
+    private final double[] latitudes;
+
+    /**
+     * longitudes of the positions, user after user
+     */
+    private final double[] longitudes;
+
+    public MobilityTraces(int firstUser, int userCount, int positionCount) {
+        if (userCount < 0 || positionCount < 0) {
+            throw new IllegalArgumentException("The number of users and positions must not be negative");
+        }
+        this.firstUser = firstUser;
+        this.userCount = userCount;
+        this.positionCount = positionCount;
+        latitudes = new double[userCount * positionCount];
+        longitudes = new double[userCount * positionCount];
+    }
+
+    public int getFirstUser() {
+        return firstUser;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public boolean containsUser(int userID) {
+        return userID >= firstUser && userID - firstUser < userCount;
+    }
+
+    public double getLatitude(int userID, int position) {
+        return latitudes[offset(userID, position)];
+    }
+
+    public double getLongitude(int userID, int position) {
+        return longitudes[offset(userID, position)];
+    }
+
+    public void setPosition(int userID, int position, double latitude, double longitude) {
+        int offset = offset(userID, position);
+        latitudes[offset] = latitude;
+        longitudes[offset] = longitude;
+    }
+
+    private int offset(int userID, int position) {
+        if (!containsUser(userID)) {
+            throw new IllegalArgumentException("No trace for user: " + userID);
+        }
+        if (position < 0 || position >= positionCount) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Positions: " + positionCount);
+        }
+        return (userID - firstUser) * positionCount + position;
+    }
+
+    /**
+     * Writes the trace of every user to the CSV dataset of the user, i.e. datasetReference + userID + ".csv".
+     *
+     * @param datasetReference the prefix of the dataset files, e.g. References.dataset_random
+     * @throws IOException
+     */
+    public void writeCsv(String datasetReference) throws IOException {
+        for (int userID = firstUser; userID < firstUser + userCount; userID++) {
+            writeCsv(userID, datasetReference + userID + ".csv");
+        }
+    }
+
+    /**
+     * Writes the trace of a user in the format of the datasets created by RandomMobilityGenerator.
+     *
+     * @param userID the user
+     * @param fileName the CSV file
+     * @throws IOException
+     */
+    public void writeCsv(int userID, String fileName) throws IOException {
+        int offset = offset(userID, 0);
+        try (Writer writer = new BufferedWriter(new FileWriter(fileName))) {
+            StringBuilder sb = new StringBuilder(positionCount * 40 + 20);
+            sb.append("Latitude,Longitude\n");
+            for (int i = offset; i < offset + positionCount; i++) {
+                sb.append(latitudes[i]).append(',').append(longitudes[i]).append('\n');
+            }
+            writer.write(sb.toString());
+        }
+    }
+
+    /**
+     * Writes all the traces to a binary file, which can be read back with {@link #read(String)}.
+     *
+     * @param fileName the binary file
+     * @throws IOException
+     */
+    public void write(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(firstUser);
+            out.writeInt(userCount);
+            out.writeInt(positionCount);
+            for (int i = 0; i < latitudes.length; i++) {
+                out.writeDouble(latitudes[i]);
+                out.writeDouble(longitudes[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads traces written by {@link #write(String)}.
+     *
+     * @param fileName the binary file
+     * @return the traces
+     * @throws IOException if the file cannot be read or is not a binary mobility trace
+     */
+    public static MobilityTraces read(String fileName) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != BINARY_MAGIC) {
+                throw new IOException(fileName + " is not a binary mobility trace");
+            }
+            MobilityTraces traces = new MobilityTraces(in.readInt(), in.readInt(), in.readInt());
+            for (int i = 0; i < traces.latitudes.length; i++) {
+                traces.latitudes[i] = in.readDouble();
+                traces.longitudes[i] = in.readDouble();
+            }
+            return traces;
+        }
+    }
+
+}
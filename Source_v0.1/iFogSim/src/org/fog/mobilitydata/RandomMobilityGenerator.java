@@ -6,6 +6,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 //import  java.awt.geom.
+import org.cloudbus.cloudsim.core.RandomService;
 import org.fog.mobilitydata.Polygon2D;
 
 import java.io.*;
@@ -25,6 +26,7 @@ public class RandomMobilityGenerator {
     double pauseTime;
     boolean directionFlag;
     JSONArray mobilitySpecJSON;
+    Random random;
 
     public RandomMobilityGenerator() {
         mobilityPositions = new HashMap<>();  // the list of integer contatins the X and Y of one node.
@@ -32,16 +34,16 @@ public class RandomMobilityGenerator {
         mobilityPositionsAngle = new HashMap<>(); //it shows the direction of the move for the next period of the time
         mobilityPositionsSpeed = new HashMap<>(); //it shows the speed of the move for the next period of the time
         mobilitySpecJSON = new JSONArray();
+        random = RandomService.newStream();
     }
 
-    private static int getRandomNumberInRange(int min, int max) {
+    private int getRandomNumberInRange(int min, int max) {
 
         if (min >= max) {
             throw new IllegalArgumentException("max must be greater than min");
         }
 
-        Random r = new Random();
-        return r.nextInt((max - min) + 1) + min;
+        return random.nextInt((max - min) + 1) + min;
     }
 
     private static boolean positionInRangeCheck(float x, float y) {
@@ -100,6 +102,29 @@ public class RandomMobilityGenerator {
 
     }
 
+    /**
+     * Creates the datasets of the users firstUser to firstUser + numberOfUsers - 1 at once, with
+     * reproducible traces generated in parallel by {@link BatchMobilityGenerator}.
+     *
+     * @param mobilityModel the mobility model
+     * @param firstUser the index of the first user
+     * @param numberOfUsers the number of users
+     * @param renewDataset whether existing datasets are overwritten
+     * @param seed the seed of the traces
+     * @return the generated traces, which can also be given to the simulation without reading the datasets back
+     * @throws IOException
+     */
+    public MobilityTraces createRandomData(int mobilityModel, int firstUser, int numberOfUsers, boolean renewDataset, long seed) throws IOException {
+        MobilityTraces traces = new BatchMobilityGenerator(mobilityModel, 100, seed).generate(firstUser, numberOfUsers);
+        for (int user_index = firstUser; user_index < firstUser + numberOfUsers; user_index++) {
+            String fileName = References.dataset_random + user_index + ".csv";
+            if (renewDataset || !new File(fileName).exists()) {
+                traces.writeCsv(user_index, fileName);
+            }
+        }
+        return traces;
+    }
+
     public void MobilityPositionInitiator(int mobilityModel, int numberOfPositions, int user_index) throws IOException,
             ParseException, org.json.simple.parser.ParseException {
         this.mobilityPositions.clear();
@@ -107,7 +132,7 @@ public class RandomMobilityGenerator {
         this.mobilityPositionsAngle.clear();
         this.mobilityPositionsSpeed.clear();
         this.mobilitySpecJSON.clear();
-        Random r = new Random();
+        Random r = random;
 
         boolean file = false;
 
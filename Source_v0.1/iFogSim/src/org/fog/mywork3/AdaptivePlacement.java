@@ -14,6 +14,8 @@ import java.util.*;
  * and exposes hooks called by LatencyEnergyMonitor to re-map modules if thresholds are violated.
  */
 public class AdaptivePlacement extends ModulePlacement {
+    private static final long serialVersionUID = 1L;
+
     private final List<Sensor> sensors;
     private final List<Actuator> actuators;
     private final double alpha, beta, gamma;
@@ -11,6 +11,8 @@ import org.fog.utils.TimeKeeper;
  * This is a light-weight entity that runs alongside the controller.
  */
 public class LatencyEnergyMonitor extends SimEntity {
+    private static final long serialVersionUID = 1L;
+
     private final Controller controller;
     private final Application app;
     private final AdaptivePlacement placement;
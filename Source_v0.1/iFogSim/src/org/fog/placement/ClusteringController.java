@@ -11,20 +11,22 @@ import org.fog.entities.FogDevice;
 import org.fog.entities.Sensor;
 import org.fog.mobilitydata.References;
 import org.fog.utils.*;
-import org.json.simple.JSONObject;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 
 public class ClusteringController extends SimEntity {
+    private static final long serialVersionUID = 1L;
 
     public static boolean ONLY_CLOUD = false;
 
     private List<FogDevice> fogDevices;
+    private FogDeviceIndex fogDeviceIndex;
     private List<Sensor> sensors;
     private List<Actuator> actuators;
     private LocationHandler locator;
+    private MobilityScheduler mobilityScheduler;
     private Map<Integer, Integer> parentReference;
 
 
@@ -77,26 +79,20 @@ public class ClusteringController extends SimEntity {
     }
 
     private FogDevice getFogDeviceById(int id) {
-        for (FogDevice fogDevice : getFogDevices()) {
-            if (id == fogDevice.getId())
-                return fogDevice;
-        }
-        return null;
+        return fogDeviceIndex.get(id);
     }
 
     private void connectWithLatencies() {
 
         for (String dataId : locator.getDataIdsLevelReferences().keySet()) {
-            for (int instenceId : locator.getInstenceDataIdReferences().keySet()) {
-                if (locator.getInstenceDataIdReferences().get(instenceId).equals(dataId)) {
-                    FogDevice fogDevice = getFogDeviceById(instenceId);
-                    if (locator.getDataIdsLevelReferences().get(dataId) == locator.getLevelID("User") && fogDevice.getParentId() == References.NOT_SET) {
-                        int parentID = locator.determineParent(fogDevice.getId(), References.INIT_TIME);
-                        parentReference.put(fogDevice.getId(), parentID);
-                        fogDevice.setParentId(parentID);
-                    } else
-                        parentReference.put(fogDevice.getId(), fogDevice.getParentId());
-                }
+            for (int instenceId : locator.getInstanceIdsByDataId(dataId)) {
+                FogDevice fogDevice = getFogDeviceById(instenceId);
+                if (locator.getDataIdsLevelReferences().get(dataId) == locator.getLevelID("User") && fogDevice.getParentId() == References.NOT_SET) {
+                    int parentID = locator.determineParent(fogDevice.getId(), References.INIT_TIME);
+                    parentReference.put(fogDevice.getId(), parentID);
+                    fogDevice.setParentId(parentID);
+                } else
+                    parentReference.put(fogDevice.getId(), fogDevice.getParentId());
             }
         }
 
@@ -149,7 +145,8 @@ public class ClusteringController extends SimEntity {
                 processMobilityData();
                 break;
             case FogEvents.MOBILITY_MANAGEMENT:
-                processMobility(ev);
+                for (FogDevice fogDevice : mobilityScheduler.pollDueDevices())
+                    processMobility(fogDevice);
                 break;
             case FogEvents.TUPLE_FINISHED:
                 processTupleFinished(ev);
@@ -177,9 +174,7 @@ public class ClusteringController extends SimEntity {
             for (FogDevice fogDevice : fogDevices) {
                 System.out.println(CloudSim.clock() + " fog Device: " + fogDevice.getName() + " with id: " + fogDevice.getId() + " is at level: " + fogDevice.getLevel());
                 if ((int) fogDevice.getLevel() == clusterLevel) {
-                    JSONObject jsonMessage = new JSONObject();
-                    jsonMessage.put("locationsInfo", getLocator());
-                    sendNow(fogDevice.getId(), FogEvents.START_DYNAMIC_CLUSTERING, jsonMessage);
+                    sendNow(fogDevice.getId(), FogEvents.START_DYNAMIC_CLUSTERING, new ClusteringRequest(getLocator()));
                 }
             }
         }
@@ -201,9 +196,8 @@ public class ClusteringController extends SimEntity {
 	}*/
 
     @SuppressWarnings("unchecked")
-    private void processMobility(SimEvent ev) {
+    private void processMobility(FogDevice fogDevice) {
         // TODO Auto-generated method stub
-        FogDevice fogDevice = (FogDevice) ev.getData();
         FogDevice prevParent = getFogDeviceById(parentReference.get(fogDevice.getId()));
         FogDevice newParent = getFogDeviceById(locator.determineParent(fogDevice.getId(), CloudSim.clock()));
         System.out.println(CloudSim.clock() + " Starting Mobility Management for " + fogDevice.getName());
@@ -243,17 +237,9 @@ public class ClusteringController extends SimEntity {
                             downDelay = 0;
                         }
                     }
-                    JSONObject jsonSend = new JSONObject();
-                    jsonSend.put("module", getApplications().get(applicationName).getModuleByName(moduleName));
-                    jsonSend.put("delay", upDelay);
-
-                    JSONObject jsonReceive = new JSONObject();
-                    jsonReceive.put("module", getApplications().get(applicationName).getModuleByName(moduleName));
-                    jsonReceive.put("delay", downDelay);
-                    jsonReceive.put("application", getApplications().get(applicationName));
-
-                    send(prevParent.getId(), upDelay, FogEvents.MODULE_SEND, jsonSend);
-                    send(newParent.getId(), downDelay, FogEvents.MODULE_RECEIVE, jsonReceive);
+                    AppModule module = getApplications().get(applicationName).getModuleByName(moduleName);
+                    send(prevParent.getId(), upDelay, FogEvents.MODULE_SEND, new ModuleMigrationInfo(module, upDelay));
+                    send(newParent.getId(), downDelay, FogEvents.MODULE_RECEIVE, new ModuleMigrationInfo(module, downDelay, getApplications().get(applicationName)));
                     System.out.println("Migrating " + moduleName + " from " + prevParent.getName() + " to " + newParent.getName());
                 }
             }
@@ -305,15 +291,8 @@ public class ClusteringController extends SimEntity {
     }
 
     private void processMobilityData() {
-        // TODO Auto-generated method stub
-        List<Double> timeSheet = new ArrayList<Double>();
-        for (FogDevice fogDevice : getFogDevices()) {
-            if (locator.isAMobileDevice(fogDevice.getId())) {
-                timeSheet = locator.getTimeSheet(fogDevice.getId());
-                for (double timeEntry : timeSheet)
-                    send(getId(), timeEntry, FogEvents.MOBILITY_MANAGEMENT, fogDevice);
-            }
-        }
+        // only the next movement is scheduled, see MobilityScheduler
+        mobilityScheduler = new MobilityScheduler(this, getFogDevices(), locator);
     }
 
     private void printNetworkUsageDetails() {
@@ -451,6 +430,7 @@ public class ClusteringController extends SimEntity {
 
     public void setFogDevices(List<FogDevice> fogDevices) {
         this.fogDevices = fogDevices;
+        this.fogDeviceIndex = new FogDeviceIndex(fogDevices);
     }
 
     public Map<String, Integer> getAppLaunchDelays() {
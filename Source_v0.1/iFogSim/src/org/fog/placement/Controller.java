@@ -22,10 +22,12 @@ import org.fog.utils.NetworkUsageMonitor;
 import org.fog.utils.TimeKeeper;
 
 public class Controller extends SimEntity{
+	private static final long serialVersionUID = 1L;
 	
 	public static boolean ONLY_CLOUD = false;
 		
 	private List<FogDevice> fogDevices;
+	private FogDeviceIndex fogDeviceIndex;
 	private List<Sensor> sensors;
 	private List<Actuator> actuators;
 	
@@ -49,11 +51,7 @@ public class Controller extends SimEntity{
 	}
 
 	private FogDevice getFogDeviceById(int id){
-		for(FogDevice fogDevice : getFogDevices()){
-			if(id==fogDevice.getId())
-				return fogDevice;
-		}
-		return null;
+		return fogDeviceIndex.get(id);
 	}
 	
 	private void connectWithLatencies(){
@@ -247,6 +245,7 @@ public class Controller extends SimEntity{
 
 	public void setFogDevices(List<FogDevice> fogDevices) {
 		this.fogDevices = fogDevices;
+		this.fogDeviceIndex = new FogDeviceIndex(fogDevices);
 	}
 
 	public Map<String, Integer> getAppLaunchDelays() {
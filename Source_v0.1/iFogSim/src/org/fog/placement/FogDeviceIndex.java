@@ -0,0 +1,69 @@
+package org.fog.placement;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fog.entities.FogDevice;
+
+/**
+ * Index of the fog devices of a controller by id, so that controllers find a device in constant time
+ * instead of scanning their device list. Each controller keeps the index of its own device list.
+ * <p>
+ * The index follows the list it was built from: it is built again when the size of the list changed,
+ * and a device missing from it is looked for in the list. A device replaced in place by another one
+ * with a different id, the size of the list being unchanged, is only found by the scan of a miss.
+ */
+public class FogDeviceIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<FogDevice> fogDevices;
+	private Map<Integer, FogDevice> devices;
+	/**
+	 * size of the list when the index was built
+	 */
+	private int indexedSize;
+
+	/**
+	 * Creates the index of the given devices.
+	 *
+	 * @param fogDevices the fog devices
+	 */
+	public FogDeviceIndex(List<FogDevice> fogDevices) {
+		this.fogDevices = fogDevices;
+		build();
+	}
+
+	private void build() {
+		indexedSize = fogDevices.size();
+		devices = new HashMap<Integer, FogDevice>(indexedSize * 2);
+		for (FogDevice fogDevice : fogDevices) {
+			// as a scan of the list, the first device with an id is found
+			if (!devices.containsKey(fogDevice.getId()))
+				devices.put(fogDevice.getId(), fogDevice);
+		}
+	}
+
+	/**
+	 * Gets the device with the given id.
+	 *
+	 * @param id the device id
+	 * @return the device, or null if there is no device with this id
+	 */
+	public FogDevice get(int id) {
+		if (fogDevices.size() != indexedSize)
+			build();
+		FogDevice fogDevice = devices.get(id);
+		if (fogDevice == null) {
+			for (FogDevice candidate : fogDevices) {
+				if (candidate.getId() == id) {
+					devices.put(id, candidate);
+					return candidate;
+				}
+			}
+		}
+		return fogDevice;
+	}
+}
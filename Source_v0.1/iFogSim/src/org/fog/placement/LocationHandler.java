@@ -1,25 +1,35 @@
 package org.fog.placement;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.fog.mobilitydata.Location;
 import org.fog.mobilitydata.DataParser;
+import org.fog.mobilitydata.MobilityTraces;
 import org.fog.mobilitydata.References;
 import org.fog.utils.Config;
 
-public class LocationHandler {
+public class LocationHandler implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	public DataParser dataObject;
 	public Map<Integer, String> instanceToDataId;
+	/**
+	 * Reverse index of instanceToDataId, kept up to date by linkDataWithInstance: the instances linked
+	 * with each data id, in the order they were linked
+	 */
+	private Map<String, List<Integer>> dataIdToInstanceIds;
 	
 
 	public LocationHandler(DataParser dataObject) {
 		// TODO Auto-generated constructor stub
 		this.dataObject = dataObject;
 		instanceToDataId = new HashMap<Integer, String>();
+		dataIdToInstanceIds = new HashMap<String, List<Integer>>();
 		
 	}
 
@@ -71,13 +81,9 @@ public class LocationHandler {
 				Location potentialParentLoc = getResourceLocationInfo(getLevelWiseResources(parentLevel).get(i));
 				if(potentialParentLoc.block==resourceLoc.block) {
 					parentDataId = getLevelWiseResources(parentLevel).get(i);
-					for(int parentIdIterator: instanceToDataId.keySet())
-					{
-						if(instanceToDataId.get(parentIdIterator).equals(parentDataId))
-						{
-							parentInstanceId = parentIdIterator;
-						}
-					}
+					Integer parentIdIterator = getInstanceIdByDataId(parentDataId);
+					if(parentIdIterator!=null)
+						parentInstanceId = parentIdIterator;
 				}	
 			}
 		}
@@ -94,13 +100,9 @@ public class LocationHandler {
 					}
 			}
 			
-			for(int parentIdIterator: instanceToDataId.keySet())
-			{
-				if(instanceToDataId.get(parentIdIterator).equals(parentDataId))
-				{
-					parentInstanceId = parentIdIterator;
-				}
-			}
+			Integer parentIdIterator = getInstanceIdByDataId(parentDataId);
+			if(parentIdIterator!=null)
+				parentInstanceId = parentIdIterator;
 			
 		}
 		
@@ -127,7 +129,19 @@ public class LocationHandler {
 
 	public void linkDataWithInstance(int instanceId, String dataID) {
 		// TODO Auto-generated method stub
-		instanceToDataId.put(instanceId, dataID);
+		String previous = instanceToDataId.put(instanceId, dataID);
+		if(previous!=null){
+			List<Integer> previousInstances = dataIdToInstanceIds.get(previous);
+			previousInstances.remove(Integer.valueOf(instanceId));
+			if(previousInstances.isEmpty())
+				dataIdToInstanceIds.remove(previous);
+		}
+		List<Integer> instances = dataIdToInstanceIds.get(dataID);
+		if(instances==null){
+			instances = new ArrayList<Integer>(1);
+			dataIdToInstanceIds.put(dataID, instances);
+		}
+		instances.add(instanceId);
 	}
 
 	public int getLevelID(String resourceType) {
@@ -145,6 +159,10 @@ public class LocationHandler {
 		getDataObject().parseUserData(userMobilityPattern, datasetReference);
 	}
 
+	public void parseUserInfo(Map<Integer, Integer> userMobilityPattern, MobilityTraces traces) {
+		getDataObject().parseUserData(userMobilityPattern, traces);
+	}
+
 	public void parseResourceInfo() throws NumberFormatException, IOException {
 		// TODO Auto-generated method stub
 		getDataObject().parseResourceData();
@@ -181,6 +199,37 @@ public class LocationHandler {
 		// TODO Auto-generated method stub
 		return instanceToDataId;
 	}
+	
+	/**
+	 * Gets the instances linked with a data id, in the order they were linked.
+	 * @param dataId the data id
+	 * @return the instance ids, empty if no instance is linked with the data id
+	 */
+	public List<Integer> getInstanceIdsByDataId(String dataId) {
+		List<Integer> instances = dataIdToInstanceIds.get(dataId);
+		if(instances==null)
+			return Collections.emptyList();
+		return Collections.unmodifiableList(instances);
+	}
+	
+	/**
+	 * Gets the instance linked with a data id, the one with the highest id when several instances are
+	 * linked with it. The former scan of instanceToDataId kept the last match in the iteration order of
+	 * the map, which is the highest id as long as the ids are below the capacity of the map.
+	 * @param dataId the data id
+	 * @return the instance id, or null if no instance is linked with the data id
+	 */
+	public Integer getInstanceIdByDataId(String dataId) {
+		List<Integer> instances = dataIdToInstanceIds.get(dataId);
+		if(instances==null)
+			return null;
+		Integer instanceId = null;
+		for(Integer id : instances){
+			if(instanceId==null || id>instanceId)
+				instanceId = id;
+		}
+		return instanceId;
+	}
 
 	public boolean isAMobileDevice(int instanceId) {
 		// TODO Auto-generated method stub
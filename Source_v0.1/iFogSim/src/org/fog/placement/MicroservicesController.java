@@ -1,6 +1,5 @@
 package org.fog.placement;
 
-import org.apache.commons.math3.util.Pair;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -16,11 +15,14 @@ import java.util.*;
  * Created by Samodha Pallewatta on 7/31/2020.
  */
 public class MicroservicesController extends SimEntity {
+    private static final long serialVersionUID = 1L;
 
     protected List<FogDevice> fogDevices;
+    protected FogDeviceIndex fogDeviceIndex;
     protected List<Sensor> sensors;
     protected Map<String, Application> applications = new HashMap<>();
     protected PlacementLogicFactory placementLogicFactory = new PlacementLogicFactory();
+    protected LoadBalancerFactory loadBalancerFactory = new LoadBalancerFactory();
     protected Map<PlacementRequest, Integer> placementRequestDelayMap = new HashMap<>();
     protected int placementLogic;
 
@@ -35,12 +37,15 @@ public class MicroservicesController extends SimEntity {
     public MicroservicesController(String name, List<FogDevice> fogDevices, List<Sensor> sensors, List<Application> applications, List<Integer> clusterLevels, Double clusterLatency, int placementLogic) {
         super(name);
         this.fogDevices = fogDevices;
+        this.fogDeviceIndex = new FogDeviceIndex(fogDevices);
         this.sensors = sensors;
         this.clustering_levels = clusterLevels;
         this.placementLogic = placementLogic;
         for (Application app : applications) {
             this.applications.put(app.getAppId(), app);
         }
+        // the load counters of a previous simulation in the same JVM
+        DeviceLoadMonitor.reset();
 
         init();
 
@@ -49,12 +54,14 @@ public class MicroservicesController extends SimEntity {
     public MicroservicesController(String name, List<FogDevice> fogDevices, List<Sensor> sensors, List<Application> applications, List<Integer> clusterLevels, Double clusterLatency, int placementLogic, Map<Integer, List<FogDevice>> monitored) {
         super(name);
         this.fogDevices = fogDevices;
+        this.fogDeviceIndex = new FogDeviceIndex(fogDevices);
         this.sensors = sensors;
         this.clustering_levels = clusterLevels;
         this.placementLogic = placementLogic;
         for (Application app : applications) {
             this.applications.put(app.getAppId(), app);
         }
+        DeviceLoadMonitor.reset();
         init(monitored);
     }
 
@@ -86,7 +93,7 @@ public class MicroservicesController extends SimEntity {
 
     protected void initializeControllers(int placementLogic) {
         for (FogDevice device : fogDevices) {
-            LoadBalancer loadBalancer = new RRLoadBalancer();
+            LoadBalancer loadBalancer = loadBalancerFactory.getLoadBalancer(MicroservicePlacementConfig.LOAD_BALANCER, device.getId());
             MicroserviceFogDevice cdevice = (MicroserviceFogDevice) device;
 
             //responsible for placement decision making
@@ -102,7 +109,7 @@ public class MicroservicesController extends SimEntity {
 
     protected void initializeControllers(int placementLogic, Map<Integer, List<FogDevice>> monitored) {
         for (FogDevice device : fogDevices) {
-            LoadBalancer loadBalancer = new RRLoadBalancer();
+            LoadBalancer loadBalancer = loadBalancerFactory.getLoadBalancer(MicroservicePlacementConfig.LOAD_BALANCER, device.getId());
             MicroserviceFogDevice cdevice = (MicroserviceFogDevice) device;
 
             //responsible for placement decision making
@@ -117,11 +124,7 @@ public class MicroservicesController extends SimEntity {
     }
 
     protected FogDevice getFogDeviceById(int id) {
-        for (FogDevice f : fogDevices) {
-            if (f.getId() == id)
-                return f;
-        }
-        return null;
+        return fogDeviceIndex.get(id);
     }
 
     protected void generateRoutingTable() {
@@ -151,8 +154,8 @@ public class MicroservicesController extends SimEntity {
     protected void shareResourceDataAmongClusterNodes() {
         for (FogDevice f : fogDevices) {
             if (((MicroserviceFogDevice) f).getIsInCluster()) {
+                ResourceInfo resources = new ResourceInfo(f.getId(), ((MicroserviceFogDevice) f).getResourceAvailabilityOfDevice());
                 for (int deviceId : ((MicroserviceFogDevice) f).getClusterMembers()) {
-                    Pair<Integer, Map<String, Double>> resources = new Pair<>(f.getId(), ((MicroserviceFogDevice) f).getResourceAvailabilityOfDevice());
                     sendNow(deviceId, FogEvents.UPDATE_RESOURCE_INFO, resources);
                 }
             }
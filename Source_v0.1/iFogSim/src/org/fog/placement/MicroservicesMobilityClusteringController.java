@@ -1,6 +1,5 @@
 package org.fog.placement;
 
-import org.apache.commons.math3.util.Pair;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.fog.application.AppEdge;
@@ -14,8 +13,10 @@ import org.fog.entities.PlacementRequest;
 import org.fog.mobilitydata.References;
 import org.fog.utils.Config;
 import org.fog.utils.FogEvents;
+import org.fog.entities.ServiceDiscoveryDelta;
+import org.fog.utils.ClusteringRequest;
 import org.fog.utils.MigrationDelayMonitor;
-import org.json.simple.JSONObject;
+import org.fog.utils.ModuleMigrationInfo;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -27,8 +28,10 @@ import java.util.stream.Collectors;
  * Created by Samodha Pallewatta on 7/31/2020.
  */
 public class MicroservicesMobilityClusteringController extends MicroservicesController {
+    private static final long serialVersionUID = 1L;
 
     private LocationHandler locator;
+    private MobilityScheduler mobilityScheduler;
     private Map<Integer, Integer> parentReference;
 
 
@@ -92,7 +95,8 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
                 processMobilityData();
                 break;
             case FogEvents.MOBILITY_MANAGEMENT:
-                processMobility(ev);
+                for (FogDevice fogDevice : mobilityScheduler.pollDueDevices())
+                    processMobility(fogDevice);
                 break;
             case FogEvents.STOP_SIMULATION:
                 CloudSim.stopSimulation();
@@ -134,16 +138,14 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
     @Override
     protected void connectWithLatencies() {
         for (String dataId : locator.getDataIdsLevelReferences().keySet()) {
-            for (int instenceId : locator.getInstenceDataIdReferences().keySet()) {
-                if (locator.getInstenceDataIdReferences().get(instenceId).equals(dataId)) {
-                    FogDevice fogDevice = getFogDeviceById(instenceId);
-                    if (locator.getDataIdsLevelReferences().get(dataId) == locator.getLevelID("User") && fogDevice.getParentId() == References.NOT_SET) {
-                        int parentID = locator.determineParent(fogDevice.getId(), References.INIT_TIME);
-                        parentReference.put(fogDevice.getId(), parentID);
-                        fogDevice.setParentId(parentID);
-                    } else
-                        parentReference.put(fogDevice.getId(), fogDevice.getParentId());
-                }
+            for (int instenceId : locator.getInstanceIdsByDataId(dataId)) {
+                FogDevice fogDevice = getFogDeviceById(instenceId);
+                if (locator.getDataIdsLevelReferences().get(dataId) == locator.getLevelID("User") && fogDevice.getParentId() == References.NOT_SET) {
+                    int parentID = locator.determineParent(fogDevice.getId(), References.INIT_TIME);
+                    parentReference.put(fogDevice.getId(), parentID);
+                    fogDevice.setParentId(parentID);
+                } else
+                    parentReference.put(fogDevice.getId(), fogDevice.getParentId());
             }
         }
 
@@ -162,10 +164,9 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
         }
     }
 
-    private void processMobility(SimEvent ev) {
+    private void processMobility(FogDevice fogDevice) {
 
         // TODO Auto-generated method stub
-        FogDevice fogDevice = (FogDevice) ev.getData();
         FogDevice prevParent = getFogDeviceById(parentReference.get(fogDevice.getId()));
         FogDevice newParent = getFogDeviceById(locator.determineParent(fogDevice.getId(), CloudSim.clock()));
         System.out.println(CloudSim.clock() + " Starting Mobility Management for " + fogDevice.getName());
@@ -201,17 +202,12 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
                     double downDelay = getDownDelay(newParent.getId(), commonAncestor, applications.get(applicationName).getModuleByName(moduleName));
                     upDelays.put(moduleName, upDelay);
                     downDelays.put(moduleName, downDelay);
-                    JSONObject jsonSend = new JSONObject();
-                    jsonSend.put("module", applications.get(applicationName).getModuleByName(moduleName));
-                    jsonSend.put("delay", upDelay);
-
-                    JSONObject jsonReceive = new JSONObject();
-                    jsonReceive.put("module", new AppModule(applications.get(applicationName).getModuleByName(moduleName)));
-                    jsonReceive.put("delay", downDelay);
-                    jsonReceive.put("application", applications.get(applicationName));
+                    ModuleMigrationInfo sendInfo = new ModuleMigrationInfo(applications.get(applicationName).getModuleByName(moduleName), upDelay);
+                    ModuleMigrationInfo receiveInfo = new ModuleMigrationInfo(new AppModule(applications.get(applicationName).getModuleByName(moduleName)),
+                            downDelay, applications.get(applicationName));
 
-                    send(migratingModules.get(moduleName), upDelay, FogEvents.MODULE_SEND, jsonSend);
-                    send(newParent.getId(), downDelay, FogEvents.MODULE_RECEIVE, jsonReceive);
+                    send(migratingModules.get(moduleName), upDelay, FogEvents.MODULE_SEND, sendInfo);
+                    send(newParent.getId(), downDelay, FogEvents.MODULE_RECEIVE, receiveInfo);
                     System.out.println("Migrating " + moduleName + " from " + prevParent.getName() + " to " + newParent.getName());
                 }
 
@@ -275,9 +271,7 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
         for (String m : migratingModules.keySet()) {
             List<String> clientMs = getClientMicroservices(m, applicationName);
             for (String clientM : clientMs) {
-                JSONObject serviceDiscoveryRemove = new JSONObject();
-                serviceDiscoveryRemove.put("service data", new Pair<>(m, migratingModules.get(m)));
-                serviceDiscoveryRemove.put("action", "REMOVE");
+                ServiceDiscoveryDelta serviceDiscoveryRemove = new ServiceDiscoveryDelta().remove(m, migratingModules.get(m));
                 send(pr.getPlacedMicroservices().get(clientM), downDelays.get(m), FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryRemove);
             }
         }
@@ -287,9 +281,7 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
                 List<String> services = getServiceMicroservice(m, applicationName);
                 for (String service : services) {
                     if (migratingModules.containsKey(service)) {
-                        JSONObject serviceDiscoveryAdd = new JSONObject();
-                        serviceDiscoveryAdd.put("service data", new Pair<>(service, newParent));
-                        serviceDiscoveryAdd.put("action", "ADD");
+                        ServiceDiscoveryDelta serviceDiscoveryAdd = new ServiceDiscoveryDelta().add(service, newParent);
                         send(fogDevice.getId(), upDelays.get(service), FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryAdd);
                     }
                 }
@@ -300,15 +292,11 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
             List<String> services = getServiceMicroservice(m, applicationName);
             for (String service : services) {
                 if (migratingModules.containsKey(service)) {
-                    JSONObject serviceDiscoveryAdd = new JSONObject();
-                    serviceDiscoveryAdd.put("service data", new Pair<>(service, newParent));
-                    serviceDiscoveryAdd.put("action", "ADD");
+                    ServiceDiscoveryDelta serviceDiscoveryAdd = new ServiceDiscoveryDelta().add(service, newParent);
                     send(newParent, upDelays.get(service), FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryAdd);
                 } else {
                     int d = pr.getPlacedMicroservices().get(service);
-                    JSONObject serviceDiscoveryAdd = new JSONObject();
-                    serviceDiscoveryAdd.put("service data", new Pair<>(service, d));
-                    serviceDiscoveryAdd.put("action", "ADD");
+                    ServiceDiscoveryDelta serviceDiscoveryAdd = new ServiceDiscoveryDelta().add(service, d);
                     sendNow(newParent, FogEvents.UPDATE_SERVICE_DISCOVERY, serviceDiscoveryAdd);
                 }
             }
@@ -403,15 +391,8 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
     }
 
     private void processMobilityData() {
-        // TODO Auto-generated method stub
-        List<Double> timeSheet = new ArrayList<Double>();
-        for (FogDevice fogDevice : fogDevices) {
-            if (locator.isAMobileDevice(fogDevice.getId())) {
-                timeSheet = locator.getTimeSheet(fogDevice.getId());
-                for (double timeEntry : timeSheet)
-                    send(getId(), timeEntry, FogEvents.MOBILITY_MANAGEMENT, fogDevice);
-            }
-        }
+        // only the next movement is scheduled, see MobilityScheduler
+        mobilityScheduler = new MobilityScheduler(this, fogDevices, locator);
     }
 
 
@@ -422,9 +403,7 @@ public class MicroservicesMobilityClusteringController extends MicroservicesCont
             for (FogDevice fogDevice : fogDevices) {
                 System.out.println(CloudSim.clock() + " fog Device: " + fogDevice.getName() + " with id: " + fogDevice.getId() + " is at level: " + fogDevice.getLevel());
                 if ((int) fogDevice.getLevel() == clusterLevel) {
-                    JSONObject jsonMessage = new JSONObject();
-                    jsonMessage.put("locationsInfo", getLocator());
-                    sendNow(fogDevice.getId(), FogEvents.START_DYNAMIC_CLUSTERING, jsonMessage);
+                    sendNow(fogDevice.getId(), FogEvents.START_DYNAMIC_CLUSTERING, new ClusteringRequest(getLocator()));
                 }
             }
         }
@@ -21,19 +21,22 @@ import org.fog.utils.Config;
 import org.fog.utils.FogEvents;
 import org.fog.utils.FogUtils;
 import org.fog.utils.MigrationDelayMonitor;
+import org.fog.utils.ModuleMigrationInfo;
 import org.fog.utils.NetworkUsageMonitor;
 import org.fog.utils.TimeKeeper;
-import org.json.simple.JSONObject;
 
 
 public class MobilityController extends SimEntity{
+	private static final long serialVersionUID = 1L;
 	
 	public static boolean ONLY_CLOUD = false;
 		
 	private List<FogDevice> fogDevices;
+	private FogDeviceIndex fogDeviceIndex;
 	private List<Sensor> sensors;
 	private List<Actuator> actuators;
 	private LocationHandler locator;
+	private MobilityScheduler mobilityScheduler;
 	private Map<Integer, Integer> parentReference;
 
 
@@ -65,30 +68,23 @@ public class MobilityController extends SimEntity{
 	}
 
 	private FogDevice getFogDeviceById(int id){
-		for(FogDevice fogDevice : getFogDevices()){
-			if(id==fogDevice.getId())
-				return fogDevice;
-		}
-		return null;
+		return fogDeviceIndex.get(id);
 	}
 	
 	private void connectWithLatencies(){
 		
 		for (String dataId: locator.getDataIdsLevelReferences().keySet())
 		{
-			for(int instenceId: locator.getInstenceDataIdReferences().keySet())
+			for(int instenceId: locator.getInstanceIdsByDataId(dataId))
 			{
-				if(locator.getInstenceDataIdReferences().get(instenceId).equals(dataId))
-				{
-					FogDevice fogDevice = getFogDeviceById(instenceId);
-					if(locator.getDataIdsLevelReferences().get(dataId)==locator.getLevelID("User") && fogDevice.getParentId()==References.NOT_SET){
-						int parentID = locator.determineParent(fogDevice.getId(),References.INIT_TIME);
-						parentReference.put(fogDevice.getId(),parentID);
-						fogDevice.setParentId(parentID);
-					}
-					else
-						parentReference.put(fogDevice.getId(),fogDevice.getParentId());
+				FogDevice fogDevice = getFogDeviceById(instenceId);
+				if(locator.getDataIdsLevelReferences().get(dataId)==locator.getLevelID("User") && fogDevice.getParentId()==References.NOT_SET){
+					int parentID = locator.determineParent(fogDevice.getId(),References.INIT_TIME);
+					parentReference.put(fogDevice.getId(),parentID);
+					fogDevice.setParentId(parentID);
 				}
+				else
+					parentReference.put(fogDevice.getId(),fogDevice.getParentId());
 			}
 		}
 		
@@ -137,7 +133,8 @@ public class MobilityController extends SimEntity{
 			processMobilityData();
 			break;
 		case FogEvents.MOBILITY_MANAGEMENT:
-			processMobility(ev);
+			for (FogDevice fogDevice : mobilityScheduler.pollDueDevices())
+				processMobility(fogDevice);
 			break;
 		case FogEvents.TUPLE_FINISHED:
 			processTupleFinished(ev);
@@ -172,9 +169,8 @@ public class MobilityController extends SimEntity{
 	}*/
 
 	@SuppressWarnings("unchecked")
-	private void processMobility(SimEvent ev) {
+	private void processMobility(FogDevice fogDevice) {
 		// TODO Auto-generated method stub
-		FogDevice fogDevice = (FogDevice) ev.getData();
 		FogDevice prevParent = getFogDeviceById(parentReference.get(fogDevice.getId()));
 		FogDevice newParent = getFogDeviceById(locator.determineParent(fogDevice.getId(),CloudSim.clock()));
 		System.out.println(CloudSim.clock()+" Starting Mobility Management for "+fogDevice.getName());
@@ -202,17 +198,9 @@ public class MobilityController extends SimEntity{
 				for(String moduleName:migratingModules){
 					double upDelay = getUpDelay(prevParent.getId(),commonAncestor,getApplications().get(applicationName).getModuleByName(moduleName));
 					double downDelay = getDownDelay(newParent.getId(),commonAncestor,getApplications().get(applicationName).getModuleByName(moduleName));
-					JSONObject jsonSend = new JSONObject();
-					jsonSend.put("module", getApplications().get(applicationName).getModuleByName(moduleName));
-					jsonSend.put("delay", upDelay);
-					
-					JSONObject jsonReceive = new JSONObject();
-					jsonReceive.put("module", getApplications().get(applicationName).getModuleByName(moduleName));
-					jsonReceive.put("delay", downDelay);
-					jsonReceive.put("application", getApplications().get(applicationName));
-					
-					send(prevParent.getId(),upDelay, FogEvents.MODULE_SEND, jsonSend);
-					send(newParent.getId(),downDelay, FogEvents.MODULE_RECEIVE, jsonReceive);
+					AppModule module = getApplications().get(applicationName).getModuleByName(moduleName);
+					send(prevParent.getId(),upDelay, FogEvents.MODULE_SEND, new ModuleMigrationInfo(module, upDelay));
+					send(newParent.getId(),downDelay, FogEvents.MODULE_RECEIVE, new ModuleMigrationInfo(module, downDelay, getApplications().get(applicationName)));
 					System.out.println("Migrating "+moduleName+" from "+prevParent.getName()+" to "+newParent.getName());
 				}
 			}
@@ -264,15 +252,8 @@ public class MobilityController extends SimEntity{
 	}
 
 	private void processMobilityData() {
-		// TODO Auto-generated method stub
-		List<Double>timeSheet = new ArrayList<Double>();
-		for(FogDevice fogDevice : getFogDevices()){
-			if(locator.isAMobileDevice(fogDevice.getId())) {
-				timeSheet = locator.getTimeSheet(fogDevice.getId());
-				for(double timeEntry:timeSheet)
-					send(getId(), timeEntry, FogEvents.MOBILITY_MANAGEMENT,fogDevice);
-			}
-		}
+		// only the next movement is scheduled, see MobilityScheduler
+		mobilityScheduler = new MobilityScheduler(this, getFogDevices(), locator);
 	}
 
 	private void printNetworkUsageDetails() {
@@ -410,6 +391,7 @@ public class MobilityController extends SimEntity{
 
 	public void setFogDevices(List<FogDevice> fogDevices) {
 		this.fogDevices = fogDevices;
+		this.fogDeviceIndex = new FogDeviceIndex(fogDevices);
 	}
 
 	public Map<String, Integer> getAppLaunchDelays() {
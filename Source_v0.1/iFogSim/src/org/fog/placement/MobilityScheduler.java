@@ -0,0 +1,195 @@
+package org.fog.placement;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.fog.entities.FogDevice;
+import org.fog.utils.FogEvents;
+
+/**
+ * Schedules the MOBILITY_MANAGEMENT events of the mobile devices of a controller just in time.
+ * Instead of sending one event per point of the mobility traces when the simulation starts, it keeps
+ * a cursor into the time sorted trace of each device and a min-heap of the devices ordered by their
+ * next movement, and only the earliest movement is in the event queue.
+ * The events use serial numbers reserved when the scheduler is created, so they are processed in the
+ * same order, among the other events, as if they had all been sent at once.
+ */
+public class MobilityScheduler implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int controllerId;
+
+	private final FogDevice[] devices;
+
+	/**
+	 * movement times of each device, in the order they are processed
+	 */
+	private final double[][] times;
+
+	/**
+	 * reserved event serial numbers of the movements of each device
+	 */
+	private final long[][] serials;
+
+	/**
+	 * index of the next movement of each device
+	 */
+	private final int[] cursors;
+
+	/**
+	 * devices with movements left, ordered by the time and serial number of their next movement
+	 */
+	private final int[] heap;
+
+	private int heapSize = 0;
+
+	/**
+	 * Creates the scheduler and schedules the first movement. The movements are timed and ordered as
+	 * if the controller sent one MOBILITY_MANAGEMENT event per entry of the time sheet of each mobile
+	 * device, in the order of the given devices.
+	 *
+	 * @param controller the controller receiving the MOBILITY_MANAGEMENT events
+	 * @param fogDevices the fog devices
+	 * @param locator the location handler providing the time sheets of the mobile devices
+	 */
+	public MobilityScheduler(SimEntity controller, List<FogDevice> fogDevices, LocationHandler locator) {
+		controllerId = controller.getId();
+		List<FogDevice> mobileDevices = new ArrayList<FogDevice>();
+		List<List<Double>> timeSheets = new ArrayList<List<Double>>();
+		long events = 0;
+		for (FogDevice fogDevice : fogDevices) {
+			if (locator.isAMobileDevice(fogDevice.getId())) {
+				List<Double> timeSheet = locator.getTimeSheet(fogDevice.getId());
+				mobileDevices.add(fogDevice);
+				timeSheets.add(timeSheet);
+				events += timeSheet.size();
+			}
+		}
+
+		devices = mobileDevices.toArray(new FogDevice[mobileDevices.size()]);
+		times = new double[devices.length][];
+		serials = new long[devices.length][];
+		cursors = new int[devices.length];
+		heap = new int[devices.length];
+
+		long serial = CloudSim.reserveEventSerials(events);
+		double now = CloudSim.clock();
+		for (int device = 0; device < devices.length; device++) {
+			List<Double> timeSheet = timeSheets.get(device);
+			final double[] sentTimes = new double[timeSheet.size()];
+			Integer[] order = new Integer[sentTimes.length];
+			for (int i = 0; i < sentTimes.length; i++) {
+				// as SimEntity.send, a negative delay is sent with no delay
+				sentTimes[i] = now + Math.max(0, timeSheet.get(i));
+				order[i] = i;
+			}
+			// time sheets are not necessarily sorted; entries at the same time keep their order
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(sentTimes[a], sentTimes[b]);
+				}
+			});
+
+			times[device] = new double[sentTimes.length];
+			serials[device] = new long[sentTimes.length];
+			for (int i = 0; i < sentTimes.length; i++) {
+				times[device][i] = sentTimes[order[i]];
+				serials[device][i] = serial + order[i];
+			}
+			serial += sentTimes.length;
+
+			if (sentTimes.length > 0) {
+				heap[heapSize] = device;
+				siftUp(heapSize++);
+			}
+		}
+
+		scheduleNext();
+	}
+
+	/**
+	 * Gets the devices moving at the current time, in the order their events would have been
+	 * processed, and schedules the next movement. To be called when the controller receives a
+	 * MOBILITY_MANAGEMENT event.
+	 *
+	 * @return the moving devices
+	 */
+	public List<FogDevice> pollDueDevices() {
+		List<FogDevice> due = new ArrayList<FogDevice>();
+		while (heapSize > 0 && nextTime(heap[0]) <= CloudSim.clock()) {
+			int device = heap[0];
+			due.add(devices[device]);
+			if (++cursors[device] == times[device].length) {
+				heap[0] = heap[--heapSize];
+			}
+			if (heapSize > 0) {
+				siftDown(0);
+			}
+		}
+		scheduleNext();
+		return due;
+	}
+
+	/**
+	 * Sends the MOBILITY_MANAGEMENT event of the earliest movement, if any.
+	 */
+	private void scheduleNext() {
+		if (heapSize > 0) {
+			int device = heap[0];
+			CloudSim.sendAt(controllerId, controllerId, nextTime(device), FogEvents.MOBILITY_MANAGEMENT,
+					devices[device], serials[device][cursors[device]]);
+		}
+	}
+
+	private double nextTime(int device) {
+		return times[device][cursors[device]];
+	}
+
+	private boolean before(int device1, int device2) {
+		double time1 = nextTime(device1);
+		double time2 = nextTime(device2);
+		if (time1 != time2) {
+			return time1 < time2;
+		}
+		return serials[device1][cursors[device1]] < serials[device2][cursors[device2]];
+	}
+
+	private void siftUp(int pos) {
+		int device = heap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >> 1;
+			if (!before(device, heap[parent])) {
+				break;
+			}
+			heap[pos] = heap[parent];
+			pos = parent;
+		}
+		heap[pos] = device;
+	}
+
+	private void siftDown(int pos) {
+		int device = heap[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], device)) {
+				break;
+			}
+			heap[pos] = heap[child];
+			pos = child;
+		}
+		heap[pos] = device;
+	}
+}
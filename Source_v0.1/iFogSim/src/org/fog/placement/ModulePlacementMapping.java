@@ -9,6 +9,7 @@ import org.fog.application.Application;
 import org.fog.entities.FogDevice;
 
 public class ModulePlacementMapping extends ModulePlacement{
+	private static final long serialVersionUID = 1L;
 
 	private ModuleMapping moduleMapping;
 	
@@ -18,6 +18,7 @@ import org.fog.entities.Tuple;
 import org.fog.utils.Logger;
 
 public class ModulePlacementMobileEdgewards extends ModulePlacement{
+	private static final long serialVersionUID = 1L;
 	
 	protected ModuleMapping moduleMapping;
 	protected List<Sensor> sensors;
@@ -435,7 +436,7 @@ public class ModulePlacementMobileEdgewards extends ModulePlacement{
 			if(sensor.getGatewayDeviceId()==device.getId()){
 				if(!endpoints.containsKey(sensor.getTupleType()))
 					endpoints.put(sensor.getTupleType(), 0);
-				endpoints.put(sensor.getTupleType(), endpoints.get(sensor.getTupleType())+1);
+				endpoints.put(sensor.getTupleType(), endpoints.get(sensor.getTupleType())+sensor.getSensorCount());
 			}
 		}
 		return endpoints;
@@ -2,10 +2,13 @@ package org.fog.placement;
 
 import org.fog.utils.Logger;
 
+import java.io.Serializable;
+
 /**
  * Created by Samodha Pallewatta.
  */
-public class PlacementLogicFactory {
+public class PlacementLogicFactory implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     public static final int EDGEWART_MICROSERCVICES_PLACEMENT = 1;
     public static final int CLUSTERED_MICROSERVICES_PLACEMENT = 2;
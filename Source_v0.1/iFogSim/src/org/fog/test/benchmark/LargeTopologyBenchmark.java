@@ -0,0 +1,73 @@
+package org.fog.test.benchmark;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.entities.FogDevice;
+import org.fog.entities.PhysicalTopology;
+import org.fog.utils.JsonToTopology;
+import org.fog.utils.topology.DeviceProfile;
+import org.fog.utils.topology.FogHierarchy;
+import org.fog.utils.topology.FogHierarchyGenerator;
+import org.fog.utils.topology.FogLevel;
+import org.fog.utils.topology.ValueSampler;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Generation time of large fog hierarchies: a cloud, proxies, heterogeneous gateways in clusters and
+ * mobile devices, about 130k devices with the default fan-outs. The hierarchy is generated, instantiated
+ * as fog devices, and optionally written as a JSON topology and read back with JsonToTopology.
+ * <p>
+ * Usage : LargeTopologyBenchmark [seed] [proxies] [json file]
+ */
+public class LargeTopologyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        int proxies = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String jsonFile = args.length > 2 ? args[2] : null;
+
+        Log.disable();
+        CloudSim.init(1, Calendar.getInstance(), false);
+
+        FogHierarchyGenerator generator = new FogHierarchyGenerator(seed)
+                .addLevel(new FogLevel("cloud", new DeviceProfile("cloud", 44800, 40000, 100, 10000, 0.01, 16 * 103, 16 * 83.25)))
+                .addLevel(new FogLevel("proxy-server", new DeviceProfile("proxy", 2800, 4000, 10000, 10000, 0.0, 107.339, 83.4333))
+                        .setFanOut(ValueSampler.constant(proxies))
+                        .setUplinkLatency(ValueSampler.uniform(80, 120))
+                        .setPlacementRadius(5))
+                .addLevel(new FogLevel("gateway",
+                        new DeviceProfile("small", 2800, 4000, 10000, 10000, 0.0, 107.339, 83.4333, 3),
+                        new DeviceProfile("large", 6000, 8000, 10000, 10000, 0.0, 107.339, 83.4333, 1))
+                        .setFanOut(ValueSampler.uniformInt(20, 60))
+                        .setUplinkLatency(ValueSampler.normal(4, 1))
+                        .setPlacementRadius(1)
+                        .setClusters(4, ValueSampler.uniform(1, 3)))
+                .addLevel(new FogLevel("m", new DeviceProfile("mobile", 1000, 1000, 10000, 270, 0, 87.53, 82.44))
+                        .setFanOut(ValueSampler.exponential(65))
+                        .setUplinkLatency(ValueSampler.constant(2))
+                        .setPlacementRadius(0.2));
+
+        long start = System.nanoTime();
+        FogHierarchy hierarchy = generator.generate();
+        long generated = System.nanoTime();
+        List<FogDevice> fogDevices = hierarchy.createFogDevices();
+        long created = System.nanoTime();
+        System.out.println(hierarchy.getDeviceCount() + " devices (" + hierarchy.getLevelSize(1) + " proxies, "
+                + hierarchy.getLevelSize(2) + " gateways, " + hierarchy.getLevelSize(3) + " mobiles)");
+        System.out.println("generation   " + (generated - start) / 1000000 + " ms");
+        System.out.println("fog devices  " + (created - generated) / 1000000 + " ms, " + fogDevices.size() + " created");
+
+        if (jsonFile != null) {
+            hierarchy.writeJson(jsonFile);
+            long written = System.nanoTime();
+            System.out.println("json written " + (written - created) / 1000000 + " ms");
+            CloudSim.init(1, Calendar.getInstance(), false);
+            PhysicalTopology topology = JsonToTopology.getPhysicalTopology(1, "app", jsonFile);
+            System.out.println("json read    " + (System.nanoTime() - written) / 1000000 + " ms, "
+                    + topology.getFogDevices().size() + " fog devices");
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+package org.fog.test.benchmark;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.util.BenchmarkUtil;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.application.Application;
+import org.fog.entities.FogBroker;
+import org.fog.entities.FogDevice;
+import org.fog.entities.MicroserviceFogDevice;
+import org.fog.entities.PlacementRequest;
+import org.fog.placement.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Decision time benchmark for the placement algorithms.
+ * For every combination of topology (depth, fan out, cluster size), application shape and size and placement algorithm, the
+ * scenario is rebuilt from scratch for each iteration and only the placement decision is timed :
+ * MicroservicePlacementLogic.run of every FON (as done in MicroserviceFogDevice.processPlacementRequests) or the constructor of
+ * the ModulePlacement. Console output of the placement code is suppressed while running.
+ * <p>
+ * Reported per scenario : decision latency (mean, min, p50, p95, max in ms) and bytes allocated per decision (when supported by the JVM).
+ * Results are written as JSON for regression tracking.
+ * <p>
+ * Usage : PlacementBenchmark [output file] [iterations] [warm up iterations]
+ */
+public class PlacementBenchmark {
+
+    public static final int CLUSTERED_MICROSERVICES = 1;
+    public static final int DISTRIBUTED_MICROSERVICES = 2;
+    public static final int EDGEWARDS = 3;
+    public static final int MOBILE_EDGEWARDS = 4;
+    public static final int ONLY_CLOUD = 5;
+
+    static int[] algorithms = new int[]{CLUSTERED_MICROSERVICES, DISTRIBUTED_MICROSERVICES, EDGEWARDS, MOBILE_EDGEWARDS, ONLY_CLOUD};
+    static int[] depths = new int[]{4};
+    static int[] fanOuts = new int[]{2, 4, 8};
+    static int[] clusterSizes = new int[]{2};
+    static int[] shapes = new int[]{SyntheticApplicationGenerator.CHAIN, SyntheticApplicationGenerator.FAN_IN, SyntheticApplicationGenerator.DIAMOND};
+    static int[] applicationSizes = new int[]{4, 8};
+
+    static String outputFile = "placement-benchmark.json";
+    static int iterations = 10;
+    static int warmUp = 3;
+
+    private static final PrintStream console = System.out;
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) {
+        if (args.length > 0)
+            outputFile = args[0];
+        if (args.length > 1)
+            iterations = Integer.parseInt(args[1]);
+        if (args.length > 2)
+            warmUp = Integer.parseInt(args[2]);
+
+        Log.disable();
+        JSONArray results = new JSONArray();
+        console.println(String.format("%-28s %5s %6s %7s %8s %8s %5s %10s %10s %10s %14s",
+                "algorithm", "depth", "fanout", "cluster", "devices", "shape", "size", "mean(ms)", "p50(ms)", "p95(ms)", "alloc(B/op)"));
+        for (int algorithm : algorithms) {
+            for (int depth : depths) {
+                for (int fanOut : fanOuts) {
+                    for (int clusterSize : clusterSizes) {
+                        for (int shape : shapes) {
+                            for (int size : applicationSizes) {
+                                JSONObject result = runScenario(algorithm, depth, fanOut, clusterSize, shape, size);
+                                results.add(result);
+                                console.println(String.format("%-28s %5d %6d %7d %8d %8s %5d %10.3f %10.3f %10.3f %14d",
+                                        getAlgorithmName(algorithm), depth, fanOut, clusterSize, result.get("devices"),
+                                        SyntheticApplicationGenerator.getShapeName(shape), size, result.get("meanMs"),
+                                        result.get("p50Ms"), result.get("p95Ms"), result.get("allocatedBytesPerOp")));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("benchmark", "placement");
+        report.put("iterations", iterations);
+        report.put("warmUp", warmUp);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("results", results);
+        try (FileWriter writer = new FileWriter(outputFile)) {
+            writer.write(report.toJSONString());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        console.println("Results written to " + outputFile);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject runScenario(int algorithm, int depth, int fanOut, int clusterSize, int shape, int size) {
+        long[] times = new long[iterations];
+        long allocated = 0;
+        int devices = 0;
+        for (int i = 0; i < warmUp + iterations; i++) {
+            Measurement measurement = runOnce(algorithm, depth, fanOut, clusterSize, shape, size);
+            devices = measurement.devices;
+            if (i >= warmUp) {
+                times[i - warmUp] = measurement.nanos;
+                allocated += measurement.allocatedBytes;
+            }
+        }
+        Arrays.sort(times);
+        double sum = 0;
+        for (long time : times)
+            sum += time;
+
+        JSONObject result = new JSONObject();
+        result.put("algorithm", getAlgorithmName(algorithm));
+        result.put("depth", depth);
+        result.put("fanOut", fanOut);
+        result.put("clusterSize", clusterSize);
+        result.put("devices", devices);
+        result.put("shape", SyntheticApplicationGenerator.getShapeName(shape));
+        result.put("applicationSize", size);
+        result.put("meanMs", sum / times.length / 1e6);
+        result.put("minMs", times[0] / 1e6);
+        result.put("p50Ms", percentile(times, 0.5) / 1e6);
+        result.put("p95Ms", percentile(times, 0.95) / 1e6);
+        result.put("maxMs", times[times.length - 1] / 1e6);
+        result.put("allocatedBytesPerOp", allocated < 0 ? -1 : allocated / times.length);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static Measurement runOnce(int algorithm, int depth, int fanOut, int clusterSize, int shape, int size) {
+        BenchmarkUtil.muteConsole();
+        try {
+            CloudSim.init(1, Calendar.getInstance(), false);
+            FogBroker broker = new FogBroker("broker");
+            Application application = SyntheticApplicationGenerator.createApplication("A0", broker.getId(), shape, size);
+            boolean microservices = algorithm == CLUSTERED_MICROSERVICES || algorithm == DISTRIBUTED_MICROSERVICES;
+            SyntheticTopologyGenerator topology = new SyntheticTopologyGenerator(depth, fanOut, clusterSize, microservices);
+            topology.createTopology(broker.getId(), application);
+
+            Measurement measurement;
+            if (microservices)
+                measurement = runMicroservicePlacement(algorithm, topology, application);
+            else
+                measurement = runModulePlacement(algorithm, topology, application);
+            measurement.devices = topology.getFogDevices().size();
+            return measurement;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            BenchmarkUtil.unmuteConsole();
+        }
+    }
+
+    private static Measurement runMicroservicePlacement(int algorithm, SyntheticTopologyGenerator topology, Application application) {
+        int placementLogic = algorithm == CLUSTERED_MICROSERVICES ? PlacementLogicFactory.CLUSTERED_MICROSERVICES_PLACEMENT
+                : PlacementLogicFactory.DISTRIBUTED_MICROSERVICES_PLACEMENT;
+        new MicroservicesController("controller", topology.getFogDevices(), topology.getSensors(),
+                Collections.singletonList(application), new ArrayList<Integer>(), SyntheticTopologyGenerator.CLUSTER_LATENCY, placementLogic);
+
+        // placement requests are processed by the FON managing the client device
+        Map<MicroserviceFogDevice, List<PlacementRequest>> requestsPerFon = new LinkedHashMap<>();
+        for (int i = 0; i < topology.getClientDevices().size(); i++) {
+            FogDevice client = topology.getClientDevices().get(i);
+            Map<String, Integer> placed = new HashMap<>();
+            placed.put(SyntheticApplicationGenerator.CLIENT + application.getAppId(), client.getId());
+            PlacementRequest pr = new PlacementRequest(application.getAppId(), topology.getSensors().get(i).getId(), client.getId(), placed);
+            MicroserviceFogDevice fon = getFon(client);
+            if (!requestsPerFon.containsKey(fon))
+                requestsPerFon.put(fon, new ArrayList<PlacementRequest>());
+            requestsPerFon.get(fon).add(pr);
+        }
+
+        Measurement measurement = new Measurement();
+        long allocatedStart = BenchmarkUtil.getAllocatedBytes();
+        long start = System.nanoTime();
+        for (MicroserviceFogDevice fon : requestsPerFon.keySet())
+            fon.getControllerComponent().executeApplicationPlacementLogic(requestsPerFon.get(fon));
+        measurement.nanos = System.nanoTime() - start;
+        measurement.allocatedBytes = BenchmarkUtil.getAllocatedBytesSince(allocatedStart);
+        return measurement;
+    }
+
+    private static Measurement runModulePlacement(int algorithm, SyntheticTopologyGenerator topology, Application application) {
+        new Controller("master-controller", topology.getFogDevices(), topology.getSensors(), topology.getActuators());
+
+        ModuleMapping moduleMapping = ModuleMapping.createModuleMapping();
+        for (FogDevice client : topology.getClientDevices())
+            moduleMapping.addModuleToDevice(SyntheticApplicationGenerator.CLIENT + application.getAppId(), client.getName());
+
+        Measurement measurement = new Measurement();
+        long allocatedStart = BenchmarkUtil.getAllocatedBytes();
+        long start = System.nanoTime();
+        if (algorithm == EDGEWARDS)
+            new ModulePlacementEdgewards(topology.getFogDevices(), topology.getSensors(), topology.getActuators(), application, moduleMapping);
+        else if (algorithm == MOBILE_EDGEWARDS)
+            new ModulePlacementMobileEdgewards(topology.getFogDevices(), topology.getSensors(), topology.getActuators(), application, moduleMapping);
+        else
+            new ModulePlacementOnlyCloud(topology.getFogDevices(), topology.getSensors(), topology.getActuators(), application);
+        measurement.nanos = System.nanoTime() - start;
+        measurement.allocatedBytes = BenchmarkUtil.getAllocatedBytesSince(allocatedStart);
+        return measurement;
+    }
+
+    private static MicroserviceFogDevice getFon(FogDevice device) {
+        FogDevice current = device;
+        while (current != null && !((MicroserviceFogDevice) current).getDeviceType().equals(MicroserviceFogDevice.FON))
+            current = (FogDevice) CloudSim.getEntity(current.getParentId());
+        return (MicroserviceFogDevice) current;
+    }
+
+    public static String getAlgorithmName(int algorithm) {
+        switch (algorithm) {
+            case CLUSTERED_MICROSERVICES:
+                return "ClusteredMicroservicePlacement";
+            case DISTRIBUTED_MICROSERVICES:
+                return "DistributedMicroservicePlacement";
+            case EDGEWARDS:
+                return "ModulePlacementEdgewards";
+            case MOBILE_EDGEWARDS:
+                return "ModulePlacementMobileEdgewards";
+            case ONLY_CLOUD:
+                return "ModulePlacementOnlyCloud";
+        }
+        return "unknown";
+    }
+
+    private static class Measurement {
+        long nanos;
+        long allocatedBytes;
+        int devices;
+    }
+}
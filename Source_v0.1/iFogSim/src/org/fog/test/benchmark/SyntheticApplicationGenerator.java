@@ -0,0 +1,125 @@
+package org.fog.test.benchmark;
+
+import org.fog.application.AppEdge;
+import org.fog.application.AppLoop;
+import org.fog.application.Application;
+import org.fog.application.selectivity.FractionalSelectivity;
+import org.fog.entities.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates application DAGs of a given shape and size for placement benchmarks.
+ * Every application starts and ends at a client module hosted on the client device :
+ * sensor -> client -> (microservice DAG) -> client -> actuator.
+ * <p>
+ * CHAIN   : m0 -> m1 -> ... -> m(n-1)
+ * FAN_IN  : m0 ... m(n-2) all feed m(n-1)
+ * DIAMOND : m0 fans out to m1 ... m(n-2), which fan in to m(n-1)
+ */
+public class SyntheticApplicationGenerator {
+
+    public static final int CHAIN = 1;
+    public static final int FAN_IN = 2;
+    public static final int DIAMOND = 3;
+
+    public static final String CLIENT = "client";
+    public static final String SENSOR = "sensor";
+    public static final String ACTUATOR = "actuator";
+
+    public static String getShapeName(int shape) {
+        switch (shape) {
+            case CHAIN:
+                return "chain";
+            case FAN_IN:
+                return "fan-in";
+            case DIAMOND:
+                return "diamond";
+        }
+        return "unknown";
+    }
+
+    /**
+     * @param shape        CHAIN, FAN_IN or DIAMOND
+     * @param microservices number of microservices excluding the client module (minimum 3)
+     */
+    public static Application createApplication(String appId, int userId, int shape, int microservices) {
+        int n = Math.max(3, microservices);
+        Application application = Application.createApplication(appId, userId);
+
+        String client = CLIENT + appId;
+        String sensor = SENSOR + appId;
+        String actuator = ACTUATOR + appId;
+
+        application.addAppModule(client, 128, 100, 100);
+        for (int i = 0; i < n; i++)
+            application.addAppModule(module(appId, i), 512, 500, 200);
+
+        application.addAppEdge(sensor, client, 1000, 500, sensor, Tuple.UP, AppEdge.SENSOR);
+        application.addAppEdge(client, actuator, 28, 200, "display" + appId, Tuple.DOWN, AppEdge.ACTUATOR);
+
+        List<String> loopModules = new ArrayList<>();
+        loopModules.add(sensor);
+        loopModules.add(client);
+
+        if (shape == CHAIN) {
+            connect(application, client, module(appId, 0), sensor);
+            for (int i = 0; i < n - 1; i++)
+                connect(application, module(appId, i), module(appId, i + 1), edgeName(i == 0 ? client : module(appId, i - 1), module(appId, i)));
+            for (int i = 0; i < n; i++)
+                loopModules.add(module(appId, i));
+        } else if (shape == FAN_IN) {
+            for (int i = 0; i < n - 1; i++) {
+                connect(application, client, module(appId, i), sensor);
+                connect(application, module(appId, i), module(appId, n - 1), edgeName(client, module(appId, i)));
+            }
+            loopModules.add(module(appId, 0));
+            loopModules.add(module(appId, n - 1));
+        } else {
+            connect(application, client, module(appId, 0), sensor);
+            for (int i = 1; i < n - 1; i++) {
+                connect(application, module(appId, 0), module(appId, i), edgeName(client, module(appId, 0)));
+                connect(application, module(appId, i), module(appId, n - 1), edgeName(module(appId, 0), module(appId, i)));
+            }
+            loopModules.add(module(appId, 0));
+            loopModules.add(module(appId, 1));
+            loopModules.add(module(appId, n - 1));
+        }
+
+        // result back to the client and display
+        String last = module(appId, n - 1);
+        String resultTuple = last + "_" + client;
+        application.addAppEdge(last, client, 28, 200, resultTuple, Tuple.DOWN, AppEdge.MODULE);
+        for (AppEdge edge : new ArrayList<>(application.getEdges())) {
+            if (edge.getDestination().equals(last) && edge.getEdgeType() == AppEdge.MODULE)
+                application.addTupleMapping(last, edge.getTupleType(), resultTuple, new FractionalSelectivity(1.0));
+        }
+        application.addTupleMapping(client, resultTuple, "display" + appId, new FractionalSelectivity(1.0));
+
+        loopModules.add(client);
+        loopModules.add(actuator);
+        List<AppLoop> loops = new ArrayList<>();
+        loops.add(new AppLoop(loopModules));
+        application.setLoops(loops);
+        application.createDAG();
+        return application;
+    }
+
+    private static String module(String appId, int index) {
+        return "m" + index + appId;
+    }
+
+    /**
+     * Adds an UP edge from source to destination and maps inputTuple of the source to it.
+     */
+    private static void connect(Application application, String source, String destination, String inputTuple) {
+        String tupleType = source + "_" + destination;
+        application.addAppEdge(source, destination, 1000, 500, tupleType, Tuple.UP, AppEdge.MODULE);
+        application.addTupleMapping(source, inputTuple, tupleType, new FractionalSelectivity(1.0));
+    }
+
+    private static String edgeName(String source, String destination) {
+        return source + "_" + destination;
+    }
+}
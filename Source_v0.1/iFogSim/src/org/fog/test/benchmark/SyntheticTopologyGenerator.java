@@ -0,0 +1,194 @@
+package org.fog.test.benchmark;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.sdn.overbooking.BwProvisionerOverbooking;
+import org.cloudbus.cloudsim.sdn.overbooking.PeProvisionerOverbooking;
+import org.fog.application.Application;
+import org.fog.entities.*;
+import org.fog.policy.AppModuleAllocationPolicy;
+import org.fog.scheduler.StreamOperatorScheduler;
+import org.fog.utils.FogLinearPowerModel;
+import org.fog.utils.FogUtils;
+import org.fog.utils.distribution.DeterministicDistribution;
+
+import java.util.*;
+
+/**
+ * Generates tree shaped fog topologies for placement benchmarks.
+ * Level 0 is the cloud (named "cloud" as required by the edgeward placements), level 1 holds the FONs,
+ * intermediate levels hold FCNs and the leaves (level depth - 1) are client devices, each with one sensor and one actuator.
+ * Every non leaf device has fanOut children. Siblings on the level above the clients are grouped into clusters of clusterSize.
+ * <p>
+ * Devices are not connected to their parents here (children lists, latency maps); that is done by the controller as in the
+ * perfeval examples.
+ */
+public class SyntheticTopologyGenerator {
+
+    public static final double CLUSTER_LATENCY = 2.0;
+
+    private int depth;
+    private int fanOut;
+    private int clusterSize;
+    private boolean microservices;
+
+    private List<FogDevice> fogDevices = new ArrayList<>();
+    private List<FogDevice> clientDevices = new ArrayList<>();
+    private List<Sensor> sensors = new ArrayList<>();
+    private List<Actuator> actuators = new ArrayList<>();
+
+    /**
+     * @param depth         number of device levels including cloud and clients (minimum 3)
+     * @param fanOut        children per non leaf device
+     * @param clusterSize   cluster size on the level above the clients, 1 for no clusters
+     * @param microservices create MicroserviceFogDevices (CLOUD/FON/FCN/CLIENT) instead of FogDevices
+     */
+    public SyntheticTopologyGenerator(int depth, int fanOut, int clusterSize, boolean microservices) {
+        this.depth = Math.max(3, depth);
+        this.fanOut = fanOut;
+        this.clusterSize = clusterSize;
+        this.microservices = microservices;
+    }
+
+    public void createTopology(int userId, Application application) {
+        FogDevice cloud = createFogDevice("cloud", 80000000, 49152000, 100, 12500000, 0, 0.01, 16 * 103, 16 * 83.25, MicroserviceFogDevice.CLOUD);
+        cloud.setParentId(-1);
+        fogDevices.add(cloud);
+        addChildren(cloud, "", 1, userId, application);
+    }
+
+    private void addChildren(FogDevice parent, String id, int level, int userId, Application application) {
+        List<FogDevice> siblings = new ArrayList<>();
+        for (int i = 0; i < fanOut; i++) {
+            String childId = id.isEmpty() ? String.valueOf(i) : id + "-" + i;
+            FogDevice child;
+            if (level == depth - 1) {
+                child = createFogDevice("m-" + childId, 1000, 2048, 18750, 250, level, 0, 87.53, 82.44, MicroserviceFogDevice.CLIENT);
+                child.setUplinkLatency(20);
+                addSensorAndActuator(child, childId, userId, application);
+                clientDevices.add(child);
+            } else if (level == 1) {
+                child = createFogDevice("fon-" + childId, 20000, 16384, 12500000, 1250000, level, 0.0, 107.339, 83.4333, MicroserviceFogDevice.FON);
+                child.setUplinkLatency(150);
+            } else {
+                // heterogeneous FCNs
+                boolean large = i % 2 == 1;
+                child = createFogDevice("fcn-" + childId, large ? 6000 : 2800, large ? 4096 : 2048, 1250000, 18750, level, 0.0, 107.339, 83.4333, MicroserviceFogDevice.FCN);
+                child.setUplinkLatency(30);
+            }
+            child.setParentId(parent.getId());
+            fogDevices.add(child);
+            siblings.add(child);
+            if (level < depth - 1)
+                addChildren(child, childId, level + 1, userId, application);
+        }
+        if (microservices && level == depth - 2 && clusterSize > 1)
+            createClusters(siblings);
+    }
+
+    private void createClusters(List<FogDevice> siblings) {
+        for (int start = 0; start < siblings.size(); start += clusterSize) {
+            List<FogDevice> cluster = siblings.subList(start, Math.min(siblings.size(), start + clusterSize));
+            if (cluster.size() < 2)
+                continue;
+            for (FogDevice device : cluster) {
+                List<Integer> members = new ArrayList<>();
+                Map<Integer, Double> latencyMap = new HashMap<>();
+                for (FogDevice member : cluster) {
+                    if (member.getId() != device.getId()) {
+                        members.add(member.getId());
+                        latencyMap.put(member.getId(), CLUSTER_LATENCY);
+                    }
+                }
+                ((MicroserviceFogDevice) device).setClusterMembers(members);
+                ((MicroserviceFogDevice) device).setClusterMembersToLatencyMap(latencyMap);
+                ((MicroserviceFogDevice) device).setIsInCluster(true);
+            }
+        }
+    }
+
+    private void addSensorAndActuator(FogDevice client, String id, int userId, Application application) {
+        String appId = application.getAppId();
+        Sensor sensor = new Sensor("s-" + id, SyntheticApplicationGenerator.SENSOR + appId, userId, appId, new DeterministicDistribution(5));
+        sensor.setApp(application);
+        sensor.setGatewayDeviceId(client.getId());
+        sensor.setLatency(5.0);
+        sensors.add(sensor);
+
+        Actuator actuator = new Actuator("a-" + id, userId, appId, SyntheticApplicationGenerator.ACTUATOR + appId);
+        actuator.setApp(application);
+        actuator.setGatewayDeviceId(client.getId());
+        actuator.setLatency(1.0);
+        actuators.add(actuator);
+    }
+
+    private FogDevice createFogDevice(String nodeName, long mips, int ram, long upBw, long downBw, int level, double ratePerMips,
+                                      double busyPower, double idlePower, String deviceType) {
+        List<Pe> peList = new ArrayList<Pe>();
+        peList.add(new Pe(0, new PeProvisionerOverbooking(mips)));
+
+        int hostId = FogUtils.generateEntityId();
+        long storage = 1000000;
+        int bw = 10000;
+
+        PowerHost host = new PowerHost(
+                hostId,
+                new RamProvisionerSimple(ram),
+                new BwProvisionerOverbooking(bw),
+                storage,
+                peList,
+                new StreamOperatorScheduler(peList),
+                new FogLinearPowerModel(busyPower, idlePower)
+        );
+        List<Host> hostList = new ArrayList<Host>();
+        hostList.add(host);
+
+        FogDeviceCharacteristics characteristics = new FogDeviceCharacteristics(
+                "x86", "Linux", "Xen", host, 10.0, 3.0, 0.05, 0.001, 0.0);
+
+        FogDevice fogdevice = null;
+        try {
+            if (microservices)
+                fogdevice = new MicroserviceFogDevice(nodeName, characteristics, new AppModuleAllocationPolicy(hostList),
+                        new LinkedList<Storage>(), 10, upBw, downBw, 1250000, 0, ratePerMips, deviceType);
+            else
+                fogdevice = new FogDevice(nodeName, characteristics, new AppModuleAllocationPolicy(hostList),
+                        new LinkedList<Storage>(), 10, upBw, downBw, 0, ratePerMips);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        fogdevice.setLevel(level);
+        return fogdevice;
+    }
+
+    public List<FogDevice> getFogDevices() {
+        return fogDevices;
+    }
+
+    public List<FogDevice> getClientDevices() {
+        return clientDevices;
+    }
+
+    public List<Sensor> getSensors() {
+        return sensors;
+    }
+
+    public List<Actuator> getActuators() {
+        return actuators;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Calendar;
 import java.util.LinkedList;
 import java.util.List;
 
+import javax.swing.SwingUtilities;
+
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
@@ -24,6 +26,7 @@ import org.fog.entities.FogDevice;
 import org.fog.entities.FogDeviceCharacteristics;
 import org.fog.entities.Sensor;
 import org.fog.entities.Tuple;
+import org.fog.gui.dialog.SimulationDashboard;
 import org.fog.placement.Controller;
 import org.fog.placement.ModuleMapping;
 import org.fog.placement.ModulePlacementEdgewards;
@@ -34,6 +37,8 @@ import org.fog.utils.FogLinearPowerModel;
 import org.fog.utils.FogUtils;
 import org.fog.utils.TimeKeeper;
 import org.fog.utils.distribution.DeterministicDistribution;
+import org.fog.utils.metrics.MetricsPublisher;
+import org.fog.utils.metrics.MetricsRingBuffer;
 
 /**
  * Simulation setup for case study 1 - EEG Beam Tractor Game
@@ -46,6 +51,12 @@ public class VRGameFog {
 	static List<Actuator> actuators = new ArrayList<Actuator>();
 	
 	static boolean CLOUD = false;
+	/**
+	 * follows the simulation in the simulation dashboard, the metrics being sampled every
+	 * DASHBOARD_INTERVAL; the window closes with the simulation, at Config.MAX_SIMULATION_TIME
+	 */
+	static boolean LIVE_DASHBOARD = false;
+	static double DASHBOARD_INTERVAL = 50;
 	
 	static int numOfDepts = 2;
 	static int numOfMobilesPerDept = 5;
@@ -101,6 +112,16 @@ public class VRGameFog {
 					(CLOUD)?(new ModulePlacementMapping(fogDevices, application, moduleMapping))
 							:(new ModulePlacementEdgewards(fogDevices, sensors, actuators, application, moduleMapping)));
 
+			if(LIVE_DASHBOARD){
+				final MetricsRingBuffer buffer = new MetricsRingBuffer(1024);
+				new MetricsPublisher("metrics-publisher", fogDevices, DASHBOARD_INTERVAL, buffer);
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						new SimulationDashboard(buffer, null);
+					}
+				});
+			}
+
 			TimeKeeper.getInstance().setSimulationStartTime(Calendar.getInstance().getTimeInMillis());
 
 			CloudSim.startSimulation();
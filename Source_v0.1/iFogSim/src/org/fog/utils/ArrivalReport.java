@@ -0,0 +1,43 @@
+package org.fog.utils;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Payload of ARRIVAL_REPORT events and management tuples : the tuples that arrived at the microservices of a device
+ * during an autoscaling interval, sent by the device to its FON once per interval.
+ */
+public final class ArrivalReport implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int deviceId;
+	private final Map<String, Integer> arrivals;
+	private final Map<String, Long> cpuLengths;
+
+	/**
+	 * @param deviceId the device reporting
+	 * @param arrivals microservice -> number of tuples arrived
+	 * @param cpuLengths microservice -> total cpu length of the tuples arrived
+	 */
+	public ArrivalReport(int deviceId, Map<String, Integer> arrivals, Map<String, Long> cpuLengths) {
+		this.deviceId = deviceId;
+		this.arrivals = arrivals;
+		this.cpuLengths = cpuLengths;
+	}
+
+	public int getDeviceId() {
+		return deviceId;
+	}
+
+	public Map<String, Integer> getArrivals() {
+		return arrivals;
+	}
+
+	public double getMeanCpuLength(String microservice) {
+		Integer count = arrivals.get(microservice);
+		Long cpuLength = cpuLengths.get(microservice);
+		if (count == null || count == 0 || cpuLength == null)
+			return 0;
+		return (double) cpuLength / count;
+	}
+}
@@ -0,0 +1,22 @@
+package org.fog.utils;
+
+import org.fog.placement.LocationHandler;
+
+import java.io.Serializable;
+
+/**
+ * Payload of START_DYNAMIC_CLUSTERING events. Carries the location information used to find cluster members.
+ */
+public final class ClusteringRequest implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final LocationHandler locator;
+
+	public ClusteringRequest(LocationHandler locator) {
+		this.locator = locator;
+	}
+
+	public LocationHandler getLocator() {
+		return locator;
+	}
+}
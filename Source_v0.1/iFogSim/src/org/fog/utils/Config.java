@@ -23,4 +23,7 @@ public class Config {
 	public static double clusteringLatency = 2.0; //milisecond
 
 	public static final int TRANSMISSION_START_DELAY = 50;
+
+	// Check the payload type of each event processed by fog devices against EventPayloadRegistry
+	public static boolean VALIDATE_EVENT_PAYLOADS = false;
 }
@@ -0,0 +1,86 @@
+package org.fog.utils;
+
+import java.util.Arrays;
+
+import org.fog.entities.Tuple;
+
+/**
+ * Per device tuple counters used by load aware load balancers.
+ * Arrays are indexed by entity id, so updates on tuple send and completion are O(1) and do not allocate.
+ * A routed tuple carries the device it is counted on, so only the tuples routed by a load balancer
+ * leave the outstanding count of their device, once completed or dropped.
+ */
+public class DeviceLoadMonitor {
+
+	/**
+	 * tuples routed to the device by load balancers and not yet completed
+	 */
+	static int[] outstanding = new int[64];
+	/**
+	 * tuples submitted for execution on the device and not yet completed
+	 */
+	static int[] queueLength = new int[64];
+
+	public static void tupleRouted(Tuple tuple, int deviceId) {
+		routedTupleDone(tuple);
+		ensureCapacity(deviceId);
+		outstanding[deviceId]++;
+		tuple.setLoadBalancedDeviceId(deviceId);
+	}
+
+	public static void tupleQueued(int deviceId) {
+		ensureCapacity(deviceId);
+		queueLength[deviceId]++;
+	}
+
+	/**
+	 * Called when a device completes the execution of a tuple queued with {@link #tupleQueued(int)}.
+	 */
+	public static void tupleCompleted(int deviceId, Tuple tuple) {
+		ensureCapacity(deviceId);
+		if (queueLength[deviceId] > 0)
+			queueLength[deviceId]--;
+		routedTupleDone(tuple);
+	}
+
+	/**
+	 * Called when a tuple is dropped before its execution.
+	 */
+	public static void tupleDropped(Tuple tuple) {
+		routedTupleDone(tuple);
+	}
+
+	private static void routedTupleDone(Tuple tuple) {
+		int deviceId = tuple.getLoadBalancedDeviceId();
+		if (deviceId < 0)
+			return;
+		tuple.setLoadBalancedDeviceId(-1);
+		if (deviceId < outstanding.length && outstanding[deviceId] > 0)
+			outstanding[deviceId]--;
+	}
+
+	public static int getOutstanding(int deviceId) {
+		if (deviceId < 0 || deviceId >= outstanding.length)
+			return 0;
+		return outstanding[deviceId];
+	}
+
+	public static int getQueueLength(int deviceId) {
+		if (deviceId < 0 || deviceId >= queueLength.length)
+			return 0;
+		return queueLength[deviceId];
+	}
+
+	public static void reset() {
+		Arrays.fill(outstanding, 0);
+		Arrays.fill(queueLength, 0);
+	}
+
+	private static void ensureCapacity(int deviceId) {
+		if (deviceId >= outstanding.length) {
+			int size = Math.max(deviceId + 1, outstanding.length * 2);
+			outstanding = Arrays.copyOf(outstanding, size);
+			queueLength = Arrays.copyOf(queueLength, size);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package org.fog.utils;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.fog.application.AppModule;
+import org.fog.application.Application;
+import org.fog.entities.ManagementTuple;
+import org.fog.entities.PlacementRequest;
+import org.fog.entities.ServiceDiscoveryDelta;
+import org.fog.entities.Tuple;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Expected payload type of each {@link FogEvents} tag handled by fog devices.
+ * When {@link Config#VALIDATE_EVENT_PAYLOADS} is enabled, devices check every event they process against this registry
+ * so that a sender using a wrong payload fails at the receiving device with the tag and types involved, instead of a
+ * ClassCastException deep inside the handler. Tags that are not registered are not checked.
+ */
+public class EventPayloadRegistry {
+
+	/**
+	 * Marker for tags that are sent without data.
+	 */
+	public static final Class<?> NO_PAYLOAD = Void.class;
+
+	private static Map<Integer, Class<?>> payloadTypes = new HashMap<Integer, Class<?>>();
+
+	static {
+		register(FogEvents.TUPLE_ARRIVAL, Tuple.class);
+		register(FogEvents.LAUNCH_MODULE, AppModule.class);
+		register(FogEvents.APP_SUBMIT, Application.class);
+		register(FogEvents.ACTIVE_APP_UPDATE, Application.class);
+		register(FogEvents.LAUNCH_MODULE_INSTANCE, ModuleLaunchConfig.class);
+		register(FogEvents.MODULE_SEND, ModuleMigrationInfo.class);
+		register(FogEvents.MODULE_RECEIVE, ModuleMigrationInfo.class);
+		register(FogEvents.RELEASE_MODULE, AppModule.class);
+		register(FogEvents.START_DYNAMIC_CLUSTERING, ClusteringRequest.class);
+		register(FogEvents.RECEIVE_PR, PlacementRequest.class);
+		register(FogEvents.TRANSMIT_PR, PlacementRequest.class);
+		register(FogEvents.UPDATE_SERVICE_DISCOVERY, ServiceDiscoveryDelta.class);
+		register(FogEvents.MANAGEMENT_TUPLE_ARRIVAL, ManagementTuple.class);
+		register(FogEvents.UPDATE_RESOURCE_INFO, ResourceInfo.class);
+		register(FogEvents.PROCESS_PRS, NO_PAYLOAD);
+		register(FogEvents.AUTOSCALE, NO_PAYLOAD);
+		register(FogEvents.REPORT_ARRIVALS, NO_PAYLOAD);
+		register(FogEvents.ARRIVAL_REPORT, ArrivalReport.class);
+	}
+
+	public static void register(int tag, Class<?> payloadType) {
+		payloadTypes.put(tag, payloadType);
+	}
+
+	public static Class<?> getPayloadType(int tag) {
+		return payloadTypes.get(tag);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the payload of the event does not match the type registered for its tag
+	 */
+	public static void validate(SimEvent ev) {
+		Class<?> expected = payloadTypes.get(ev.getTag());
+		if (expected == null)
+			return;
+		Object data = ev.getData();
+		if (expected == NO_PAYLOAD) {
+			if (data != null)
+				throw new IllegalArgumentException(describe(ev) + " expects no payload but received " + data.getClass().getName());
+		} else if (!expected.isInstance(data)) {
+			throw new IllegalArgumentException(describe(ev) + " expects " + expected.getName() + " but received "
+					+ (data == null ? "null" : data.getClass().getName()));
+		}
+	}
+
+	private static String describe(SimEvent ev) {
+		return "Event " + ev.getTag() + " from " + CloudSim.getEntityName(ev.getSource()) + " to " + CloudSim.getEntityName(ev.getDestination());
+	}
+}
@@ -0,0 +1,50 @@
+package org.fog.utils;
+
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CheckpointState;
+
+/**
+ * The static state of iFogSim saved in simulation checkpoints: the id generators, the TimeKeeper
+ * and the monitors. Configuration fields such as those of Config are not saved, so they can be
+ * changed before running a restored simulation.
+ */
+class FogCheckpointState implements CheckpointState {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int tupleId;
+	private final int entityId;
+	private final int actualTupleId;
+	private final Map<String, GeoCoverage> appIdToGeoCoverageMap;
+	private final TimeKeeper timeKeeper;
+	private final double networkUsage;
+	private final double migrationDelay;
+	private final int[] outstanding;
+	private final int[] queueLength;
+
+	FogCheckpointState() {
+		tupleId = FogUtils.TUPLE_ID;
+		entityId = FogUtils.ENTITY_ID;
+		actualTupleId = FogUtils.ACTUAL_TUPLE_ID;
+		appIdToGeoCoverageMap = FogUtils.appIdToGeoCoverageMap;
+		timeKeeper = TimeKeeper.instance;
+		networkUsage = NetworkUsageMonitor.networkUsage;
+		migrationDelay = MigrationDelayMonitor.migrationDelay;
+		outstanding = DeviceLoadMonitor.outstanding;
+		queueLength = DeviceLoadMonitor.queueLength;
+	}
+
+	@Override
+	public void restore() {
+		FogUtils.TUPLE_ID = tupleId;
+		FogUtils.ENTITY_ID = entityId;
+		FogUtils.ACTUAL_TUPLE_ID = actualTupleId;
+		FogUtils.appIdToGeoCoverageMap = appIdToGeoCoverageMap;
+		TimeKeeper.instance = timeKeeper;
+		NetworkUsageMonitor.networkUsage = networkUsage;
+		MigrationDelayMonitor.migrationDelay = migrationDelay;
+		DeviceLoadMonitor.outstanding = outstanding;
+		DeviceLoadMonitor.queueLength = queueLength;
+	}
+}
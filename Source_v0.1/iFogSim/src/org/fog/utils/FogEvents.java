@@ -45,5 +45,12 @@ public class FogEvents {
     public static final int UPDATE_RESOURCE_INFO = BASE + 37;
     //---------------------------------------------
     public static final int START_DYNAMIC_CLUSTERING = BASE + 38;
+    //---------------------------------------------
+    public static final int AUTOSCALE = BASE + 39;
+    //---------------------------------------------
+    public static final int METRICS_SAMPLE = BASE + 40;
+    //---------------------------------------------
+    public static final int REPORT_ARRIVALS = BASE + 41;
+    public static final int ARRIVAL_REPORT = BASE + 42;
 
 }
@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.power.models.PowerModel;
  * @since CloudSim Toolkit 2.0
  */
 public class FogLinearPowerModel implements PowerModel {
+	private static final long serialVersionUID = 1L;
 
 	/** The max power. */
 	private double maxPower;
@@ -3,10 +3,24 @@ package org.fog.utils;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CheckpointState;
+import org.cloudbus.cloudsim.core.CheckpointStateProvider;
+import org.cloudbus.cloudsim.core.CloudSim;
+
 public class FogUtils {
-	private static int TUPLE_ID = 1;
-	private static int ENTITY_ID = 1;
-	private static int ACTUAL_TUPLE_ID = 1;
+	static int TUPLE_ID = 1;
+	static int ENTITY_ID = 1;
+	static int ACTUAL_TUPLE_ID = 1;
+	
+	static {
+		// save the static state of iFogSim with simulation checkpoints
+		CloudSim.addCheckpointStateProvider(new CheckpointStateProvider() {
+			@Override
+			public CheckpointState capture() {
+				return new FogCheckpointState();
+			}
+		});
+	}
 	
 	public static int generateTupleId(){
 		return TUPLE_ID++;
@@ -1,6 +1,9 @@
 package org.fog.utils;
 
-public class GeoCoverage {
+import java.io.Serializable;
+
+public class GeoCoverage implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private double lat_l;
 	private double lat_u;
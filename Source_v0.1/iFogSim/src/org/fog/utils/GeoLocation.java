@@ -1,6 +1,9 @@
 package org.fog.utils;
 
-public class GeoLocation {
+import java.io.Serializable;
+
+public class GeoLocation implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private double latitude;
 	private double longitude;
@@ -0,0 +1,89 @@
+package org.fog.utils;
+
+import java.io.Serializable;
+
+/**
+ * Forecasts the request rate of a microservice using Holt's double exponential smoothing (level + trend).
+ * Forecast error over a sliding window of recent observations is added as headroom so that
+ * instances are launched ahead of bursts rather than after them.
+ */
+public class HoltRateForecaster implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private double alpha;
+    private double beta;
+
+    private double level;
+    private double trend;
+    private boolean initialized = false;
+
+    /**
+     * sliding window of one step ahead forecast errors (ring buffer)
+     */
+    private double[] errors;
+    private int errorCount = 0;
+    private int errorPos = 0;
+
+    public HoltRateForecaster(double alpha, double beta, int windowSize) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.errors = new double[Math.max(1, windowSize)];
+    }
+
+    /**
+     * @param rate observed request rate for the last interval (tuples per simulation time unit)
+     */
+    public void addObservation(double rate) {
+        if (!initialized) {
+            level = rate;
+            trend = 0;
+            initialized = true;
+            return;
+        }
+        double expected = level + trend;
+        errors[errorPos] = rate - expected;
+        errorPos = (errorPos + 1) % errors.length;
+        if (errorCount < errors.length)
+            errorCount++;
+
+        double previousLevel = level;
+        level = alpha * rate + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+    }
+
+    /**
+     * @param horizon number of intervals ahead
+     * @return forecast rate plus the root mean square of the recent forecast errors
+     */
+    public double forecast(double horizon) {
+        if (!initialized)
+            return 0;
+        double value = level + horizon * trend;
+        return Math.max(0, value) + getErrorDeviation();
+    }
+
+    /**
+     * @return root mean square of the recent one step ahead forecast errors. Unlike a standard deviation
+     * it includes their mean, so a forecast that keeps lagging behind the rate gets more headroom
+     */
+    public double getErrorDeviation() {
+        if (errorCount == 0)
+            return 0;
+        double sum = 0;
+        for (int i = 0; i < errorCount; i++)
+            sum += errors[i] * errors[i];
+        return Math.sqrt(sum / errorCount);
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    public double getTrend() {
+        return trend;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+}
@@ -0,0 +1,320 @@
+package org.fog.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A streaming JSON tokenizer: the document is read token by token from a reader, so only the current
+ * token is held in memory, and the line and column of each token are known for error messages.
+ */
+class JsonPullParser implements Closeable {
+
+	enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, COLON, COMMA, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+	}
+
+	private final Reader reader;
+	private final String source;
+	private final char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+
+	/**
+	 * position of the next character
+	 */
+	private int line = 1;
+	private int column = 1;
+
+	/**
+	 * position of the current token
+	 */
+	private int tokenLine;
+	private int tokenColumn;
+
+	private Token token;
+	private final StringBuilder text = new StringBuilder();
+
+	JsonPullParser(Reader reader, String source) {
+		this.reader = reader;
+		this.source = source;
+	}
+
+	/**
+	 * Reads the next token.
+	 * @return the token
+	 * @throws IOException
+	 */
+	Token next() throws IOException {
+		int c = skipWhitespace();
+		tokenLine = line;
+		tokenColumn = column;
+		if (c < 0)
+			return token = Token.END_DOCUMENT;
+		switch (c) {
+		case '{':
+			read();
+			return token = Token.BEGIN_OBJECT;
+		case '}':
+			read();
+			return token = Token.END_OBJECT;
+		case '[':
+			read();
+			return token = Token.BEGIN_ARRAY;
+		case ']':
+			read();
+			return token = Token.END_ARRAY;
+		case ':':
+			read();
+			return token = Token.COLON;
+		case ',':
+			read();
+			return token = Token.COMMA;
+		case '"':
+			readString();
+			return token = Token.STRING;
+		case 't':
+			readLiteral("true");
+			return token = Token.TRUE;
+		case 'f':
+			readLiteral("false");
+			return token = Token.FALSE;
+		case 'n':
+			readLiteral("null");
+			return token = Token.NULL;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				readNumber();
+				return token = Token.NUMBER;
+			}
+			throw error("Unexpected character '" + (char) c + "'");
+		}
+	}
+
+	/**
+	 * Reads the next token and checks its type.
+	 */
+	void expect(Token expected) throws IOException {
+		if (next() != expected)
+			throw error("Expected " + describe(expected) + " but found " + describe(token));
+	}
+
+	/**
+	 * Skips the value starting with the current token, including nested objects and arrays.
+	 */
+	void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			switch (token) {
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+				depth++;
+				break;
+			case END_OBJECT:
+			case END_ARRAY:
+				depth--;
+				break;
+			case END_DOCUMENT:
+				throw error("Unexpected end of document");
+			default:
+				break;
+			}
+			if (depth > 0)
+				next();
+		} while (depth > 0);
+	}
+
+	Token getToken() {
+		return token;
+	}
+
+	/**
+	 * Gets the value of the current string, number or literal token: a String, a Long for integers, a
+	 * Double for other numbers, a Boolean or null.
+	 */
+	Object getValue() throws IOException {
+		switch (token) {
+		case STRING:
+			return text.toString();
+		case NUMBER:
+			String number = text.toString();
+			try {
+				if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+					try {
+						return Long.valueOf(number);
+					} catch (NumberFormatException e) {
+						// too large for a long
+					}
+				}
+				return Double.valueOf(number);
+			} catch (NumberFormatException e) {
+				throw error("Invalid number " + number);
+			}
+		case TRUE:
+			return Boolean.TRUE;
+		case FALSE:
+			return Boolean.FALSE;
+		case NULL:
+			return null;
+		default:
+			throw error("Expected a value but found " + describe(token));
+		}
+	}
+
+	String getText() {
+		return text.toString();
+	}
+
+	int getLine() {
+		return tokenLine;
+	}
+
+	int getColumn() {
+		return tokenColumn;
+	}
+
+	String getSource() {
+		return source;
+	}
+
+	/**
+	 * Creates an error at the position of the current token.
+	 */
+	TopologyFormatException error(String message) {
+		return new TopologyFormatException(source, tokenLine, tokenColumn, message);
+	}
+
+	static String describe(Token token) {
+		switch (token) {
+		case BEGIN_OBJECT:
+			return "'{'";
+		case END_OBJECT:
+			return "'}'";
+		case BEGIN_ARRAY:
+			return "'['";
+		case END_ARRAY:
+			return "']'";
+		case COLON:
+			return "':'";
+		case COMMA:
+			return "','";
+		case END_DOCUMENT:
+			return "end of document";
+		default:
+			return token.name().toLowerCase();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private int peekChar() throws IOException {
+		if (position == limit) {
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position];
+	}
+
+	private int read() throws IOException {
+		int c = peekChar();
+		if (c < 0)
+			return c;
+		position++;
+		if (c == '\n') {
+			line++;
+			column = 1;
+		} else {
+			column++;
+		}
+		return c;
+	}
+
+	private int skipWhitespace() throws IOException {
+		int c = peekChar();
+		while (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\uFEFF') {
+			read();
+			c = peekChar();
+		}
+		return c;
+	}
+
+	private void readString() throws IOException {
+		text.setLength(0);
+		read();
+		while (true) {
+			int c = read();
+			if (c < 0 || c == '\n')
+				throw error("Unterminated string");
+			if (c == '"')
+				return;
+			if (c == '\\') {
+				c = read();
+				switch (c) {
+				case '"':
+				case '\\':
+				case '/':
+					text.append((char) c);
+					break;
+				case 'b':
+					text.append('\b');
+					break;
+				case 'f':
+					text.append('\f');
+					break;
+				case 'n':
+					text.append('\n');
+					break;
+				case 'r':
+					text.append('\r');
+					break;
+				case 't':
+					text.append('\t');
+					break;
+				case 'u':
+					int code = 0;
+					for (int i = 0; i < 4; i++) {
+						int digit = Character.digit(read(), 16);
+						if (digit < 0)
+							throw error("Invalid unicode escape in string");
+						code = (code << 4) | digit;
+					}
+					text.append((char) code);
+					break;
+				default:
+					throw error("Invalid escape in string");
+				}
+			} else if (c < 0x20) {
+				throw error("Control character in string");
+			} else {
+				text.append((char) c);
+			}
+		}
+	}
+
+	private void readNumber() throws IOException {
+		text.setLength(0);
+		int c = peekChar();
+		while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+			text.append((char) read());
+			c = peekChar();
+		}
+	}
+
+	private void readLiteral(String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (read() != literal.charAt(i))
+				throw error("Invalid literal, expected " + literal);
+		}
+		int c = peekChar();
+		if (Character.isLetterOrDigit(c))
+			throw error("Invalid literal, expected " + literal);
+	}
+
+}
@@ -1,17 +1,19 @@
 package org.fog.utils;
 
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.power.models.PowerModelLinear;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import org.cloudbus.cloudsim.sdn.overbooking.BwProvisionerOverbooking;
@@ -25,11 +27,9 @@ import org.fog.policy.AppModuleAllocationPolicy;
 import org.fog.scheduler.StreamOperatorScheduler;
 import org.fog.utils.distribution.DeterministicDistribution;
 import org.fog.utils.distribution.Distribution;
+import org.fog.utils.distribution.ExponentialDistribution;
 import org.fog.utils.distribution.NormalDistribution;
 import org.fog.utils.distribution.UniformDistribution;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
 
 public class JsonToTopology {
 
@@ -37,117 +37,81 @@ public class JsonToTopology {
 	private static List<Sensor> sensors = new ArrayList<Sensor>();
 	private static List<Actuator> actuators = new ArrayList<Actuator>();
  
+	/**
+	 * Entities by lower case name, the first entity of a name being kept as with the former linear lookups
+	 */
+	private static Map<String, FogDevice> fogDevicesByName = new HashMap<String, FogDevice>();
+	private static Map<String, Sensor> sensorsByName = new HashMap<String, Sensor>();
+	private static Map<String, Actuator> actuatorsByName = new HashMap<String, Actuator>();
+	
+	/**
+	 * Links read before one of their end points, connected once the whole file is read
+	 */
+	private static List<TopologyRecord> pendingLinks = new ArrayList<TopologyRecord>();
+	
 	private static boolean isFogDevice(String name){
-		for(FogDevice fogDevice : fogDevices){
-			if(fogDevice.getName().equalsIgnoreCase(name))
-				return true;
-		}
-		return false;
-		
+		return fogDevicesByName.containsKey(name.toLowerCase(Locale.ROOT));
 	}
 	
 	private static FogDevice getFogDevice(String name){
-		for(FogDevice fogDevice : fogDevices){
-			if(fogDevice.getName().equalsIgnoreCase(name))
-				return fogDevice;
-		}
-		return null;
+		return fogDevicesByName.get(name.toLowerCase(Locale.ROOT));
 	}
 	
 	private static boolean isActuator(String name){
-		for(Actuator actuator : actuators){
-			if(actuator.getName().equalsIgnoreCase(name))
-				return true;
-		}
-		return false;
+		return actuatorsByName.containsKey(name.toLowerCase(Locale.ROOT));
 	}
 	
 	private static Actuator getActuator(String name){
-		for(Actuator actuator : actuators){
-			if(actuator.getName().equalsIgnoreCase(name))
-				return actuator;
-		}
-		return null;
+		return actuatorsByName.get(name.toLowerCase(Locale.ROOT));
 	}
 	
 	private static boolean isSensor(String name){
-		for(Sensor sensor : sensors){
-			if(sensor.getName().equalsIgnoreCase(name))
-				return true;
-		}
-		return false;
+		return sensorsByName.containsKey(name.toLowerCase(Locale.ROOT));
 	}
 	
 	private static Sensor getSensor(String name){
-		for(Sensor sensor : sensors){
-			if(sensor.getName().equalsIgnoreCase(name))
-				return sensor;
-		}
-		return null;
+		return sensorsByName.get(name.toLowerCase(Locale.ROOT));
+	}
+	
+	private static boolean isEntity(String name){
+		return isFogDevice(name) || isSensor(name) || isActuator(name);
 	}
 	
-	public static PhysicalTopology getPhysicalTopology(int userId, String appId, String physicalTopologyFile) throws Exception{
+	/**
+	 * Reads a physical topology file. The file is streamed: entities are created as their nodes are read
+	 * and checked against {@link TopologySchema#physicalTopology()}, so large generated topologies are
+	 * loaded in bounded memory, and a malformed file fails with the line and column of the error.
+	 * The power model of a fog device is linear between its optional "idlePower" and "busyPower".
+	 */
+	public static PhysicalTopology getPhysicalTopology(final int userId, final String appId, String physicalTopologyFile) throws Exception{
 				
 		fogDevices = new ArrayList<FogDevice>();
 		sensors = new ArrayList<Sensor>();
 		actuators = new ArrayList<Actuator>();
-		
+		fogDevicesByName = new HashMap<String, FogDevice>();
+		sensorsByName = new HashMap<String, Sensor>();
+		actuatorsByName = new HashMap<String, Actuator>();
+		pendingLinks = new ArrayList<TopologyRecord>();
 		
 		try {
-			JSONObject doc = (JSONObject) JSONValue.parse(new FileReader(physicalTopologyFile));
-    		JSONArray nodes = (JSONArray) doc.get("nodes");
-    		@SuppressWarnings("unchecked")
-			Iterator<JSONObject> iter =nodes.iterator(); 
-			while(iter.hasNext()){
-				JSONObject node = iter.next();
-				String nodeType = (String) node.get("type");
-				String nodeName = (String) node.get("name");
-				
-				if(nodeType.equalsIgnoreCase("FOG_DEVICE")){
-					long mips = (Long) node.get("mips");
-					int ram = new BigDecimal((Long)node.get("ram")).intValueExact();
-					long upBw = new BigDecimal((Long)node.get("upBw")).intValueExact();
-					long downBw = new BigDecimal((Long)node.get("downBw")).intValueExact();
-					int level = new BigDecimal((Long)node.get("level")).intValue();
-					double ratePerMips = new BigDecimal((Double)node.get("ratePerMips")).doubleValue();
-					
-					FogDevice fogDevice = createFogDevice(nodeName, mips, ram, upBw, downBw, level, ratePerMips);
-					fogDevice.setParentId(-1);
-					
-					fogDevices.add(fogDevice);
-
-				} else if(nodeType.equals("SENSOR")){
-					String sensorType = node.get("sensorType").toString();
-					int distType = new BigDecimal((Long)node.get("distribution")).intValue();
-					Distribution distribution = null;
-					if(distType == Distribution.DETERMINISTIC)
-						distribution = new DeterministicDistribution(new BigDecimal((Double)node.get("value")).doubleValue());
-					else if(distType == Distribution.NORMAL){
-						distribution = new NormalDistribution(new BigDecimal((Double)node.get("mean")).doubleValue(), 
-								new BigDecimal((Double)node.get("stdDev")).doubleValue());
-					} else if(distType == Distribution.UNIFORM){
-						distribution = new UniformDistribution(new BigDecimal((Double)node.get("min")).doubleValue(), 
-								new BigDecimal((Double)node.get("max")).doubleValue());
-					}
-					System.out.println("Sensor type : "+sensorType);
-					sensors.add(new Sensor(nodeName, sensorType, userId, appId, distribution));
-				} else if(nodeType.equals("ACTUATOR")){
-					String actuatorType = node.get("actuatorType").toString();
-					actuators.add(new Actuator(nodeName, userId, appId, actuatorType));
+			new TopologyReader(TopologySchema.physicalTopology()).read(physicalTopologyFile, new TopologyReader.Handler() {
+				@Override
+				public void node(TopologyRecord node) throws IOException {
+					addNode(node, userId, appId);
 				}
-			}
-				
-			JSONArray links = (JSONArray) doc.get("links");
-			@SuppressWarnings("unchecked")
-			Iterator<JSONObject> linksIter =links.iterator(); 
-			while(linksIter.hasNext()){
-				JSONObject link = linksIter.next();
-				String src = (String) link.get("source");  
-				String dst = (String) link.get("destination");
-				double lat = (Double) link.get("latency");
-				
-				connectEntities(src, dst, lat);
-			}
+				@Override
+				public void link(TopologyRecord link) {
+					String src = link.getString("source");
+					String dst = link.getString("destination");
+					if(pendingLinks.isEmpty() && isEntity(src) && isEntity(dst))
+						connectEntities(src, dst, link.getDouble("latency"));
+					else
+						pendingLinks.add(link);
+				}
+			});
+			for(TopologyRecord link : pendingLinks)
+				connectEntities(link.getString("source"), link.getString("destination"), link.getDouble("latency"));
+			pendingLinks.clear();
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		}
@@ -157,8 +121,63 @@ public class JsonToTopology {
 		physicalTopology.setSensors(sensors);
 		return physicalTopology;
 	}
+	
+	private static void addNode(TopologyRecord node, int userId, String appId) throws TopologyFormatException {
+		String nodeType = node.getString("type");
+		String nodeName = node.getString("name");
+		
+		if(nodeType.equalsIgnoreCase("FOG_DEVICE")){
+			long mips = node.getLong("mips");
+			int ram = node.getInt("ram");
+			long upBw = node.getInt("upBw");
+			long downBw = node.getInt("downBw");
+			int level = node.getInt("level");
+			double ratePerMips = node.getDouble("ratePerMips");
+			// the power is optional, the devices without it having the former fixed power model
+			PowerModel powerModel;
+			if(node.has("busyPower") && node.has("idlePower"))
+				powerModel = new FogLinearPowerModel(node.getDouble("busyPower"), node.getDouble("idlePower"));
+			else
+				powerModel = new PowerModelLinear(107.339, 83.4333);
+			
+			FogDevice fogDevice = createFogDevice(nodeName, mips, ram, upBw, downBw, level, ratePerMips, powerModel);
+			fogDevice.setParentId(-1);
+			
+			fogDevices.add(fogDevice);
+			if(!isFogDevice(nodeName))
+				fogDevicesByName.put(nodeName.toLowerCase(Locale.ROOT), fogDevice);
+
+		} else if(nodeType.equalsIgnoreCase("SENSOR")){
+			String sensorType = node.getString("sensorType");
+			int distType = node.getInt("distribution");
+			Distribution distribution = null;
+			if(distType == Distribution.DETERMINISTIC)
+				distribution = new DeterministicDistribution(node.getDouble("value"));
+			else if(distType == Distribution.NORMAL){
+				distribution = new NormalDistribution(node.getDouble("mean"), node.getDouble("stdDev"));
+			} else if(distType == Distribution.UNIFORM){
+				distribution = new UniformDistribution(node.getDouble("min"), node.getDouble("max"));
+			} else if(distType == Distribution.EXPONENTIAL){
+				distribution = new ExponentialDistribution(node.getDouble("mean"));
+			} else {
+				throw node.error("distribution", "Unsupported sensor distribution "+distType);
+			}
+			System.out.println("Sensor type : "+sensorType);
+			Sensor sensor = new Sensor(nodeName, sensorType, userId, appId, distribution);
+			sensors.add(sensor);
+			if(!isSensor(nodeName))
+				sensorsByName.put(nodeName.toLowerCase(Locale.ROOT), sensor);
+		} else if(nodeType.equalsIgnoreCase("ACTUATOR")){
+			String actuatorType = node.getString("actuatorType");
+			Actuator actuator = new Actuator(nodeName, userId, appId, actuatorType);
+			actuators.add(actuator);
+			if(!isActuator(nodeName))
+				actuatorsByName.put(nodeName.toLowerCase(Locale.ROOT), actuator);
+		}
+	}
+	
 	private static FogDevice createFogDevice(String nodeName, long mips,
-			int ram, long upBw, long downBw, int level, double ratePerMips) {
+			int ram, long upBw, long downBw, int level, double ratePerMips, PowerModel powerModel) {
 		
 		List<Pe> peList = new ArrayList<Pe>();
 
@@ -176,7 +195,7 @@ public class JsonToTopology {
 				storage,
 				peList,
 				new StreamOperatorScheduler(peList),
-				new PowerModelLinear(107.339, 83.4333)
+				powerModel
 			);
 
 		List<Host> hostList = new ArrayList<Host>();
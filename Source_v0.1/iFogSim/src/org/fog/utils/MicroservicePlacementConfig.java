@@ -14,9 +14,25 @@ public class MicroservicePlacementConfig {
     // For periodic placement
     public static final double PLACEMENT_INTERVAL = 1;
 
+    // Load balancer used by controller components (see LoadBalancerFactory)
+    public static int LOAD_BALANCER = 1;
+
     //Resource info sharing among cluster nodes
     public static Boolean ENABLE_RESOURCE_DATA_SHARING = false;
     public static double MODULE_DEPLOYMENT_TIME = 0.0;
 
+    // Predictive autoscaling of microservice instances by the FON
+    public static boolean ENABLE_AUTOSCALING = false;
+    public static double AUTOSCALING_INTERVAL = 10;
+    public static double AUTOSCALING_P95_LATENCY_TARGET = 50;
+    public static double AUTOSCALING_ALPHA = 0.5; // level smoothing
+    public static double AUTOSCALING_BETA = 0.3; // trend smoothing
+    public static int AUTOSCALING_WINDOW = 10; // intervals used for forecast error
+    public static double AUTOSCALING_FORECAST_HORIZON = 2; // intervals ahead
+    public static double AUTOSCALING_SCALE_IN_THRESHOLD = 0.8;
+    public static double AUTOSCALING_COOLDOWN = 100; // minimum time after a scaling action before scaling in
+    public static double AUTOSCALING_DRAIN_TIME = 5; // time between service discovery removal and instance release
+    public static int AUTOSCALING_MAX_INSTANCES = 10; // instances launched by the autoscaler per microservice, on top of the placed ones
+
 
 }
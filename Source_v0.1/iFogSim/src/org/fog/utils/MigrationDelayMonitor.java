@@ -2,7 +2,7 @@ package org.fog.utils;
 
 public class MigrationDelayMonitor {
 	
-	private static double migrationDelay = 0.0;
+	static double migrationDelay = 0.0;
 	
 	public static double getMigrationDelay() {
 		return migrationDelay;
@@ -1,8 +1,11 @@
 package org.fog.utils;
 
+import java.io.Serializable;
+
 import org.fog.application.AppModule;
 
-public class ModuleLaunchConfig {
+public class ModuleLaunchConfig implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private AppModule module;
 	private int instanceCount;
@@ -0,0 +1,40 @@
+package org.fog.utils;
+
+import org.fog.application.AppModule;
+import org.fog.application.Application;
+
+import java.io.Serializable;
+
+/**
+ * Payload of MODULE_SEND and MODULE_RECEIVE events issued by the mobility controllers.
+ * Application is only required on the receiving device, so it is null for MODULE_SEND.
+ */
+public final class ModuleMigrationInfo implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final AppModule module;
+	private final double delay;
+	private final Application application;
+
+	public ModuleMigrationInfo(AppModule module, double delay) {
+		this(module, delay, null);
+	}
+
+	public ModuleMigrationInfo(AppModule module, double delay, Application application) {
+		this.module = module;
+		this.delay = delay;
+		this.application = application;
+	}
+
+	public AppModule getModule() {
+		return module;
+	}
+
+	public double getDelay() {
+		return delay;
+	}
+
+	public Application getApplication() {
+		return application;
+	}
+}
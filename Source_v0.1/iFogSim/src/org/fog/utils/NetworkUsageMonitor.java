@@ -2,7 +2,7 @@ package org.fog.utils;
 
 public class NetworkUsageMonitor {
 
-	private static double networkUsage = 0.0;
+	static double networkUsage = 0.0;
 	
 	public static void sendingTuple(double latency, double tupleNwSize){
 		networkUsage += latency*tupleNwSize;
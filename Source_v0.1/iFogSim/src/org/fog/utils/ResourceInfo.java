@@ -0,0 +1,28 @@
+package org.fog.utils;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Payload of UPDATE_RESOURCE_INFO events and RESOURCE_UPDATE management tuples : available resources of a device.
+ * The same instance is shared by all the cluster members it is sent to, so receivers must not modify it.
+ */
+public final class ResourceInfo implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int deviceId;
+	private final Map<String, Double> resources;
+
+	public ResourceInfo(int deviceId, Map<String, Double> resources) {
+		this.deviceId = deviceId;
+		this.resources = resources;
+	}
+
+	public int getDeviceId() {
+		return deviceId;
+	}
+
+	public Map<String, Double> getResources() {
+		return resources;
+	}
+}
@@ -0,0 +1,56 @@
+package org.fog.utils;
+
+import org.fog.application.Application;
+
+/**
+ * Output of the microservice autoscaler. Describes one instance to be launched on or released from a device.
+ */
+public class ScalingDecision {
+
+	public static final int SCALE_OUT = 1;
+	public static final int SCALE_IN = 2;
+
+	private Application application;
+	private String microservice;
+	private int deviceId;
+	private int action;
+
+	public ScalingDecision(Application application, String microservice, int deviceId, int action) {
+		setApplication(application);
+		setMicroservice(microservice);
+		setDeviceId(deviceId);
+		setAction(action);
+	}
+
+	public Application getApplication() {
+		return application;
+	}
+
+	public void setApplication(Application application) {
+		this.application = application;
+	}
+
+	public String getMicroservice() {
+		return microservice;
+	}
+
+	public void setMicroservice(String microservice) {
+		this.microservice = microservice;
+	}
+
+	public int getDeviceId() {
+		return deviceId;
+	}
+
+	public void setDeviceId(int deviceId) {
+		this.deviceId = deviceId;
+	}
+
+	public int getAction() {
+		return action;
+	}
+
+	public void setAction(int action) {
+		this.action = action;
+	}
+}
@@ -1,5 +1,7 @@
 package org.fog.utils;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,9 +10,10 @@ import org.apache.commons.math3.util.Pair;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.fog.entities.Tuple;
 
-public class TimeKeeper {
+public class TimeKeeper implements Serializable {
+	private static final long serialVersionUID = 1L;
 
-	private static TimeKeeper instance;
+	static TimeKeeper instance;
 	
 	private long simulationStartTime;
 	private int count; 
@@ -26,6 +29,13 @@ public class TimeKeeper {
 
 	private Map<Integer, Integer> loopIdToLatencyQoSSuccessCount = new HashMap<>();
 
+	/**
+	 * delays of the loops completed since the last sample of the metrics publisher, null when the loop
+	 * delays are not sampled
+	 */
+	private double[] sampledLoopDelays;
+	private int sampledLoopDelayCount;
+
 	// loopID -> < Microservice -> < deviceID, <requestCount,totalExecutionTime > >
 	private Map<Integer, Map<String, Map<Integer, Pair<Integer, Double>>>> costCalcData = new HashMap<>();
 	// last execution time
@@ -59,6 +69,53 @@ public class TimeKeeper {
 		}
 	}
 	
+	/**
+	 * Records the delay of a completed execution of an application loop in the average delay of the loop.
+	 * @param loopId the id of the loop
+	 * @param delay the time between the emission of the tuple starting the loop and the end of the loop
+	 */
+	public void loopCompleted(int loopId, double delay){
+		if(!loopIdToCurrentAverage.containsKey(loopId)){
+			loopIdToCurrentAverage.put(loopId, 0.0);
+			loopIdToCurrentNum.put(loopId, 0);
+		}
+		double currentAverage = loopIdToCurrentAverage.get(loopId);
+		int currentCount = loopIdToCurrentNum.get(loopId);
+		double newAverage = (currentAverage*currentCount + delay)/(currentCount+1);
+		loopIdToCurrentAverage.put(loopId, newAverage);
+		loopIdToCurrentNum.put(loopId, currentCount+1);
+		if(sampledLoopDelays != null){
+			if(sampledLoopDelayCount == sampledLoopDelays.length)
+				sampledLoopDelays = Arrays.copyOf(sampledLoopDelays, sampledLoopDelayCount*2);
+			sampledLoopDelays[sampledLoopDelayCount++] = delay;
+		}
+	}
+	
+	/**
+	 * Starts keeping the delays of the completed loops until they are taken by {@link #takeSampledLoopDelays()}.
+	 */
+	public void startSamplingLoopDelays(){
+		if(sampledLoopDelays == null)
+			sampledLoopDelays = new double[64];
+	}
+	
+	public void stopSamplingLoopDelays(){
+		sampledLoopDelays = null;
+		sampledLoopDelayCount = 0;
+	}
+	
+	/**
+	 * Gets the delays of the loops completed since the last call, in their order of completion.
+	 * @return the delays, empty if the loop delays are not sampled
+	 */
+	public double[] takeSampledLoopDelays(){
+		if(sampledLoopDelays == null)
+			return new double[0];
+		double[] delays = Arrays.copyOf(sampledLoopDelays, sampledLoopDelayCount);
+		sampledLoopDelayCount = 0;
+		return delays;
+	}
+	
 	public Map<Integer, List<Integer>> loopIdToTupleIds(){
 		return getInstance().getLoopIdToTupleIds();
 	}
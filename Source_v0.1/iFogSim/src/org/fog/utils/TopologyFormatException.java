@@ -0,0 +1,35 @@
+package org.fog.utils;
+
+import java.io.IOException;
+
+/**
+ * A topology file that is not valid JSON or does not match its schema, with the position of the error.
+ */
+public class TopologyFormatException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String source;
+	private final int line;
+	private final int column;
+
+	public TopologyFormatException(String source, int line, int column, String message) {
+		super(source + ":" + line + ":" + column + ": " + message);
+		this.source = source;
+		this.line = line;
+		this.column = column;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+}
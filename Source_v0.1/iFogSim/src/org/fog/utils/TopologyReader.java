@@ -0,0 +1,136 @@
+package org.fog.utils;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.fog.utils.JsonPullParser.Token;
+
+/**
+ * Reads a topology file of the form {"nodes":[...], "links":[...]} record by record. Each node and link
+ * is validated against a schema and handed to a handler as soon as it is read, so the memory used does
+ * not depend on the size of the file, and errors report the line and column where they occur.
+ */
+public class TopologyReader {
+
+	public interface Handler {
+
+		void node(TopologyRecord node) throws IOException;
+
+		void link(TopologyRecord link) throws IOException;
+
+	}
+
+	private final TopologySchema schema;
+
+	public TopologyReader(TopologySchema schema) {
+		this.schema = schema;
+	}
+
+	public void read(String fileName, Handler handler) throws IOException {
+		Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8));
+		read(reader, fileName, handler);
+	}
+
+	/**
+	 * Reads a topology and closes the reader.
+	 * @param reader the topology
+	 * @param source the name of the topology in error messages
+	 * @param handler receives the nodes and links in the order of the file
+	 * @throws TopologyFormatException if the topology is not valid
+	 * @throws IOException
+	 */
+	public void read(Reader reader, String source, Handler handler) throws IOException {
+		JsonPullParser parser = new JsonPullParser(reader, source);
+		try {
+			parser.expect(Token.BEGIN_OBJECT);
+			boolean nodes = false;
+			if (parser.next() != Token.END_OBJECT) {
+				while (true) {
+					if (parser.getToken() != Token.STRING)
+						throw parser.error("Expected a field name but found " + JsonPullParser.describe(parser.getToken()));
+					String key = parser.getText();
+					parser.expect(Token.COLON);
+					parser.next();
+					if (key.equals("nodes")) {
+						readArray(parser, handler, true);
+						nodes = true;
+					} else if (key.equals("links")) {
+						readArray(parser, handler, false);
+					} else {
+						parser.skipValue();
+					}
+					if (parser.next() == Token.END_OBJECT)
+						break;
+					if (parser.getToken() != Token.COMMA)
+						throw parser.error("Expected ',' or '}' but found " + JsonPullParser.describe(parser.getToken()));
+					parser.next();
+				}
+			}
+			if (!nodes)
+				throw parser.error("Missing field 'nodes' in topology");
+			if (parser.next() != Token.END_DOCUMENT)
+				throw parser.error("Unexpected " + JsonPullParser.describe(parser.getToken()) + " after the topology");
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * Reads the array of nodes or links starting with the current token.
+	 */
+	private void readArray(JsonPullParser parser, Handler handler, boolean nodes) throws IOException {
+		if (parser.getToken() != Token.BEGIN_ARRAY)
+			throw parser.error("Expected '[' but found " + JsonPullParser.describe(parser.getToken()));
+		if (parser.next() == Token.END_ARRAY)
+			return;
+		while (true) {
+			TopologyRecord record = readRecord(parser, nodes ? "node" : "link");
+			if (nodes) {
+				schema.validateNode(record);
+				handler.node(record);
+			} else {
+				schema.validateLink(record);
+				handler.link(record);
+			}
+			if (parser.next() == Token.END_ARRAY)
+				return;
+			if (parser.getToken() != Token.COMMA)
+				throw parser.error("Expected ',' or ']' but found " + JsonPullParser.describe(parser.getToken()));
+			parser.next();
+		}
+	}
+
+	/**
+	 * Reads the object starting with the current token. Nested objects and arrays are skipped.
+	 */
+	private TopologyRecord readRecord(JsonPullParser parser, String kind) throws IOException {
+		if (parser.getToken() != Token.BEGIN_OBJECT)
+			throw parser.error("Expected a " + kind + " object but found " + JsonPullParser.describe(parser.getToken()));
+		TopologyRecord record = new TopologyRecord(parser.getSource(), parser.getLine(), parser.getColumn());
+		if (parser.next() == Token.END_OBJECT)
+			return record;
+		while (true) {
+			if (parser.getToken() != Token.STRING)
+				throw parser.error("Expected a field name but found " + JsonPullParser.describe(parser.getToken()));
+			String field = parser.getText();
+			parser.expect(Token.COLON);
+			Token token = parser.next();
+			if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+				record.put(field, TopologyRecord.COMPOUND, parser.getLine(), parser.getColumn());
+				parser.skipValue();
+			} else {
+				record.put(field, parser.getValue(), parser.getLine(), parser.getColumn());
+			}
+			if (parser.next() == Token.END_OBJECT)
+				return record;
+			if (parser.getToken() != Token.COMMA)
+				throw parser.error("Expected ',' or '}' but found " + JsonPullParser.describe(parser.getToken()));
+			parser.next();
+		}
+	}
+
+}
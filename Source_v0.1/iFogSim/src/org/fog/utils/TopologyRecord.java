@@ -0,0 +1,85 @@
+package org.fog.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A node or a link of a topology file: the scalar fields of one JSON object, with their positions.
+ * Numbers are Long for integers and Double otherwise, as with json-simple.
+ */
+public class TopologyRecord {
+
+	/**
+	 * Value of the fields holding an object or an array, which are not kept
+	 */
+	static final Object COMPOUND = new Object();
+
+	private final String source;
+	private final int line;
+	private final int column;
+	private final Map<String, Object> values = new HashMap<String, Object>();
+	private final Map<String, int[]> positions = new HashMap<String, int[]>();
+
+	TopologyRecord(String source, int line, int column) {
+		this.source = source;
+		this.line = line;
+		this.column = column;
+	}
+
+	void put(String field, Object value, int line, int column) {
+		values.put(field, value);
+		positions.put(field, new int[]{line, column});
+	}
+
+	public boolean has(String field) {
+		return values.get(field) != null;
+	}
+
+	public Object get(String field) {
+		Object value = values.get(field);
+		return value == COMPOUND ? null : value;
+	}
+
+	public String getString(String field) {
+		Object value = get(field);
+		return value == null ? null : value.toString();
+	}
+
+	public long getLong(String field) {
+		return ((Number) values.get(field)).longValue();
+	}
+
+	public int getInt(String field) {
+		return ((Number) values.get(field)).intValue();
+	}
+
+	public double getDouble(String field) {
+		return ((Number) values.get(field)).doubleValue();
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Creates an error at the position of a field, or of the record if the field is missing.
+	 * @param field the field
+	 * @param message the error
+	 * @return the exception to throw
+	 */
+	public TopologyFormatException error(String field, String message) {
+		int[] position = field == null ? null : positions.get(field);
+		if (position == null)
+			return new TopologyFormatException(source, line, column, message);
+		return new TopologyFormatException(source, position[0], position[1], message);
+	}
+
+}
@@ -0,0 +1,183 @@
+package org.fog.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fog.utils.distribution.Distribution;
+
+/**
+ * The fields the nodes and links of a topology file must have, checked by {@link TopologyReader} as
+ * each record is read. Node rules apply to the nodes of one type (compared ignoring case), to all nodes
+ * (type null), or to the nodes of the types without rules of their own ({@link #OTHER_TYPES}); a rule
+ * may apply only when an integer field has a given value.
+ */
+public class TopologySchema {
+
+	public enum FieldType {
+		STRING, INT, LONG, NUMBER, SCALAR
+	}
+
+	/**
+	 * Node type of the rules applying to the types without rules of their own
+	 */
+	public static final String OTHER_TYPES = "*";
+
+	private static class Rule {
+		String nodeType;
+		String conditionField;
+		long conditionValue;
+		String field;
+		FieldType type;
+		boolean required;
+	}
+
+	private final List<Rule> nodeRules = new ArrayList<Rule>();
+	private final List<Rule> linkRules = new ArrayList<Rule>();
+
+	/**
+	 * The schema of the physical topologies read by JsonToTopology: fog devices, sensors and actuators
+	 * connected by links with a latency.
+	 * @return a new schema, which can be extended
+	 */
+	public static TopologySchema physicalTopology() {
+		TopologySchema schema = new TopologySchema()
+				.requireNodeField(null, "name", FieldType.STRING)
+				.requireNodeField(null, "type", FieldType.STRING)
+				.requireNodeField("FOG_DEVICE", "mips", FieldType.LONG)
+				.requireNodeField("FOG_DEVICE", "ram", FieldType.INT)
+				.requireNodeField("FOG_DEVICE", "upBw", FieldType.INT)
+				.requireNodeField("FOG_DEVICE", "downBw", FieldType.INT)
+				.requireNodeField("FOG_DEVICE", "level", FieldType.INT)
+				.requireNodeField("FOG_DEVICE", "ratePerMips", FieldType.NUMBER)
+				.optionalNodeField("FOG_DEVICE", "busyPower", FieldType.NUMBER)
+				.optionalNodeField("FOG_DEVICE", "idlePower", FieldType.NUMBER)
+				.requireNodeField("SENSOR", "sensorType", FieldType.SCALAR)
+				.requireNodeField("SENSOR", "distribution", FieldType.INT)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.DETERMINISTIC, "value", FieldType.NUMBER)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.NORMAL, "mean", FieldType.NUMBER)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.NORMAL, "stdDev", FieldType.NUMBER)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.UNIFORM, "min", FieldType.NUMBER)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.UNIFORM, "max", FieldType.NUMBER)
+				.requireNodeFieldIf("SENSOR", "distribution", Distribution.EXPONENTIAL, "mean", FieldType.NUMBER)
+				.requireNodeField("ACTUATOR", "actuatorType", FieldType.SCALAR)
+				.requireLinkField("source", FieldType.STRING)
+				.requireLinkField("destination", FieldType.STRING)
+				.requireLinkField("latency", FieldType.NUMBER);
+		return schema;
+	}
+
+	public TopologySchema requireNodeField(String nodeType, String field, FieldType type) {
+		nodeRules.add(rule(nodeType, null, 0, field, type, true));
+		return this;
+	}
+
+	public TopologySchema optionalNodeField(String nodeType, String field, FieldType type) {
+		nodeRules.add(rule(nodeType, null, 0, field, type, false));
+		return this;
+	}
+
+	/**
+	 * Requires a field of the nodes of a type whose condition field has the given value.
+	 */
+	public TopologySchema requireNodeFieldIf(String nodeType, String conditionField, long conditionValue, String field, FieldType type) {
+		nodeRules.add(rule(nodeType, conditionField, conditionValue, field, type, true));
+		return this;
+	}
+
+	public TopologySchema requireLinkField(String field, FieldType type) {
+		linkRules.add(rule(null, null, 0, field, type, true));
+		return this;
+	}
+
+	public TopologySchema optionalLinkField(String field, FieldType type) {
+		linkRules.add(rule(null, null, 0, field, type, false));
+		return this;
+	}
+
+	private static Rule rule(String nodeType, String conditionField, long conditionValue, String field, FieldType type, boolean required) {
+		Rule rule = new Rule();
+		rule.nodeType = nodeType;
+		rule.conditionField = conditionField;
+		rule.conditionValue = conditionValue;
+		rule.field = field;
+		rule.type = type;
+		rule.required = required;
+		return rule;
+	}
+
+	void validateNode(TopologyRecord node) throws TopologyFormatException {
+		Object type = node.get("type");
+		String nodeType = type instanceof String ? (String) type : null;
+		boolean ownRules = false;
+		for (Rule rule : nodeRules) {
+			if (rule.nodeType != null && !OTHER_TYPES.equals(rule.nodeType) && rule.nodeType.equalsIgnoreCase(nodeType))
+				ownRules = true;
+		}
+		for (Rule rule : nodeRules) {
+			boolean applies;
+			if (rule.nodeType == null)
+				applies = true;
+			else if (OTHER_TYPES.equals(rule.nodeType))
+				applies = !ownRules && nodeType != null;
+			else
+				applies = rule.nodeType.equalsIgnoreCase(nodeType);
+			if (applies && rule.conditionField != null) {
+				Object condition = node.get(rule.conditionField);
+				applies = condition instanceof Long && (Long) condition == rule.conditionValue;
+			}
+			if (applies)
+				check(node, rule, "node");
+		}
+	}
+
+	void validateLink(TopologyRecord link) throws TopologyFormatException {
+		for (Rule rule : linkRules)
+			check(link, rule, "link");
+	}
+
+	private static void check(TopologyRecord record, Rule rule, String kind) throws TopologyFormatException {
+		Object value = record.get(rule.field);
+		if (value == null) {
+			if (record.has(rule.field))
+				throw record.error(rule.field, "Field '" + rule.field + "' must be a " + describe(rule.type) + ", not an object or array");
+			if (rule.required)
+				throw record.error(null, "Missing field '" + rule.field + "' in " + kind);
+			return;
+		}
+		boolean valid;
+		switch (rule.type) {
+		case STRING:
+			valid = value instanceof String;
+			break;
+		case INT:
+			valid = value instanceof Long && (Long) value >= Integer.MIN_VALUE && (Long) value <= Integer.MAX_VALUE;
+			break;
+		case LONG:
+			valid = value instanceof Long;
+			break;
+		case NUMBER:
+			valid = value instanceof Long || value instanceof Double;
+			break;
+		default:
+			valid = true;
+		}
+		if (!valid)
+			throw record.error(rule.field, "Field '" + rule.field + "' must be a " + describe(rule.type) + ": " + value);
+	}
+
+	private static String describe(FieldType type) {
+		switch (type) {
+		case STRING:
+			return "string";
+		case INT:
+			return "32 bit integer";
+		case LONG:
+			return "integer";
+		case NUMBER:
+			return "number";
+		default:
+			return "scalar value";
+		}
+	}
+
+}
@@ -1,6 +1,9 @@
 package org.fog.utils;
 
-public class TupleFinishDetails {
+import java.io.Serializable;
+
+public class TupleFinishDetails implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private String queryId;
 	private int actualTupleId;
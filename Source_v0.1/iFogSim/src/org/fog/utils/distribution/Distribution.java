@@ -1,16 +1,46 @@
 package org.fog.utils.distribution;
 
+import java.io.Serializable;
 import java.util.Random;
 
-public abstract class Distribution {
+public abstract class Distribution implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	public static int NORMAL = 1;
 	public static int DETERMINISTIC = 2;
 	public static int UNIFORM = 3;
+	public static int EXPONENTIAL = 4;
+	public static int MMPP = 5;
+	public static int TRACE = 6;
+	public static int RATE_SCHEDULE = 7;
 	
 	protected Random random;
 	public abstract double getNextValue();
 	
+	/**
+	 * Gets the next value, for an interval starting at the given simulation time.
+	 * Only time varying distributions depend on the time.
+	 * @param startTime the start of the interval
+	 * @return the next value
+	 */
+	public double getNextValue(double startTime) {
+		return getNextValue();
+	}
+	
+	/**
+	 * Fills an array with the next values, for consecutive intervals: the first one starts at the
+	 * given simulation time and each next one where the previous one ends.
+	 * @param values the array to fill
+	 * @param startTime the start of the first interval
+	 */
+	public void getNextValues(double[] values, double startTime) {
+		double time = startTime;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getNextValue(time);
+			time += values[i];
+		}
+	}
+	
 	public Random getRandom() {
 		return random;
 	}
@@ -0,0 +1,51 @@
+package org.fog.utils.distribution;
+
+import org.cloudbus.cloudsim.core.RandomService;
+
+/**
+ * Exponential inter-arrival times, i.e. a Poisson arrival process.
+ */
+public class ExponentialDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
+
+	private double mean;
+
+	public ExponentialDistribution(double mean) {
+		if (mean <= 0) {
+			throw new IllegalArgumentException("Mean must be greater than 0.0");
+		}
+		setMean(mean);
+		setRandom(RandomService.newStream());
+	}
+
+	@Override
+	public double getNextValue() {
+		return -mean * Math.log(1 - random.nextDouble());
+	}
+
+	@Override
+	public void getNextValues(double[] values, double startTime) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = -mean * Math.log(1 - random.nextDouble());
+		}
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public void setMean(double mean) {
+		this.mean = mean;
+	}
+
+	@Override
+	public int getDistributionType() {
+		return Distribution.EXPONENTIAL;
+	}
+
+	@Override
+	public double getMeanInterTransmitTime() {
+		return mean;
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.fog.utils.distribution;
+
+import org.cloudbus.cloudsim.core.RandomService;
+
+/**
+ * Inter-arrival times of a Markov-modulated Poisson process (MMPP): arrivals follow a Poisson process
+ * whose rate depends on the state of a continuous time Markov chain, e.g. a sensor alternating between
+ * quiet and bursty periods. The state is carried over from one value to the next.
+ */
+public class MMPPDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Arrival rate in each state
+	 */
+	private double[] rates;
+
+	/**
+	 * Rate of the transitions from each state to each other state
+	 */
+	private double[][] transitionRates;
+
+	/**
+	 * Total rate of the transitions leaving each state
+	 */
+	private double[] leaveRates;
+
+	private int state;
+
+	/**
+	 * @param rates the arrival rate in each state
+	 * @param transitionRates transitionRates[i][j] is the rate of the transitions from state i to state j
+	 * @param initialState the state of the process when the first value is generated
+	 */
+	public MMPPDistribution(double[] rates, double[][] transitionRates, int initialState) {
+		if (transitionRates.length != rates.length || initialState < 0 || initialState >= rates.length) {
+			throw new IllegalArgumentException("Invalid number of states or initial state");
+		}
+		leaveRates = new double[rates.length];
+		boolean arrivals = false;
+		for (int i = 0; i < rates.length; i++) {
+			if (rates[i] < 0 || transitionRates[i].length != rates.length) {
+				throw new IllegalArgumentException("Invalid rates of state " + i);
+			}
+			for (int j = 0; j < rates.length; j++) {
+				if (transitionRates[i][j] < 0) {
+					throw new IllegalArgumentException("Invalid rates of state " + i);
+				}
+				if (j != i)
+					leaveRates[i] += transitionRates[i][j];
+			}
+			if (rates[i] == 0 && leaveRates[i] == 0) {
+				throw new IllegalArgumentException("State " + i + " has neither arrivals nor transitions");
+			}
+			arrivals |= rates[i] > 0;
+		}
+		if (!arrivals) {
+			throw new IllegalArgumentException("At least one state must have arrivals");
+		}
+		this.rates = rates.clone();
+		this.transitionRates = new double[rates.length][];
+		for (int i = 0; i < rates.length; i++) {
+			this.transitionRates[i] = transitionRates[i].clone();
+		}
+		state = initialState;
+		setRandom(RandomService.newStream());
+	}
+
+	/**
+	 * Creates a two state process, e.g. an on-off source when lowRate is 0, starting in the low state.
+	 * @param lowRate the arrival rate in the low state
+	 * @param highRate the arrival rate in the high state
+	 * @param meanLowPeriod the mean duration of the low periods
+	 * @param meanHighPeriod the mean duration of the high periods
+	 */
+	public MMPPDistribution(double lowRate, double highRate, double meanLowPeriod, double meanHighPeriod) {
+		this(new double[]{lowRate, highRate},
+				new double[][]{{0, 1 / meanLowPeriod}, {1 / meanHighPeriod, 0}}, 0);
+	}
+
+	@Override
+	public double getNextValue() {
+		double elapsed = 0;
+		while (true) {
+			// the next arrival and the next transition compete; the earliest one happens
+			double arrival = rates[state] > 0 ? -Math.log(1 - random.nextDouble()) / rates[state] : Double.POSITIVE_INFINITY;
+			double transition = leaveRates[state] > 0 ? -Math.log(1 - random.nextDouble()) / leaveRates[state] : Double.POSITIVE_INFINITY;
+			if (arrival <= transition)
+				return elapsed + arrival;
+			elapsed += transition;
+			state = nextState();
+		}
+	}
+
+	private int nextState() {
+		double u = random.nextDouble() * leaveRates[state];
+		int last = state;
+		for (int j = 0; j < rates.length; j++) {
+			if (j == state || transitionRates[state][j] == 0)
+				continue;
+			last = j;
+			u -= transitionRates[state][j];
+			if (u < 0)
+				return j;
+		}
+		return last;
+	}
+
+	/**
+	 * Gets the long run probability of each state, by iterating the uniformized chain from the
+	 * current state.
+	 * @return the probability of each state
+	 */
+	public double[] getStateProbabilities() {
+		int n = rates.length;
+		double uniformization = 0;
+		for (int i = 0; i < n; i++)
+			uniformization = Math.max(uniformization, leaveRates[i]);
+		double[] p = new double[n];
+		p[state] = 1;
+		if (uniformization == 0)
+			return p;
+		uniformization *= 1.01;
+		for (int iteration = 0; iteration < 100000; iteration++) {
+			double[] next = new double[n];
+			double change = 0;
+			for (int i = 0; i < n; i++) {
+				next[i] += p[i] * (1 - leaveRates[i] / uniformization);
+				for (int j = 0; j < n; j++) {
+					if (j != i)
+						next[j] += p[i] * transitionRates[i][j] / uniformization;
+				}
+			}
+			for (int i = 0; i < n; i++)
+				change = Math.max(change, Math.abs(next[i] - p[i]));
+			p = next;
+			if (change < 1e-12)
+				break;
+		}
+		return p;
+	}
+
+	public double[] getRates() {
+		return rates.clone();
+	}
+
+	public int getState() {
+		return state;
+	}
+
+	@Override
+	public int getDistributionType() {
+		return Distribution.MMPP;
+	}
+
+	@Override
+	public double getMeanInterTransmitTime() {
+		double[] p = getStateProbabilities();
+		double rate = 0;
+		for (int i = 0; i < rates.length; i++)
+			rate += p[i] * rates[i];
+		return 1 / rate;
+	}
+
+}
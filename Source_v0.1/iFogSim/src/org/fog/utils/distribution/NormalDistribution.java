@@ -1,8 +1,9 @@
 package org.fog.utils.distribution;
 
-import java.util.Random;
+import org.cloudbus.cloudsim.core.RandomService;
 
 public class NormalDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
 
 	private double mean;
 	private double stdDev;
@@ -10,7 +11,7 @@ public class NormalDistribution extends Distribution{
 	public NormalDistribution(double mean, double stdDev) {
 		setMean(mean);
 		setStdDev(stdDev);
-		setRandom(new Random());
+		setRandom(RandomService.newStream());
 	}
 	
 	@Override
@@ -0,0 +1,149 @@
+package org.fog.utils.distribution;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Time varying load: scales the rate of another distribution with a piecewise constant schedule,
+ * e.g. a diurnal profile. The values of the wrapped distribution are taken as intervals at the nominal
+ * rate and stretched over the schedule, so an interval spanning several periods of the schedule gets
+ * the rate of each of them; with exponential values this is a non-homogeneous Poisson process.
+ */
+public class RateScheduleDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The distribution at the nominal rate
+	 */
+	private Distribution distribution;
+
+	/**
+	 * Start times of the periods of the schedule, the first one being 0
+	 */
+	private double[] startTimes;
+
+	/**
+	 * Rate multiplier of each period of the schedule
+	 */
+	private double[] multipliers;
+
+	/**
+	 * Length of the schedule, which repeats itself, or 0 if the last period never ends
+	 */
+	private double cycle;
+
+	/**
+	 * @param distribution the distribution at the nominal rate
+	 * @param startTimes the start times of the periods of the schedule, increasing and starting at 0
+	 * @param multipliers the rate multiplier of each period, 0 meaning no load
+	 * @param cycle the length after which the schedule repeats itself, e.g. a day, or 0 if it does not
+	 */
+	public RateScheduleDistribution(Distribution distribution, double[] startTimes, double[] multipliers, double cycle) {
+		if (startTimes.length == 0 || startTimes.length != multipliers.length || startTimes[0] != 0) {
+			throw new IllegalArgumentException("The schedule must have one multiplier per period and start at 0");
+		}
+		if (cycle < 0 || (cycle > 0 && startTimes[startTimes.length - 1] >= cycle)) {
+			throw new IllegalArgumentException("The periods must start within the cycle");
+		}
+		boolean load = false;
+		for (int i = 0; i < startTimes.length; i++) {
+			if ((i > 0 && startTimes[i] <= startTimes[i - 1]) || multipliers[i] < 0) {
+				throw new IllegalArgumentException("Invalid period " + i + " of the schedule");
+			}
+			load |= multipliers[i] > 0;
+		}
+		if (!load) {
+			throw new IllegalArgumentException("The schedule has no load");
+		}
+		this.distribution = distribution;
+		this.startTimes = startTimes.clone();
+		this.multipliers = multipliers.clone();
+		this.cycle = cycle;
+	}
+
+	@Override
+	public double getNextValue() {
+		return getNextValue(CloudSim.clock());
+	}
+
+	@Override
+	public double getNextValue(double startTime) {
+		return stretch(startTime, distribution.getNextValue(startTime));
+	}
+
+	@Override
+	public void getNextValues(double[] values, double startTime) {
+		distribution.getNextValues(values, startTime);
+		double time = startTime;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = stretch(time, values[i]);
+			time += values[i];
+		}
+	}
+
+	/**
+	 * Gets the interval starting at the given time needed to get the load of an interval at the
+	 * nominal rate.
+	 */
+	private double stretch(double startTime, double nominalInterval) {
+		if (Double.isInfinite(nominalInterval))
+			return nominalInterval;
+		double time = startTime;
+		double work = nominalInterval;
+		while (true) {
+			double cycleStart = cycle > 0 ? Math.floor(time / cycle) * cycle : 0;
+			double offset = Math.max(0, time - cycleStart);
+			if (cycle > 0 && offset >= cycle) {
+				cycleStart += cycle;
+				offset = Math.max(0, time - cycleStart);
+			}
+			int period = Arrays.binarySearch(startTimes, offset);
+			if (period < 0)
+				period = -period - 2;
+			double end;
+			if (period + 1 < startTimes.length)
+				end = cycleStart + startTimes[period + 1];
+			else
+				end = cycle > 0 ? cycleStart + cycle : Double.POSITIVE_INFINITY;
+
+			double multiplier = multipliers[period];
+			if (multiplier > 0) {
+				double needed = work / multiplier;
+				if (time + needed <= end)
+					return time + needed - startTime;
+				work -= (end - time) * multiplier;
+			} else if (Double.isInfinite(end)) {
+				return Double.POSITIVE_INFINITY; // no load ever again
+			}
+			time = Math.max(end, Math.nextUp(time));
+		}
+	}
+
+	public Distribution getDistribution() {
+		return distribution;
+	}
+
+	@Override
+	public int getDistributionType() {
+		return Distribution.RATE_SCHEDULE;
+	}
+
+	/**
+	 * The mean over a whole cycle of the schedule, or over the last period if it does not repeat.
+	 */
+	@Override
+	public double getMeanInterTransmitTime() {
+		double multiplier = multipliers[multipliers.length - 1];
+		if (cycle > 0) {
+			multiplier = 0;
+			for (int i = 0; i < startTimes.length; i++) {
+				double end = i + 1 < startTimes.length ? startTimes[i + 1] : cycle;
+				multiplier += multipliers[i] * (end - startTimes[i]);
+			}
+			multiplier /= cycle;
+		}
+		return distribution.getMeanInterTransmitTime() / multiplier;
+	}
+
+}
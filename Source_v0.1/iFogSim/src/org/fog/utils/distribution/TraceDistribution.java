@@ -0,0 +1,128 @@
+package org.fog.utils.distribution;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Replays recorded inter-arrival times, e.g. from a real sensor. Once the trace is exhausted, it is
+ * either replayed from the start (cyclic) or the values are infinite, which stops the sensor.
+ */
+public class TraceDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
+
+	private double[] values;
+	private boolean cyclic;
+	private int position;
+
+	public TraceDistribution(double[] interArrivalTimes, boolean cyclic) {
+		if (interArrivalTimes.length == 0) {
+			throw new IllegalArgumentException("The trace is empty");
+		}
+		for (double value : interArrivalTimes) {
+			if (value < 0 || Double.isNaN(value)) {
+				throw new IllegalArgumentException("Invalid inter-arrival time: " + value);
+			}
+		}
+		this.values = interArrivalTimes.clone();
+		this.cyclic = cyclic;
+	}
+
+	/**
+	 * Reads the trace from the first column of a text or CSV file. Lines whose first column is not a
+	 * number, such as headers and comments, are skipped.
+	 * @param fileName the trace file
+	 * @param timestamps whether the file holds arrival times, in which case the inter-arrival times are
+	 * the differences between consecutive arrival times, instead of inter-arrival times
+	 * @param cyclic whether the trace is replayed from the start once exhausted
+	 * @throws IOException
+	 */
+	public TraceDistribution(String fileName, boolean timestamps, boolean cyclic) throws IOException {
+		this(readTrace(fileName, timestamps), cyclic);
+	}
+
+	private static double[] readTrace(String fileName, boolean timestamps) throws IOException {
+		double[] trace = new double[1024];
+		int size = 0;
+		try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int end = line.indexOf(',');
+				String column = (end < 0 ? line : line.substring(0, end)).trim();
+				double value;
+				try {
+					value = Double.parseDouble(column);
+				} catch (NumberFormatException e) {
+					continue;
+				}
+				if (size == trace.length)
+					trace = Arrays.copyOf(trace, 2 * size);
+				trace[size++] = value;
+			}
+		}
+		if (!timestamps)
+			return Arrays.copyOf(trace, size);
+		double[] interArrivalTimes = new double[Math.max(0, size - 1)];
+		for (int i = 0; i < interArrivalTimes.length; i++)
+			interArrivalTimes[i] = trace[i + 1] - trace[i];
+		return interArrivalTimes;
+	}
+
+	@Override
+	public double getNextValue() {
+		if (position == values.length) {
+			if (!cyclic)
+				return Double.POSITIVE_INFINITY;
+			position = 0;
+		}
+		return values[position++];
+	}
+
+	@Override
+	public void getNextValues(double[] next, double startTime) {
+		int filled = 0;
+		while (filled < next.length) {
+			if (position == values.length) {
+				if (!cyclic) {
+					Arrays.fill(next, filled, next.length, Double.POSITIVE_INFINITY);
+					return;
+				}
+				position = 0;
+			}
+			int count = Math.min(next.length - filled, values.length - position);
+			System.arraycopy(values, position, next, filled, count);
+			position += count;
+			filled += count;
+		}
+	}
+
+	/**
+	 * Restarts the replay from the start of the trace.
+	 */
+	public void reset() {
+		position = 0;
+	}
+
+	public int getLength() {
+		return values.length;
+	}
+
+	public boolean isCyclic() {
+		return cyclic;
+	}
+
+	@Override
+	public int getDistributionType() {
+		return Distribution.TRACE;
+	}
+
+	@Override
+	public double getMeanInterTransmitTime() {
+		double sum = 0;
+		for (double value : values)
+			sum += value;
+		return sum / values.length;
+	}
+
+}
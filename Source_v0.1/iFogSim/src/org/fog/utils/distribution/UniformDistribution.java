@@ -1,6 +1,9 @@
 package org.fog.utils.distribution;
 
+import org.cloudbus.cloudsim.core.RandomService;
+
 public class UniformDistribution extends Distribution{
+	private static final long serialVersionUID = 1L;
 
 	private double min;
 	private double max;
@@ -9,6 +12,7 @@ public class UniformDistribution extends Distribution{
 		super();
 		setMin(min);
 		setMax(max);
+		setRandom(RandomService.newStream());
 	}
 	
 	@Override
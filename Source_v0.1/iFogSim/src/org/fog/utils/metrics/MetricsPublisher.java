@@ -0,0 +1,141 @@
+package org.fog.utils.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.fog.entities.FogDevice;
+import org.fog.utils.Config;
+import org.fog.utils.FogEvents;
+import org.fog.utils.TimeKeeper;
+
+/**
+ * An entity sampling the metrics of the simulation at a fixed interval of simulation time, for the
+ * simulation to be followed while it runs: the delays of the application loops completed during the
+ * interval, and the utilization, energy and link queues of the fog devices. Each sample is published
+ * as a {@link MetricsSnapshot} in a {@link MetricsRingBuffer}, read by other threads, for example the
+ * simulation dashboard of the GUI.
+ * <p>
+ * A sample costs a pass over the devices; the loop delays are kept by the TimeKeeper only while a
+ * publisher runs. The samples stop at the end time, so the publisher does not keep the simulation
+ * running once the other entities are done.
+ */
+public class MetricsPublisher extends SimEntity {
+	private static final long serialVersionUID = 1L;
+
+	private static volatile MetricsRingBuffer latestBuffer;
+
+	private final List<FogDevice> fogDevices;
+	private final double interval;
+	private final double endTime;
+	private final String[] deviceNames;
+	/**
+	 * the buffer is not part of the checkpoints of the simulation: a restored publisher publishes nothing
+	 */
+	private transient MetricsRingBuffer buffer;
+
+	private long sequence;
+	private double lastSampleTime;
+
+	/**
+	 * Creates a publisher sampling until the end of the simulation set in {@link Config#MAX_SIMULATION_TIME}.
+	 * @param name the name of the entity
+	 * @param fogDevices the devices to sample
+	 * @param interval the simulation time between two samples
+	 * @param buffer the buffer the snapshots are published in
+	 */
+	public MetricsPublisher(String name, List<FogDevice> fogDevices, double interval, MetricsRingBuffer buffer) {
+		this(name, fogDevices, interval, Config.MAX_SIMULATION_TIME, buffer);
+	}
+
+	/**
+	 * @param endTime the simulation time of the last sample
+	 */
+	public MetricsPublisher(String name, List<FogDevice> fogDevices, double interval, double endTime, MetricsRingBuffer buffer) {
+		super(name);
+		if (interval <= 0)
+			throw new IllegalArgumentException("The sampling interval must be positive");
+		this.fogDevices = new ArrayList<FogDevice>(fogDevices);
+		this.interval = interval;
+		this.endTime = endTime;
+		this.buffer = buffer;
+		deviceNames = new String[this.fogDevices.size()];
+		for (int i = 0; i < deviceNames.length; i++)
+			deviceNames[i] = this.fogDevices.get(i).getName();
+		latestBuffer = buffer;
+	}
+
+	/**
+	 * Gets the buffer of the publisher created last, for the consumers started apart from the simulation.
+	 * @return the buffer, null if no publisher was created
+	 */
+	public static MetricsRingBuffer getLatestBuffer() {
+		return latestBuffer;
+	}
+
+	public MetricsRingBuffer getBuffer() {
+		return buffer;
+	}
+
+	public double getInterval() {
+		return interval;
+	}
+
+	@Override
+	public void startEntity() {
+		TimeKeeper.getInstance().startSamplingLoopDelays();
+		lastSampleTime = CloudSim.clock();
+		if (lastSampleTime + interval <= endTime)
+			send(getId(), interval, FogEvents.METRICS_SAMPLE);
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		switch (ev.getTag()) {
+		case FogEvents.METRICS_SAMPLE:
+			sample();
+			if (CloudSim.clock() + interval <= endTime)
+				send(getId(), interval, FogEvents.METRICS_SAMPLE);
+			break;
+		}
+	}
+
+	@Override
+	public void shutdownEntity() {
+		if (CloudSim.clock() > lastSampleTime)
+			sample();
+		TimeKeeper.getInstance().stopSamplingLoopDelays();
+		if (buffer != null)
+			buffer.close();
+	}
+
+	private void sample() {
+		double now = CloudSim.clock();
+		double[] loopDelays = TimeKeeper.getInstance().takeSampledLoopDelays();
+		int count = fogDevices.size();
+		double[] utilization = new double[count];
+		double[] energy = new double[count];
+		int[] northQueueLength = new int[count];
+		int[] southQueueLength = new int[count];
+		for (int i = 0; i < count; i++) {
+			FogDevice device = fogDevices.get(i);
+			utilization[i] = device.getLastUtilization();
+			// the energy of a device is updated when its utilization changes, the rest is at its last utilization
+			double elapsed = Math.max(0, now - device.getLastUtilizationUpdateTime());
+			energy[i] = device.getEnergyConsumption()
+					+ elapsed * device.getHost().getPowerModel().getPower(device.getLastUtilization());
+			northQueueLength[i] = device.getNorthTupleQueue().size();
+			southQueueLength[i] = device.getSouthTupleQueue().size();
+		}
+		MetricsSnapshot snapshot = new MetricsSnapshot(sequence, now, now - lastSampleTime, System.currentTimeMillis(),
+				loopDelays, deviceNames, utilization, energy, northQueueLength, southQueueLength);
+		lastSampleTime = now;
+		if (buffer != null) {
+			buffer.publish(snapshot);
+			sequence++;
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.fog.utils.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free ring buffer of the snapshots of a {@link MetricsPublisher}, written by the simulation
+ * thread and read by any number of consumers. The publisher never waits: once the buffer is full, each
+ * snapshot replaces the oldest one, and a consumer that falls behind loses the snapshots overwritten in
+ * the meantime.
+ * <p>
+ * Each consumer keeps its own position, the sequence number of the next snapshot it wants to read.
+ */
+public class MetricsRingBuffer {
+
+	private final AtomicReferenceArray<MetricsSnapshot> slots;
+	private final int mask;
+	/**
+	 * number of snapshots published, the sequence number of the next one
+	 */
+	private final AtomicLong published = new AtomicLong();
+	private volatile boolean closed;
+
+	/**
+	 * @param capacity the number of snapshots kept, rounded up to a power of two
+	 */
+	public MetricsRingBuffer(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		slots = new AtomicReferenceArray<MetricsSnapshot>(size);
+		mask = size - 1;
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Publishes a snapshot. Only one thread may publish in a buffer.
+	 * @param snapshot the snapshot, whose sequence number is the number of snapshots already published
+	 */
+	public void publish(MetricsSnapshot snapshot) {
+		long sequence = published.get();
+		if (snapshot.getSequence() != sequence)
+			throw new IllegalArgumentException("Snapshot " + snapshot.getSequence() + " published after " + (sequence - 1));
+		slots.set((int) (sequence & mask), snapshot);
+		published.lazySet(sequence + 1);
+	}
+
+	/**
+	 * Gets the number of snapshots published.
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/**
+	 * Reads the snapshots published from a sequence number, the ones already overwritten being skipped.
+	 * @param from the sequence number of the first snapshot to read
+	 * @param snapshots the list the snapshots are added to, in their order of publication
+	 * @return the sequence number of the next snapshot to read
+	 */
+	public long read(long from, List<? super MetricsSnapshot> snapshots) {
+		long end = published.get();
+		for (long sequence = Math.max(from, end - getCapacity()); sequence < end; sequence++) {
+			MetricsSnapshot snapshot = slots.get((int) (sequence & mask));
+			// the slot was written again since the number of snapshots was read
+			if (snapshot == null || snapshot.getSequence() != sequence)
+				continue;
+			snapshots.add(snapshot);
+		}
+		return Math.max(from, end);
+	}
+
+	/**
+	 * Gets the last snapshot published, null if none was.
+	 */
+	public MetricsSnapshot getLatest() {
+		long end = published.get();
+		return end == 0 ? null : slots.get((int) ((end - 1) & mask));
+	}
+
+	/**
+	 * Marks the end of the publication, once the simulation is over.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+}
@@ -0,0 +1,171 @@
+package org.fog.utils.metrics;
+
+import java.util.Arrays;
+
+/**
+ * The metrics of a running simulation at a sampling time, taken by a {@link MetricsPublisher}: the loops
+ * completed during the interval that ends at the sampling time, and the state of each fog device.
+ * <p>
+ * A snapshot is not modified once published, so it can be read by any thread. The arrays returned by
+ * the getters are not copied and must not be modified; the devices are in the order given to the publisher.
+ */
+public class MetricsSnapshot {
+
+	private final long sequence;
+	private final double time;
+	private final double interval;
+	private final long wallClockTime;
+
+	private final int completedLoops;
+	private final double meanLoopDelay;
+	private final double p95LoopDelay;
+	private final double maxLoopDelay;
+	private final double totalEnergy;
+
+	private final String[] deviceNames;
+	private final double[] utilization;
+	private final double[] energy;
+	private final int[] northQueueLength;
+	private final int[] southQueueLength;
+
+	MetricsSnapshot(long sequence, double time, double interval, long wallClockTime, double[] loopDelays,
+			String[] deviceNames, double[] utilization, double[] energy, int[] northQueueLength, int[] southQueueLength) {
+		this.sequence = sequence;
+		this.time = time;
+		this.interval = interval;
+		this.wallClockTime = wallClockTime;
+		this.deviceNames = deviceNames;
+		this.utilization = utilization;
+		this.energy = energy;
+		this.northQueueLength = northQueueLength;
+		this.southQueueLength = southQueueLength;
+
+		completedLoops = loopDelays.length;
+		double sum = 0;
+		double max = 0;
+		for (double delay : loopDelays) {
+			sum += delay;
+			max = Math.max(max, delay);
+		}
+		meanLoopDelay = completedLoops > 0 ? sum / completedLoops : 0;
+		maxLoopDelay = max;
+		p95LoopDelay = percentile(loopDelays, 0.95);
+		double total = 0;
+		for (double deviceEnergy : energy)
+			total += deviceEnergy;
+		totalEnergy = total;
+	}
+
+	/**
+	 * Gets a percentile of values by the nearest rank method, sorting the values.
+	 * @return the percentile, 0 if there is no value
+	 */
+	static double percentile(double[] values, double fraction) {
+		if (values.length == 0)
+			return 0;
+		Arrays.sort(values);
+		int rank = (int) Math.ceil(fraction * values.length);
+		return values[Math.max(0, Math.min(values.length, rank) - 1)];
+	}
+
+	/**
+	 * Gets the number of snapshots published before this one by the publisher.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Gets the simulation time of the sample.
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets the simulation time since the previous sample.
+	 */
+	public double getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Gets the wall clock time of the sample, in milliseconds since the epoch.
+	 */
+	public long getWallClockTime() {
+		return wallClockTime;
+	}
+
+	/**
+	 * Gets the number of application loops completed during the interval.
+	 */
+	public int getCompletedLoops() {
+		return completedLoops;
+	}
+
+	/**
+	 * Gets the number of loops completed per unit of simulation time during the interval.
+	 */
+	public double getThroughput() {
+		return interval > 0 ? completedLoops / interval : 0;
+	}
+
+	public double getMeanLoopDelay() {
+		return meanLoopDelay;
+	}
+
+	/**
+	 * Gets the 95th percentile of the delays of the loops completed during the interval.
+	 */
+	public double getP95LoopDelay() {
+		return p95LoopDelay;
+	}
+
+	public double getMaxLoopDelay() {
+		return maxLoopDelay;
+	}
+
+	/**
+	 * Gets the energy consumed by all the devices since the start of the simulation.
+	 */
+	public double getTotalEnergy() {
+		return totalEnergy;
+	}
+
+	public int getDeviceCount() {
+		return deviceNames.length;
+	}
+
+	public String[] getDeviceNames() {
+		return deviceNames;
+	}
+
+	/**
+	 * Gets the CPU utilization of each device, between 0 and 1.
+	 */
+	public double[] getUtilization() {
+		return utilization;
+	}
+
+	/**
+	 * Gets the energy consumed by each device since the start of the simulation, up to the sampling time.
+	 */
+	public double[] getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Gets the number of tuples of each device waiting for the link to its parent.
+	 */
+	public int[] getNorthQueueLength() {
+		return northQueueLength;
+	}
+
+	/**
+	 * Gets the number of tuples of each device waiting for the link to its children.
+	 */
+	public int[] getSouthQueueLength() {
+		return southQueueLength;
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.fog.utils.topology;
+
+/**
+ * The hardware of a kind of fog device. The devices of a {@link FogLevel} are drawn from its profiles
+ * in proportion to their weights.
+ */
+public class DeviceProfile {
+
+	private final String name;
+	private final long mips;
+	private final int ram;
+	private final long upBw;
+	private final long downBw;
+	private final double ratePerMips;
+	private final double busyPower;
+	private final double idlePower;
+	private final double weight;
+
+	public DeviceProfile(String name, long mips, int ram, long upBw, long downBw, double ratePerMips,
+			double busyPower, double idlePower, double weight) {
+		if (weight <= 0)
+			throw new IllegalArgumentException("The weight of a profile must be positive");
+		this.name = name;
+		this.mips = mips;
+		this.ram = ram;
+		this.upBw = upBw;
+		this.downBw = downBw;
+		this.ratePerMips = ratePerMips;
+		this.busyPower = busyPower;
+		this.idlePower = idlePower;
+		this.weight = weight;
+	}
+
+	public DeviceProfile(String name, long mips, int ram, long upBw, long downBw, double ratePerMips,
+			double busyPower, double idlePower) {
+		this(name, mips, ram, upBw, downBw, ratePerMips, busyPower, idlePower, 1);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getMips() {
+		return mips;
+	}
+
+	public int getRam() {
+		return ram;
+	}
+
+	public long getUpBw() {
+		return upBw;
+	}
+
+	public long getDownBw() {
+		return downBw;
+	}
+
+	public double getRatePerMips() {
+		return ratePerMips;
+	}
+
+	public double getBusyPower() {
+		return busyPower;
+	}
+
+	public double getIdlePower() {
+		return idlePower;
+	}
+
+	public double getWeight() {
+		return weight;
+	}
+
+}
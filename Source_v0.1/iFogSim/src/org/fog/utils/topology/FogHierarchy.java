@@ -0,0 +1,316 @@
+package org.fog.utils.topology;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.sdn.overbooking.BwProvisionerOverbooking;
+import org.cloudbus.cloudsim.sdn.overbooking.PeProvisionerOverbooking;
+import org.fog.entities.FogDevice;
+import org.fog.entities.FogDeviceCharacteristics;
+import org.fog.mobilitydata.DataParser;
+import org.fog.mobilitydata.Location;
+import org.fog.placement.LocationHandler;
+import org.fog.policy.AppModuleAllocationPolicy;
+import org.fog.scheduler.StreamOperatorScheduler;
+import org.fog.utils.FogLinearPowerModel;
+import org.fog.utils.FogUtils;
+import org.json.simple.JSONValue;
+
+/**
+ * A fog hierarchy generated by a {@link FogHierarchyGenerator}, held in primitive arrays indexed by
+ * device. The devices are numbered level by level from the root (device 0), and the children of a
+ * device are consecutive. The hierarchy can be instantiated as fog devices or written as a JSON
+ * topology for {@link org.fog.utils.JsonToTopology}.
+ */
+public class FogHierarchy {
+
+	private final List<FogLevel> levels;
+	private final int[] levelStart;
+
+	final int[] parent;
+	final int[] level;
+	final int[] profile;
+	final double[] uplinkLatency;
+	final double[] latitude;
+	final double[] longitude;
+	/**
+	 * index in level 1 of the ancestor of a device in level 1 (0 for the root)
+	 */
+	final int[] region;
+	/**
+	 * index of the first device of the cluster of a device, -1 if not in a cluster
+	 */
+	final int[] clusterId;
+	final double[] clusterLatency;
+
+	FogHierarchy(List<FogLevel> levels, int[] levelStart) {
+		this.levels = new ArrayList<FogLevel>(levels);
+		this.levelStart = levelStart;
+		int deviceCount = levelStart[levelStart.length - 1];
+		parent = new int[deviceCount];
+		level = new int[deviceCount];
+		profile = new int[deviceCount];
+		uplinkLatency = new double[deviceCount];
+		latitude = new double[deviceCount];
+		longitude = new double[deviceCount];
+		region = new int[deviceCount];
+		clusterId = new int[deviceCount];
+		clusterLatency = new double[deviceCount];
+	}
+
+	public int getDeviceCount() {
+		return parent.length;
+	}
+
+	public int getLevelCount() {
+		return levels.size();
+	}
+
+	/**
+	 * Gets the index of the first device of a level.
+	 */
+	public int getLevelStart(int level) {
+		return levelStart[level];
+	}
+
+	public int getLevelSize(int level) {
+		return levelStart[level + 1] - levelStart[level];
+	}
+
+	public int getLevel(int device) {
+		return level[device];
+	}
+
+	/**
+	 * Gets the index of the parent of a device, -1 for the root.
+	 */
+	public int getParent(int device) {
+		return parent[device];
+	}
+
+	public String getName(int device) {
+		String prefix = levels.get(level[device]).getNamePrefix();
+		return device == 0 ? prefix : prefix + "-" + (device - levelStart[level[device]]);
+	}
+
+	public DeviceProfile getProfile(int device) {
+		return levels.get(level[device]).getProfiles().get(profile[device]);
+	}
+
+	public double getUplinkLatency(int device) {
+		return uplinkLatency[device];
+	}
+
+	public double getLatitude(int device) {
+		return latitude[device];
+	}
+
+	public double getLongitude(int device) {
+		return longitude[device];
+	}
+
+	public int getRegion(int device) {
+		return region[device];
+	}
+
+	/**
+	 * Gets the index of the first device of the cluster of a device, -1 if the device is not in a cluster.
+	 */
+	public int getClusterId(int device) {
+		return clusterId[device];
+	}
+
+	public double getClusterLatency(int device) {
+		return clusterLatency[device];
+	}
+
+	/**
+	 * Creates the fog devices of the hierarchy, in the order of their indexes. The parent, level and
+	 * uplink latency of each device are set, as well as the members of its cluster; the children are
+	 * connected by the controller, as for the hand-built topologies.
+	 * <p>
+	 * The devices are created sequentially: creating an entity registers it with CloudSim, which is not
+	 * thread safe, and the entity ids must follow the indexes for a run to be reproducible.
+	 * @return the fog devices, the root first
+	 */
+	public List<FogDevice> createFogDevices() {
+		List<FogDevice> fogDevices = new ArrayList<FogDevice>(getDeviceCount());
+		for (int device = 0; device < getDeviceCount(); device++) {
+			FogDevice fogDevice = createFogDevice(getName(device), getProfile(device), level[device], uplinkLatency[device]);
+			fogDevice.setParentId(parent[device] < 0 ? -1 : fogDevices.get(parent[device]).getId());
+			fogDevices.add(fogDevice);
+		}
+		// the members of a cluster are consecutive
+		int device = 0;
+		while (device < getDeviceCount()) {
+			int end = device + 1;
+			if (clusterId[device] >= 0) {
+				while (end < getDeviceCount() && clusterId[end] == clusterId[device])
+					end++;
+				connectCluster(fogDevices, device, end);
+			}
+			device = end;
+		}
+		return fogDevices;
+	}
+
+	private void connectCluster(List<FogDevice> fogDevices, int start, int end) {
+		for (int device = start; device < end; device++) {
+			List<Integer> members = new ArrayList<Integer>();
+			Map<Integer, Double> latencyMap = new HashMap<Integer, Double>();
+			for (int member = start; member < end; member++) {
+				if (member != device) {
+					int memberId = fogDevices.get(member).getId();
+					members.add(memberId);
+					latencyMap.put(memberId, clusterLatency[device]);
+				}
+			}
+			FogDevice fogDevice = fogDevices.get(device);
+			fogDevice.setClusterMembers(members);
+			fogDevice.setClusterMembersToLatencyMap(latencyMap);
+			fogDevice.setIsInCluster(true);
+		}
+	}
+
+	private static FogDevice createFogDevice(String nodeName, DeviceProfile profile, int level, double uplinkLatency) {
+		List<Pe> peList = new ArrayList<Pe>();
+		peList.add(new Pe(0, new PeProvisionerOverbooking(profile.getMips()))); // need to store Pe id and MIPS Rating
+
+		int hostId = FogUtils.generateEntityId();
+		long storage = 1000000; // host storage
+		int bw = 10000;
+
+		PowerHost host = new PowerHost(
+				hostId,
+				new RamProvisionerSimple(profile.getRam()),
+				new BwProvisionerOverbooking(bw),
+				storage,
+				peList,
+				new StreamOperatorScheduler(peList),
+				new FogLinearPowerModel(profile.getBusyPower(), profile.getIdlePower())
+			);
+
+		List<Host> hostList = new ArrayList<Host>();
+		hostList.add(host);
+
+		FogDeviceCharacteristics characteristics = new FogDeviceCharacteristics(
+				"x86", "Linux", "Xen", host, 10.0, 3.0, 0.05, 0.001, 0.0);
+
+		FogDevice fogdevice = null;
+		try {
+			fogdevice = new FogDevice(nodeName, characteristics, new AppModuleAllocationPolicy(hostList),
+					new LinkedList<Storage>(), 10, profile.getUpBw(), profile.getDownBw(), uplinkLatency, profile.getRatePerMips());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		fogdevice.setLevel(level);
+		return fogdevice;
+	}
+
+	/**
+	 * Registers the devices with a location handler, as the resources of the mobility dataset: each
+	 * device is a resource of its level at its generated location, in the block of its region. The
+	 * resources of the data object are replaced, and the mobile users are on the level after the last one.
+	 * @param locator the location handler
+	 * @param fogDevices the devices created by {@link #createFogDevices()}
+	 */
+	public void registerLocations(LocationHandler locator, List<FogDevice> fogDevices) {
+		DataParser data = locator.getDataObject();
+		int levelCount = getLevelCount();
+		data.levelID.put("LevelsNum", levelCount);
+		data.levelID.put("Cloud", 0);
+		data.levelID.put("Proxy", Math.min(1, levelCount - 1));
+		data.levelID.put("Gateway", levelCount - 1);
+		data.levelID.put("User", levelCount);
+		data.resourceLocationData.clear();
+		data.levelwiseResources.clear();
+		for (int l = 0; l < levelCount; l++)
+			data.levelwiseResources.put(l, new ArrayList<String>(getLevelSize(l)));
+		for (int device = 0; device < getDeviceCount(); device++) {
+			String dataId = "res_" + device;
+			data.resourceLocationData.put(dataId, new Location(latitude[device], longitude[device], region[device]));
+			data.resourceAndUserToLevel.put(dataId, level[device]);
+			data.levelwiseResources.get(level[device]).add(dataId);
+			locator.linkDataWithInstance(fogDevices.get(device).getId(), dataId);
+		}
+	}
+
+	public void writeJson(String fileName) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8));
+		try {
+			writeJson(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the hierarchy as a JSON topology, one node or link per line. The devices are FOG_DEVICE
+	 * nodes with their location and power, each device being linked to its parent; the cluster links are
+	 * written apart, in "clusterLinks", since a link between two devices makes one the parent of the other.
+	 * <p>
+	 * {@link org.fog.utils.JsonToTopology} reads back the tree and the power of the devices only: it
+	 * ignores the locations and the cluster links, which are kept by {@link #createFogDevices()} and
+	 * {@link #registerLocations(LocationHandler, List)}.
+	 * @param writer the writer, not closed
+	 * @throws IOException
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\"nodes\":[\n");
+		for (int device = 0; device < getDeviceCount(); device++) {
+			DeviceProfile deviceProfile = getProfile(device);
+			if (device > 0)
+				writer.write(",\n");
+			writer.write("{\"name\":\"" + JSONValue.escape(getName(device)) + "\",\"type\":\"FOG_DEVICE\""
+					+ ",\"mips\":" + deviceProfile.getMips()
+					+ ",\"ram\":" + deviceProfile.getRam()
+					+ ",\"upBw\":" + deviceProfile.getUpBw()
+					+ ",\"downBw\":" + deviceProfile.getDownBw()
+					+ ",\"level\":" + level[device]
+					+ ",\"ratePerMips\":" + deviceProfile.getRatePerMips()
+					+ ",\"busyPower\":" + deviceProfile.getBusyPower()
+					+ ",\"idlePower\":" + deviceProfile.getIdlePower()
+					+ ",\"latitude\":" + latitude[device]
+					+ ",\"longitude\":" + longitude[device] + "}");
+		}
+		writer.write("\n],\"links\":[\n");
+		for (int device = 1; device < getDeviceCount(); device++) {
+			if (device > 1)
+				writer.write(",\n");
+			writeLink(writer, device, parent[device], uplinkLatency[device]);
+		}
+		writer.write("\n],\"clusterLinks\":[\n");
+		boolean first = true;
+		for (int device = 0; device < getDeviceCount(); device++) {
+			if (clusterId[device] < 0)
+				continue;
+			for (int member = device + 1; member < getDeviceCount() && clusterId[member] == clusterId[device]; member++) {
+				if (!first)
+					writer.write(",\n");
+				writeLink(writer, device, member, clusterLatency[device]);
+				first = false;
+			}
+		}
+		writer.write("\n]}\n");
+	}
+
+	private void writeLink(Writer writer, int source, int destination, double latency) throws IOException {
+		writer.write("{\"source\":\"" + JSONValue.escape(getName(source)) + "\",\"destination\":\""
+				+ JSONValue.escape(getName(destination)) + "\",\"latency\":" + latency + "}");
+	}
+
+}
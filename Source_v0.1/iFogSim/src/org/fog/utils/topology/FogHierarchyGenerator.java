@@ -0,0 +1,170 @@
+package org.fog.utils.topology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.cloudbus.cloudsim.core.RandomService;
+import org.cloudbus.cloudsim.util.SplitMixRandom;
+import org.fog.mobilitydata.References;
+
+/**
+ * Generates tree shaped fog hierarchies of any size from a list of levels: the first level is the root
+ * (the cloud), and each device of a level has a number of children in the next level drawn from the
+ * fan-out of that level.
+ * <p>
+ * The hierarchy is generated level by level, the devices of a level in parallel. The random numbers of
+ * a device come from a generator seeded with the seed of the generator and the index of the device, so
+ * the same seed gives the same hierarchy whatever the number of threads.
+ */
+public class FogHierarchyGenerator {
+
+	private static final double KM_PER_DEGREE = 111.32;
+
+	/**
+	 * uses of the random numbers of a device, each one drawing from its own stream
+	 */
+	private static final int FAN_OUT = 0;
+	private static final int CHILDREN = 1;
+	private static final int ROOT = 2;
+	private static final int USES = 3;
+
+	private final long seed;
+	private final List<FogLevel> levels = new ArrayList<FogLevel>();
+	private double rootLatitude = References.lat_reference;
+	private double rootLongitude = References.long_reference;
+
+	public FogHierarchyGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates a generator whose seed is derived from the master seed of the simulation.
+	 */
+	public FogHierarchyGenerator() {
+		this(RandomService.newStream().nextLong());
+	}
+
+	/**
+	 * Adds the next level, the first one added being the root.
+	 */
+	public FogHierarchyGenerator addLevel(FogLevel level) {
+		levels.add(level);
+		return this;
+	}
+
+	public FogHierarchyGenerator setRootLocation(double latitude, double longitude) {
+		rootLatitude = latitude;
+		rootLongitude = longitude;
+		return this;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public FogHierarchy generate() {
+		if (levels.isEmpty())
+			throw new IllegalStateException("A hierarchy needs at least one level");
+		int levelCount = levels.size();
+
+		// number of children of each device, level by level
+		int[] levelStart = new int[levelCount + 1];
+		int[][] childCounts = new int[levelCount][];
+		levelStart[1] = 1;
+		for (int l = 1; l < levelCount; l++) {
+			final int parentStart = levelStart[l - 1];
+			final ValueSampler fanOut = levels.get(l).getFanOut();
+			final int[] counts = new int[levelStart[l] - parentStart];
+			IntStream.range(0, counts.length).parallel().forEach(p -> {
+				double value = fanOut.sample(random(parentStart + p, FAN_OUT));
+				counts[p] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(value)));
+			});
+			long size = 0;
+			for (int count : counts)
+				size += count;
+			if (levelStart[l] + size > Integer.MAX_VALUE - 8)
+				throw new IllegalStateException("The hierarchy has too many devices");
+			childCounts[l - 1] = counts;
+			levelStart[l + 1] = (int) (levelStart[l] + size);
+		}
+
+		final FogHierarchy hierarchy = new FogHierarchy(levels, levelStart);
+		Random rootRandom = random(0, ROOT);
+		hierarchy.parent[0] = -1;
+		hierarchy.profile[0] = pickProfile(levels.get(0), rootRandom);
+		hierarchy.latitude[0] = rootLatitude;
+		hierarchy.longitude[0] = rootLongitude;
+		hierarchy.clusterId[0] = -1;
+
+		for (int l = 1; l < levelCount; l++) {
+			final int level = l;
+			final int parentStart = levelStart[l - 1];
+			final int[] counts = childCounts[l - 1];
+			// index of the first child of each parent
+			final int[] firstChild = new int[counts.length];
+			int next = levelStart[l];
+			for (int p = 0; p < counts.length; p++) {
+				firstChild[p] = next;
+				next += counts[p];
+			}
+			IntStream.range(0, counts.length).parallel()
+					.forEach(p -> addChildren(hierarchy, level, parentStart + p, firstChild[p], counts[p]));
+		}
+		return hierarchy;
+	}
+
+	private void addChildren(FogHierarchy hierarchy, int level, int parent, int firstChild, int count) {
+		FogLevel fogLevel = levels.get(level);
+		Random random = random(parent, CHILDREN);
+		int clusterSize = fogLevel.getClusterSize();
+		double clusterLatency = 0;
+		for (int i = 0; i < count; i++) {
+			int child = firstChild + i;
+			hierarchy.parent[child] = parent;
+			hierarchy.level[child] = level;
+			hierarchy.profile[child] = pickProfile(fogLevel, random);
+			hierarchy.uplinkLatency[child] = Math.max(0, fogLevel.getUplinkLatency().sample(random));
+			hierarchy.region[child] = level == 1 ? child - 1 : hierarchy.region[parent];
+
+			double distance = fogLevel.getPlacementRadius() * Math.sqrt(random.nextDouble());
+			double angle = 2 * Math.PI * random.nextDouble();
+			double latitude = hierarchy.latitude[parent];
+			hierarchy.latitude[child] = latitude + distance * Math.cos(angle) / KM_PER_DEGREE;
+			hierarchy.longitude[child] = hierarchy.longitude[parent]
+					+ distance * Math.sin(angle) / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+
+			int clusterStart = i - i % clusterSize;
+			if (i == clusterStart && clusterSize > 1)
+				clusterLatency = Math.max(0, fogLevel.getClusterLatency().sample(random));
+			if (clusterSize > 1 && Math.min(count, clusterStart + clusterSize) - clusterStart > 1) {
+				hierarchy.clusterId[child] = firstChild + clusterStart;
+				hierarchy.clusterLatency[child] = clusterLatency;
+			} else {
+				hierarchy.clusterId[child] = -1;
+			}
+		}
+	}
+
+	private static int pickProfile(FogLevel level, Random random) {
+		List<DeviceProfile> profiles = level.getProfiles();
+		if (profiles.size() == 1)
+			return 0;
+		double total = 0;
+		for (DeviceProfile profile : profiles)
+			total += profile.getWeight();
+		double value = random.nextDouble() * total;
+		for (int i = 0; i < profiles.size() - 1; i++) {
+			value -= profiles.get(i).getWeight();
+			if (value < 0)
+				return i;
+		}
+		return profiles.size() - 1;
+	}
+
+	private Random random(long device, int use) {
+		return new SplitMixRandom(SplitMixRandom.mix(seed ^ SplitMixRandom.mix(device * USES + use)));
+	}
+
+}
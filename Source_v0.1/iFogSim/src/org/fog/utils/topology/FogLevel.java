@@ -0,0 +1,103 @@
+package org.fog.utils.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A level of a generated fog hierarchy: how many children each device of the level above has, the
+ * hardware of the devices and their uplink latency, how far they are placed from their parent, and
+ * whether siblings are grouped into clusters.
+ */
+public class FogLevel {
+
+	private final String namePrefix;
+	private final List<DeviceProfile> profiles;
+	private ValueSampler fanOut = ValueSampler.constant(1);
+	private ValueSampler uplinkLatency = ValueSampler.constant(0);
+	private double placementRadius;
+	private int clusterSize = 1;
+	private ValueSampler clusterLatency = ValueSampler.constant(2);
+
+	/**
+	 * @param namePrefix the devices are named namePrefix-i, i being the index of the device in the
+	 * level, or namePrefix if the level is the root
+	 * @param profiles the profiles of the devices, at least one
+	 */
+	public FogLevel(String namePrefix, DeviceProfile... profiles) {
+		if (profiles.length == 0)
+			throw new IllegalArgumentException("A level needs at least one device profile");
+		this.namePrefix = namePrefix;
+		this.profiles = Collections.unmodifiableList(new ArrayList<DeviceProfile>(Arrays.asList(profiles)));
+	}
+
+	/**
+	 * Sets the number of children of each device of the level above, rounded to the nearest integer
+	 * (negative numbers give no children). Ignored for the root.
+	 */
+	public FogLevel setFanOut(ValueSampler fanOut) {
+		this.fanOut = fanOut;
+		return this;
+	}
+
+	/**
+	 * Sets the latency of the link to the parent, in milliseconds; negative samples are taken as 0.
+	 */
+	public FogLevel setUplinkLatency(ValueSampler uplinkLatency) {
+		this.uplinkLatency = uplinkLatency;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum distance of a device from its parent, in kilometers. The devices are placed
+	 * uniformly in the disc around their parent.
+	 */
+	public FogLevel setPlacementRadius(double placementRadius) {
+		this.placementRadius = placementRadius;
+		return this;
+	}
+
+	/**
+	 * Groups the children of each parent into clusters of the given size (the last one may be smaller),
+	 * connected by cluster links. 1 for no clusters.
+	 * @param clusterSize the size of the clusters
+	 * @param clusterLatency the latency of the links within a cluster, drawn once per cluster
+	 */
+	public FogLevel setClusters(int clusterSize, ValueSampler clusterLatency) {
+		if (clusterSize < 1)
+			throw new IllegalArgumentException("The size of a cluster must be at least 1");
+		this.clusterSize = clusterSize;
+		this.clusterLatency = clusterLatency;
+		return this;
+	}
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public List<DeviceProfile> getProfiles() {
+		return profiles;
+	}
+
+	public ValueSampler getFanOut() {
+		return fanOut;
+	}
+
+	public ValueSampler getUplinkLatency() {
+		return uplinkLatency;
+	}
+
+	public double getPlacementRadius() {
+		return placementRadius;
+	}
+
+	public int getClusterSize() {
+		return clusterSize;
+	}
+
+	public ValueSampler getClusterLatency() {
+		return clusterLatency;
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.fog.utils.topology;
+
+import java.util.Random;
+
+/**
+ * A distribution of the values of a topology parameter (fan-out, latency, ...). Unlike a
+ * {@link org.fog.utils.distribution.Distribution}, a sampler has no generator of its own: it draws from
+ * the generator it is given, so it can be shared by the threads of a {@link FogHierarchyGenerator}.
+ */
+public interface ValueSampler {
+
+	double sample(Random random);
+
+	static ValueSampler constant(final double value) {
+		return random -> value;
+	}
+
+	static ValueSampler uniform(final double min, final double max) {
+		if (max < min)
+			throw new IllegalArgumentException("max must not be less than min");
+		return random -> min + random.nextDouble() * (max - min);
+	}
+
+	/**
+	 * Uniform integers from min to max, both included.
+	 */
+	static ValueSampler uniformInt(final int min, final int max) {
+		if (max < min)
+			throw new IllegalArgumentException("max must not be less than min");
+		return random -> min + random.nextInt(max - min + 1);
+	}
+
+	static ValueSampler normal(final double mean, final double stdDev) {
+		return random -> mean + random.nextGaussian() * stdDev;
+	}
+
+	static ValueSampler exponential(final double mean) {
+		return random -> -mean * Math.log(1 - random.nextDouble());
+	}
+
+	/**
+	 * One of the given values, with the same probability.
+	 */
+	static ValueSampler choice(final double... values) {
+		if (values.length == 0)
+			throw new IllegalArgumentException("No value to choose from");
+		final double[] copy = values.clone();
+		return random -> copy[random.nextInt(copy.length)];
+	}
+
+}